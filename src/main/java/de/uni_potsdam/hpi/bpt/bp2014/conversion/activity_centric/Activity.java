@@ -2,9 +2,9 @@ package de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric;
 
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.CompactEdgeSet;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -35,13 +35,14 @@ public class Activity implements INode {
 
     /**
      * Initializes all the Sets.
+     * Most activities have only a few edges, hence {@link CompactEdgeSet}s are used.
      * Be aware that calling this method multiple times resets the Activity.
      */
     public void init() {
-        incomingDataFlow = new HashSet<>();
-        incomingControlFlow = new HashSet<>();
-        outgoingControlFlow = new HashSet<>();
-        outgoingDataFlow = new HashSet<>();
+        incomingDataFlow = new CompactEdgeSet<>();
+        incomingControlFlow = new CompactEdgeSet<>();
+        outgoingControlFlow = new CompactEdgeSet<>();
+        outgoingDataFlow = new CompactEdgeSet<>();
     }
 
     /**
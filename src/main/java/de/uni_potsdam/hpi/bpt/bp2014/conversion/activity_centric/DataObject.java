@@ -4,9 +4,9 @@ import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -26,6 +26,11 @@ public class DataObject implements INode {
      */
     private ObjectLifeCycle olc;
     private String name;
+    /**
+     * The symbol of the {@link #name} inside the shared {@link SymbolTable}.
+     * Data objects of one data class have equal symbols.
+     */
+    private int nameSymbol;
     private List<DataFlow> incomingDataFlow;
     private List<DataFlow> outgoingDataFlow;
 
@@ -37,9 +42,10 @@ public class DataObject implements INode {
      */
     public DataObject(String name, DataObjectState state) {
         this.state = state;
-        this.name = name;
-        incomingDataFlow = new LinkedList<>();
-        outgoingDataFlow = new LinkedList<>();
+        this.nameSymbol = SymbolTable.getShared().intern(name);
+        this.name = SymbolTable.getShared().nameOf(nameSymbol);
+        incomingDataFlow = new ArrayList<>(0);
+        outgoingDataFlow = new ArrayList<>(0);
     }
 
     public DataObjectState getState() {
@@ -77,7 +83,15 @@ public class DataObject implements INode {
     }
 
     public void setName(String name) {
-        this.name = null == name ? "" : name;
+        this.nameSymbol = SymbolTable.getShared().intern(null == name ? "" : name);
+        this.name = SymbolTable.getShared().nameOf(nameSymbol);
+    }
+
+    /**
+     * @return The symbol of the name inside the shared {@link SymbolTable}.
+     */
+    public int getNameSymbol() {
+        return nameSymbol;
     }
 
     /**
@@ -4,7 +4,6 @@ import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -25,9 +24,14 @@ public class Gateway implements INode {
      */
     private Type type;
 
+    /**
+     * Creates a new Gateway without edges.
+     * The edge lists start without capacity and grow with the
+     * number of edges actually added.
+     */
     public Gateway() {
-        incomingControlFlow = new LinkedList<>();
-        outgoingControlFlow = new LinkedList<>();
+        incomingControlFlow = new ArrayList<>(0);
+        outgoingControlFlow = new ArrayList<>(0);
     }
 
     /**
@@ -2,53 +2,318 @@ package de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario;
 
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.IModel;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.Activity;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.DataFlow;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.DataObject;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.StructuralFingerprint;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
 
 /**
  * This class's instances represent a Production Case Management Scenario.
  * Such a scenario consist of multiple Fragments, which can be modeled
  * using {@link de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel}s.
+ * Structurally identical fragments are stored only once. The first fragment of each
+ * structure is kept, for all others only the multiplicity is counted.
+ * Fragments are compared when they are added, hence fragments should not be altered afterwards.
+ * Their {@link StructuralFingerprint} only selects the candidates, two fragments are
+ * merged only if they are structurally equal, so colliding fragments are kept apart.
+ * The scenario maintains indexes from data classes to fragments and from data states
+ * to the activities reading or writing them, as well as the aggregated node lists.
+ * They are created on first use, a new distinct fragment is added to existing indexes.
  */
 public class Scenario implements IModel {
-    private Collection<ActivityCentricProcessModel> fragments;
+    /**
+     * The distinct fragments in the order they have been added,
+     * mapped to the number of structurally equal fragments added.
+     */
+    private Map<ActivityCentricProcessModel, Integer> multiplicities;
+    /**
+     * The distinct fragments, grouped by their fingerprint.
+     * A group contains more than one fragment only if fingerprints collide.
+     */
+    private Map<Long, List<ActivityCentricProcessModel>> fragmentsPerFingerprint;
+    /**
+     * All fragment instances added so far, adding an instance twice has no effect.
+     */
+    private Set<ActivityCentricProcessModel> addedFragments;
+    /**
+     * The nodes of all fragments, null if the indexes have to be created.
+     */
+    private List<INode> nodes;
+    /**
+     * The final nodes of all fragments.
+     */
+    private List<INode> finalNodes;
+    /**
+     * The fragments using a data class, keyed by the symbol of the data class.
+     */
+    private Map<Integer, List<ActivityCentricProcessModel>> fragmentsPerDataClass;
+    /**
+     * The activities reading a data state, keyed by {@link #stateKey(int, int)}.
+     */
+    private Map<Long, List<Activity>> readingActivities;
+    /**
+     * The activities writing a data state, keyed by {@link #stateKey(int, int)}.
+     */
+    private Map<Long, List<Activity>> writingActivities;
 
     public Scenario(Collection<ActivityCentricProcessModel> fragments) {
-        this.fragments = new HashSet<>(fragments);
+        this.multiplicities = new LinkedHashMap<>();
+        this.fragmentsPerFingerprint = new HashMap<>();
+        this.addedFragments = Collections.newSetFromMap(
+                new IdentityHashMap<ActivityCentricProcessModel, Boolean>());
+        for (ActivityCentricProcessModel fragment : fragments) {
+            addFragment(fragment);
+        }
     }
 
     /**
      * This method adds a new Fragment to the scenario.
      * Such a Fragment is represented using ActivityCentricProcessModels.
+     * If a structurally identical fragment has been added before, only
+     * the multiplicity of that fragment will be increased.
      *
      * @param fragment
      * Pre: the fragment must not be null
      */
     public void addFragment(ActivityCentricProcessModel fragment) {
+        addFragment(fragment, 1);
+    }
+
+    /**
+     * This method adds a Fragment, which occurs multiple times, to the scenario.
+     * Adding the same instance twice has no effect.
+     *
+     * @param fragment The fragment to be added.
+     * @param multiplicity The number of occurrences of the fragment.
+     * Pre: the fragment must not be null, the multiplicity must be positive
+     */
+    public void addFragment(ActivityCentricProcessModel fragment, int multiplicity) {
         assert null != fragment : "The Fragment must not be null";
-        fragments.add(fragment);
+        assert multiplicity > 0 : "The multiplicity of a Fragment must be positive";
+        if (!addedFragments.add(fragment)) {
+            return;
+        }
+        long fingerprint = StructuralFingerprint.of(fragment);
+        ActivityCentricProcessModel equal = findEqualFragment(fragment, fingerprint);
+        if (null != equal) {
+            multiplicities.put(equal, multiplicities.get(equal) + multiplicity);
+            return;
+        }
+        List<ActivityCentricProcessModel> candidates = fragmentsPerFingerprint.get(fingerprint);
+        if (null == candidates) {
+            candidates = new ArrayList<>(1);
+            fragmentsPerFingerprint.put(fingerprint, candidates);
+        }
+        candidates.add(fragment);
+        multiplicities.put(fragment, multiplicity);
+        if (null != nodes) {
+            indexFragment(fragment);
+        }
     }
 
     /**
-     * This method returns all Fragments.
+     * Looks up the distinct fragment which is structurally equal to the given one.
+     *
+     * @param fragment The fragment to be looked up.
+     * @param fingerprint The fingerprint of the fragment.
+     * @return The distinct fragment or null if there is none.
+     */
+    private ActivityCentricProcessModel findEqualFragment(ActivityCentricProcessModel fragment, long fingerprint) {
+        List<ActivityCentricProcessModel> candidates = fragmentsPerFingerprint.get(fingerprint);
+        if (null == candidates) {
+            return null;
+        }
+        for (ActivityCentricProcessModel candidate : candidates) {
+            if (candidate == fragment || StructuralFingerprint.equalsStructurally(candidate, fragment)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method returns all distinct Fragments.
      * A new Collection is returned to save the state of the scenario.
-     * @return The collection of fragments.
+     * @return The collection of fragments, in the order they have been added.
      */
     public Collection<ActivityCentricProcessModel> getFragments() {
-        return new HashSet<ActivityCentricProcessModel>(fragments);
+        return new ArrayList<>(multiplicities.keySet());
+    }
+
+    /**
+     * Returns how often a fragment with the structure of the given fragment
+     * has been added to the scenario.
+     * @param fragment The fragment, it need not be part of the scenario.
+     * @return The multiplicity or 0 if there is no such fragment.
+     */
+    public int getMultiplicity(ActivityCentricProcessModel fragment) {
+        ActivityCentricProcessModel equal = findEqualFragment(fragment, StructuralFingerprint.of(fragment));
+        return null == equal ? 0 : multiplicities.get(equal);
+    }
+
+    /**
+     * Returns all distinct Fragments together with their multiplicity.
+     * @return A new map from the fragments to their multiplicities.
+     */
+    public Map<ActivityCentricProcessModel, Integer> getFragmentMultiplicities() {
+        return new LinkedHashMap<>(multiplicities);
+    }
+
+    /**
+     * @return The number of distinct fragments.
+     */
+    public int getDistinctFragmentCount() {
+        return multiplicities.size();
+    }
+
+    /**
+     * @return The number of fragments including duplicates.
+     */
+    public int getTotalFragmentCount() {
+        int count = 0;
+        for (int multiplicity : multiplicities.values()) {
+            count += multiplicity;
+        }
+        return count;
     }
 
+    /**
+     * Returns all fragments which contain a data object of the given data class.
+     * @param dataClass The name of the data class.
+     * @return A new list of fragments.
+     */
+    public List<ActivityCentricProcessModel> getFragmentsOfDataClass(String dataClass) {
+        createIndexes();
+        return copyOf(fragmentsPerDataClass.get(SymbolTable.getShared().lookup(dataClass)));
+    }
+
+    /**
+     * Returns all activities which read a data object of the given data class and state.
+     * @param dataClass The name of the data class.
+     * @param state The name of the state.
+     * @return A new list of activities.
+     */
+    public List<Activity> getActivitiesReading(String dataClass, String state) {
+        createIndexes();
+        return copyOf(readingActivities.get(stateKey(dataClass, state)));
+    }
+
+    /**
+     * Returns all activities which write a data object of the given data class and state.
+     * @param dataClass The name of the data class.
+     * @param state The name of the state.
+     * @return A new list of activities.
+     */
+    public List<Activity> getActivitiesWriting(String dataClass, String state) {
+        createIndexes();
+        return copyOf(writingActivities.get(stateKey(dataClass, state)));
+    }
+
+    /**
+     * Discards the indexes, they will be created again on the next query.
+     * Call this method if fragments of the scenario have been altered,
+     * adding fragments keeps the indexes up to date.
+     */
+    public void invalidateIndexes() {
+        nodes = null;
+        finalNodes = null;
+        fragmentsPerDataClass = null;
+        readingActivities = null;
+        writingActivities = null;
+    }
+
+    /**
+     * Creates all indexes, if they do not exist.
+     * Each fragment and each data flow will be visited once.
+     */
+    private void createIndexes() {
+        if (null != nodes) {
+            return;
+        }
+        nodes = new ArrayList<>();
+        finalNodes = new ArrayList<>();
+        fragmentsPerDataClass = new HashMap<>();
+        readingActivities = new HashMap<>();
+        writingActivities = new HashMap<>();
+        for (ActivityCentricProcessModel fragment : multiplicities.keySet()) {
+            indexFragment(fragment);
+        }
+    }
+
+    /**
+     * Adds the nodes, data classes and data states of one fragment to the existing indexes.
+     *
+     * @param fragment The distinct fragment to be indexed.
+     */
+    private void indexFragment(ActivityCentricProcessModel fragment) {
+        List<INode> fragmentNodes = fragment.getNodes();
+        nodes.addAll(fragmentNodes);
+        finalNodes.addAll(fragment.getFinalNodes());
+        Set<Integer> dataClasses = new HashSet<>();
+        for (INode node : fragmentNodes) {
+            if (node instanceof DataObject) {
+                dataClasses.add(((DataObject) node).getNameSymbol());
+            } else if (node instanceof Activity) {
+                for (IEdge input : node.getIncomingEdgesOfType(DataFlow.class)) {
+                    addToIndex(readingActivities, (DataObject) input.getSource(), (Activity) node);
+                }
+                for (IEdge output : node.getOutgoingEdgesOfType(DataFlow.class)) {
+                    addToIndex(writingActivities, (DataObject) output.getTarget(), (Activity) node);
+                }
+            }
+        }
+        for (Integer dataClass : dataClasses) {
+            if (!fragmentsPerDataClass.containsKey(dataClass)) {
+                fragmentsPerDataClass.put(dataClass, new ArrayList<ActivityCentricProcessModel>());
+            }
+            fragmentsPerDataClass.get(dataClass).add(fragment);
+        }
+    }
+
+    private static void addToIndex(Map<Long, List<Activity>> index, DataObject dataObject, Activity activity) {
+        if (null == dataObject.getState()) {
+            return;
+        }
+        long key = stateKey(dataObject.getNameSymbol(), dataObject.getState().getNameSymbol());
+        List<Activity> activities = index.get(key);
+        if (null == activities) {
+            activities = new ArrayList<>();
+            index.put(key, activities);
+        }
+        if (!activities.contains(activity)) {
+            activities.add(activity);
+        }
+    }
+
+    private static long stateKey(String dataClass, String state) {
+        return stateKey(SymbolTable.getShared().lookup(dataClass), SymbolTable.getShared().lookup(state));
+    }
+
+    /**
+     * Combines the symbols of a data class and a state into one key.
+     */
+    private static long stateKey(int dataClassSymbol, int stateSymbol) {
+        return ((long) dataClassSymbol << 32) | (stateSymbol & 0xffffffffL);
+    }
+
+    private static <T> List<T> copyOf(List<T> list) {
+        return null == list ? new ArrayList<T>() : new ArrayList<>(list);
+    }
+
+    /**
+     * Returns the nodes of all fragments.
+     * The nodes are aggregated once, the nodes of added fragments are appended.
+     * @return A new list with all nodes.
+     */
     @Override
     public List<INode> getNodes() {
-        List<INode> nodes = new LinkedList<>();
-        for (ActivityCentricProcessModel fragment : fragments) {
-            nodes.addAll(fragment.getNodes());
-        }
-        return nodes;
+        createIndexes();
+        return new ArrayList<>(nodes);
     }
 
     @Override
@@ -59,11 +324,14 @@ public class Scenario implements IModel {
 
     @Override
     public <T extends INode> List<T> getNodesOfClass(Class clazz) {
-        List<T> nodes = new LinkedList<>();
-        for (ActivityCentricProcessModel fragment : fragments) {
-            nodes.addAll((List<T>)fragment.getNodesOfClass(clazz));
+        createIndexes();
+        List<T> result = new ArrayList<>();
+        for (INode node : nodes) {
+            if (clazz.isInstance(node)) {
+                result.add((T) node);
+            }
         }
-        return nodes;
+        return result;
     }
 
     @Override
@@ -83,19 +351,19 @@ public class Scenario implements IModel {
 
     @Override
     public List<INode> getFinalNodes() {
-        List<INode> nodes = new LinkedList<>();
-        for (ActivityCentricProcessModel fragment : fragments) {
-            nodes.addAll(fragment.getFinalNodes());
-        }
-        return nodes;
+        createIndexes();
+        return new ArrayList<>(finalNodes);
     }
 
     @Override
     public <T extends INode> List<T> getFinalNodesOfClass(Class clazz) {
-        List<T> nodes = new LinkedList<>();
-        for (ActivityCentricProcessModel fragment : fragments) {
-            nodes.addAll((List<T>)fragment.getFinalNodesOfClass(clazz));
+        createIndexes();
+        List<T> result = new ArrayList<>();
+        for (INode node : finalNodes) {
+            if (clazz.isInstance(node)) {
+                result.add((T) node);
+            }
         }
-        return nodes;
+        return result;
     }
 }
@@ -9,6 +9,7 @@ import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable;
 
 import java.util.*;
 
@@ -35,12 +36,25 @@ public class ActivityCentricToSynchronizedOLC implements IConverter<ActivityCent
      */
     private Collection<ObjectLifeCycle> olcs;
 
+    /**
+     * Holds the same Object Life Cycles as {@link #olcs} keyed by the
+     * symbol of their label, see {@link SymbolTable}.
+     */
+    private Map<Integer, ObjectLifeCycle> olcsPerSymbol;
+
     /**
      * This map holds a collection of distinct data states
      * for each OLC.
      */
     private Map<ObjectLifeCycle, Collection<DataObjectState>> dataStatesPerOLC;
 
+    /**
+     * Maps the states of the data objects onto the states of the created OLCs.
+     * The states of the model are never added to an OLC, because a state
+     * can only belong to one OLC and the model may be converted again.
+     */
+    private Map<DataObjectState, DataObjectState> statesOfDataObjects;
+
     /**
      * Checked nodes, contains all nodes which have already
      * been checked for their successors.
@@ -92,10 +106,10 @@ public class ActivityCentricToSynchronizedOLC implements IConverter<ActivityCent
         extractTraces();
         for (List<INode> trace : traces) {
             new HashMap<>();
-            Map<String, Collection<DataObjectState>> stateCollections = getInitialStateCollections();
+            Map<Integer, Collection<DataObjectState>> stateCollections = getInitialStatesPerSymbol();
             for (INode node : trace) {
                 if (node instanceof Activity) {
-                    Map<String, Collection<DataObjectState>> currentStates = extractCurrentStates(node);
+                    Map<Integer, Collection<DataObjectState>> currentStates = extractCurrentStates(node);
                     connectStatesForActivity(stateCollections, currentStates, null);
                     establishSynchronizationEdges(stateCollections, currentStates);
                     stateCollections.putAll(currentStates);
@@ -151,14 +165,14 @@ public class ActivityCentricToSynchronizedOLC implements IConverter<ActivityCent
      * The transition represents an action taken by an activity.
      * If the activity is null the action will be a silent transition marked with "t".
      *
-     * @param stateCollections The collection of all states mapped to the name of the OLC.
+     * @param stateCollections The collection of all states mapped to the label symbol of the OLC.
      * @param currentStates    The currently extracted States mapped.
      * @param node             The node representing the action.
      */
-    private void connectStatesForActivity(Map<String, Collection<DataObjectState>> stateCollections,
-                                          Map<String, Collection<DataObjectState>> currentStates,
+    private void connectStatesForActivity(Map<Integer, Collection<DataObjectState>> stateCollections,
+                                          Map<Integer, Collection<DataObjectState>> currentStates,
                                           Activity node) {
-        for (Map.Entry<String, Collection<DataObjectState>> entry
+        for (Map.Entry<Integer, Collection<DataObjectState>> entry
                 : stateCollections.entrySet()) {
             for (DataObjectState predecessor : entry.getValue()) {
                 if (currentStates.containsKey(entry.getKey())) {
@@ -182,22 +196,22 @@ public class ActivityCentricToSynchronizedOLC implements IConverter<ActivityCent
      * Returns a map containing all data nodes created by a given node.
      * In general the node should be of type {@link Activity}.
      * In that case the map would contain the states of the data outputs.
-     * In addition it maps the data object name to the data object states.
+     * In addition it maps the data object name symbol to the data object states.
      * This indicates all possible states after the termination.
      *
      * @param node The node which outgoing dataflow edges will be checked.
-     * @return Returns a map, containing the data object names (key) and a Collection of
+     * @return Returns a map, containing the data object name symbols (key) and a Collection of
      * states of the data object (value).
      */
-    private Map<String, Collection<DataObjectState>> getStatesAfterNode(INode node) {
-        Map<String, Collection<DataObjectState>> currentStates = new HashMap<>();
+    private Map<Integer, Collection<DataObjectState>> getStatesAfterNode(INode node) {
+        Map<Integer, Collection<DataObjectState>> currentStates = new HashMap<>();
         for (IEdge outgoingDF : node.getOutgoingEdgesOfType(DataFlow.class)) {
             DataObject dataObject = (DataObject) outgoingDF.getTarget();
-            if (currentStates.get(dataObject.getName()) == null) {
-                currentStates.put(dataObject.getName(),
+            if (currentStates.get(dataObject.getNameSymbol()) == null) {
+                currentStates.put(dataObject.getNameSymbol(),
                         new HashSet<DataObjectState>());
             }
-            currentStates.get(dataObject.getName()).add(dataObject.getState());
+            currentStates.get(dataObject.getNameSymbol()).add(statesOfDataObjects.get(dataObject.getState()));
         }
         return currentStates;
     }
@@ -210,18 +224,18 @@ public class ActivityCentricToSynchronizedOLC implements IConverter<ActivityCent
      * TODO: Check if this works - there might be some wrong connections.
      *
      * @param stateCollections The collection of all states in a map.
-     *                         it maps from the data object name to a collection of the states.
+     *                         it maps from the data object name symbol to a collection of the states.
      * @param currentStates The map of all possible enabled states per data object.
      *                      The relation between data object and states is expressed by the map.
      */
-    private void establishSynchronizationEdges(Map<String, Collection<DataObjectState>> stateCollections,
-                                               Map<String, Collection<DataObjectState>> currentStates) {
-        for (Map.Entry<String, Collection<DataObjectState>> entry :
+    private void establishSynchronizationEdges(Map<Integer, Collection<DataObjectState>> stateCollections,
+                                               Map<Integer, Collection<DataObjectState>> currentStates) {
+        for (Map.Entry<Integer, Collection<DataObjectState>> entry :
                 currentStates.entrySet()) {
             List<StateTransition> links = new ArrayList<>();
-            for (Map.Entry<String, Collection<DataObjectState>> entry2
+            for (Map.Entry<Integer, Collection<DataObjectState>> entry2
                     : currentStates.entrySet()) {
-                if (!entry.getKey().equals(entry2.getKey())) {
+                if (entry.getKey().intValue() != entry2.getKey().intValue()) {
                     for (DataObjectState state : entry2.getValue()) {
                         for (IEdge transition :
                                 state.getIncomingEdgesOfType(StateTransition.class)) {
@@ -250,21 +264,21 @@ public class ActivityCentricToSynchronizedOLC implements IConverter<ActivityCent
      * Current states are the states available before the execution.
      * Therefore it checks all the incoming DataFlowEdges and adds the state
      * of the DataInput.
-     * These states will be clustered by the name of the data object/ data class / olc.
+     * These states will be clustered by the name symbol of the data object/ data class / olc.
      *
      * @param node The node to be checked. Should be an Activity but is not mandatory.
-     * @return A Map, the key is the name of the data object, the value is a collection
+     * @return A Map, the key is the name symbol of the data object, the value is a collection
      * with all the states available before the activity.
      */
-    private Map<String, Collection<DataObjectState>> extractCurrentStates(INode node) {
-        Map<String, Collection<DataObjectState>> currentStates = new HashMap<>();
+    private Map<Integer, Collection<DataObjectState>> extractCurrentStates(INode node) {
+        Map<Integer, Collection<DataObjectState>> currentStates = new HashMap<>();
         for (IEdge incomingDF : node.getIncomingEdgesOfType(DataFlow.class)) {
             DataObject dataObject = (DataObject) incomingDF.getSource();
-            if (currentStates.get(dataObject.getName()) == null) {
-                currentStates.put(dataObject.getName(),
+            if (currentStates.get(dataObject.getNameSymbol()) == null) {
+                currentStates.put(dataObject.getNameSymbol(),
                         new HashSet<DataObjectState>());
             }
-            currentStates.get(dataObject.getName()).add(dataObject.getState());
+            currentStates.get(dataObject.getNameSymbol()).add(statesOfDataObjects.get(dataObject.getState()));
         }
         return currentStates;
     }
@@ -452,36 +466,36 @@ public class ActivityCentricToSynchronizedOLC implements IConverter<ActivityCent
      * Extracts all states from the Activity Centric Process model.
      * For each Data Object (identified by the name of the {@link DataObject} node)
      * the state will be extracted and added to the {@link #dataStatesPerOLC} Map.
+     * Each state of the model is represented by a new state, see {@link #statesOfDataObjects}.
      * <p>
      * Calling this method twice would discard the results of the first run.
      */
     private void identifyDistinctDataStates() {
         dataStatesPerOLC = new HashMap<>();
+        statesOfDataObjects = new HashMap<>();
         for (INode iNode : acpm.getNodesOfClass(DataObject.class)) {
-            ObjectLifeCycle olc = getOLCWithName(((DataObject) iNode).getName());
+            ObjectLifeCycle olc = getOLCWithName(((DataObject) iNode).getNameSymbol());
             if (dataStatesPerOLC.get(olc) == null) {
                 dataStatesPerOLC.put(olc, new HashSet<DataObjectState>());
             }
-            dataStatesPerOLC.get(olc).add(((DataObject) iNode).getState());
+            DataObjectState state = ((DataObject) iNode).getState();
+            if (!statesOfDataObjects.containsKey(state)) {
+                statesOfDataObjects.put(state, new DataObjectState(state.getName()));
+            }
+            dataStatesPerOLC.get(olc).add(statesOfDataObjects.get(state));
         }
     }
 
     /**
-     * This method goes through the {@link #olcs} Collection.
-     * The first Object Life Cycle with the name specified by the parameter
-     * will be returned.
+     * This method looks up the Object Life Cycle with the name specified
+     * by the parameter in {@link #olcsPerSymbol}.
      * If no OLC was found null will be returned.
      *
-     * @param name The name of the Object Life Cycle.
-     * @return The first Object Life Cycle matching the criteria or null.
+     * @param nameSymbol The symbol of the name of the Object Life Cycle.
+     * @return The Object Life Cycle matching the criteria or null.
      */
-    private ObjectLifeCycle getOLCWithName(String name) {
-        for (ObjectLifeCycle olc : olcs) {
-            if (olc.getLabel().equals(name)) {
-                return olc;
-            }
-        }
-        return null;
+    private ObjectLifeCycle getOLCWithName(int nameSymbol) {
+        return olcsPerSymbol.get(nameSymbol);
     }
 
     /**
@@ -491,6 +505,7 @@ public class ActivityCentricToSynchronizedOLC implements IConverter<ActivityCent
      */
     private void initOLCs() {
         olcs = new ArrayList<>();
+        olcsPerSymbol = new HashMap<>();
         Collection<String> dataClassNames = new HashSet<>();
         for (INode iNode : acpm.getNodesOfClass(DataObject.class)) {
             dataClassNames.add(((DataObject) iNode).getName());
@@ -501,6 +516,7 @@ public class ActivityCentricToSynchronizedOLC implements IConverter<ActivityCent
             olc.addNode(initState);
             olc.setStartNode(initState);
             olcs.add(olc);
+            olcsPerSymbol.put(olc.getLabelSymbol(), olc);
         }
     }
 
@@ -522,4 +538,23 @@ public class ActivityCentricToSynchronizedOLC implements IConverter<ActivityCent
         }
         return stateCollections;
     }
+
+    /**
+     * Creates an Map which contains all the initial States
+     * for every objectLife Cycle.
+     * The Object Life Cycle is identified by the symbol of its label.
+     * key: Symbol of the Object Life Cycle label
+     * value: Collection of Initial States.
+     *
+     * @return Returns the created map, for every olc.
+     */
+    private Map<Integer, Collection<DataObjectState>> getInitialStatesPerSymbol() {
+        Map<Integer, Collection<DataObjectState>> stateCollections = new HashMap<>();
+        for (ObjectLifeCycle olc : olcs) {
+            Collection<DataObjectState> stateCollection = new HashSet<>();
+            stateCollection.add((DataObjectState) olc.getStartNode());
+            stateCollections.put(olc.getLabelSymbol(), stateCollection);
+        }
+        return stateCollections;
+    }
 }
\ No newline at end of file
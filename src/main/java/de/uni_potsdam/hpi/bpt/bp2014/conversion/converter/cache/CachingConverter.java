@@ -0,0 +1,143 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.cache;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IConverter;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenario;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.activity_centric.ActivityCentricToSynchronizedOLC;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc.FragmentsFromOLCVersions;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc.SynchronizedOLCToActivityCentric;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.pcm.ScenarioToSynchronizedOLC;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.StructuralFingerprint;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+
+/**
+ * This class is a converter which caches the results of another converter.
+ * The results are cached by the {@link StructuralFingerprint} of the converted model,
+ * hence structurally identical models are converted only once. Since fingerprints may
+ * collide, the cache keeps a copy of each converted model and a hit is only taken for the
+ * converted instance itself or a model which is structurally equal to that copy.
+ * A hit for the same instance costs the fingerprint and a copy of the result, a hit for
+ * another instance additionally costs the structural comparison, which may exceed the
+ * conversion itself. Hence caching pays off for repeatedly converted instances and
+ * for converters that are more expensive than the comparison.
+ * Results are isolated: the cache keeps its own copy of every result and hands out
+ * a new copy for each hit, so callers may alter the returned models.
+ * Be aware that a cache must only be used by converters of one kind, otherwise
+ * results of different conversions of the same model would be mixed up.
+ *
+ * @param <T1> The type of the models to be converted.
+ * @param <T2> The type of the generated models.
+ */
+public class CachingConverter<T1 extends IModel, T2 extends IModel> implements IConverter<T1, T2> {
+    private final ConverterFactory<T1, T2> converterFactory;
+    private final ConversionCache<T2> cache;
+
+    /**
+     * Creates a new caching converter.
+     *
+     * @param converterFactory The factory used to create a converter for each cache miss.
+     * @param cache            The cache for the results of the conversions.
+     */
+    public CachingConverter(ConverterFactory<T1, T2> converterFactory, ConversionCache<T2> cache) {
+        assert null != converterFactory : "The converter factory must not be null";
+        assert null != cache : "The cache must not be null";
+        this.converterFactory = converterFactory;
+        this.cache = cache;
+    }
+
+    /**
+     * Converts a model or returns a copy of the cached result.
+     * On a miss the model is converted by a new converter and copies
+     * of the model and the result will be cached.
+     *
+     * @param model The model to be transformed.
+     * @return The generated model.
+     */
+    @Override
+    public T2 convert(T1 model) {
+        long fingerprint = StructuralFingerprint.of(model);
+        T2 cached = cache.get(fingerprint, model);
+        if (null != cached) {
+            return ModelCopier.copy(cached);
+        }
+        T1 input = ModelCopier.copy(model);
+        T2 result = converterFactory.create().convert(model);
+        if (null != result) {
+            cache.put(fingerprint, model, input, ModelCopier.copy(result));
+        }
+        return result;
+    }
+
+    public ConversionCache<T2> getCache() {
+        return cache;
+    }
+
+    /**
+     * Creates a caching converter for {@link ActivityCentricToSynchronizedOLC}.
+     *
+     * @param cache The cache to be used.
+     * @return The new caching converter.
+     */
+    public static CachingConverter<ActivityCentricProcessModel, SynchronizedObjectLifeCycle>
+            activityCentricToSynchronizedOLC(ConversionCache<SynchronizedObjectLifeCycle> cache) {
+        return new CachingConverter<>(
+                new ConverterFactory<ActivityCentricProcessModel, SynchronizedObjectLifeCycle>() {
+                    @Override
+                    public IConverter<ActivityCentricProcessModel, SynchronizedObjectLifeCycle> create() {
+                        return new ActivityCentricToSynchronizedOLC();
+                    }
+                }, cache);
+    }
+
+    /**
+     * Creates a caching converter for {@link SynchronizedOLCToActivityCentric}.
+     *
+     * @param cache The cache to be used.
+     * @return The new caching converter.
+     */
+    public static CachingConverter<SynchronizedObjectLifeCycle, ActivityCentricProcessModel>
+            synchronizedOLCToActivityCentric(ConversionCache<ActivityCentricProcessModel> cache) {
+        return new CachingConverter<>(
+                new ConverterFactory<SynchronizedObjectLifeCycle, ActivityCentricProcessModel>() {
+                    @Override
+                    public IConverter<SynchronizedObjectLifeCycle, ActivityCentricProcessModel> create() {
+                        return new SynchronizedOLCToActivityCentric();
+                    }
+                }, cache);
+    }
+
+    /**
+     * Creates a caching converter for {@link ScenarioToSynchronizedOLC}.
+     *
+     * @param cache The cache to be used.
+     * @return The new caching converter.
+     */
+    public static CachingConverter<Scenario, SynchronizedObjectLifeCycle>
+            scenarioToSynchronizedOLC(ConversionCache<SynchronizedObjectLifeCycle> cache) {
+        return new CachingConverter<>(
+                new ConverterFactory<Scenario, SynchronizedObjectLifeCycle>() {
+                    @Override
+                    public IConverter<Scenario, SynchronizedObjectLifeCycle> create() {
+                        return new ScenarioToSynchronizedOLC();
+                    }
+                }, cache);
+    }
+
+    /**
+     * Creates a caching converter for {@link FragmentsFromOLCVersions}.
+     *
+     * @param cache The cache to be used.
+     * @return The new caching converter.
+     */
+    public static CachingConverter<SynchronizedObjectLifeCycle, Scenario>
+            fragmentsFromOLCVersions(ConversionCache<Scenario> cache) {
+        return new CachingConverter<>(
+                new ConverterFactory<SynchronizedObjectLifeCycle, Scenario>() {
+                    @Override
+                    public IConverter<SynchronizedObjectLifeCycle, Scenario> create() {
+                        return new FragmentsFromOLCVersions();
+                    }
+                }, cache);
+    }
+}
@@ -0,0 +1,277 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.cache;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.StructuralFingerprint;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache for conversion results keyed by structural fingerprints.
+ * Entries are evicted in least recently used order as soon as either the number of
+ * entries or the total weight exceeds its maximum.
+ * Optionally values are only softly referenced, in this case the garbage collector
+ * may remove them under memory pressure. Collected entries count as evicted.
+ * Fingerprints may collide, hence an entry keeps a copy of the converted model it belongs to.
+ * Lookups only hit for the converted instance itself or for a model which is structurally
+ * equal to the copy, the copy is referenced strongly and not weighed.
+ * Recognizing an instance costs nothing, whereas a structural comparison costs more than
+ * the fingerprint. Be aware that an instance altered after its conversion is still
+ * recognized, if its fingerprint did not change.
+ * The cache does not copy values or models, this is done by the {@link CachingConverter}.
+ * All methods are synchronized, hence a cache can be shared between threads.
+ *
+ * @param <V> The type of the cached models.
+ */
+public class ConversionCache<V extends IModel> {
+    /**
+     * The entries of the cache, in access order.
+     */
+    private final LinkedHashMap<Long, Entry<V>> entries;
+    private final int maximumEntries;
+    private final long maximumWeight;
+    private final Weigher<? super V> weigher;
+    private final boolean softValues;
+    /**
+     * Receives the references of softly referenced values,
+     * after they have been collected.
+     */
+    private final ReferenceQueue<V> collected;
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates a new cache which holds at most the given number of entries.
+     * Values are referenced strongly.
+     *
+     * @param maximumEntries The maximum number of entries, must be positive.
+     */
+    public ConversionCache(int maximumEntries) {
+        this(maximumEntries, Long.MAX_VALUE, null, false);
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumEntries The maximum number of entries, must be positive.
+     * @param maximumWeight  The maximum total weight of all entries, must be positive.
+     * @param weigher        The weigher used to determine the weight of each value.
+     *                       If it is null every entry weighs one.
+     * @param softValues     If true values will be referenced softly.
+     */
+    public ConversionCache(int maximumEntries, long maximumWeight,
+                           Weigher<? super V> weigher, boolean softValues) {
+        assert maximumEntries > 0 : "The maximum number of entries must be positive";
+        assert maximumWeight > 0 : "The maximum weight must be positive";
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.maximumEntries = maximumEntries;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.softValues = softValues;
+        this.collected = new ReferenceQueue<>();
+    }
+
+    /**
+     * Returns the value cached for a converted model, if the entry has been stored
+     * for the same model instance or a structurally equal model.
+     * Instances are recognized by identity, only other instances are compared with the
+     * kept copy, outside of the lock of the cache. An instance confirmed this way is
+     * recognized by later lookups as well.
+     * A hit marks the entry as recently used.
+     *
+     * @param key   The fingerprint of the converted model.
+     * @param input The converted model, must not be null.
+     * @return The cached value or null if there is none for this model.
+     */
+    public V get(long key, IModel input) {
+        assert null != input : "The converted model must not be null";
+        Entry<V> entry;
+        V value;
+        boolean recognized;
+        synchronized (this) {
+            purgeCollected();
+            entry = entries.get(key);
+            value = null == entry ? null : entry.get();
+            recognized = null != value && entry.recognized.get() == input;
+        }
+        boolean hit = recognized
+                || null != value && StructuralFingerprint.equalsStructurally(entry.input, input);
+        synchronized (this) {
+            if (hit) {
+                entry.recognized = new WeakReference<>(input);
+                hitCount++;
+            } else {
+                missCount++;
+            }
+        }
+        return hit ? value : null;
+    }
+
+    /**
+     * Stores a value inside the cache together with the model it has been converted from.
+     * An existing value for the same key will be replaced, even if it belongs to another model.
+     * Afterwards entries will be evicted until the limits are met again.
+     *
+     * @param key   The fingerprint of the converted model.
+     * @param model The converted model, it is only referenced weakly to recognize the instance.
+     * @param input A copy of the converted model, which is compared with other instances.
+     *              It must not be changed afterwards.
+     * @param value The value to be cached, must not be null.
+     */
+    public synchronized void put(long key, IModel model, IModel input, V value) {
+        assert null != model : "The converted model must not be null";
+        assert null != input : "The copy of the converted model must not be null";
+        assert null != value : "Cached values must not be null";
+        purgeCollected();
+        Entry<V> entry = new Entry<>(key, input, value,
+                null == weigher ? 1 : weigher.weigh(value), softValues ? collected : null);
+        entry.recognized = new WeakReference<>(model);
+        Entry<V> replaced = entries.put(key, entry);
+        if (null != replaced) {
+            replaced.clear();
+            weight -= replaced.weight;
+        }
+        weight += entry.weight;
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while ((entries.size() > maximumEntries || weight > maximumWeight) && eldest.hasNext()) {
+            Entry<V> evicted = eldest.next();
+            eldest.remove();
+            evicted.clear();
+            weight -= evicted.weight;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Removes the entry for a key, if there is one.
+     *
+     * @param key The fingerprint of the converted model.
+     */
+    public synchronized void invalidate(long key) {
+        Entry<V> entry = entries.remove(key);
+        if (null != entry) {
+            entry.clear();
+            weight -= entry.weight;
+        }
+    }
+
+    /**
+     * Removes all entries. The statistics will be kept.
+     */
+    public synchronized void clear() {
+        for (Entry<V> entry : entries.values()) {
+            entry.clear();
+        }
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Removes all entries whose values have been collected by the garbage collector.
+     */
+    private void purgeCollected() {
+        Object reference;
+        while (null != (reference = collected.poll())) {
+            Entry<?> entry = ((SoftValue<?>) reference).entry;
+            if (entries.get(entry.key) == entry) {
+                entries.remove(entry.key);
+                weight -= entry.weight;
+                evictionCount++;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        purgeCollected();
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        purgeCollected();
+        return weight;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return The ratio of hits to all requests, 1 if there has been no request yet.
+     */
+    public synchronized double getHitRate() {
+        long requests = hitCount + missCount;
+        return 0 == requests ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * An entry of the cache. It holds the value either directly or
+     * as a {@link SoftValue}.
+     */
+    private static class Entry<V> {
+        private final long key;
+        private final long weight;
+        /**
+         * A copy of the model the value has been converted from.
+         */
+        private final IModel input;
+        /**
+         * The last model instance which has been confirmed to be converted to the value.
+         * It is guarded by the lock of the cache.
+         */
+        private WeakReference<IModel> recognized;
+        private V value;
+        private SoftValue<V> softValue;
+
+        Entry(long key, IModel input, V value, long weight, ReferenceQueue<V> queue) {
+            assert weight >= 0 : "The weight of a value must not be negative";
+            this.key = key;
+            this.input = input;
+            this.weight = weight;
+            if (null == queue) {
+                this.value = value;
+            } else {
+                this.softValue = new SoftValue<>(value, queue, this);
+            }
+        }
+
+        V get() {
+            return null == softValue ? value : softValue.get();
+        }
+
+        /**
+         * Releases the value, a soft reference will not be enqueued anymore.
+         */
+        void clear() {
+            value = null;
+            if (null != softValue) {
+                softValue.clear();
+            }
+        }
+    }
+
+    /**
+     * A soft reference which knows the entry it belongs to.
+     */
+    private static class SoftValue<V> extends SoftReference<V> {
+        private final Entry<V> entry;
+
+        SoftValue(V value, ReferenceQueue<? super V> queue, Entry<V> entry) {
+            super(value, queue);
+            this.entry = entry;
+        }
+    }
+}
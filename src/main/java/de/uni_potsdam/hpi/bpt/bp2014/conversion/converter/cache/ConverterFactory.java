@@ -0,0 +1,22 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.cache;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IConverter;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IModel;
+
+/**
+ * A factory for converters.
+ * Most converters keep state during a conversion, hence the
+ * {@link CachingConverter} creates a new converter for every cache miss.
+ *
+ * @param <T1> The type of the models to be converted.
+ * @param <T2> The type of the generated models.
+ */
+public interface ConverterFactory<T1 extends IModel, T2 extends IModel> {
+
+    /**
+     * Creates a new converter, which has not been used before.
+     *
+     * @return The new converter.
+     */
+    IConverter<T1, T2> create();
+}
@@ -0,0 +1,237 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.cache;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenario;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+
+import java.util.*;
+
+/**
+ * This class creates deep copies of models.
+ * A copy shares no node, edge or collection with its original, hence
+ * altering the copy will never affect the original and vice versa.
+ * Nodes which are only reachable via edges of the model will be copied as well.
+ * Copies are always instances of the model classes themselves, e.g. the copy of
+ * an {@code ObjectLifeCycleDiff} is a plain {@link ObjectLifeCycle}.
+ */
+public final class ModelCopier {
+    /**
+     * Maps original nodes to their copies.
+     */
+    private final Map<INode, INode> nodes = new IdentityHashMap<>();
+    /**
+     * Maps original edges to their copies.
+     */
+    private final Map<IEdge, IEdge> edges = new IdentityHashMap<>();
+    /**
+     * Maps original object life cycles (referenced by data objects) to their copies.
+     */
+    private final Map<ObjectLifeCycle, ObjectLifeCycle> olcs = new IdentityHashMap<>();
+
+    private ModelCopier() {
+    }
+
+    /**
+     * Creates a deep copy of a model of one of the supported types.
+     *
+     * @param model The model to be copied, must not be null.
+     * @param <T>   The type of the model.
+     * @return The copy of the model.
+     * @throws IllegalArgumentException if the type of the model is not supported.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends IModel> T copy(T model) {
+        assert null != model : "The model to be copied must not be null";
+        ModelCopier copier = new ModelCopier();
+        if (model instanceof ActivityCentricProcessModel) {
+            return (T) copier.copyProcessModel((ActivityCentricProcessModel) model);
+        } else if (model instanceof ObjectLifeCycle) {
+            return (T) copier.copyOLC((ObjectLifeCycle) model);
+        } else if (model instanceof SynchronizedObjectLifeCycle) {
+            return (T) copier.copySynchronizedOLC((SynchronizedObjectLifeCycle) model);
+        } else if (model instanceof Scenario) {
+            return (T) copier.copyScenario((Scenario) model);
+        }
+        throw new IllegalArgumentException("Copies are not supported for "
+                + model.getClass().getName());
+    }
+
+    private Scenario copyScenario(Scenario scenario) {
+        Scenario copy = new Scenario(new ArrayList<ActivityCentricProcessModel>());
+        for (Map.Entry<ActivityCentricProcessModel, Integer> fragment
+                : scenario.getFragmentMultiplicities().entrySet()) {
+            copy.addFragment(copyProcessModel(fragment.getKey()), fragment.getValue());
+        }
+        return copy;
+    }
+
+    /**
+     * Copies an activity centric process model.
+     * The edges are copied per node and direction, so the copy has exactly
+     * the same incoming and outgoing edges as the original.
+     */
+    private ActivityCentricProcessModel copyProcessModel(ActivityCentricProcessModel acpm) {
+        ActivityCentricProcessModel copy = new ActivityCentricProcessModel();
+        Deque<INode> toBeCopied = new ArrayDeque<>(acpm.getNodes());
+        Set<INode> visited = Collections.newSetFromMap(new IdentityHashMap<INode, Boolean>());
+        for (INode node : acpm.getNodes()) {
+            copy.addNode(copyNode(node));
+        }
+        while (!toBeCopied.isEmpty()) {
+            INode node = toBeCopied.poll();
+            if (!visited.add(node) || (node instanceof Event && null == ((Event) node).getType())) {
+                continue;
+            }
+            INode nodeCopy = copyNode(node);
+            for (IEdge edge : node.getOutgoingEdges()) {
+                if (null != edge) {
+                    nodeCopy.addOutgoingEdge(copyEdge(edge));
+                    toBeCopied.add(edge.getTarget());
+                }
+            }
+            for (IEdge edge : node.getIncomingEdges()) {
+                if (null != edge) {
+                    nodeCopy.addIncomingEdge(copyEdge(edge));
+                    toBeCopied.add(edge.getSource());
+                }
+            }
+        }
+        if (null != acpm.getStartNode()) {
+            copy.setStartNode(copyNode(acpm.getStartNode()));
+        }
+        for (INode finalNode : acpm.getFinalNodes()) {
+            if (null != finalNode) {
+                copy.addFinalNode(copyNode(finalNode));
+            }
+        }
+        return copy;
+    }
+
+    private INode copyNode(INode node) {
+        INode copy = nodes.get(node);
+        if (null != copy) {
+            return copy;
+        }
+        if (node instanceof Activity) {
+            copy = new Activity(((Activity) node).getName());
+        } else if (node instanceof Event) {
+            Event event = new Event();
+            event.type = ((Event) node).getType();
+            copy = event;
+        } else if (node instanceof Gateway) {
+            Gateway gateway = new Gateway();
+            if (null != ((Gateway) node).getType()) {
+                gateway.setType(((Gateway) node).getType());
+            }
+            copy = gateway;
+        } else if (node instanceof DataObject) {
+            DataObject dataObject = (DataObject) node;
+            DataObject dataObjectCopy = new DataObject(dataObject.getName(),
+                    null == dataObject.getState() ? null : copyState(dataObject.getState()));
+            if (null != dataObject.getOlc()) {
+                dataObjectCopy.setOlc(copyOLC(dataObject.getOlc()));
+            }
+            copy = dataObjectCopy;
+        } else if (node instanceof DataObjectState) {
+            copy = new DataObjectState(((DataObjectState) node).getName());
+        } else {
+            throw new IllegalArgumentException("Copies are not supported for "
+                    + node.getClass().getName());
+        }
+        nodes.put(node, copy);
+        return copy;
+    }
+
+    /**
+     * Copies a state referenced by a data object. If the state belongs to an
+     * object life cycle this life cycle is copied and the copied state is used.
+     */
+    private DataObjectState copyState(DataObjectState state) {
+        if (null != state.getObjectLifeCycle()) {
+            copyOLC(state.getObjectLifeCycle());
+        }
+        return (DataObjectState) copyNode(state);
+    }
+
+    private IEdge copyEdge(IEdge edge) {
+        IEdge copy = edges.get(edge);
+        if (null != copy) {
+            return copy;
+        }
+        INode source = copyNode(edge.getSource());
+        INode target = copyNode(edge.getTarget());
+        if (edge instanceof ControlFlow) {
+            copy = new ControlFlow(source, target);
+        } else if (edge instanceof DataFlow) {
+            copy = source instanceof Activity
+                    ? new DataFlow((Activity) source, (DataObject) target)
+                    : new DataFlow((DataObject) source, (Activity) target);
+        } else if (edge instanceof StateTransition) {
+            copy = new StateTransition((DataObjectState) source, (DataObjectState) target,
+                    ((StateTransition) edge).getLabel());
+        } else {
+            throw new IllegalArgumentException("Copies are not supported for "
+                    + edge.getClass().getName());
+        }
+        edges.put(edge, copy);
+        return copy;
+    }
+
+    /**
+     * Copies an object life cycle.
+     * States are added in the order of their ids, transitions are added in the
+     * order of their ids as well, hence the copies receive the same ids.
+     */
+    private ObjectLifeCycle copyOLC(ObjectLifeCycle olc) {
+        ObjectLifeCycle copy = olcs.get(olc);
+        if (null != copy) {
+            return copy;
+        }
+        copy = new ObjectLifeCycle(olc.getLabel());
+        olcs.put(olc, copy);
+        for (INode state : olc.getNodes()) {
+            copy.addNode(copyNode(state));
+        }
+        for (StateTransition transition : olc.getTransitions()) {
+            copyNode(transition.getSource()).addOutgoingEdge(copyEdge(transition));
+        }
+        for (INode state : olc.getNodes()) {
+            for (IEdge transition : state.getIncomingEdges()) {
+                copyNode(state).addIncomingEdge(copyEdge(transition));
+            }
+        }
+        if (null != olc.getStartNode()) {
+            copy.setStartNode(copyNode(olc.getStartNode()));
+        }
+        for (INode finalState : olc.getFinalNodes()) {
+            copy.addFinalNode(copyNode(finalState));
+        }
+        return copy;
+    }
+
+    private SynchronizedObjectLifeCycle copySynchronizedOLC(SynchronizedObjectLifeCycle sOLC) {
+        SynchronizedObjectLifeCycle copy = new SynchronizedObjectLifeCycle();
+        List<ObjectLifeCycle> olcCopies = new ArrayList<>();
+        for (ObjectLifeCycle olc : sOLC.getOLCs()) {
+            olcCopies.add(copyOLC(olc));
+        }
+        copy.setObjectLifeCycles(olcCopies);
+        Map<StateTransition, List<StateTransition>> synchronisationEdges = new HashMap<>();
+        for (Map.Entry<StateTransition, List<StateTransition>> entry
+                : sOLC.getSynchronisationEdges().entrySet()) {
+            List<StateTransition> linked = new ArrayList<>(entry.getValue().size());
+            for (StateTransition transition : entry.getValue()) {
+                linked.add((StateTransition) copyEdge(transition));
+            }
+            synchronisationEdges.put((StateTransition) copyEdge(entry.getKey()), linked);
+        }
+        copy.setSynchronisationEdges(synchronisationEdges);
+        return copy;
+    }
+}
@@ -0,0 +1,16 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.cache;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IModel;
+
+/**
+ * A weigher which uses the number of nodes of a model as its weight.
+ * The number of nodes is a good approximation of the memory used by a model.
+ * Every model weighs at least one, hence empty models still count.
+ */
+public class NodeCountWeigher implements Weigher<IModel> {
+
+    @Override
+    public long weigh(IModel value) {
+        return 1 + value.getNodes().size();
+    }
+}
@@ -0,0 +1,19 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.cache;
+
+/**
+ * Determines the weight of a cached value.
+ * The {@link ConversionCache} evicts entries as soon as the total
+ * weight of all entries exceeds its maximum weight.
+ *
+ * @param <V> The type of the values to be weighed.
+ */
+public interface Weigher<V> {
+
+    /**
+     * Returns the weight of a value.
+     *
+     * @param value The value to be weighed, will never be null.
+     * @return The weight of the value, must not be negative.
+     */
+    long weigh(V value);
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains a caching layer for converters.
+ * Conversion results are cached by the structural fingerprint of the converted
+ * model, results handed out by the cache are copies and can be changed freely.
+ */
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.cache;
@@ -19,6 +19,10 @@ public class CombinedTransition {
      * In addition their Object Life Cycle will be created.
      */
     Map<StateTransition, ObjectLifeCycle> transitionsAndOLCs;
+    /**
+     * The symbol of the label shared by all transitions of this CT.
+     */
+    private int labelSymbol;
 
     /**
      * Creates a new combined transition.
@@ -31,22 +35,26 @@ public class CombinedTransition {
     public CombinedTransition(StateTransition transition, ObjectLifeCycle olc) {
         transitionsAndOLCs = new HashMap<>();
         transitionsAndOLCs.put(transition, olc);
+        labelSymbol = transition.getLabelSymbol();
     }
 
     /**
      * Checks weather or not a transition should be element of this combined transition transition.
      * Currently we do this by matching the labels.
+     * All transitions of a CT share one label, hence comparing the label symbols suffices.
      *
      * @param transition The transition to be checked.
      * @return True if on transition matches the label false if not.
      */
     public boolean isCombinedTransition(StateTransition transition) {
-        for (StateTransition existingTransition : transitionsAndOLCs.keySet()) {
-            if (transition.getLabel().equals(existingTransition.getLabel())) {
-                return true;
-            }
-        }
-        return false;
+        return transition.getLabelSymbol() == labelSymbol;
+    }
+
+    /**
+     * @return The symbol of the label shared by all transitions of this CT.
+     */
+    public int getLabelSymbol() {
+        return labelSymbol;
     }
 
     /**
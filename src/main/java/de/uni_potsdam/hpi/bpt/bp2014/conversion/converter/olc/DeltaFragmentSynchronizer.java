@@ -0,0 +1,196 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenario;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.OLCDelta;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.TransitionKey;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable;
+
+import java.util.*;
+
+/**
+ * This class keeps the fragments of a {@link SynchronizedObjectLifeCycle} in sync
+ * with changes of its object life cycles.
+ * Like {@link FragmentsFromOLCVersions} it creates one fragment per combined transition,
+ * hence per transition label. Instead of converting the whole synchronized OLC again
+ * the changes are provided as {@link OLCDelta}s and only the fragments of the labels
+ * of added or removed transitions will be recreated. All other fragments stay untouched.
+ * Changes of states and final states do not affect the fragments, since a fragment
+ * only consists of the source and target states of its transitions.
+ */
+public class DeltaFragmentSynchronizer {
+    /**
+     * The keys of the current transitions, grouped by the symbol of their label
+     * and by the label of their data class.
+     */
+    private Map<Integer, Map<String, Set<TransitionKey>>> transitionsPerLabel;
+    /**
+     * The current transitions of every data class.
+     */
+    private Map<String, Set<TransitionKey>> transitionsPerDataClass;
+    /**
+     * The states used by the fragments, one per data class and state name.
+     * Fragments of different labels share these states.
+     */
+    private Map<String, Map<Integer, DataObjectState>> statesPerDataClass;
+    /**
+     * The current fragment of every transition label.
+     */
+    private Map<Integer, ActivityCentricProcessModel> fragments;
+
+    /**
+     * Creates a new synchronizer without any object life cycle.
+     */
+    public DeltaFragmentSynchronizer() {
+        transitionsPerLabel = new HashMap<>();
+        transitionsPerDataClass = new LinkedHashMap<>();
+        statesPerDataClass = new HashMap<>();
+        fragments = new LinkedHashMap<>();
+    }
+
+    /**
+     * Creates a new synchronizer and the fragments of all object life cycles
+     * of the synchronized object life cycle.
+     *
+     * @param sOLC The synchronized object life cycle, must not be null.
+     */
+    public DeltaFragmentSynchronizer(SynchronizedObjectLifeCycle sOLC) {
+        this();
+        assert null != sOLC : "The synchronized OLC must not be null";
+        for (ObjectLifeCycle olc : sOLC.getOLCs()) {
+            apply(OLCDelta.between(null, olc));
+        }
+    }
+
+    /**
+     * Applies the change from one version of an object life cycle to another one.
+     *
+     * @param oldOLC The old version, may be null if the data class is new.
+     * @param newOLC The new version, must not be null.
+     * @return The labels of the fragments which have been recreated or removed.
+     */
+    public Set<String> apply(ObjectLifeCycle oldOLC, ObjectLifeCycle newOLC) {
+        return apply(OLCDelta.between(oldOLC, newOLC));
+    }
+
+    /**
+     * Applies the changes of one object life cycle to the fragments.
+     * First the removed and added transitions will be registered, afterwards
+     * the fragment of every affected label will be recreated. If there is no
+     * transition left for a label its fragment will be removed.
+     * The effort depends on the size of the delta and the size of the affected
+     * fragments only.
+     * <p/>
+     * Pre: The delta must fit the current version of the data class.
+     *
+     * @param delta The changes of one object life cycle.
+     * @return The labels of the fragments which have been recreated or removed.
+     */
+    public Set<String> apply(OLCDelta delta) {
+        assert null != delta : "The delta must not be null";
+        String dataClass = delta.getLabel();
+        Set<TransitionKey> transitionsOfClass = transitionsPerDataClass.get(dataClass);
+        if (null == transitionsOfClass) {
+            transitionsOfClass = new LinkedHashSet<>();
+            transitionsPerDataClass.put(dataClass, transitionsOfClass);
+        }
+        Set<Integer> affectedLabels = new LinkedHashSet<>();
+        for (TransitionKey removed : delta.getRemovedTransitions()) {
+            boolean existed = transitionsOfClass.remove(removed);
+            assert existed : "The removed transition " + removed + " is not part of " + dataClass;
+            Map<String, Set<TransitionKey>> dataClasses = transitionsPerLabel.get(removed.getLabelSymbol());
+            Set<TransitionKey> keys = dataClasses.get(dataClass);
+            keys.remove(removed);
+            if (keys.isEmpty()) {
+                dataClasses.remove(dataClass);
+            }
+            affectedLabels.add(removed.getLabelSymbol());
+        }
+        for (TransitionKey added : delta.getAddedTransitions()) {
+            transitionsOfClass.add(added);
+            Map<String, Set<TransitionKey>> dataClasses = transitionsPerLabel.get(added.getLabelSymbol());
+            if (null == dataClasses) {
+                dataClasses = new LinkedHashMap<>();
+                transitionsPerLabel.put(added.getLabelSymbol(), dataClasses);
+            }
+            Set<TransitionKey> keys = dataClasses.get(dataClass);
+            if (null == keys) {
+                keys = new LinkedHashSet<>();
+                dataClasses.put(dataClass, keys);
+            }
+            keys.add(added);
+            affectedLabels.add(added.getLabelSymbol());
+        }
+        Set<String> changedFragments = new LinkedHashSet<>();
+        for (int label : affectedLabels) {
+            updateFragment(label);
+            changedFragments.add(SymbolTable.getShared().nameOf(label));
+        }
+        return changedFragments;
+    }
+
+    /**
+     * Recreates the fragment of a label, or removes it if there is no transition left.
+     *
+     * @param label The symbol of the label.
+     */
+    private void updateFragment(int label) {
+        Map<String, Set<TransitionKey>> dataClasses = transitionsPerLabel.get(label);
+        if (dataClasses.isEmpty()) {
+            transitionsPerLabel.remove(label);
+            fragments.remove(label);
+            return;
+        }
+        Map<StateTransition, String> transitionsAndDataClasses = new LinkedHashMap<>();
+        for (Map.Entry<String, Set<TransitionKey>> keysOfClass : dataClasses.entrySet()) {
+            for (TransitionKey key : keysOfClass.getValue()) {
+                StateTransition transition = new StateTransition(
+                        getState(keysOfClass.getKey(), key.getSourceSymbol()),
+                        getState(keysOfClass.getKey(), key.getTargetSymbol()),
+                        key.getLabel());
+                transitionsAndDataClasses.put(transition, keysOfClass.getKey());
+            }
+        }
+        fragments.put(label, FragmentsFromOLCVersions.createFragment(transitionsAndDataClasses));
+    }
+
+    private DataObjectState getState(String dataClass, int name) {
+        Map<Integer, DataObjectState> states = statesPerDataClass.get(dataClass);
+        if (null == states) {
+            states = new HashMap<>();
+            statesPerDataClass.put(dataClass, states);
+        }
+        DataObjectState state = states.get(name);
+        if (null == state) {
+            state = new DataObjectState(SymbolTable.getShared().nameOf(name));
+            states.put(name, state);
+        }
+        return state;
+    }
+
+    /**
+     * @param label The label of the transitions.
+     * @return The current fragment of the label or null if there is no transition with this label.
+     */
+    public ActivityCentricProcessModel getFragment(String label) {
+        return fragments.get(SymbolTable.getShared().lookup(label));
+    }
+
+    /**
+     * @return A new list containing the current fragments.
+     */
+    public List<ActivityCentricProcessModel> getFragments() {
+        return new ArrayList<>(fragments.values());
+    }
+
+    /**
+     * @return A new scenario consisting of the current fragments.
+     */
+    public Scenario getScenario() {
+        return new Scenario(fragments.values());
+    }
+}
@@ -6,9 +6,11 @@ import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenar
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.TransitionKey;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 /**
  * This class represents a convert.
@@ -24,6 +26,36 @@ public class FragmentsFromOLCVersions implements IConverter<SynchronizedObjectLi
      * the grouped olcs.
      */
     private Collection<? extends ObjectLifeCycle> groupedOLCs;
+    /**
+     * The grouper used to match the versions of the Object Life Cycles.
+     */
+    private OLCVersionGrouper grouper;
+    /**
+     * The fragments of the last conversion keyed by the symbol of their label.
+     * It is null unless the converter works incrementally, see {@link #setIncremental(boolean)}.
+     */
+    private Map<Integer, RememberedFragment> rememberedFragments;
+    /**
+     * The number of fragments created by the last conversion.
+     */
+    private int regeneratedFragmentCount;
+
+    /**
+     * Creates a new converter, which groups the versions sequentially.
+     */
+    public FragmentsFromOLCVersions() {
+        grouper = new OLCVersionGrouper();
+    }
+
+    /**
+     * Creates a new converter, which groups the versions concurrently.
+     *
+     * @param executor The executor used to create the diffs per data class,
+     *                 if it is null they will be created sequentially.
+     */
+    public FragmentsFromOLCVersions(ExecutorService executor) {
+        grouper = new OLCVersionGrouper(executor);
+    }
 
     /**
      * This method generates a collection of fragments from multiple Object Life Cycles.
@@ -38,7 +70,7 @@ public class FragmentsFromOLCVersions implements IConverter<SynchronizedObjectLi
     public Collection<ActivityCentricProcessModel> convert(Collection<? extends ObjectLifeCycle> oldOLCs,
                                                            Collection<? extends ObjectLifeCycle> newOLCs) {
         Collection<ActivityCentricProcessModel> acpms = new HashSet<>();
-        this.groupedOLCs = groupOLCVersions(oldOLCs, newOLCs);
+        this.groupedOLCs = grouper.groupOLCVersions(oldOLCs, newOLCs);
         SynchronizedObjectLifeCycle diffSynchronizedOLC = new SynchronizedObjectLifeCycle();
         diffSynchronizedOLC.setObjectLifeCycles(new LinkedList<>(groupedOLCs));
         OLCConversionFlyweight<ActivityCentricProcessModel> flyweight = null;
@@ -64,6 +96,23 @@ public class FragmentsFromOLCVersions implements IConverter<SynchronizedObjectLi
      * @return The generated Fragment.
      */
     private ActivityCentricProcessModel createFragment(CombinedTransition combinedTransition) {
+        Map<StateTransition, String> transitionsAndDataClasses = new LinkedHashMap<>();
+        for (Map.Entry<StateTransition, ObjectLifeCycle> transitionAndOLC :
+                combinedTransition.getTransitionsAndOLCs().entrySet()) {
+            transitionsAndDataClasses.put(transitionAndOLC.getKey(), transitionAndOLC.getValue().getLabel());
+        }
+        return createFragment(transitionsAndDataClasses);
+    }
+
+    /**
+     * This method creates an Fragment for the transitions of a combined transition.
+     * The activity reads the source state and writes the target state of every transition.
+     * It is shared with the {@link DeltaFragmentSynchronizer}.
+     *
+     * @param transitionsAndDataClasses The transitions mapped to the label of their data class.
+     * @return The generated Fragment.
+     */
+    static ActivityCentricProcessModel createFragment(Map<StateTransition, String> transitionsAndDataClasses) {
         ActivityCentricProcessModel acpm = new ActivityCentricProcessModel();
         Event startEvent = new Event();
         startEvent.setType(Event.Type.START);
@@ -82,15 +131,14 @@ public class FragmentsFromOLCVersions implements IConverter<SynchronizedObjectLi
         cf = new ControlFlow(activity, endEvent);
         activity.addOutgoingEdge(cf);
         endEvent.addIncomingEdge(cf);
-        for (Map.Entry<StateTransition, ObjectLifeCycle> transitionAndOLC :
-                combinedTransition.getTransitionsAndOLCs().entrySet()) {
-            if (!name.contains(transitionAndOLC.getKey().getLabel())) {
-                name = name + transitionAndOLC.getKey().getLabel() + ", ";
+        for (Map.Entry<StateTransition, String> transitionAndDataClass : transitionsAndDataClasses.entrySet()) {
+            if (!name.contains(transitionAndDataClass.getKey().getLabel())) {
+                name = name + transitionAndDataClass.getKey().getLabel() + ", ";
             }
-            DataObject input = new DataObject(transitionAndOLC.getValue().getLabel(),
-                    (DataObjectState) transitionAndOLC.getKey().getSource());
-            DataObject output = new DataObject(transitionAndOLC.getValue().getLabel(),
-                    (DataObjectState) transitionAndOLC.getKey().getTarget());
+            DataObject input = new DataObject(transitionAndDataClass.getValue(),
+                    (DataObjectState) transitionAndDataClass.getKey().getSource());
+            DataObject output = new DataObject(transitionAndDataClass.getValue(),
+                    (DataObjectState) transitionAndDataClass.getKey().getTarget());
             DataFlow inputFLow = new DataFlow(input, activity);
             DataFlow outputFlow = new DataFlow(activity, output);
             input.addOutgoingEdge(inputFLow);
@@ -108,38 +156,41 @@ public class FragmentsFromOLCVersions implements IConverter<SynchronizedObjectLi
     }
 
     /**
-     * This method groups the object life cycle versions.
-     * For each new Object Life Cycle an old one will be determined and aggregated into an
-     * {@link ObjectLifeCycleDiff}.
+     * Enables or disables the incremental conversion of synchronized object life cycles.
+     * If enabled, the fragment of each combined transition will be remembered together
+     * with the transitions taking part in it. The next conversion creates fragments only
+     * for combined transitions which are new or whose transitions have changed,
+     * all other fragments will be reused by reference. Be aware that reused fragments
+     * still reference the data object states of the version they have been created for.
+     * Disabling the mode discards the remembered fragments.
      *
-     * @param oldOLCs The collection of old Object Life cycles.
-     * @param newOLCs The collection of new Object Life Cycles.
-     * @return A Collection of Object Life Cycle Diffs representing the grouped OLCs.
+     * @param incremental True if the fragments should be remembered.
      */
-    private Collection<ObjectLifeCycleDiff> groupOLCVersions(
-            Collection<? extends ObjectLifeCycle> oldOLCs,
-            Collection<? extends ObjectLifeCycle> newOLCs) {
-        Map<String, ObjectLifeCycle> newGrouped = new HashMap<>();
-        Map<String, ObjectLifeCycle> oldGrouped = new HashMap<>();
-        Collection<ObjectLifeCycleDiff> grouped = new HashSet<>();
-        for (ObjectLifeCycle oldOLC : oldOLCs) {
-            oldGrouped.put(oldOLC.getLabel(), oldOLC);
-        }
-        for (ObjectLifeCycle newOLC : newOLCs) {
-            newGrouped.put(newOLC.getLabel(), newOLC);
+    public void setIncremental(boolean incremental) {
+        if (!incremental) {
+            rememberedFragments = null;
+        } else if (null == rememberedFragments) {
+            rememberedFragments = new HashMap<>();
         }
-        for (String olcName : newGrouped.keySet()) {
-            if (oldGrouped.containsKey(olcName)) {
-                grouped.add(new ObjectLifeCycleDiff(
-                        oldGrouped.get(olcName),
-                        newGrouped.get(olcName)));
-            }
-        }
-        return grouped;
+    }
+
+    public boolean isIncremental() {
+        return null != rememberedFragments;
+    }
+
+    /**
+     * @return The number of fragments created by the last conversion,
+     * fragments reused by an incremental conversion are not counted.
+     */
+    public int getRegeneratedFragmentCount() {
+        return regeneratedFragmentCount;
     }
 
     @Override
     public Scenario convert(SynchronizedObjectLifeCycle model) {
+        if (isIncremental()) {
+            return convertIncrementally(model);
+        }
         Collection<ActivityCentricProcessModel> acpms = new HashSet<>();
         OLCConversionFlyweight<ActivityCentricProcessModel> flyweight = null;
         try {
@@ -153,6 +204,80 @@ public class FragmentsFromOLCVersions implements IConverter<SynchronizedObjectLi
         for (CombinedTransition combinedTransition : flyweight.getCombinedTransitions()) {
             acpms.add(createFragment(combinedTransition));
         }
+        regeneratedFragmentCount = acpms.size();
         return new Scenario(acpms);
     }
+
+    /**
+     * Converts the synchronized object life cycle reusing the remembered fragments.
+     * The transitions are grouped by their label, like the combined transitions of the
+     * {@link OLCConversionFlyweight}, but without creating the flyweight. A fragment
+     * will be reused if the data classes and {@link TransitionKey}s of its transitions
+     * did not change since the last conversion. Fragments of labels which do not
+     * exist anymore will be forgotten.
+     *
+     * @param model The synchronized object life cycle.
+     * @return A scenario consisting of the reused and the created fragments.
+     */
+    private Scenario convertIncrementally(SynchronizedObjectLifeCycle model) {
+        Map<Integer, Map<StateTransition, String>> transitionsPerLabel = new LinkedHashMap<>();
+        for (ObjectLifeCycle olc : model.getOLCs()) {
+            for (StateTransition transition : olc.<StateTransition>getEdgeOfType(StateTransition.class)) {
+                Map<StateTransition, String> transitions = transitionsPerLabel.get(transition.getLabelSymbol());
+                if (null == transitions) {
+                    transitions = new LinkedHashMap<>();
+                    transitionsPerLabel.put(transition.getLabelSymbol(), transitions);
+                }
+                transitions.put(transition, olc.getLabel());
+            }
+        }
+        Map<Integer, RememberedFragment> fragments = new HashMap<>();
+        List<ActivityCentricProcessModel> acpms = new ArrayList<>(transitionsPerLabel.size());
+        regeneratedFragmentCount = 0;
+        for (Map.Entry<Integer, Map<StateTransition, String>> labelAndTransitions : transitionsPerLabel.entrySet()) {
+            Map<String, Set<TransitionKey>> participants = participantsOf(labelAndTransitions.getValue());
+            RememberedFragment fragment = rememberedFragments.get(labelAndTransitions.getKey());
+            if (null == fragment || !fragment.participants.equals(participants)) {
+                fragment = new RememberedFragment(participants, createFragment(labelAndTransitions.getValue()));
+                regeneratedFragmentCount++;
+            }
+            fragments.put(labelAndTransitions.getKey(), fragment);
+            acpms.add(fragment.fragment);
+        }
+        rememberedFragments = fragments;
+        return new Scenario(acpms);
+    }
+
+    /**
+     * Identifies the transitions of a combined transition independent of their instances.
+     *
+     * @param transitionsAndDataClasses The transitions mapped to the label of their data class.
+     * @return The keys of the transitions per data class.
+     */
+    private static Map<String, Set<TransitionKey>> participantsOf(Map<StateTransition, String> transitionsAndDataClasses) {
+        Map<String, Set<TransitionKey>> participants = new HashMap<>();
+        for (Map.Entry<StateTransition, String> transitionAndDataClass : transitionsAndDataClasses.entrySet()) {
+            Set<TransitionKey> keys = participants.get(transitionAndDataClass.getValue());
+            if (null == keys) {
+                keys = new HashSet<>();
+                participants.put(transitionAndDataClass.getValue(), keys);
+            }
+            keys.add(TransitionKey.of(transitionAndDataClass.getKey()));
+        }
+        return participants;
+    }
+
+    /**
+     * A fragment created for a combined transition together with the transitions taking part in it.
+     */
+    private static class RememberedFragment {
+        private final Map<String, Set<TransitionKey>> participants;
+        private final ActivityCentricProcessModel fragment;
+
+        private RememberedFragment(Map<String, Set<TransitionKey>> participants,
+                                   ActivityCentricProcessModel fragment) {
+            this.participants = participants;
+            this.fragment = fragment;
+        }
+    }
 }
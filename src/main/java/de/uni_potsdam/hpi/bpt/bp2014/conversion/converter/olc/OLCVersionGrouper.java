@@ -0,0 +1,132 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * This class groups the versions of object life cycles.
+ * Object life cycles of two versions are matched by their label and for each
+ * pair an {@link ObjectLifeCycleDiff} is created.
+ * The diffs of different data classes are independent, hence they can be
+ * created concurrently if an {@link ExecutorService} is provided.
+ * The diffs are returned in the order of the new object life cycles in both cases.
+ */
+public class OLCVersionGrouper {
+    /**
+     * The executor used to create the diffs concurrently.
+     * If it is null the diffs will be created sequentially.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Creates a new grouper, which creates the diffs sequentially.
+     */
+    public OLCVersionGrouper() {
+    }
+
+    /**
+     * Creates a new grouper, which creates the diffs concurrently.
+     * The executor will not be shut down by the grouper.
+     *
+     * @param executor The executor used to create the diffs. If it is null
+     *                 the diffs will be created sequentially.
+     */
+    public OLCVersionGrouper(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * This method groups the object life cycle versions.
+     * For each new Object Life Cycle an old one will be determined and aggregated into an
+     * {@link ObjectLifeCycleDiff}. Object Life Cycles without a counterpart will be ignored.
+     * If there are multiple Object Life Cycles with the same label in one version,
+     * the last one will be used.
+     *
+     * @param oldOLCs The collection of old Object Life cycles.
+     * @param newOLCs The collection of new Object Life Cycles.
+     * @return A new list of Object Life Cycle Diffs representing the grouped OLCs,
+     * in the order of the new Object Life Cycles.
+     */
+    public List<ObjectLifeCycleDiff> groupOLCVersions(
+            Collection<? extends ObjectLifeCycle> oldOLCs,
+            Collection<? extends ObjectLifeCycle> newOLCs) {
+        Map<String, ObjectLifeCycle> newGrouped = new LinkedHashMap<>();
+        Map<String, ObjectLifeCycle> oldGrouped = new HashMap<>();
+        for (ObjectLifeCycle oldOLC : oldOLCs) {
+            oldGrouped.put(oldOLC.getLabel(), oldOLC);
+        }
+        for (ObjectLifeCycle newOLC : newOLCs) {
+            newGrouped.put(newOLC.getLabel(), newOLC);
+        }
+        List<Callable<ObjectLifeCycleDiff>> tasks = new ArrayList<>();
+        for (Map.Entry<String, ObjectLifeCycle> newOLC : newGrouped.entrySet()) {
+            final ObjectLifeCycle oldOLC = oldGrouped.get(newOLC.getKey());
+            final ObjectLifeCycle currentOLC = newOLC.getValue();
+            if (null != oldOLC) {
+                tasks.add(new Callable<ObjectLifeCycleDiff>() {
+                    @Override
+                    public ObjectLifeCycleDiff call() {
+                        return new ObjectLifeCycleDiff(currentOLC, oldOLC);
+                    }
+                });
+            }
+        }
+        return null == executor ? groupSequentially(tasks) : groupConcurrently(tasks);
+    }
+
+    private List<ObjectLifeCycleDiff> groupSequentially(List<Callable<ObjectLifeCycleDiff>> tasks) {
+        List<ObjectLifeCycleDiff> grouped = new ArrayList<>(tasks.size());
+        for (Callable<ObjectLifeCycleDiff> task : tasks) {
+            try {
+                grouped.add(task.call());
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("The diff could not be created", e);
+            }
+        }
+        return grouped;
+    }
+
+    /**
+     * Submits all tasks to the {@link #executor} and collects the results in the order of the tasks.
+     * Exceptions and errors of a task will be rethrown.
+     */
+    private List<ObjectLifeCycleDiff> groupConcurrently(List<Callable<ObjectLifeCycleDiff>> tasks) {
+        List<ObjectLifeCycleDiff> grouped = new ArrayList<>(tasks.size());
+        try {
+            for (Future<ObjectLifeCycleDiff> result : executor.invokeAll(tasks)) {
+                grouped.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The creation of the diffs has been interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("The diff could not be created", e.getCause());
+        }
+        return grouped;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor used to create the diffs.
+     *
+     * @param executor The executor, if it is null the diffs will be created sequentially.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+}
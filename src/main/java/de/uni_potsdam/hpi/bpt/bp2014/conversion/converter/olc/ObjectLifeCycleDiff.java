@@ -3,17 +3,18 @@ package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.TransitionKey;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.*;
 
 /**
  * This class represents an Object Life Cycle Diff.
  * This means it is itself an {@link ObjectLifeCycle} and is created based
  * on the differences of two Object Life cycles.
  * Only additional transitions will be element of object of this class.
+ * In addition the removed transitions and the changed final states can be requested.
+ * Transitions are compared using their {@link TransitionKey}, states by their names.
+ * All differences are computed once, in time linear to the size of both versions.
  */
 public class ObjectLifeCycleDiff extends ObjectLifeCycle {
     /**
@@ -27,15 +28,35 @@ public class ObjectLifeCycleDiff extends ObjectLifeCycle {
     /**
      * For every state which is element of an additional transition
      * a new {@link DataObjectState} will be created.
-     * This Map maps the name of these states to the states.
+     * This Map maps the name symbol of these states to the states.
      */
-    private Map<String, DataObjectState> newStateObjects;
+    private Map<Integer, DataObjectState> newStateObjects;
+    /**
+     * The transitions of the new version which are not part of the old version.
+     */
+    private Collection<StateTransition> additionalTransitions;
+    /**
+     * The transitions of the old version which are not part of the new version.
+     */
+    private Collection<StateTransition> removedTransitions;
+    /**
+     * The states which are final in the new version but not in the old one.
+     */
+    private Collection<DataObjectState> addedFinalStates;
+    /**
+     * The states which are final in the old version but not in the new one.
+     */
+    private Collection<DataObjectState> removedFinalStates;
+    /**
+     * The final states of the {@link #newOLC}, compared by identity.
+     */
+    private Set<DataObjectState> finalStatesOfNewOLC;
 
     /**
      * Creates a new ObjectLifeCycleDiff based on the given version.
      *
      * @param newOLC A Representation of the new OLC Version.
-     * @param oldOLC A Representation of the old OLC version.
+     * @param oldOLC A Representation of the old OLC version, it must not be null.
      */
     public ObjectLifeCycleDiff(ObjectLifeCycle newOLC, ObjectLifeCycle oldOLC) {
         assert newOLC != null : "The olcs to be compared should not be null";
@@ -47,12 +68,14 @@ public class ObjectLifeCycleDiff extends ObjectLifeCycle {
 
     /**
      * This method initializes the newStateObject Map.
-     * Extracting all states and creating new Objects per state.
+     * First the differences will be computed, afterwards all states
+     * of additional transitions will be extracted and new Objects per state created.
      */
     private void initialize() {
         this.setLabel(newOLC.getLabel());
+        computeDifferences();
         newStateObjects = new HashMap<>();
-        for (StateTransition transition : getAdditionalTransitions()) {
+        for (StateTransition transition : additionalTransitions) {
             DataObjectState newSource = getNewNodeFor((DataObjectState) transition.getSource());
             DataObjectState newTarget = getNewNodeFor((DataObjectState) transition.getTarget());
             StateTransition newTransition = new StateTransition(newSource,
@@ -62,6 +85,66 @@ public class ObjectLifeCycleDiff extends ObjectLifeCycle {
         }
     }
 
+    /**
+     * Computes the additional and removed transitions as well as the changed final states.
+     * The keys of the transitions and the names of the final states of each version are
+     * collected in hash sets, hence every transition and state is looked up once.
+     */
+    private void computeDifferences() {
+        Collection<StateTransition> transitionsOfNew = newOLC.getEdgeOfType(StateTransition.class);
+        Collection<StateTransition> transitionsOfOld = oldOLC.getEdgeOfType(StateTransition.class);
+        Set<TransitionKey> keysOfOld = keysOf(transitionsOfOld);
+        Set<TransitionKey> keysOfNew = keysOf(transitionsOfNew);
+        additionalTransitions = new HashSet<>();
+        for (StateTransition newTransition : transitionsOfNew) {
+            if (!keysOfOld.contains(TransitionKey.of(newTransition))) {
+                additionalTransitions.add(newTransition);
+            }
+        }
+        removedTransitions = new HashSet<>();
+        for (StateTransition oldTransition : transitionsOfOld) {
+            if (!keysOfNew.contains(TransitionKey.of(oldTransition))) {
+                removedTransitions.add(oldTransition);
+            }
+        }
+        List<DataObjectState> finalStatesOfNew = newOLC.getFinalNodesOfClass(DataObjectState.class);
+        List<DataObjectState> finalStatesOfOld = oldOLC.getFinalNodesOfClass(DataObjectState.class);
+        finalStatesOfNewOLC = Collections.newSetFromMap(new IdentityHashMap<DataObjectState, Boolean>());
+        finalStatesOfNewOLC.addAll(finalStatesOfNew);
+        addedFinalStates = statesMissingIn(finalStatesOfNew, finalStatesOfOld);
+        removedFinalStates = statesMissingIn(finalStatesOfOld, finalStatesOfNew);
+    }
+
+    private static Set<TransitionKey> keysOf(Collection<StateTransition> transitions) {
+        Set<TransitionKey> keys = new HashSet<>(transitions.size() * 2);
+        for (StateTransition transition : transitions) {
+            keys.add(TransitionKey.of(transition));
+        }
+        return keys;
+    }
+
+    /**
+     * Determines the states whose names do not occur in another collection of states.
+     *
+     * @param states The states to be checked.
+     * @param others The states to be compared with.
+     * @return A new list of states which are element of states but not of others.
+     */
+    private static List<DataObjectState> statesMissingIn(Collection<DataObjectState> states,
+                                                         Collection<DataObjectState> others) {
+        Set<Integer> namesOfOthers = new HashSet<>();
+        for (DataObjectState other : others) {
+            namesOfOthers.add(other.getNameSymbol());
+        }
+        List<DataObjectState> missing = new ArrayList<>();
+        for (DataObjectState state : states) {
+            if (!namesOfOthers.contains(state.getNameSymbol())) {
+                missing.add(state);
+            }
+        }
+        return missing;
+    }
+
     /**
      * This method creates a new node for a given one.
      * You can think of this node as a deep copy. The
@@ -75,70 +158,56 @@ public class ObjectLifeCycleDiff extends ObjectLifeCycle {
      * @return The deep copy of that node.
      */
     private DataObjectState getNewNodeFor(DataObjectState oldNode) {
-        if (!newStateObjects.containsKey(oldNode.getName())) {
-            newStateObjects.put(oldNode.getName(),
-                    new DataObjectState(oldNode.getName()));
-            if (newOLC.getFinalNodes().contains(oldNode)) {
-                addFinalNode(newStateObjects.get(oldNode.getName()));
+        DataObjectState newNode = newStateObjects.get(oldNode.getNameSymbol());
+        if (null == newNode) {
+            newNode = new DataObjectState(oldNode.getName());
+            newStateObjects.put(oldNode.getNameSymbol(), newNode);
+            if (finalStatesOfNewOLC.contains(oldNode)) {
+                addFinalNode(newNode);
             }
-            addNode(newStateObjects.get(oldNode.getName()));
+            addNode(newNode);
         }
-        return newStateObjects.get(oldNode.getName());
+        return newNode;
     }
 
     /**
      * Determines all nodes which have be added to the {@link #oldOLC} in order
      * to create the {@link #newOLC}.
-     * If the oldOLC is not set all transitions of the newOLC will be returned.
      * Be aware that the state transitions will be extracted directly from the
      * OLCs. This means any changes will affect the {@link #newOLC}.
+     * A Transition is considered as new if there is no transition with the same
+     * label, source state name and target state name in the {@link #oldOLC}.
      *
      * @return A Collection of additional StateTransitions.
      */
     public Collection<StateTransition> getAdditionalTransitions() {
-        assert newOLC != null : "The new olcs should not be null";
-        if (oldOLC == null) {
-            return newOLC.getEdgeOfType(StateTransition.class);
-        }
-        Collection<StateTransition> transitionsOfNew =
-                newOLC.getEdgeOfType(StateTransition.class);
-        Collection<StateTransition> transitionsOfOld =
-                oldOLC.getEdgeOfType(StateTransition.class);
-        Collection<StateTransition> additionalTransitions = new HashSet<>();
-        for (StateTransition newTransition : transitionsOfNew) {
-            if (transitionIsNew(newTransition, transitionsOfOld)) {
-                additionalTransitions.add(newTransition);
-            }
-        }
-        return additionalTransitions;
+        return new HashSet<>(additionalTransitions);
     }
 
     /**
-     * Determines weather or not a transition is new.
-     * Therefor we need the transitions of the {@link #oldOLC} and the transition to
-     * be checked.
-     * A Transition is considered as new if at least one of the following conditions
-     * is true:
-     * - There is no transition with the label in the set of old transitions
-     * - There is no transition with the source state in the old transitions
-     * - There is no transition with the target state in the old transitions
+     * Determines all transitions which have been removed from the {@link #oldOLC} in order
+     * to create the {@link #newOLC}.
+     * The transitions are the instances of the {@link #oldOLC}.
      *
-     * @param newTransition    The Transition which should be checked.
-     * @param transitionsOfOld A Collection of old transitions.
-     * @return True if the transition is new false if not.
+     * @return A Collection of removed StateTransitions.
      */
-    private boolean transitionIsNew(StateTransition newTransition,
-                                    Collection<StateTransition> transitionsOfOld) {
-        for (StateTransition oldTransition : transitionsOfOld) {
-            if (oldTransition.getLabel().equals(newTransition.getLabel()) &&
-                    ((DataObjectState) oldTransition.getSource()).getName()
-                            .equals(((DataObjectState) newTransition.getSource()).getName()) &&
-                    ((DataObjectState) oldTransition.getTarget()).getName()
-                            .equals(((DataObjectState) newTransition.getTarget()).getName())) {
-                return false;
-            }
+    public Collection<StateTransition> getRemovedTransitions() {
+        return new HashSet<>(removedTransitions);
+    }
 
-        }
-        return true;
+    /**
+     * @return A new list of the states of the {@link #newOLC}, which are final
+     * but have not been final in the {@link #oldOLC}.
+     */
+    public Collection<DataObjectState> getAddedFinalStates() {
+        return new ArrayList<>(addedFinalStates);
+    }
+
+    /**
+     * @return A new list of the states of the {@link #oldOLC}, which have been final
+     * but are not final in the {@link #newOLC}.
+     */
+    public Collection<DataObjectState> getRemovedFinalStates() {
+        return new ArrayList<>(removedFinalStates);
     }
 }
@@ -0,0 +1,138 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.pcm;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.TransitionKey;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class integrates the object life cycles of one data class.
+ * The states are indexed by the symbols of their names and the transitions by
+ * their {@link TransitionKey}, hence integrating an object life cycle is linear
+ * in the number of its transitions.
+ * Transitions leaving the pseudo initial state "i" of fragment OLCs will be ignored.
+ */
+class DataClassIntegration {
+    /**
+     * The symbol of the pseudo initial state "i" created for every fragment OLC.
+     */
+    static final int PSEUDO_INIT_SYMBOL = SymbolTable.getShared().intern("i");
+    /**
+     * The symbol of the start state "init" of the integrated OLCs.
+     */
+    static final int INIT_SYMBOL = SymbolTable.getShared().intern("init");
+
+    private final String label;
+    /**
+     * The integrated states keyed by the symbols of their names.
+     */
+    private final Map<Integer, DataObjectState> states;
+    /**
+     * The integrated transitions keyed by their source, target and label.
+     */
+    private final Map<TransitionKey, StateTransition> transitions;
+
+    /**
+     * Creates a new and empty integration.
+     *
+     * @param label The label of the data class.
+     */
+    DataClassIntegration(String label) {
+        this.label = label;
+        this.states = new LinkedHashMap<>();
+        this.transitions = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds all transitions of an object life cycle, which are not part
+     * of the integration yet.
+     *
+     * @param olc The object life cycle to be integrated.
+     */
+    void integrate(ObjectLifeCycle olc) {
+        for (StateTransition transition : olc.getTransitions()) {
+            if (isIntegrated(transition)) {
+                add(TransitionKey.of(transition));
+            }
+        }
+    }
+
+    /**
+     * Checks weather or not a transition of a fragment OLC is part of the integration.
+     * Transitions leaving the pseudo initial state are not.
+     *
+     * @param transition The transition to be checked.
+     * @return True if the transition will be integrated.
+     */
+    static boolean isIntegrated(StateTransition transition) {
+        return ((DataObjectState) transition.getSource()).getNameSymbol() != PSEUDO_INIT_SYMBOL;
+    }
+
+    /**
+     * Adds a transition to the integration, if no transition with the same key exists.
+     * Missing states will be created.
+     *
+     * @param key The key of the transition.
+     * @return The integrated transition for the key.
+     */
+    StateTransition add(TransitionKey key) {
+        StateTransition transition = transitions.get(key);
+        if (null == transition) {
+            DataObjectState source = getOrCreateState(key.getSourceSymbol());
+            DataObjectState target = getOrCreateState(key.getTargetSymbol());
+            transition = new StateTransition(source, target, key.getLabel());
+            source.addOutgoingEdge(transition);
+            target.addIncomingEdge(transition);
+            transitions.put(key, transition);
+        }
+        return transition;
+    }
+
+    private DataObjectState getOrCreateState(int nameSymbol) {
+        DataObjectState state = states.get(nameSymbol);
+        if (null == state) {
+            state = new DataObjectState(SymbolTable.getShared().nameOf(nameSymbol));
+            states.put(nameSymbol, state);
+        }
+        return state;
+    }
+
+    /**
+     * @param key The key of a transition.
+     * @return The integrated transition for the key or null.
+     */
+    StateTransition getTransition(TransitionKey key) {
+        return transitions.get(key);
+    }
+
+    String getLabel() {
+        return label;
+    }
+
+    /**
+     * Creates the integrated object life cycle.
+     * The state called "init" becomes the start state, states without
+     * outgoing transitions become final states.
+     * Be aware that the states will be adopted by the new object life cycle,
+     * hence this method should be called only once per integration.
+     *
+     * @return The integrated object life cycle.
+     */
+    ObjectLifeCycle toObjectLifeCycle() {
+        ObjectLifeCycle olc = new ObjectLifeCycle(label);
+        for (DataObjectState dataObjectState : states.values()) {
+            olc.addNode(dataObjectState);
+            if (dataObjectState.getNameSymbol() == INIT_SYMBOL) {
+                olc.setStartNode(dataObjectState);
+            }
+            if (dataObjectState.getOutgoingEdges().isEmpty()) {
+                olc.addFinalNode(dataObjectState);
+            }
+        }
+        return olc;
+    }
+}
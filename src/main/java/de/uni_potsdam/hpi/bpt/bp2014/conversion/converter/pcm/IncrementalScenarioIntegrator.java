@@ -0,0 +1,280 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.pcm;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenario;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.activity_centric.ActivityCentricToSynchronizedOLC;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.TransitionKey;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizationEdgeKey;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+
+import java.util.*;
+
+/**
+ * This class integrates the fragments of a scenario incrementally.
+ * It creates the same object life cycles as {@link ScenarioToSynchronizedOLC},
+ * but fragments can be added, replaced and removed one at a time.
+ * For every fragment the transitions it contributes per data class are saved.
+ * Each transition of the integrated object life cycles has a reference count,
+ * the number of fragments contributing it. So does each synchronization edge.
+ * Only object life cycles of data classes whose transitions appeared or disappeared
+ * will be integrated again, all other object life cycles will be reused.
+ * Be aware that the returned object life cycles must not be altered.
+ */
+public class IncrementalScenarioIntegrator {
+    /**
+     * The transitions and synchronization edges contributed by each fragment.
+     * Fragments are identified by their identity.
+     */
+    private Map<ActivityCentricProcessModel, Contribution> contributions;
+    /**
+     * The number of fragments contributing each transition, grouped by the label of the data class.
+     * The map of a data class exists as long as at least one fragment uses the data class.
+     */
+    private Map<String, Map<TransitionKey, Integer>> referenceCounts;
+    /**
+     * The number of fragments using each data class.
+     */
+    private Map<String, Integer> fragmentsPerDataClass;
+    /**
+     * The number of fragments contributing each synchronization edge.
+     */
+    private Map<SynchronizationEdgeKey, Integer> synchronizationEdgeCounts;
+    /**
+     * The integrations of the up to date object life cycles, they are used
+     * to map the synchronization edges onto the integrated transitions.
+     */
+    private Map<String, DataClassIntegration> integrations;
+    /**
+     * The integrated object life cycles, which are up to date.
+     */
+    private Map<String, ObjectLifeCycle> integratedOLCs;
+    /**
+     * The labels of all data classes whose object life cycle has to be integrated again.
+     */
+    private Set<String> changedDataClasses;
+
+    /**
+     * Creates a new integrator without fragments.
+     */
+    public IncrementalScenarioIntegrator() {
+        contributions = new IdentityHashMap<>();
+        referenceCounts = new LinkedHashMap<>();
+        fragmentsPerDataClass = new HashMap<>();
+        synchronizationEdgeCounts = new LinkedHashMap<>();
+        integrations = new HashMap<>();
+        integratedOLCs = new HashMap<>();
+        changedDataClasses = new HashSet<>();
+    }
+
+    /**
+     * Creates a new integrator, which contains all fragments of the scenario.
+     *
+     * @param scenario The scenario to be integrated.
+     */
+    public IncrementalScenarioIntegrator(Scenario scenario) {
+        this();
+        for (ActivityCentricProcessModel fragment : scenario.getFragments()) {
+            addFragment(fragment);
+        }
+    }
+
+    /**
+     * Adds a fragment. The fragment will be converted immediately.
+     * Adding a fragment twice has no effect.
+     *
+     * @param fragment The fragment to be added.
+     *                 Pre: The fragment must not be null.
+     */
+    public void addFragment(ActivityCentricProcessModel fragment) {
+        assert null != fragment : "The Fragment must not be null";
+        if (contributions.containsKey(fragment)) {
+            return;
+        }
+        Contribution contribution = extractContribution(fragment);
+        contributions.put(fragment, contribution);
+        for (SynchronizationEdgeKey edge : contribution.synchronizationEdges) {
+            Integer count = synchronizationEdgeCounts.get(edge);
+            synchronizationEdgeCounts.put(edge, null == count ? 1 : count + 1);
+        }
+        for (Map.Entry<String, Set<TransitionKey>> keysOfDataClass : contribution.transitions.entrySet()) {
+            String dataClass = keysOfDataClass.getKey();
+            Integer fragments = fragmentsPerDataClass.get(dataClass);
+            if (null == fragments) {
+                referenceCounts.put(dataClass, new LinkedHashMap<TransitionKey, Integer>());
+                changedDataClasses.add(dataClass);
+                fragments = 0;
+            }
+            fragmentsPerDataClass.put(dataClass, fragments + 1);
+            Map<TransitionKey, Integer> counts = referenceCounts.get(dataClass);
+            for (TransitionKey key : keysOfDataClass.getValue()) {
+                Integer count = counts.get(key);
+                if (null == count) {
+                    changedDataClasses.add(dataClass);
+                    count = 0;
+                }
+                counts.put(key, count + 1);
+            }
+        }
+    }
+
+    /**
+     * Removes a fragment. Transitions which are not contributed by any
+     * other fragment will be removed from the integrated object life cycles.
+     *
+     * @param fragment The fragment to be removed.
+     * @return True if the fragment has been part of the integration.
+     */
+    public boolean removeFragment(ActivityCentricProcessModel fragment) {
+        Contribution contribution = contributions.remove(fragment);
+        if (null == contribution) {
+            return false;
+        }
+        for (SynchronizationEdgeKey edge : contribution.synchronizationEdges) {
+            int count = synchronizationEdgeCounts.get(edge) - 1;
+            if (0 == count) {
+                synchronizationEdgeCounts.remove(edge);
+            } else {
+                synchronizationEdgeCounts.put(edge, count);
+            }
+        }
+        for (Map.Entry<String, Set<TransitionKey>> keysOfDataClass : contribution.transitions.entrySet()) {
+            String dataClass = keysOfDataClass.getKey();
+            Map<TransitionKey, Integer> counts = referenceCounts.get(dataClass);
+            for (TransitionKey key : keysOfDataClass.getValue()) {
+                int count = counts.get(key) - 1;
+                if (0 == count) {
+                    counts.remove(key);
+                    changedDataClasses.add(dataClass);
+                } else {
+                    counts.put(key, count);
+                }
+            }
+            int fragments = fragmentsPerDataClass.get(dataClass) - 1;
+            if (0 == fragments) {
+                fragmentsPerDataClass.remove(dataClass);
+                referenceCounts.remove(dataClass);
+                changedDataClasses.add(dataClass);
+            } else {
+                fragmentsPerDataClass.put(dataClass, fragments);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replaces a fragment by a new version.
+     * Only data classes whose transitions differ will be integrated again.
+     * If both are the same instance, the fragment has been edited in place.
+     * Its old contribution is removed first and recomputed from the current fragment.
+     *
+     * @param oldFragment The fragment to be replaced.
+     * @param newFragment The new version of the fragment.
+     */
+    public void replaceFragment(ActivityCentricProcessModel oldFragment,
+                                ActivityCentricProcessModel newFragment) {
+        if (oldFragment == newFragment) {
+            removeFragment(oldFragment);
+            addFragment(newFragment);
+            return;
+        }
+        addFragment(newFragment);
+        removeFragment(oldFragment);
+    }
+
+    /**
+     * Returns the integrated object life cycle of a data class.
+     *
+     * @param dataClass The label of the data class.
+     * @return The object life cycle or null if no fragment uses the data class.
+     */
+    public ObjectLifeCycle getObjectLifeCycle(String dataClass) {
+        update();
+        return integratedOLCs.get(dataClass);
+    }
+
+    /**
+     * Creates a synchronized object life cycle with one object life cycle per data class.
+     * Object life cycles of data classes which have not changed since the last call
+     * are the same instances. The synchronization edges of all fragments are mapped
+     * onto the integrated transitions.
+     *
+     * @return The synchronized object life cycle of all fragments.
+     */
+    public SynchronizedObjectLifeCycle getSynchronizedObjectLifeCycle() {
+        update();
+        List<ObjectLifeCycle> olcs = new ArrayList<>(referenceCounts.size());
+        for (String dataClass : referenceCounts.keySet()) {
+            olcs.add(integratedOLCs.get(dataClass));
+        }
+        SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
+        sOLC.setObjectLifeCycles(olcs);
+        sOLC.setSynchronisationEdges(SynchronizationEdges.remap(
+                synchronizationEdgeCounts.keySet(), integrations));
+        return sOLC;
+    }
+
+    /**
+     * @return The number of fragments which are part of the integration.
+     */
+    public int getFragmentCount() {
+        return contributions.size();
+    }
+
+    /**
+     * Integrates the object life cycles of all changed data classes again.
+     */
+    private void update() {
+        for (String dataClass : changedDataClasses) {
+            Map<TransitionKey, Integer> counts = referenceCounts.get(dataClass);
+            if (null == counts) {
+                integratedOLCs.remove(dataClass);
+                integrations.remove(dataClass);
+                continue;
+            }
+            DataClassIntegration integration = new DataClassIntegration(dataClass);
+            for (TransitionKey key : counts.keySet()) {
+                integration.add(key);
+            }
+            integrations.put(dataClass, integration);
+            integratedOLCs.put(dataClass, integration.toObjectLifeCycle());
+        }
+        changedDataClasses.clear();
+    }
+
+    /**
+     * Converts a fragment and extracts the keys of all transitions,
+     * which will be part of the integration, and its synchronization edges.
+     *
+     * @param fragment The fragment to be converted.
+     * @return The contribution of the fragment.
+     */
+    private Contribution extractContribution(ActivityCentricProcessModel fragment) {
+        SynchronizedObjectLifeCycle sOLC = new ActivityCentricToSynchronizedOLC().convert(fragment);
+        Contribution contribution = new Contribution();
+        for (ObjectLifeCycle olc : sOLC.getOLCs()) {
+            if (!contribution.transitions.containsKey(olc.getLabel())) {
+                contribution.transitions.put(olc.getLabel(), new LinkedHashSet<TransitionKey>());
+            }
+            for (StateTransition transition : olc.getTransitions()) {
+                if (DataClassIntegration.isIntegrated(transition)) {
+                    contribution.transitions.get(olc.getLabel()).add(TransitionKey.of(transition));
+                }
+            }
+        }
+        contribution.synchronizationEdges = SynchronizationEdges.extract(sOLC);
+        return contribution;
+    }
+
+    /**
+     * The contribution of one fragment to the integration.
+     */
+    private static class Contribution {
+        /**
+         * The keys of the transitions grouped by the label of the data class.
+         */
+        private Map<String, Set<TransitionKey>> transitions = new LinkedHashMap<>();
+        private Set<SynchronizationEdgeKey> synchronizationEdges;
+    }
+}
@@ -1,24 +1,26 @@
 package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.pcm;
 
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.IConverter;
-import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenario;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.activity_centric.ActivityCentricToSynchronizedOLC;
-import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
-import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizationEdgeKey;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * This class is a converter, which generates a {@link SynchronizedObjectLifeCycle}
  * based on a PCM Scenario. A PCM scenario is an aggregation of {@link ActivityCentricProcessModel}.
  * Hence a List of those models - called fragments - must be provided.
+ * If an {@link ExecutorService} is provided the fragments will be converted concurrently.
  */
 public class ScenarioToSynchronizedOLC implements IConverter<Scenario, SynchronizedObjectLifeCycle> {
-
     /**
      * The list of fragments representing the Production Case Management Scenario.
      */
@@ -33,6 +35,39 @@ public class ScenarioToSynchronizedOLC implements IConverter<Scenario, Synchroni
      * build the synchronized object life cycle.
      */
     private Collection<ObjectLifeCycle> olcs;
+    /**
+     * The synchronization edges of all fragments, independent of their transition instances.
+     */
+    private Set<SynchronizationEdgeKey> synchronizationEdges;
+    /**
+     * The integration of every data class, keyed by the label of the data class.
+     * It is used to map the synchronization edges onto the integrated transitions.
+     */
+    private Map<String, DataClassIntegration> integrations;
+    /**
+     * The executor used to convert the fragments concurrently.
+     * If it is null the fragments will be converted sequentially.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Creates a new converter, which converts the fragments sequentially.
+     */
+    public ScenarioToSynchronizedOLC() {
+    }
+
+    /**
+     * Creates a new converter, which converts the fragments concurrently.
+     * The fragments are only read, hence they may share nodes and states,
+     * but they must not be modified while the conversion runs.
+     * The executor will not be shut down by the converter.
+     *
+     * @param executor The executor used to convert the fragments. If it is null
+     *                 the fragments will be converted sequentially.
+     */
+    public ScenarioToSynchronizedOLC(ExecutorService executor) {
+        this.executor = executor;
+    }
 
     /**
      * This method generates an {@link SynchronizedObjectLifeCycle} based on a a Collection
@@ -41,20 +76,24 @@ public class ScenarioToSynchronizedOLC implements IConverter<Scenario, Synchroni
      * {@link #olcs} will be initialized.
      * Afterward we will generate Object Life Cycles for each Activity Centric Process Model.
      * Before creating an Object Life Cycle we will integrate the created OLCs.
+     * The synchronization edges of the fragments will be mapped onto the integrated transitions.
      *
      * @param fragments The list of fragments representing the PCM Scenario.
      * @return The generated Synchronized Object Life Cycle.
      */
     public SynchronizedObjectLifeCycle convert(Collection<ActivityCentricProcessModel> fragments) {
         this.fragments = fragments;
-        olcsPerDataClass = new HashMap<>();
-        olcs = new HashSet<>();
+        olcsPerDataClass = new LinkedHashMap<>();
+        olcs = new ArrayList<>();
+        synchronizationEdges = new LinkedHashSet<>();
+        integrations = new LinkedHashMap<>();
 
         generateObjectLifeCycles();
         integrateStates();
 
         SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
         sOLC.setObjectLifeCycles(new ArrayList<>(olcs));
+        sOLC.setSynchronisationEdges(SynchronizationEdges.remap(synchronizationEdges, integrations));
         return sOLC;
     }
 
@@ -63,107 +102,104 @@ public class ScenarioToSynchronizedOLC implements IConverter<Scenario, Synchroni
      * it will create object life cycles for each data object in each fragment.
      * Therefore it used the Converter {@link ActivityCentricToSynchronizedOLC}
      * and extracts the object life cycles from the {@link SynchronizedObjectLifeCycle}.
-     * They will be saved inside {@link #olcsPerDataClass}.
+     * They will be saved inside {@link #olcsPerDataClass}, their synchronization
+     * edges inside {@link #synchronizationEdges}.
+     * The results are grouped in the order of the fragments, no matter
+     * if they have been converted sequentially or concurrently.
      */
     private void generateObjectLifeCycles() {
-        for (ActivityCentricProcessModel fragment : fragments) {
-            ActivityCentricToSynchronizedOLC acpm2solc = new ActivityCentricToSynchronizedOLC();
-            SynchronizedObjectLifeCycle solc = (SynchronizedObjectLifeCycle) acpm2solc.convert(fragment);
+        List<SynchronizedObjectLifeCycle> convertedFragments = null == executor ?
+                convertSequentially() : convertConcurrently();
+        for (SynchronizedObjectLifeCycle solc : convertedFragments) {
+            synchronizationEdges.addAll(SynchronizationEdges.extract(solc));
             for (ObjectLifeCycle objectLifeCycle : solc.getOLCs()) {
                 if (!olcsPerDataClass.containsKey(objectLifeCycle.getLabel())) {
-                    olcsPerDataClass.put(objectLifeCycle.getLabel(), new HashSet<ObjectLifeCycle>());
+                    olcsPerDataClass.put(objectLifeCycle.getLabel(), new ArrayList<ObjectLifeCycle>());
                 }
                 olcsPerDataClass.get(objectLifeCycle.getLabel()).add(objectLifeCycle);
             }
         }
     }
+
     /**
-     * This method takes the Object life cycles inside {@link #olcsPerDataClass}
-     * and creates one olc per data class.
-     * We assume that the start state will be called init.
-     * As well as that the final states will have no outgoing edges.
+     * Converts every fragment using a new {@link ActivityCentricToSynchronizedOLC}.
+     *
+     * @return The synchronized object life cycles in the order of the fragments.
      */
-    private void integrateStates() {
-        for (Map.Entry<String, Collection<ObjectLifeCycle>> olcsAndName : olcsPerDataClass.entrySet()) {
-            Map<DataObjectState, Collection<StateTransition>> successors = new HashMap<>();
-            Map<String, DataObjectState> states = new HashMap<>();
-            initializeSuccessorsAndStates(olcsAndName, successors, states);
-            ObjectLifeCycle olc = new ObjectLifeCycle(olcsAndName.getKey());
-            for (DataObjectState dataObjectState : states.values()) {
-                olc.addNode(dataObjectState);
-                if (dataObjectState.getName().equals("init")) {
-                    olc.setStartNode(dataObjectState);
-                }
-                if (dataObjectState.getOutgoingEdges().isEmpty()) {
-                    olc.addFinalNode(dataObjectState);
-                }
-            }
-            olcs.add(olc);
+    private List<SynchronizedObjectLifeCycle> convertSequentially() {
+        List<SynchronizedObjectLifeCycle> convertedFragments = new ArrayList<>(fragments.size());
+        for (ActivityCentricProcessModel fragment : fragments) {
+            convertedFragments.add(new ActivityCentricToSynchronizedOLC().convert(fragment));
         }
+        return convertedFragments;
     }
 
     /**
-     * This method initializes the successors and states.
-     * Therefore it iterates of every Object Life Cycle.
-     * For each transition the source and target will be determined, and if no such state
-     * has been added before it will be added to the states.
-     * In addition the target will be added to the list of successors for the source.
-     * @param olcsAndName A MapEntry holding all Object Life Cycles for one name name.
-     * @param successors A Map holding all DataStates and a Collection of their successors. (Will save the result)
-     * @param states A Map for all States (will save the result)
+     * Converts every fragment using a new {@link ActivityCentricToSynchronizedOLC}.
+     * One task per fragment will be submitted to the {@link #executor}.
+     * Exceptions and errors of a conversion will be rethrown.
+     *
+     * @return The synchronized object life cycles in the order of the fragments.
      */
-    private void initializeSuccessorsAndStates(Map.Entry<String, Collection<ObjectLifeCycle>> olcsAndName, Map<DataObjectState,
-            Collection<StateTransition>> successors,
-            Map<String, DataObjectState> states) {
-        for (ObjectLifeCycle olc : olcsAndName.getValue()) {
-            for (IEdge transition : olc.getEdgeOfType(StateTransition.class)) {
-                if (!((DataObjectState)transition.getSource()).getName().equals("i")) {
-                    String sourceName = ((DataObjectState) transition.getSource()).getName();
-                    String targetName = ((DataObjectState) transition.getTarget()).getName();
-                    if (!states.containsKey(sourceName)) {
-                        states.put(sourceName, new DataObjectState(sourceName));
-                    }
-                    if (!states.containsKey(targetName)) {
-                        states.put(targetName, new DataObjectState(targetName));
-                    }
-                    if (!successors.containsKey(states.get(sourceName))) {
-                        successors.put(states.get(sourceName), new HashSet<StateTransition>());
-                    }
-                    if (!successorExists(successors.get(states.get(sourceName)), (StateTransition) transition)) {
-                        StateTransition newTransition = new StateTransition(
-                                states.get(sourceName),
-                                states.get(targetName),
-                                ((StateTransition) transition).getLabel());
-                        successors.get(states.get(sourceName)).add(newTransition);
-                        states.get(sourceName).addOutgoingEdge(newTransition);
-                        states.get(targetName).addIncomingEdge(newTransition);
-                    }
+    private List<SynchronizedObjectLifeCycle> convertConcurrently() {
+        List<Callable<SynchronizedObjectLifeCycle>> tasks = new ArrayList<>(fragments.size());
+        for (final ActivityCentricProcessModel fragment : fragments) {
+            tasks.add(new Callable<SynchronizedObjectLifeCycle>() {
+                @Override
+                public SynchronizedObjectLifeCycle call() {
+                    return new ActivityCentricToSynchronizedOLC().convert(fragment);
                 }
+            });
+        }
+        List<SynchronizedObjectLifeCycle> convertedFragments = new ArrayList<>(fragments.size());
+        try {
+            for (Future<SynchronizedObjectLifeCycle> result : executor.invokeAll(tasks)) {
+                convertedFragments.add(result.get());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The conversion of the fragments has been interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("A fragment could not be converted", e.getCause());
         }
+        return convertedFragments;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
     }
 
+    /**
+     * Sets the executor used to convert the fragments.
+     *
+     * @param executor The executor, if it is null the fragments will be converted sequentially.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
 
     /**
-     * Checks weather or not a transition already exists. A transition exists if and only if
-     * all the following conditions are true:
-     * - The source and target names are the same
-     * - The state transition label is the same.
-     * @param stateTransitions A Collection of all existing transitions.
-     * @param transition The transition to be checked.
-     * @return Returns true if the transition exists else it will return false.
+     * This method takes the Object life cycles inside {@link #olcsPerDataClass}
+     * and creates one olc per data class.
+     * We assume that the start state will be called init.
+     * As well as that the final states will have no outgoing edges.
+     * The transitions are merged using a {@link DataClassIntegration}, which indexes
+     * them by source name, target name and label.
      */
-    private boolean successorExists(Collection<StateTransition> stateTransitions, StateTransition transition) {
-        for (StateTransition stateTransition : stateTransitions) {
-            if (((DataObjectState)stateTransition.getSource()).getName().equals(
-                    ((DataObjectState)transition.getSource()).getName()) &&
-                    ((DataObjectState)stateTransition.getTarget()).getName().equals(
-                            ((DataObjectState)transition.getTarget()).getName()) &&
-                    stateTransition.getLabel().equals(transition.getLabel())) {
-                return true;
+    private void integrateStates() {
+        for (Map.Entry<String, Collection<ObjectLifeCycle>> olcsAndName : olcsPerDataClass.entrySet()) {
+            DataClassIntegration integration = new DataClassIntegration(olcsAndName.getKey());
+            for (ObjectLifeCycle olc : olcsAndName.getValue()) {
+                integration.integrate(olc);
             }
+            integrations.put(olcsAndName.getKey(), integration);
+            olcs.add(integration.toObjectLifeCycle());
         }
-        return false;
     }
 
     @Override
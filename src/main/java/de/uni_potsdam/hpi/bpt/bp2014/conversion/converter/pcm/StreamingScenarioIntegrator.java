@@ -0,0 +1,104 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.pcm;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.activity_centric.ActivityCentricToSynchronizedOLC;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizationEdgeKey;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+
+import java.util.*;
+
+/**
+ * This class integrates the fragments of a scenario one at a time.
+ * It creates the same object life cycles as {@link ScenarioToSynchronizedOLC},
+ * but it does not need all fragments at once. Every fragment is converted
+ * and its object life cycles are folded into the integration of their data class
+ * immediately. Afterwards neither the fragment nor its object life cycles are referenced,
+ * hence the memory needed is bounded by the size of the integrated object life cycles
+ * and their synchronization edges.
+ * Fragments can be read lazily from an {@link Iterator}, e.g. one which parses
+ * them from files.
+ */
+public class StreamingScenarioIntegrator {
+    /**
+     * The integration of every data class, keyed by the label of the data class.
+     */
+    private Map<String, DataClassIntegration> integrations;
+    /**
+     * The synchronization edges of all fragments, independent of their transition instances.
+     */
+    private Set<SynchronizationEdgeKey> synchronizationEdges;
+    private int fragmentCount;
+    private boolean finished;
+
+    /**
+     * Creates a new integrator without fragments.
+     */
+    public StreamingScenarioIntegrator() {
+        integrations = new LinkedHashMap<>();
+        synchronizationEdges = new LinkedHashSet<>();
+    }
+
+    /**
+     * Converts a fragment and integrates its object life cycles.
+     * The integrator keeps no reference to the fragment.
+     *
+     * @param fragment The fragment to be integrated.
+     *                 Pre: The fragment must not be null.
+     *                 {@link #finish()} must not have been called.
+     */
+    public void add(ActivityCentricProcessModel fragment) {
+        assert null != fragment : "The Fragment must not be null";
+        assert !finished : "Fragments can not be added after the integration has been finished";
+        SynchronizedObjectLifeCycle sOLC = new ActivityCentricToSynchronizedOLC().convert(fragment);
+        for (ObjectLifeCycle olc : sOLC.getOLCs()) {
+            DataClassIntegration integration = integrations.get(olc.getLabel());
+            if (null == integration) {
+                integration = new DataClassIntegration(olc.getLabel());
+                integrations.put(olc.getLabel(), integration);
+            }
+            integration.integrate(olc);
+        }
+        synchronizationEdges.addAll(SynchronizationEdges.extract(sOLC));
+        fragmentCount++;
+    }
+
+    /**
+     * Integrates all fragments provided by an iterator.
+     * Only one fragment will be referenced at a time.
+     *
+     * @param fragments The iterator providing the fragments.
+     */
+    public void addAll(Iterator<? extends ActivityCentricProcessModel> fragments) {
+        while (fragments.hasNext()) {
+            add(fragments.next());
+        }
+    }
+
+    /**
+     * @return The number of fragments integrated so far.
+     */
+    public int getFragmentCount() {
+        return fragmentCount;
+    }
+
+    /**
+     * Finishes the integration and creates the synchronized object life cycle.
+     * Afterwards no fragments can be added.
+     *
+     * @return The synchronized object life cycle with one object life cycle per data class.
+     * Pre: The method has not been called before.
+     */
+    public SynchronizedObjectLifeCycle finish() {
+        assert !finished : "The integration has already been finished";
+        finished = true;
+        List<ObjectLifeCycle> olcs = new ArrayList<>(integrations.size());
+        for (DataClassIntegration integration : integrations.values()) {
+            olcs.add(integration.toObjectLifeCycle());
+        }
+        SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
+        sOLC.setObjectLifeCycles(olcs);
+        sOLC.setSynchronisationEdges(SynchronizationEdges.remap(synchronizationEdges, integrations));
+        return sOLC;
+    }
+}
@@ -0,0 +1,98 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.pcm;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.TransitionKey;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizationEdgeKey;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+
+import java.util.*;
+
+/**
+ * This class collects the synchronization edges of fragments as {@link SynchronizationEdgeKey}s,
+ * which are independent of the fragment's state and transition instances.
+ * Hence the edges of all fragments can be collected and afterwards be mapped
+ * onto the transitions of the integrated object life cycles.
+ */
+final class SynchronizationEdges {
+
+    private SynchronizationEdges() {
+    }
+
+    /**
+     * Extracts the synchronization edges of a converted fragment.
+     * Edges between transitions which are not integrated (e.g. leaving the pseudo
+     * initial state) and transitions without an object life cycle will be skipped.
+     *
+     * @param sOLC The synchronized object life cycle of one fragment.
+     * @return The edges in a new set.
+     */
+    static Set<SynchronizationEdgeKey> extract(SynchronizedObjectLifeCycle sOLC) {
+        Set<SynchronizationEdgeKey> edges = new LinkedHashSet<>();
+        for (Map.Entry<StateTransition, List<StateTransition>> entry
+                : sOLC.getSynchronisationEdges().entrySet()) {
+            String sourceDataClass = dataClassOf(entry.getKey());
+            if (null == sourceDataClass) {
+                continue;
+            }
+            TransitionKey sourceTransition = TransitionKey.of(entry.getKey());
+            for (StateTransition target : entry.getValue()) {
+                String targetDataClass = dataClassOf(target);
+                if (null != targetDataClass) {
+                    edges.add(new SynchronizationEdgeKey(sourceDataClass, sourceTransition,
+                            targetDataClass, TransitionKey.of(target)));
+                }
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Determines the data class of a transition, if the transition will be integrated.
+     *
+     * @param transition The transition of a fragment OLC.
+     * @return The label of the data class or null.
+     */
+    private static String dataClassOf(StateTransition transition) {
+        DataObjectState source = (DataObjectState) transition.getSource();
+        if (!DataClassIntegration.isIntegrated(transition) || null == source.getObjectLifeCycle()) {
+            return null;
+        }
+        return source.getObjectLifeCycle().getLabel();
+    }
+
+    /**
+     * Maps synchronization edges onto the transitions of the integrated object life cycles.
+     * Edges whose transitions are not part of the integrations will be skipped.
+     *
+     * @param edges        The edges to be mapped.
+     * @param integrations The integrations keyed by the label of their data class.
+     * @return The synchronization edges of the integrated synchronized object life cycle.
+     */
+    static Map<StateTransition, List<StateTransition>> remap(
+            Collection<SynchronizationEdgeKey> edges, Map<String, DataClassIntegration> integrations) {
+        Map<StateTransition, List<StateTransition>> synchronisationEdges = new LinkedHashMap<>();
+        for (SynchronizationEdgeKey edge : edges) {
+            StateTransition source = lookup(integrations, edge.getSourceDataClass(), edge.getSourceTransition());
+            StateTransition target = lookup(integrations, edge.getTargetDataClass(), edge.getTargetTransition());
+            if (null == source || null == target) {
+                continue;
+            }
+            List<StateTransition> targets = synchronisationEdges.get(source);
+            if (null == targets) {
+                targets = new ArrayList<>();
+                synchronisationEdges.put(source, targets);
+            }
+            if (!targets.contains(target)) {
+                targets.add(target);
+            }
+        }
+        return synchronisationEdges;
+    }
+
+    private static StateTransition lookup(Map<String, DataClassIntegration> integrations,
+                                          String dataClass, TransitionKey key) {
+        DataClassIntegration integration = integrations.get(dataClass);
+        return null == integration ? null : integration.getTransition(key);
+    }
+}
@@ -0,0 +1,381 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenario;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+
+import java.util.*;
+
+/**
+ * This class computes order independent structural fingerprints of process models.
+ * Two models which have been built separately but are structurally identical
+ * (same node types, names, states and edges) receive the same fingerprint,
+ * no matter in which order their elements have been added.
+ * <p>
+ * The fingerprint is computed using a Weisfeiler-Lehman label refinement.
+ * Every node starts with a label derived from its type and name. In each of
+ * the {@link #ROUNDS} rounds the label of a node is combined with the multiset
+ * of labels of its neighbors and the kinds of the connecting edges. Multisets are
+ * aggregated using sums, hence each round is linear in the number of nodes and edges.
+ * Fingerprints only depend on the content of the models, they are stable across
+ * JVM runs and can be persisted.
+ * <p>
+ * A fingerprint is a hash, not an identity. Structurally different models may
+ * share a fingerprint, e.g. models which differ only beyond {@link #ROUNDS} edges
+ * from every node or regular structures like one cycle of six gateways and two
+ * cycles of three. Hence equal fingerprints only mark candidates, every consumer
+ * has to confirm a match with {@link #equalsStructurally(IModel, IModel)}.
+ * Different fingerprints always mean different structures.
+ */
+public final class StructuralFingerprint {
+    /**
+     * The number of refinement rounds. Each round propagates structural information
+     * one edge further.
+     */
+    public static final int ROUNDS = 3;
+
+    private static final long ACTIVITY = 0x1L;
+    private static final long EVENT = 0x2L;
+    private static final long GATEWAY = 0x3L;
+    private static final long DATA_OBJECT = 0x4L;
+    private static final long STATE = 0x5L;
+    private static final long OTHER_NODE = 0x6L;
+    private static final long CONTROL_FLOW = 0x11L;
+    private static final long DATA_FLOW = 0x12L;
+    private static final long STATE_TRANSITION = 0x13L;
+    private static final long OTHER_EDGE = 0x14L;
+    private static final long OUTGOING = 0x21L;
+    private static final long INCOMING = 0x22L;
+    private static final long START = 0x31L;
+    private static final long FINAL = 0x32L;
+    private static final long OLC = 0x41L;
+    private static final long SYNCHRONIZATION = 0x42L;
+    private static final long SCENARIO = 0x43L;
+    private static final long PROCESS_MODEL = 0x44L;
+
+    private StructuralFingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of an activity centric process model.
+     * Nodes which are only reachable via edges are taken into account as well.
+     *
+     * @param acpm The model, must not be null.
+     * @return The fingerprint of the model.
+     */
+    public static long of(ActivityCentricProcessModel acpm) {
+        assert null != acpm : "The model must not be null";
+        return new Refinement(acpm.getNodes(), null, null).fingerprint(PROCESS_MODEL);
+    }
+
+    /**
+     * Computes the fingerprint of an object life cycle.
+     * The label of the object life cycle, the start state and the final
+     * states are part of the fingerprint.
+     *
+     * @param olc The object life cycle, must not be null.
+     * @return The fingerprint of the object life cycle.
+     */
+    public static long of(ObjectLifeCycle olc) {
+        assert null != olc : "The object life cycle must not be null";
+        return refine(olc).fingerprint(combine(OLC, hash(olc.getLabel())));
+    }
+
+    /**
+     * Computes the fingerprint of a synchronized object life cycle.
+     * It aggregates the fingerprints of all object life cycles and
+     * the synchronization edges between their transitions.
+     *
+     * @param sOLC The synchronized object life cycle, must not be null.
+     * @return The fingerprint of the synchronized object life cycle.
+     */
+    public static long of(SynchronizedObjectLifeCycle sOLC) {
+        assert null != sOLC : "The synchronized object life cycle must not be null";
+        Map<INode, Long> stateLabels = new IdentityHashMap<>();
+        long olcs = 0L;
+        for (ObjectLifeCycle olc : sOLC.getOLCs()) {
+            Refinement refinement = refine(olc);
+            long label = combine(OLC, hash(olc.getLabel()));
+            olcs += mix(refinement.fingerprint(label));
+            for (int i = 0; i < refinement.nodes.size(); i++) {
+                stateLabels.put(refinement.nodes.get(i), combine(label, refinement.labels[i]));
+            }
+        }
+        long synchronization = 0L;
+        for (Map.Entry<StateTransition, List<StateTransition>> entry
+                : sOLC.getSynchronisationEdges().entrySet()) {
+            long linked = 0L;
+            for (StateTransition transition : entry.getValue()) {
+                linked += mix(transitionLabel(transition, stateLabels));
+            }
+            synchronization += mix(combine(
+                    transitionLabel(entry.getKey(), stateLabels), linked));
+        }
+        return combine(combine(SYNCHRONIZATION, olcs), synchronization);
+    }
+
+    /**
+     * Computes the fingerprint of a scenario.
+     * The fingerprint aggregates the fingerprints of all fragments,
+     * fragments which occur multiple times will be counted multiple times.
+     *
+     * @param scenario The scenario, must not be null.
+     * @return The fingerprint of the scenario.
+     */
+    public static long of(Scenario scenario) {
+        assert null != scenario : "The scenario must not be null";
+        long fragments = 0L;
+        for (Map.Entry<ActivityCentricProcessModel, Integer> fragment
+                : scenario.getFragmentMultiplicities().entrySet()) {
+            fragments += mix(of(fragment.getKey())) * fragment.getValue();
+        }
+        return combine(SCENARIO, fragments);
+    }
+
+    /**
+     * Computes the fingerprint of a model of one of the supported types.
+     * The computation is delegated to the method for the concrete type.
+     *
+     * @param model The model, must not be null.
+     * @return The fingerprint of the model.
+     * @throws IllegalArgumentException if the type of the model is not supported.
+     */
+    public static long of(IModel model) {
+        assert null != model : "The model must not be null";
+        if (model instanceof ActivityCentricProcessModel) {
+            return of((ActivityCentricProcessModel) model);
+        } else if (model instanceof ObjectLifeCycle) {
+            return of((ObjectLifeCycle) model);
+        } else if (model instanceof SynchronizedObjectLifeCycle) {
+            return of((SynchronizedObjectLifeCycle) model);
+        } else if (model instanceof Scenario) {
+            return of((Scenario) model);
+        }
+        throw new IllegalArgumentException("Fingerprints are not supported for "
+                + model.getClass().getName());
+    }
+
+    /**
+     * Decides whether two models are structurally identical, in contrast to
+     * comparing fingerprints this is exact. Use it to confirm that two models
+     * with equal fingerprints are identical. Models of different types are never
+     * identical, scenarios are identical if their fragments are identical and
+     * occur equally often.
+     *
+     * @param first  A model, must not be null.
+     * @param second Another model, must not be null.
+     * @return True if there is a bijection between the nodes of both models which
+     * preserves types, names, states, start and final nodes and all edges.
+     * @throws IllegalArgumentException if the type of a model is not supported.
+     */
+    public static boolean equalsStructurally(IModel first, IModel second) {
+        assert null != first && null != second : "The models must not be null";
+        return StructuralMatcher.equal(first, second);
+    }
+
+    /**
+     * Returns the refined structural label of every node of the model.
+     * Nodes with the same label are structurally indistinguishable
+     * within {@link #ROUNDS} steps, hence the labels can be used to order
+     * nodes deterministically. Like the fingerprint, different nodes may
+     * share a label.
+     *
+     * @param acpm The model, must not be null.
+     * @return A new map (based on identity) from each node to its label.
+     */
+    public static Map<INode, Long> nodeLabels(ActivityCentricProcessModel acpm) {
+        assert null != acpm : "The model must not be null";
+        Refinement refinement = new Refinement(acpm.getNodes(), null, null);
+        Map<INode, Long> labels = new IdentityHashMap<>();
+        for (int i = 0; i < refinement.nodes.size(); i++) {
+            labels.put(refinement.nodes.get(i), refinement.labels[i]);
+        }
+        return labels;
+    }
+
+    private static Refinement refine(ObjectLifeCycle olc) {
+        Set<INode> finalStates = Collections.newSetFromMap(new IdentityHashMap<INode, Boolean>());
+        finalStates.addAll(olc.getFinalNodes());
+        return new Refinement(olc.getNodes(), olc.getStartNode(), finalStates);
+    }
+
+    private static long transitionLabel(StateTransition transition, Map<INode, Long> stateLabels) {
+        Long source = stateLabels.get(transition.getSource());
+        Long target = stateLabels.get(transition.getTarget());
+        return combine(combine(edgeLabel(transition), null == source ? 0L : source),
+                null == target ? 0L : target);
+    }
+
+    /**
+     * Determines the initial label of a node, based on its type and name.
+     */
+    private static long nodeLabel(INode node) {
+        if (node instanceof Activity) {
+            return combine(ACTIVITY, hash(((Activity) node).getName()));
+        } else if (node instanceof Event) {
+            Event.Type type = ((Event) node).getType();
+            return combine(EVENT, null == type ? 0L : type.ordinal() + 1);
+        } else if (node instanceof Gateway) {
+            Gateway.Type type = ((Gateway) node).getType();
+            return combine(GATEWAY, null == type ? 0L : type.ordinal() + 1);
+        } else if (node instanceof DataObject) {
+            DataObject dataObject = (DataObject) node;
+            return combine(combine(DATA_OBJECT, hash(dataObject.getName())),
+                    null == dataObject.getState() ? 0L : hash(dataObject.getState().getName()));
+        } else if (node instanceof DataObjectState) {
+            return combine(STATE, hash(((DataObjectState) node).getName()));
+        }
+        return combine(OTHER_NODE, hash(node.getClass().getName()));
+    }
+
+    private static long edgeLabel(IEdge edge) {
+        if (edge instanceof ControlFlow) {
+            return CONTROL_FLOW;
+        } else if (edge instanceof DataFlow) {
+            return DATA_FLOW;
+        } else if (edge instanceof StateTransition) {
+            return combine(STATE_TRANSITION, hash(((StateTransition) edge).getLabel()));
+        }
+        return combine(OTHER_EDGE, hash(edge.getClass().getName()));
+    }
+
+    /**
+     * A stable 64 bit FNV-1a hash of a String, it is used for labels by the model archive as well.
+     *
+     * @param value The String to be hashed, may be null.
+     * @return The hash of the String, 0 for null.
+     */
+    public static long hash(String value) {
+        if (null == value) {
+            return 0L;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * The finalizer of SplitMix64, it spreads the bits of a value.
+     */
+    static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Combines two values, the order of the values matters.
+     */
+    static long combine(long first, long second) {
+        return mix(first * 0x9e3779b97f4a7c15L + second);
+    }
+
+    /**
+     * Holds the state of one label refinement.
+     * Nodes are indexed once, edges are taken from the outgoing edges
+     * of each node only, so every edge is considered exactly once.
+     */
+    private static class Refinement {
+        private final List<INode> nodes;
+        private final Map<INode, Integer> index;
+        private long[] labels;
+        private int[] edgeSources;
+        private int[] edgeTargets;
+        private long[] edgeLabels;
+        private int edgeCount;
+
+        Refinement(Collection<? extends INode> modelNodes, INode startNode, Set<INode> finalNodes) {
+            nodes = new ArrayList<>(modelNodes.size());
+            index = new IdentityHashMap<>(modelNodes.size() * 2);
+            for (INode node : modelNodes) {
+                indexOf(node);
+            }
+            edgeSources = new int[Math.max(4, nodes.size())];
+            edgeTargets = new int[edgeSources.length];
+            edgeLabels = new long[edgeSources.length];
+            for (int i = 0; i < nodes.size(); i++) {
+                for (IEdge edge : nodes.get(i).getOutgoingEdges()) {
+                    if (null != edge && null != edge.getTarget()) {
+                        addEdge(i, indexOf(edge.getTarget()), edgeLabel(edge));
+                    }
+                }
+            }
+            labels = new long[nodes.size()];
+            for (int i = 0; i < nodes.size(); i++) {
+                INode node = nodes.get(i);
+                long label = nodeLabel(node);
+                if (node == startNode) {
+                    label = combine(label, START);
+                }
+                if (null != finalNodes && finalNodes.contains(node)) {
+                    label = combine(label, FINAL);
+                }
+                labels[i] = label;
+            }
+            for (int round = 0; round < ROUNDS; round++) {
+                refine();
+            }
+        }
+
+        private int indexOf(INode node) {
+            Integer position = index.get(node);
+            if (null == position) {
+                position = nodes.size();
+                index.put(node, position);
+                nodes.add(node);
+            }
+            return position;
+        }
+
+        private void addEdge(int source, int target, long label) {
+            if (edgeCount == edgeSources.length) {
+                edgeSources = Arrays.copyOf(edgeSources, edgeCount * 2);
+                edgeTargets = Arrays.copyOf(edgeTargets, edgeCount * 2);
+                edgeLabels = Arrays.copyOf(edgeLabels, edgeCount * 2);
+            }
+            edgeSources[edgeCount] = source;
+            edgeTargets[edgeCount] = target;
+            edgeLabels[edgeCount] = label;
+            edgeCount++;
+        }
+
+        /**
+         * Executes one round of the refinement.
+         */
+        private void refine() {
+            long[] outgoing = new long[labels.length];
+            long[] incoming = new long[labels.length];
+            for (int i = 0; i < edgeCount; i++) {
+                outgoing[edgeSources[i]] += mix(combine(edgeLabels[i], labels[edgeTargets[i]]));
+                incoming[edgeTargets[i]] += mix(combine(edgeLabels[i], labels[edgeSources[i]]));
+            }
+            long[] refined = new long[labels.length];
+            for (int i = 0; i < labels.length; i++) {
+                refined[i] = combine(combine(combine(labels[i], OUTGOING), outgoing[i]),
+                        combine(INCOMING, incoming[i]));
+            }
+            labels = refined;
+        }
+
+        /**
+         * Aggregates the labels of all nodes, together with the size of the graph.
+         */
+        long fingerprint(long seed) {
+            long sum = 0L;
+            for (long label : labels) {
+                sum += mix(label);
+            }
+            return combine(combine(combine(seed, nodes.size()), edgeCount), sum);
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenario;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+
+import java.util.*;
+
+/**
+ * Decides whether two models are structurally identical, which means there is
+ * a bijection between their nodes preserving the types, names and states of the
+ * nodes as well as the edges and their kinds. This is the relation which is
+ * approximated by the {@link StructuralFingerprint}.
+ * <p>
+ * Both models are translated into labeled graphs. Object life cycles represent
+ * their transitions as nodes, so synchronization edges can connect them.
+ * The candidates for every node are narrowed by a color refinement which runs
+ * until the partition of the nodes is stable, the remaining choices are explored
+ * by backtracking which compares the exact names and edges. Only models with many
+ * indistinguishable nodes, which process models rarely have, need many steps.
+ */
+final class StructuralMatcher {
+    private static final List<Object> MEMBER = Collections.<Object>singletonList("member");
+    private static final List<Object> FROM = Collections.<Object>singletonList("from");
+    private static final List<Object> TO = Collections.<Object>singletonList("to");
+    private static final List<Object> SYNCHRONIZATION = Collections.<Object>singletonList("synchronization");
+
+    private StructuralMatcher() {
+    }
+
+    /**
+     * @return True if both models are of the same kind and structurally identical.
+     * @throws IllegalArgumentException If the type of a model is not supported.
+     */
+    static boolean equal(IModel first, IModel second) {
+        if (first == second) {
+            return true;
+        }
+        if (first instanceof Scenario || second instanceof Scenario) {
+            return first instanceof Scenario && second instanceof Scenario
+                    && equalScenarios((Scenario) first, (Scenario) second);
+        }
+        Graph firstGraph = graphOf(first);
+        Graph secondGraph = graphOf(second);
+        return firstGraph.kind.equals(secondGraph.kind) && isomorphic(firstGraph, secondGraph);
+    }
+
+    /**
+     * Scenarios are equal if their fragments can be paired, such that the fragments
+     * of each pair are structurally identical and occur equally often.
+     */
+    private static boolean equalScenarios(Scenario first, Scenario second) {
+        Map<ActivityCentricProcessModel, Integer> firstFragments = first.getFragmentMultiplicities();
+        List<Map.Entry<ActivityCentricProcessModel, Integer>> remaining =
+                new LinkedList<>(second.getFragmentMultiplicities().entrySet());
+        if (firstFragments.size() != remaining.size()) {
+            return false;
+        }
+        for (Map.Entry<ActivityCentricProcessModel, Integer> fragment : firstFragments.entrySet()) {
+            long fingerprint = StructuralFingerprint.of(fragment.getKey());
+            boolean paired = false;
+            for (Iterator<Map.Entry<ActivityCentricProcessModel, Integer>> candidates = remaining.iterator();
+                 candidates.hasNext() && !paired; ) {
+                Map.Entry<ActivityCentricProcessModel, Integer> candidate = candidates.next();
+                if (candidate.getValue().equals(fragment.getValue())
+                        && fingerprint == StructuralFingerprint.of(candidate.getKey())
+                        && equal(fragment.getKey(), candidate.getKey())) {
+                    candidates.remove();
+                    paired = true;
+                }
+            }
+            if (!paired) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Graph graphOf(IModel model) {
+        if (model instanceof ActivityCentricProcessModel) {
+            Graph graph = new Graph("ActivityCentricProcessModel");
+            for (INode node : model.getNodes()) {
+                graph.nodeOf(node, nodeDescriptor(node));
+            }
+            for (int i = 0; i < graph.size(); i++) {
+                for (IEdge edge : ((INode) graph.elements.get(i)).getOutgoingEdges()) {
+                    if (null != edge && null != edge.getTarget()) {
+                        graph.addEdge(i, graph.nodeOf(edge.getTarget(), nodeDescriptor(edge.getTarget())),
+                                edgeDescriptor(edge));
+                    }
+                }
+            }
+            return graph;
+        } else if (model instanceof ObjectLifeCycle) {
+            ObjectLifeCycle olc = (ObjectLifeCycle) model;
+            Graph graph = new Graph(Arrays.<Object>asList("ObjectLifeCycle", olc.getLabel()));
+            addOLC(graph, olc, -1, new HashMap<StateTransition, Integer>());
+            return graph;
+        } else if (model instanceof SynchronizedObjectLifeCycle) {
+            SynchronizedObjectLifeCycle sOLC = (SynchronizedObjectLifeCycle) model;
+            Graph graph = new Graph("SynchronizedObjectLifeCycle");
+            Map<StateTransition, Integer> transitions = new HashMap<>();
+            for (ObjectLifeCycle olc : sOLC.getOLCs()) {
+                int olcNode = graph.addNode(olc, Arrays.<Object>asList("olc", olc.getLabel()));
+                addOLC(graph, olc, olcNode, transitions);
+            }
+            for (Map.Entry<StateTransition, List<StateTransition>> edge
+                    : sOLC.getSynchronisationEdges().entrySet()) {
+                int source = transitionNode(graph, edge.getKey(), transitions);
+                for (StateTransition target : edge.getValue()) {
+                    graph.addEdge(source, transitionNode(graph, target, transitions), SYNCHRONIZATION);
+                }
+            }
+            return graph;
+        }
+        throw new IllegalArgumentException("Structural equality is not supported for "
+                + model.getClass().getName());
+    }
+
+    /**
+     * Adds the states of an object life cycle and every state reachable from them.
+     * Each transition becomes a node between its source and its target.
+     *
+     * @param olcNode     The node of the object life cycle, its states will be linked to it.
+     *                    -1 if there is none.
+     * @param transitions The nodes of the transitions, compared by {@link StateTransition#equals(Object)}.
+     */
+    private static void addOLC(Graph graph, ObjectLifeCycle olc, int olcNode,
+                               Map<StateTransition, Integer> transitions) {
+        Set<INode> finalStates = Collections.newSetFromMap(new IdentityHashMap<INode, Boolean>());
+        finalStates.addAll(olc.getFinalNodes());
+        INode startState = olc.getStartNode();
+        int first = graph.size();
+        for (INode state : olc.getNodes()) {
+            int node = graph.nodeOf(state, Arrays.<Object>asList("state", ((DataObjectState) state).getName(),
+                    state == startState, finalStates.contains(state)));
+            if (olcNode >= 0) {
+                graph.addEdge(olcNode, node, MEMBER);
+            }
+        }
+        for (int i = first; i < graph.size(); i++) {
+            if (!(graph.elements.get(i) instanceof DataObjectState)) {
+                continue;
+            }
+            for (IEdge edge : ((INode) graph.elements.get(i)).getOutgoingEdges()) {
+                if (null == edge || null == edge.getTarget()) {
+                    continue;
+                }
+                int target = graph.nodeOf(edge.getTarget(), nodeDescriptor(edge.getTarget()));
+                int transition = graph.addNode(edge, edgeDescriptor(edge));
+                graph.addEdge(i, transition, FROM);
+                graph.addEdge(transition, target, TO);
+                if (edge instanceof StateTransition && !transitions.containsKey(edge)) {
+                    transitions.put((StateTransition) edge, transition);
+                }
+            }
+        }
+    }
+
+    private static int transitionNode(Graph graph, StateTransition transition,
+                                      Map<StateTransition, Integer> transitions) {
+        Integer node = transitions.get(transition);
+        if (null == node) {
+            node = graph.addNode(transition, edgeDescriptor(transition));
+            transitions.put(transition, node);
+        }
+        return node;
+    }
+
+    /**
+     * The exact counterpart of the initial label used by the fingerprint.
+     */
+    private static List<Object> nodeDescriptor(INode node) {
+        if (node instanceof Activity) {
+            return Arrays.<Object>asList("activity", ((Activity) node).getName());
+        } else if (node instanceof Event) {
+            return Arrays.<Object>asList("event", ((Event) node).getType());
+        } else if (node instanceof Gateway) {
+            return Arrays.<Object>asList("gateway", ((Gateway) node).getType());
+        } else if (node instanceof DataObject) {
+            DataObject dataObject = (DataObject) node;
+            return Arrays.<Object>asList("dataObject", dataObject.getName(),
+                    null == dataObject.getState() ? null : dataObject.getState().getName());
+        } else if (node instanceof DataObjectState) {
+            return Arrays.<Object>asList("state", ((DataObjectState) node).getName(), false, false);
+        }
+        return Arrays.<Object>asList("node", node.getClass().getName());
+    }
+
+    private static List<Object> edgeDescriptor(IEdge edge) {
+        if (edge instanceof ControlFlow) {
+            return Collections.<Object>singletonList("controlFlow");
+        } else if (edge instanceof DataFlow) {
+            return Collections.<Object>singletonList("dataFlow");
+        } else if (edge instanceof StateTransition) {
+            return Arrays.<Object>asList("transition", ((StateTransition) edge).getLabel());
+        }
+        return Arrays.<Object>asList("edge", edge.getClass().getName());
+    }
+
+    private static boolean isomorphic(Graph first, Graph second) {
+        if (first.size() != second.size() || first.edgeCount() != second.edgeCount()) {
+            return false;
+        }
+        first.buildAdjacency();
+        second.buildAdjacency();
+        long[] firstColors = first.initialColors();
+        long[] secondColors = second.initialColors();
+        int classes = 0;
+        while (true) {
+            if (!sameColors(firstColors, secondColors)) {
+                return false;
+            }
+            int refinedClasses = countDistinct(firstColors);
+            if (refinedClasses == classes) {
+                break;
+            }
+            classes = refinedClasses;
+            firstColors = first.refine(firstColors);
+            secondColors = second.refine(secondColors);
+        }
+        return new Search(first, second, firstColors, secondColors).run();
+    }
+
+    private static boolean sameColors(long[] first, long[] second) {
+        long[] sortedFirst = first.clone();
+        long[] sortedSecond = second.clone();
+        Arrays.sort(sortedFirst);
+        Arrays.sort(sortedSecond);
+        return Arrays.equals(sortedFirst, sortedSecond);
+    }
+
+    private static int countDistinct(long[] colors) {
+        Set<Long> distinct = new HashSet<>();
+        for (long color : colors) {
+            distinct.add(color);
+        }
+        return distinct.size();
+    }
+
+    /**
+     * A directed graph whose nodes and edges carry descriptors compared by equals.
+     */
+    private static class Graph {
+        private final Object kind;
+        private final List<Object> elements = new ArrayList<>();
+        private final List<Object> descriptors = new ArrayList<>();
+        private final Map<Object, Integer> index = new IdentityHashMap<>();
+        private final List<int[]> edges = new ArrayList<>();
+        private final List<Object> edgeDescriptors = new ArrayList<>();
+        private int[][] outgoing;
+        private int[][] incoming;
+
+        Graph(Object kind) {
+            this.kind = kind;
+        }
+
+        int size() {
+            return elements.size();
+        }
+
+        int edgeCount() {
+            return edges.size();
+        }
+
+        int addNode(Object element, Object descriptor) {
+            elements.add(element);
+            descriptors.add(descriptor);
+            return elements.size() - 1;
+        }
+
+        /**
+         * @return The node of the element, it will be added with the descriptor if it is unknown.
+         */
+        int nodeOf(Object element, Object descriptor) {
+            Integer node = index.get(element);
+            if (null == node) {
+                node = addNode(element, descriptor);
+                index.put(element, node);
+            }
+            return node;
+        }
+
+        void addEdge(int source, int target, Object descriptor) {
+            edges.add(new int[]{source, target});
+            edgeDescriptors.add(descriptor);
+        }
+
+        void buildAdjacency() {
+            int[] outDegrees = new int[size()];
+            int[] inDegrees = new int[size()];
+            for (int[] edge : edges) {
+                outDegrees[edge[0]]++;
+                inDegrees[edge[1]]++;
+            }
+            outgoing = new int[size()][];
+            incoming = new int[size()][];
+            for (int i = 0; i < size(); i++) {
+                outgoing[i] = new int[outDegrees[i]];
+                incoming[i] = new int[inDegrees[i]];
+            }
+            Arrays.fill(outDegrees, 0);
+            Arrays.fill(inDegrees, 0);
+            for (int i = 0; i < edges.size(); i++) {
+                int[] edge = edges.get(i);
+                outgoing[edge[0]][outDegrees[edge[0]]++] = i;
+                incoming[edge[1]][inDegrees[edge[1]]++] = i;
+            }
+        }
+
+        long[] initialColors() {
+            long[] colors = new long[size()];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = StructuralFingerprint.mix(descriptors.get(i).hashCode());
+            }
+            return colors;
+        }
+
+        long[] refine(long[] colors) {
+            long[] refined = new long[colors.length];
+            for (int i = 0; i < colors.length; i++) {
+                long out = 0L;
+                for (int edge : outgoing[i]) {
+                    out += StructuralFingerprint.mix(StructuralFingerprint.combine(
+                            edgeDescriptors.get(edge).hashCode(), colors[edges.get(edge)[1]]));
+                }
+                long in = 0L;
+                for (int edge : incoming[i]) {
+                    in += StructuralFingerprint.mix(StructuralFingerprint.combine(
+                            edgeDescriptors.get(edge).hashCode(), colors[edges.get(edge)[0]]));
+                }
+                refined[i] = StructuralFingerprint.combine(StructuralFingerprint.combine(colors[i], out), in);
+            }
+            return refined;
+        }
+
+        /**
+         * @return The number of edges from source to target whose descriptor equals the given one.
+         */
+        int countEdges(int source, int target, Object descriptor) {
+            int count = 0;
+            for (int edge : outgoing[source]) {
+                if (edges.get(edge)[1] == target && edgeDescriptors.get(edge).equals(descriptor)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * The backtracking search for a bijection between the nodes of two graphs.
+     * It is iterative, so the size of the models is not limited by the stack.
+     */
+    private static class Search {
+        private final Graph first;
+        private final Graph second;
+        private final long[] firstColors;
+        private final Map<Long, List<Integer>> secondClasses = new HashMap<>();
+        private final int[] mapping;
+        private final boolean[] used;
+
+        Search(Graph first, Graph second, long[] firstColors, long[] secondColors) {
+            this.first = first;
+            this.second = second;
+            this.firstColors = firstColors;
+            for (int i = 0; i < secondColors.length; i++) {
+                List<Integer> members = secondClasses.get(secondColors[i]);
+                if (null == members) {
+                    members = new ArrayList<>();
+                    secondClasses.put(secondColors[i], members);
+                }
+                members.add(i);
+            }
+            mapping = new int[first.size()];
+            Arrays.fill(mapping, -1);
+            used = new boolean[second.size()];
+        }
+
+        boolean run() {
+            int[] order = order();
+            int[] positions = new int[order.length + 1];
+            int depth = 0;
+            while (depth >= 0) {
+                if (depth == order.length) {
+                    return true;
+                }
+                int node = order[depth];
+                if (mapping[node] >= 0) {
+                    used[mapping[node]] = false;
+                    mapping[node] = -1;
+                }
+                List<Integer> candidates = secondClasses.get(firstColors[node]);
+                boolean mapped = false;
+                while (!mapped && positions[depth] < candidates.size()) {
+                    int candidate = candidates.get(positions[depth]++);
+                    if (!used[candidate] && matches(node, candidate)) {
+                        mapping[node] = candidate;
+                        used[candidate] = true;
+                        mapped = true;
+                    }
+                }
+                if (mapped) {
+                    positions[++depth] = 0;
+                } else {
+                    positions[depth--] = 0;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Orders the nodes of the first graph breadth first, starting each component
+         * at its most distinctive node. Hence every node but the first of a component
+         * has a mapped neighbor, which rules out most candidates immediately.
+         */
+        private int[] order() {
+            Integer[] starts = new Integer[first.size()];
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = i;
+            }
+            Arrays.sort(starts, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    return Integer.compare(secondClasses.get(firstColors[a]).size(),
+                            secondClasses.get(firstColors[b]).size());
+                }
+            });
+            int[] order = new int[first.size()];
+            boolean[] visited = new boolean[first.size()];
+            int size = 0;
+            for (int start : starts) {
+                if (visited[start]) {
+                    continue;
+                }
+                visited[start] = true;
+                int head = size;
+                order[size++] = start;
+                while (head < size) {
+                    int node = order[head++];
+                    for (int[] adjacent : new int[][]{first.outgoing[node], first.incoming[node]}) {
+                        for (int edge : adjacent) {
+                            int[] ends = first.edges.get(edge);
+                            int neighbor = ends[0] == node ? ends[1] : ends[0];
+                            if (!visited[neighbor]) {
+                                visited[neighbor] = true;
+                                order[size++] = neighbor;
+                            }
+                        }
+                    }
+                }
+            }
+            return order;
+        }
+
+        /**
+         * Checks whether a node may be mapped to a candidate, given the nodes mapped so far.
+         */
+        private boolean matches(int node, int candidate) {
+            if (!first.descriptors.get(node).equals(second.descriptors.get(candidate))
+                    || first.outgoing[node].length != second.outgoing[candidate].length
+                    || first.incoming[node].length != second.incoming[candidate].length) {
+                return false;
+            }
+            for (int edge : first.outgoing[node]) {
+                int target = first.edges.get(edge)[1];
+                int mappedTarget = target == node ? candidate : mapping[target];
+                Object descriptor = first.edgeDescriptors.get(edge);
+                if (mappedTarget >= 0 && first.countEdges(node, target, descriptor)
+                        != second.countEdges(candidate, mappedTarget, descriptor)) {
+                    return false;
+                }
+            }
+            for (int edge : first.incoming[node]) {
+                int source = first.edges.get(edge)[0];
+                int mappedSource = source == node ? candidate : mapping[source];
+                Object descriptor = first.edgeDescriptors.get(edge);
+                if (mappedSource >= 0 && first.countEdges(source, node, descriptor)
+                        != second.countEdges(mappedSource, candidate, descriptor)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains classes to compute structural fingerprints of
+ * process models. Fingerprints can be used to detect structurally identical
+ * models, e.g. as keys of caches or to deduplicate fragments.
+ */
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint;
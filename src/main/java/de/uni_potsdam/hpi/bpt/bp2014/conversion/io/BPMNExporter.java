@@ -0,0 +1,282 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenario;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.StructuralFingerprint;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * This class exports {@link ActivityCentricProcessModel}s as BPMN 2.0 XML.
+ * The document is written with a StAX {@link XMLStreamWriter} straight to an
+ * {@link OutputStream}, every model becomes one process element.
+ * The elements are written in an order and with ids derived from the
+ * {@link StructuralFingerprint#nodeLabels(ActivityCentricProcessModel) structural labels}
+ * of the nodes. Hence, exporting a model twice results in the same document.
+ * Nodes sharing a label are numbered in model order. The labels are hashes, so besides
+ * structurally indistinguishable nodes this may rarely affect different nodes as well.
+ * <p/>
+ * Data objects are written as data object references, one data object per
+ * data class and a dataState element for the state. Input associations reference
+ * the data object by their sourceRef, output associations by their targetRef, which
+ * is the format read by the {@link BPMNImporter}.
+ */
+public class BPMNExporter {
+    public static final String BPMN_NAMESPACE = "http://www.omg.org/spec/BPMN/20100524/MODEL";
+    public static final String TARGET_NAMESPACE = "http://bpt.hpi.uni-potsdam.de/bp2014/conversion";
+    private static final String PREFIX = "bpmn";
+
+    private final XMLOutputFactory factory;
+
+    public BPMNExporter() {
+        factory = XMLOutputFactory.newInstance();
+    }
+
+    /**
+     * Writes a model as a BPMN document.
+     *
+     * @param model  The model to be exported.
+     * @param output The stream to write to, it will be flushed but not closed.
+     * @throws XMLStreamException If the document could not be written.
+     */
+    public void export(ActivityCentricProcessModel model, OutputStream output) throws XMLStreamException {
+        export(Collections.singletonList(model), output);
+    }
+
+    /**
+     * Writes the distinct fragments of a scenario as one BPMN document.
+     * The multiplicities of the fragments are not part of the document.
+     *
+     * @param scenario The scenario to be exported.
+     * @param output   The stream to write to, it will be flushed but not closed.
+     * @throws XMLStreamException If the document could not be written.
+     */
+    public void export(Scenario scenario, OutputStream output) throws XMLStreamException {
+        export(scenario.getFragments(), output);
+    }
+
+    /**
+     * Writes models as one BPMN document, with one process per model.
+     *
+     * @param models The models to be exported, in the order of the processes.
+     * @param output The stream to write to, it will be flushed but not closed.
+     * @throws XMLStreamException If the document could not be written.
+     */
+    public void export(Collection<ActivityCentricProcessModel> models, OutputStream output)
+            throws XMLStreamException {
+        assert null != output : "The output stream must not be null";
+        XMLStreamWriter writer = factory.createXMLStreamWriter(output, "UTF-8");
+        try {
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement(PREFIX, "definitions", BPMN_NAMESPACE);
+            writer.writeNamespace(PREFIX, BPMN_NAMESPACE);
+            writer.writeAttribute("id", "Definitions");
+            writer.writeAttribute("targetNamespace", TARGET_NAMESPACE);
+            int index = 0;
+            for (ActivityCentricProcessModel model : models) {
+                new ProcessWriter(writer, model, "Process_" + index++).write();
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes one model as a process element.
+     */
+    private static class ProcessWriter {
+        private final XMLStreamWriter writer;
+        private final String processId;
+        /**
+         * The nodes of the model ordered by their structural labels.
+         */
+        private final List<INode> nodes;
+        private final Map<INode, String> ids = new IdentityHashMap<>();
+        /**
+         * The ids of the data object elements keyed by the name of their data class.
+         */
+        private final Map<String, String> dataObjectIds = new TreeMap<>();
+        private int associationCount;
+
+        private ProcessWriter(XMLStreamWriter writer, ActivityCentricProcessModel model, String processId) {
+            this.writer = writer;
+            this.processId = processId;
+            final Map<INode, Long> labels = StructuralFingerprint.nodeLabels(model);
+            nodes = model.getNodes();
+            Collections.sort(nodes, new Comparator<INode>() {
+                @Override
+                public int compare(INode node, INode other) {
+                    return Long.compare(labels.get(node), labels.get(other));
+                }
+            });
+            Map<String, Integer> occurrences = new HashMap<>();
+            for (INode node : nodes) {
+                String id = processId + "_" + typeOf(node) + "_" + Long.toHexString(labels.get(node));
+                Integer occurrence = occurrences.get(id);
+                occurrences.put(id, null == occurrence ? 1 : occurrence + 1);
+                ids.put(node, null == occurrence ? id : id + "_" + occurrence);
+                if (node instanceof DataObject) {
+                    dataObjectIds.put(dataClassOf((DataObject) node), null);
+                }
+            }
+            int dataObjectCount = 0;
+            for (Map.Entry<String, String> dataObject : dataObjectIds.entrySet()) {
+                dataObject.setValue(processId + "_DataObject_" + dataObjectCount++);
+            }
+        }
+
+        /**
+         * @return The name of the data class of the data object, an empty String if it has none.
+         */
+        private static String dataClassOf(DataObject dataObject) {
+            return null == dataObject.getName() ? "" : dataObject.getName();
+        }
+
+        private static String typeOf(INode node) {
+            if (node instanceof Activity) {
+                return "Task";
+            } else if (node instanceof Event) {
+                return Event.Type.START == ((Event) node).getType() ? "StartEvent" : "EndEvent";
+            } else if (node instanceof Gateway) {
+                return Gateway.Type.XOR == ((Gateway) node).getType() ? "ExclusiveGateway" : "ParallelGateway";
+            }
+            return "DataObjectReference";
+        }
+
+        private void write() throws XMLStreamException {
+            writer.writeStartElement(PREFIX, "process", BPMN_NAMESPACE);
+            writer.writeAttribute("id", processId);
+            writer.writeAttribute("isExecutable", "false");
+            for (Map.Entry<String, String> dataObject : dataObjectIds.entrySet()) {
+                writer.writeEmptyElement(PREFIX, "dataObject", BPMN_NAMESPACE);
+                writer.writeAttribute("id", dataObject.getValue());
+                writer.writeAttribute("name", dataObject.getKey());
+            }
+            for (INode node : nodes) {
+                if (node instanceof Activity) {
+                    writeTask((Activity) node);
+                } else if (node instanceof Event) {
+                    writer.writeEmptyElement(PREFIX, Event.Type.START == ((Event) node).getType() ?
+                            "startEvent" : "endEvent", BPMN_NAMESPACE);
+                    writer.writeAttribute("id", ids.get(node));
+                } else if (node instanceof Gateway) {
+                    writer.writeEmptyElement(PREFIX, Gateway.Type.XOR == ((Gateway) node).getType() ?
+                            "exclusiveGateway" : "parallelGateway", BPMN_NAMESPACE);
+                    writer.writeAttribute("id", ids.get(node));
+                } else if (node instanceof DataObject) {
+                    writeDataObjectReference((DataObject) node);
+                }
+            }
+            writeSequenceFlows();
+            writer.writeEndElement();
+        }
+
+        private void writeTask(Activity activity) throws XMLStreamException {
+            writer.writeStartElement(PREFIX, "task", BPMN_NAMESPACE);
+            writer.writeAttribute("id", ids.get(activity));
+            if (null != activity.getName()) {
+                writer.writeAttribute("name", activity.getName());
+            }
+            for (DataObject input : sorted(activity.<DataFlow>getIncomingEdgesOfType(DataFlow.class), true)) {
+                writer.writeStartElement(PREFIX, "dataInputAssociation", BPMN_NAMESPACE);
+                writer.writeAttribute("id", processId + "_Association_" + associationCount++);
+                writeReference("sourceRef", ids.get(input));
+                writer.writeEndElement();
+            }
+            for (DataObject output : sorted(activity.<DataFlow>getOutgoingEdgesOfType(DataFlow.class), false)) {
+                writer.writeStartElement(PREFIX, "dataOutputAssociation", BPMN_NAMESPACE);
+                writer.writeAttribute("id", processId + "_Association_" + associationCount++);
+                writeReference("targetRef", ids.get(output));
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        }
+
+        /**
+         * Determines the data objects of data flows which are part of the model,
+         * ordered by their ids.
+         *
+         * @param dataFlows The data flows of an activity.
+         * @param incoming  True if the source of the flows is the data object.
+         * @return A new list of data objects.
+         */
+        private List<DataObject> sorted(List<DataFlow> dataFlows, boolean incoming) {
+            List<DataObject> dataObjects = new ArrayList<>(dataFlows.size());
+            for (DataFlow dataFlow : dataFlows) {
+                INode dataObject = incoming ? dataFlow.getSource() : dataFlow.getTarget();
+                if (ids.containsKey(dataObject)) {
+                    dataObjects.add((DataObject) dataObject);
+                }
+            }
+            Collections.sort(dataObjects, byId());
+            return dataObjects;
+        }
+
+        private void writeReference(String element, String id) throws XMLStreamException {
+            writer.writeStartElement(PREFIX, element, BPMN_NAMESPACE);
+            writer.writeCharacters(id);
+            writer.writeEndElement();
+        }
+
+        private void writeDataObjectReference(DataObject dataObject) throws XMLStreamException {
+            String state = null == dataObject.getState() ? null : dataObject.getState().getName();
+            writer.writeStartElement(PREFIX, "dataObjectReference", BPMN_NAMESPACE);
+            writer.writeAttribute("id", ids.get(dataObject));
+            if (null != dataObject.getName()) {
+                writer.writeAttribute("name", null == state ? dataObject.getName() :
+                        dataObject.getName() + " [" + state + "]");
+            }
+            writer.writeAttribute("dataObjectRef", dataObjectIds.get(dataClassOf(dataObject)));
+            if (null != state) {
+                writer.writeEmptyElement(PREFIX, "dataState", BPMN_NAMESPACE);
+                writer.writeAttribute("id", ids.get(dataObject) + "_State");
+                writer.writeAttribute("name", state);
+            }
+            writer.writeEndElement();
+        }
+
+        /**
+         * Writes the control flow edges leaving the nodes of the model,
+         * ordered by the ids of their sources and targets.
+         */
+        private void writeSequenceFlows() throws XMLStreamException {
+            int flowCount = 0;
+            for (INode node : nodes) {
+                if (node instanceof DataObject) {
+                    continue;
+                }
+                List<INode> targets = new ArrayList<>();
+                for (IEdge edge : node.getOutgoingEdges()) {
+                    if (edge instanceof ControlFlow && ids.containsKey(edge.getTarget())) {
+                        targets.add(edge.getTarget());
+                    }
+                }
+                Collections.sort(targets, byId());
+                for (INode target : targets) {
+                    writer.writeEmptyElement(PREFIX, "sequenceFlow", BPMN_NAMESPACE);
+                    writer.writeAttribute("id", processId + "_Flow_" + flowCount++);
+                    writer.writeAttribute("sourceRef", ids.get(node));
+                    writer.writeAttribute("targetRef", ids.get(target));
+                }
+            }
+        }
+
+        private Comparator<INode> byId() {
+            return new Comparator<INode>() {
+                @Override
+                public int compare(INode node, INode other) {
+                    return ids.get(node).compareTo(ids.get(other));
+                }
+            };
+        }
+    }
+}
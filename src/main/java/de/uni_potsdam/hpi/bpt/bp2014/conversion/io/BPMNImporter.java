@@ -0,0 +1,446 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenario;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * This class imports {@link ActivityCentricProcessModel}s from BPMN 2.0 XML.
+ * The document is read with a StAX {@link XMLStreamReader}, hence no DOM will be built.
+ * Every process of the document becomes one model. Supported are tasks, start and end
+ * events, exclusive and parallel gateways, sequence flows, data object references
+ * and data input and output associations. Other elements will be skipped.
+ * Skipped sub processes, call activities and intermediate events are bridged: each
+ * node leading to one of them is connected to the supported nodes following it.
+ * Sequence flows referencing other unsupported nodes, e.g. inclusive gateways, are rejected.
+ * <p/>
+ * Elements may reference elements which are declared later on. Such references are
+ * kept until the end of the process, all other references are resolved immediately
+ * using an index of the ids. Thus, the memory needed beyond the resulting models
+ * is bound by the number of ids and forward references of one process.
+ * <p/>
+ * The name of a data object will be taken from the referenced data object, the state
+ * from the dataState element of the reference. If there is none, a name like
+ * "Order [created]" will be split into the name and the state.
+ * All names are interned in the shared {@link de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable},
+ * which keeps them for the lifetime of the process.
+ */
+public class BPMNImporter {
+    private static final Set<String> TASKS = new HashSet<>(Arrays.asList("task", "userTask",
+            "serviceTask", "manualTask", "scriptTask", "businessRuleTask", "sendTask", "receiveTask"));
+
+    private static final Set<String> SUB_PROCESSES = new HashSet<>(Arrays.asList("subProcess",
+            "adHocSubProcess", "transaction"));
+
+    /**
+     * Flow nodes which are skipped, but whose sequence flows are bridged.
+     */
+    private static final Set<String> BRIDGED_FLOW_NODES = new HashSet<>(Arrays.asList("callActivity",
+            "intermediateThrowEvent", "intermediateCatchEvent"));
+
+    private final XMLInputFactory factory;
+
+    /**
+     * Creates a new importer. DTDs and external entities will not be processed.
+     */
+    public BPMNImporter() {
+        factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Imports the first process of a BPMN document.
+     *
+     * @param input The stream of the document, it will not be closed.
+     * @return The model of the first process.
+     * @throws XMLStreamException If the document is malformed, contains no process
+     *                            or references unknown elements.
+     */
+    public ActivityCentricProcessModel importModel(InputStream input) throws XMLStreamException {
+        List<ActivityCentricProcessModel> models = importModels(input, 1);
+        if (models.isEmpty()) {
+            throw new XMLStreamException("The document does not contain a process");
+        }
+        return models.get(0);
+    }
+
+    /**
+     * Imports all processes of a BPMN document, e.g. of a collaboration.
+     *
+     * @param input The stream of the document, it will not be closed.
+     * @return A new list containing one model per process in document order.
+     * @throws XMLStreamException If the document is malformed or references unknown elements.
+     */
+    public List<ActivityCentricProcessModel> importModels(InputStream input) throws XMLStreamException {
+        return importModels(input, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Imports all processes of a BPMN document as fragments of a scenario.
+     *
+     * @param input The stream of the document, it will not be closed.
+     * @return A new scenario containing one fragment per process.
+     * @throws XMLStreamException If the document is malformed or references unknown elements.
+     */
+    public Scenario importScenario(InputStream input) throws XMLStreamException {
+        return new Scenario(importModels(input));
+    }
+
+    private List<ActivityCentricProcessModel> importModels(InputStream input, int limit)
+            throws XMLStreamException {
+        assert null != input : "The input stream must not be null";
+        List<ActivityCentricProcessModel> models = new ArrayList<>();
+        XMLStreamReader reader = factory.createXMLStreamReader(input);
+        try {
+            while (models.size() < limit && reader.hasNext()) {
+                if (XMLStreamConstants.START_ELEMENT == reader.next() &&
+                        "process".equals(reader.getLocalName())) {
+                    models.add(new ProcessReader(reader).read());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return models;
+    }
+
+    /**
+     * Reads one process element and builds its model.
+     */
+    private static class ProcessReader {
+        private final XMLStreamReader reader;
+        private final ActivityCentricProcessModel model = new ActivityCentricProcessModel();
+        /**
+         * The control flow nodes and data objects of the process keyed by their ids.
+         */
+        private final Map<String, INode> nodesById = new HashMap<>();
+        /**
+         * The names of the data objects keyed by their ids.
+         */
+        private final Map<String, String> dataObjectNames = new HashMap<>();
+        /**
+         * The ids of the skipped flow nodes whose sequence flows are bridged.
+         */
+        private final Set<String> bridgedNodes = new HashSet<>();
+        /**
+         * Sequence flows and data associations whose source or target has not been read yet.
+         * Each entry holds the id of the source and the target.
+         */
+        private final List<String[]> pendingControlFlows = new ArrayList<>();
+        private final List<String[]> pendingDataFlows = new ArrayList<>();
+        /**
+         * Data objects, whose referenced data object has not been read yet,
+         * mapped to the id of the referenced data object.
+         */
+        private final Map<DataObject, String> pendingNames = new HashMap<>();
+
+        private ProcessReader(XMLStreamReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Reads the process element, the reader has to be positioned at its start.
+         * Afterwards it will be positioned at the end of the process element.
+         */
+        private ActivityCentricProcessModel read() throws XMLStreamException {
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (XMLStreamConstants.END_ELEMENT == event) {
+                    depth--;
+                } else if (XMLStreamConstants.START_ELEMENT == event) {
+                    if (!readElement()) {
+                        depth++;
+                    }
+                }
+            }
+            resolvePendingReferences();
+            return model;
+        }
+
+        /**
+         * Reads a supported element completely.
+         *
+         * @return True if the element has been consumed, false if the reader is still
+         * positioned at its start, because it is not supported.
+         */
+        private boolean readElement() throws XMLStreamException {
+            String element = reader.getLocalName();
+            if (TASKS.contains(element)) {
+                readTask();
+            } else if ("startEvent".equals(element) || "endEvent".equals(element)) {
+                readEvent("startEvent".equals(element) ? Event.Type.START : Event.Type.END);
+            } else if ("exclusiveGateway".equals(element) || "parallelGateway".equals(element)) {
+                Gateway gateway = new Gateway();
+                gateway.setType("exclusiveGateway".equals(element) ? Gateway.Type.XOR : Gateway.Type.AND);
+                register(gateway);
+                skipElement();
+            } else if ("sequenceFlow".equals(element)) {
+                addControlFlow(reader.getAttributeValue(null, "sourceRef"),
+                        reader.getAttributeValue(null, "targetRef"));
+                skipElement();
+            } else if ("dataObject".equals(element)) {
+                dataObjectNames.put(reader.getAttributeValue(null, "id"), reader.getAttributeValue(null, "name"));
+                skipElement();
+            } else if ("dataObjectReference".equals(element)) {
+                readDataObjectReference();
+            } else if (SUB_PROCESSES.contains(element) || BRIDGED_FLOW_NODES.contains(element)) {
+                // Sub processes are not supported, their content must not become part of the process.
+                String id = reader.getAttributeValue(null, "id");
+                if (null != id) {
+                    bridgedNodes.add(id);
+                }
+                skipElement();
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        private void register(INode node) throws XMLStreamException {
+            String id = reader.getAttributeValue(null, "id");
+            if (null == id) {
+                throw new XMLStreamException("The element " + reader.getLocalName() + " has no id",
+                        reader.getLocation());
+            }
+            nodesById.put(id, node);
+            model.addNode(node);
+        }
+
+        private void readEvent(Event.Type type) throws XMLStreamException {
+            Event event = new Event();
+            event.setType(type);
+            register(event);
+            if (Event.Type.START == type) {
+                model.setStartNode(event);
+            } else {
+                model.addFinalNode(event);
+            }
+            skipElement();
+        }
+
+        /**
+         * Reads a task and its data associations.
+         * The source of an input association and the target of an output association
+         * reference the data object, the other end is the task itself.
+         */
+        private void readTask() throws XMLStreamException {
+            Activity activity = new Activity(reader.getAttributeValue(null, "name"));
+            String id = reader.getAttributeValue(null, "id");
+            register(activity);
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (XMLStreamConstants.END_ELEMENT == event) {
+                    depth--;
+                } else if (XMLStreamConstants.START_ELEMENT == event) {
+                    String element = reader.getLocalName();
+                    if ("dataInputAssociation".equals(element)) {
+                        String source = readAssociationEnd("sourceRef");
+                        if (null != source) {
+                            addDataFlow(source, id);
+                        }
+                    } else if ("dataOutputAssociation".equals(element)) {
+                        String target = readAssociationEnd("targetRef");
+                        if (null != target) {
+                            addDataFlow(id, target);
+                        }
+                    } else {
+                        depth++;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Reads a data association and returns the text of one of its references.
+         *
+         * @param reference The local name of the reference element.
+         * @return The referenced id or null if there is none.
+         */
+        private String readAssociationEnd(String reference) throws XMLStreamException {
+            String id = null;
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (XMLStreamConstants.END_ELEMENT == event) {
+                    depth--;
+                } else if (XMLStreamConstants.START_ELEMENT == event) {
+                    if (reference.equals(reader.getLocalName())) {
+                        id = reader.getElementText().trim();
+                    } else {
+                        depth++;
+                    }
+                }
+            }
+            return id;
+        }
+
+        private void readDataObjectReference() throws XMLStreamException {
+            String name = reader.getAttributeValue(null, "name");
+            String dataObjectRef = reader.getAttributeValue(null, "dataObjectRef");
+            String id = reader.getAttributeValue(null, "id");
+            String state = null;
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (XMLStreamConstants.END_ELEMENT == event) {
+                    depth--;
+                } else if (XMLStreamConstants.START_ELEMENT == event) {
+                    if ("dataState".equals(reader.getLocalName())) {
+                        state = reader.getAttributeValue(null, "name");
+                    }
+                    depth++;
+                }
+            }
+            if (null != name && name.endsWith("]") && name.contains("[")) {
+                if (null == state) {
+                    state = name.substring(name.lastIndexOf('[') + 1, name.length() - 1).trim();
+                }
+                name = name.substring(0, name.lastIndexOf('[')).trim();
+            }
+            DataObject dataObject = new DataObject(name, new DataObjectState(state));
+            if (null != dataObjectRef) {
+                if (dataObjectNames.containsKey(dataObjectRef)) {
+                    dataObject.setName(dataObjectNames.get(dataObjectRef));
+                } else {
+                    pendingNames.put(dataObject, dataObjectRef);
+                }
+            }
+            if (null == id) {
+                throw new XMLStreamException("The data object reference has no id", reader.getLocation());
+            }
+            nodesById.put(id, dataObject);
+            model.addNode(dataObject);
+        }
+
+        private void addControlFlow(String sourceId, String targetId) {
+            INode source = nodesById.get(sourceId);
+            INode target = nodesById.get(targetId);
+            if (null == source || null == target) {
+                pendingControlFlows.add(new String[]{sourceId, targetId});
+                return;
+            }
+            ControlFlow controlFlow = new ControlFlow(source, target);
+            source.addOutgoingEdge(controlFlow);
+            target.addIncomingEdge(controlFlow);
+        }
+
+        private void addDataFlow(String sourceId, String targetId) {
+            INode source = nodesById.get(sourceId);
+            INode target = nodesById.get(targetId);
+            if (null == source || null == target) {
+                pendingDataFlows.add(new String[]{sourceId, targetId});
+                return;
+            }
+            DataFlow dataFlow;
+            if (source instanceof DataObject && target instanceof Activity) {
+                dataFlow = new DataFlow((DataObject) source, (Activity) target);
+            } else if (source instanceof Activity && target instanceof DataObject) {
+                dataFlow = new DataFlow((Activity) source, (DataObject) target);
+            } else {
+                // The association references e.g. a data input of the io specification.
+                return;
+            }
+            source.addOutgoingEdge(dataFlow);
+            target.addIncomingEdge(dataFlow);
+        }
+
+        /**
+         * Resolves the references to elements declared after the referencing element.
+         * Sequence flows leading to a bridged node are replaced by control flows to the
+         * supported nodes reachable through bridged nodes only. Sequence flows leaving a
+         * bridged node are dropped if no supported node leads to it.
+         *
+         * @throws XMLStreamException If a sequence flow references an unknown or unsupported node.
+         */
+        private void resolvePendingReferences() throws XMLStreamException {
+            for (Map.Entry<DataObject, String> dataObjectAndRef : pendingNames.entrySet()) {
+                String name = dataObjectNames.get(dataObjectAndRef.getValue());
+                if (null != name) {
+                    dataObjectAndRef.getKey().setName(name);
+                }
+            }
+            Map<String, List<String>> successorsOfBridged = new HashMap<>();
+            List<String[]> flowsToBridged = new ArrayList<>();
+            for (String[] sourceAndTarget : pendingControlFlows) {
+                boolean sourceBridged = bridgedNodes.contains(sourceAndTarget[0]);
+                boolean targetBridged = bridgedNodes.contains(sourceAndTarget[1]);
+                if ((!sourceBridged && !nodesById.containsKey(sourceAndTarget[0])) ||
+                        (!targetBridged && !nodesById.containsKey(sourceAndTarget[1]))) {
+                    throw new XMLStreamException("The sequence flow from " + sourceAndTarget[0] + " to " +
+                            sourceAndTarget[1] + " references an unknown or unsupported element");
+                }
+                if (sourceBridged) {
+                    if (!successorsOfBridged.containsKey(sourceAndTarget[0])) {
+                        successorsOfBridged.put(sourceAndTarget[0], new ArrayList<String>());
+                    }
+                    successorsOfBridged.get(sourceAndTarget[0]).add(sourceAndTarget[1]);
+                } else if (targetBridged) {
+                    flowsToBridged.add(sourceAndTarget);
+                } else {
+                    addControlFlow(sourceAndTarget[0], sourceAndTarget[1]);
+                }
+            }
+            for (String[] sourceAndTarget : flowsToBridged) {
+                Set<String> targets = new LinkedHashSet<>();
+                collectBridgedTargets(sourceAndTarget[1], successorsOfBridged, new HashSet<String>(), targets);
+                for (String target : targets) {
+                    addControlFlow(sourceAndTarget[0], target);
+                }
+            }
+            for (String[] sourceAndTarget : pendingDataFlows) {
+                if (nodesById.containsKey(sourceAndTarget[0]) && nodesById.containsKey(sourceAndTarget[1])) {
+                    addDataFlow(sourceAndTarget[0], sourceAndTarget[1]);
+                }
+            }
+        }
+
+        /**
+         * Collects the supported nodes which follow a bridged node, following
+         * the sequence flows through further bridged nodes.
+         *
+         * @param bridgedNode        The id of the bridged node.
+         * @param successorsOfBridged The targets of the sequence flows leaving each bridged node.
+         * @param visited            The bridged nodes visited so far, cycles are followed once.
+         * @param targets            The ids of the supported nodes found.
+         */
+        private void collectBridgedTargets(String bridgedNode, Map<String, List<String>> successorsOfBridged,
+                                           Set<String> visited, Set<String> targets) {
+            if (!visited.add(bridgedNode) || !successorsOfBridged.containsKey(bridgedNode)) {
+                return;
+            }
+            for (String successor : successorsOfBridged.get(bridgedNode)) {
+                if (bridgedNodes.contains(successor)) {
+                    collectBridgedTargets(successor, successorsOfBridged, visited, targets);
+                } else {
+                    targets.add(successor);
+                }
+            }
+        }
+
+        /**
+         * Skips the rest of the current element including its children.
+         */
+        private void skipElement() throws XMLStreamException {
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (XMLStreamConstants.END_ELEMENT == event) {
+                    depth--;
+                } else if (XMLStreamConstants.START_ELEMENT == event) {
+                    depth++;
+                }
+            }
+        }
+    }
+}
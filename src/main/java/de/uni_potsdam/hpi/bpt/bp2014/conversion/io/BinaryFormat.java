@@ -0,0 +1,186 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Constants and helpers of the binary model format used by
+ * {@link BinaryModelWriter} and {@link BinaryModelReader}.
+ * <p/>
+ * A record consists of a fixed size header and a payload.
+ * The header holds the magic number, the format version, the kind of the
+ * model and the size of the payload in bytes, all of them big endian.
+ * The payload starts with a string table: the number of strings followed by
+ * the length and the UTF-8 bytes of every string. The model itself references
+ * strings by their position in the table plus one, 0 represents null.
+ * All counts and indexes are written as unsigned varints, seven bits per byte
+ * with the highest bit set on all but the last byte.
+ */
+final class BinaryFormat {
+    /**
+     * The bytes "BPMC" at the start of every record.
+     */
+    static final int MAGIC = 0x42504D43;
+    /**
+     * The version written by this implementation.
+     * Readers reject records with a newer version.
+     */
+    static final short VERSION = 1;
+    static final byte OBJECT_LIFE_CYCLE = 1;
+    static final byte SYNCHRONIZED_OBJECT_LIFE_CYCLE = 2;
+    static final byte ACTIVITY_CENTRIC_PROCESS_MODEL = 3;
+    /**
+     * The types of the nodes of an activity centric process model.
+     */
+    static final int ACTIVITY = 0;
+    static final int START_EVENT = 1;
+    static final int END_EVENT = 2;
+    static final int XOR_GATEWAY = 3;
+    static final int AND_GATEWAY = 4;
+    static final int DATA_OBJECT = 5;
+    /**
+     * Magic number, version, kind and payload size.
+     */
+    static final int HEADER_SIZE = 4 + 2 + 1 + 4;
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * Reads an unsigned varint at the position of the buffer and advances the position.
+     *
+     * @param buffer The buffer to read from.
+     * @return The value of the varint.
+     * @throws IOException If the varint is truncated or longer than five bytes.
+     */
+    static int readVarInt(ByteBuffer buffer) throws IOException {
+        try {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte current = buffer.get();
+                value |= (current & 0x7F) << shift;
+                if (current >= 0) {
+                    return value;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("The record is truncated", e);
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Validates a header and determines the size of the payload.
+     *
+     * @param header       The header, it will be read from its position.
+     * @param expectedKind The kind of model expected, or 0 to accept every kind.
+     * @return The size of the payload in bytes.
+     * @throws IOException If the header is not valid.
+     */
+    static int readHeader(ByteBuffer header, byte expectedKind) throws IOException {
+        if (header.remaining() < HEADER_SIZE) {
+            throw new IOException("Not a binary model record");
+        }
+        int size = readHeader(header, header.position(), expectedKind);
+        header.position(header.position() + HEADER_SIZE);
+        return size;
+    }
+
+    /**
+     * Validates a header using absolute reads only.
+     *
+     * @param buffer       The buffer holding the header.
+     * @param offset       The offset of the header.
+     * @param expectedKind The kind of model expected, or 0 to accept every kind.
+     * @return The size of the payload in bytes.
+     * @throws IOException If the header is not valid.
+     */
+    static int readHeader(ByteBuffer buffer, int offset, byte expectedKind) throws IOException {
+        if (offset + HEADER_SIZE > buffer.limit() || MAGIC != buffer.getInt(offset)) {
+            throw new IOException("Not a binary model record");
+        }
+        short version = buffer.getShort(offset + 4);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported format version " + version);
+        }
+        byte kind = buffer.get(offset + 6);
+        if (0 != expectedKind && kind != expectedKind) {
+            throw new IOException("Unexpected kind of model " + kind);
+        }
+        int size = buffer.getInt(offset + 7);
+        if (size < 0) {
+            throw new IOException("Negative payload size " + size);
+        }
+        return size;
+    }
+
+    /**
+     * Reads from a channel until the buffer is full.
+     *
+     * @throws IOException If the channel ends before.
+     */
+    static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("The record is truncated");
+            }
+        }
+    }
+
+    /**
+     * Writes all remaining bytes of the buffer to a channel.
+     */
+    static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * A growing byte array which encodes varints and strings.
+     */
+    static final class Output {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        void writeByte(int value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeVarInt(int value) {
+            assert value >= 0 : "Only non negative values can be written as varint";
+            while (0 != (value & ~0x7F)) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        void writeString(String string) {
+            byte[] encoded = string.getBytes(UTF_8);
+            writeVarInt(encoded.length);
+            if (size + encoded.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(size + encoded.length, size * 2));
+            }
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            buffer.put(bytes, 0, size);
+        }
+    }
+}
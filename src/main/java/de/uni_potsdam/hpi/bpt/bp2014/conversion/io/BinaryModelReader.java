@@ -0,0 +1,425 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronisationEdgeLoader;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.*;
+
+/**
+ * This class reads object life cycles, synchronized object life cycles and
+ * activity centric process models written by the {@link BinaryModelWriter}.
+ * Reading from a channel consumes exactly one record, hence several records
+ * can be read from one channel. States and transitions are created in the order
+ * of their ids, so they receive the same ids they had when they have been written.
+ * Every name is decoded once and shared by all elements using it.
+ */
+public class BinaryModelReader {
+
+    /**
+     * @param channel The channel to read the record from, it will not be closed.
+     * @return The object life cycle of the next record.
+     * @throws IOException If the channel could not be read or the record is not valid.
+     */
+    public ObjectLifeCycle readObjectLifeCycle(ReadableByteChannel channel) throws IOException {
+        return decodeObjectLifeCycle(readRecord(channel, BinaryFormat.OBJECT_LIFE_CYCLE));
+    }
+
+    /**
+     * @param channel The channel to read the record from, it will not be closed.
+     * @return The synchronized object life cycle of the next record.
+     * @throws IOException If the channel could not be read or the record is not valid.
+     */
+    public SynchronizedObjectLifeCycle readSynchronizedObjectLifeCycle(ReadableByteChannel channel)
+            throws IOException {
+        return decodeSynchronizedObjectLifeCycle(readRecord(channel, BinaryFormat.SYNCHRONIZED_OBJECT_LIFE_CYCLE));
+    }
+
+    /**
+     * @param channel The channel to read the record from, it will not be closed.
+     * @return The activity centric process model of the next record.
+     * @throws IOException If the channel could not be read or the record is not valid.
+     */
+    public ActivityCentricProcessModel readProcessModel(ReadableByteChannel channel) throws IOException {
+        return decodeProcessModel(readRecord(channel, BinaryFormat.ACTIVITY_CENTRIC_PROCESS_MODEL));
+    }
+
+    private ByteBuffer readRecord(ReadableByteChannel channel, byte kind) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BinaryFormat.HEADER_SIZE);
+        BinaryFormat.readFully(channel, header);
+        header.flip();
+        ByteBuffer record = ByteBuffer.allocate(BinaryFormat.HEADER_SIZE + BinaryFormat.readHeader(header, kind));
+        header.rewind();
+        record.put(header);
+        BinaryFormat.readFully(channel, record);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Decodes a record held by a buffer, e.g. one returned by
+     * {@link BinaryModelWriter#encode(ObjectLifeCycle)}.
+     * The position of the buffer will be moved behind the record.
+     *
+     * @param record The buffer positioned at the start of the record.
+     * @return A new object life cycle.
+     * @throws IOException If the record is not valid.
+     */
+    public ObjectLifeCycle decodeObjectLifeCycle(ByteBuffer record) throws IOException {
+        Decoder decoder = new Decoder(record, BinaryFormat.OBJECT_LIFE_CYCLE);
+        ObjectLifeCycle olc = decoder.readOLC();
+        decoder.finish();
+        return olc;
+    }
+
+    /**
+     * Decodes a record held by a buffer, e.g. one returned by
+     * {@link BinaryModelWriter#encode(SynchronizedObjectLifeCycle)}.
+     * The position of the buffer will be moved behind the record.
+     *
+     * @param record The buffer positioned at the start of the record.
+     * @return A new synchronized object life cycle.
+     * @throws IOException If the record is not valid.
+     */
+    public SynchronizedObjectLifeCycle decodeSynchronizedObjectLifeCycle(ByteBuffer record) throws IOException {
+        Decoder decoder = new Decoder(record, BinaryFormat.SYNCHRONIZED_OBJECT_LIFE_CYCLE);
+        int olcCount = decoder.readCount();
+        List<ObjectLifeCycle> olcs = new ArrayList<>(olcCount);
+        for (int i = 0; i < olcCount; i++) {
+            olcs.add(decoder.readOLC());
+        }
+        Map<StateTransition, List<StateTransition>> synchronisationEdges = decoder.readSynchronisationEdges(olcs);
+        decoder.finish();
+        SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
+        sOLC.setObjectLifeCycles(olcs);
+        sOLC.setSynchronisationEdges(synchronisationEdges);
+        return sOLC;
+    }
+
+    /**
+     * Decodes a record held by a buffer without creating any state or transition.
+     * The object life cycles of the result are {@link LazyObjectLifeCycle}s which
+     * decode their states and transitions when they are accessed for the first time.
+     * The synchronization edges are decoded when they are accessed for the first time,
+     * this loads the object life cycles containing synchronized transitions.
+     * Names are decoded on first use as well, hence the memory occupied grows with
+     * the parts of the model which are actually used.
+     * The whole record is validated immediately.
+     * The result can be read by several threads, e.g. when it has been decoded from a
+     * {@link ModelArchive}, each part is loaded by the first thread accessing it.
+     * <p/>
+     * Pre: The content of the buffer is not changed as long as the result is in use.
+     *
+     * @param record The buffer positioned at the start of the record, e.g. a record of a mapped file.
+     * @return A new synchronized object life cycle whose content is loaded on demand.
+     * @throws IOException If the record is not valid.
+     */
+    public SynchronizedObjectLifeCycle decodeSynchronizedObjectLifeCycleLazily(ByteBuffer record)
+            throws IOException {
+        final Decoder decoder = new Decoder(record, BinaryFormat.SYNCHRONIZED_OBJECT_LIFE_CYCLE);
+        int olcCount = decoder.readCount();
+        final List<ObjectLifeCycle> olcs = new ArrayList<>(olcCount);
+        int[] transitionCounts = new int[olcCount];
+        for (int i = 0; i < olcCount; i++) {
+            String label = decoder.readString();
+            final int position = decoder.buffer.position();
+            transitionCounts[i] = decoder.skipOLCContent();
+            olcs.add(new LazyObjectLifeCycle(null == label ? "" : label, new ObjectLifeCycleLoader() {
+                @Override
+                public void load(ObjectLifeCycle olc) throws IOException {
+                    new Decoder(decoder, position).readOLCContent(olc);
+                }
+            }));
+        }
+        final int edgesPosition = decoder.buffer.position();
+        decoder.skipSynchronisationEdges(transitionCounts);
+        decoder.finish();
+        SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
+        sOLC.setObjectLifeCycles(olcs);
+        sOLC.setSynchronisationEdgeLoader(new SynchronisationEdgeLoader() {
+            @Override
+            public Map<StateTransition, List<StateTransition>> load() throws IOException {
+                return new Decoder(decoder, edgesPosition).readSynchronisationEdges(olcs);
+            }
+        });
+        return sOLC;
+    }
+
+    /**
+     * Decodes a record held by a buffer, e.g. one returned by
+     * {@link BinaryModelWriter#encode(ActivityCentricProcessModel)}.
+     * The position of the buffer will be moved behind the record.
+     *
+     * @param record The buffer positioned at the start of the record.
+     * @return A new activity centric process model.
+     * @throws IOException If the record is not valid.
+     */
+    public ActivityCentricProcessModel decodeProcessModel(ByteBuffer record) throws IOException {
+        Decoder decoder = new Decoder(record, BinaryFormat.ACTIVITY_CENTRIC_PROCESS_MODEL);
+        ActivityCentricProcessModel acpm = decoder.readProcessModel();
+        decoder.finish();
+        return acpm;
+    }
+
+    /**
+     * Decodes the payload of one record.
+     * The names of the string table are decoded on first use.
+     */
+    private static class Decoder {
+        private final ByteBuffer buffer;
+        private final int[] stringOffsets;
+        private final int[] stringLengths;
+        private final String[] strings;
+        private final int end;
+
+        private Decoder(ByteBuffer record, byte kind) throws IOException {
+            int payloadSize = BinaryFormat.readHeader(record, kind);
+            if (payloadSize > record.remaining()) {
+                throw new IOException("The record is truncated");
+            }
+            end = record.position() + payloadSize;
+            buffer = record.duplicate();
+            buffer.limit(end);
+            strings = new String[readCount()];
+            stringOffsets = new int[strings.length];
+            stringLengths = new int[strings.length];
+            for (int i = 0; i < strings.length; i++) {
+                stringLengths[i] = readCount();
+                stringOffsets[i] = buffer.position();
+                buffer.position(stringOffsets[i] + stringLengths[i]);
+            }
+            record.position(end);
+        }
+
+        /**
+         * Creates a decoder sharing the string table of another one.
+         * Decoders of different threads may decode the same name twice,
+         * which is harmless because strings are immutable.
+         *
+         * @param position The position inside the payload to continue at.
+         */
+        private Decoder(Decoder decoder, int position) {
+            buffer = decoder.buffer.duplicate();
+            buffer.position(position);
+            stringOffsets = decoder.stringOffsets;
+            stringLengths = decoder.stringLengths;
+            strings = decoder.strings;
+            end = decoder.end;
+        }
+
+        /**
+         * Reads a count, it can neither be negative nor exceed the number of remaining bytes.
+         * Varints of five bytes can exceed the range of positive ints.
+         */
+        private int readCount() throws IOException {
+            int count = BinaryFormat.readVarInt(buffer);
+            if (count < 0 || count > buffer.remaining()) {
+                throw new IOException("Invalid count " + count);
+            }
+            return count;
+        }
+
+        private int readIndex(int size) throws IOException {
+            int index = BinaryFormat.readVarInt(buffer);
+            if (index < 0 || index >= size) {
+                throw new IOException("Index " + index + " out of bounds");
+            }
+            return index;
+        }
+
+        private String readString() throws IOException {
+            int index = readIndex(strings.length + 1);
+            if (0 == index) {
+                return null;
+            }
+            if (null == strings[index - 1]) {
+                byte[] bytes = new byte[stringLengths[index - 1]];
+                ByteBuffer string = buffer.duplicate();
+                string.position(stringOffsets[index - 1]);
+                string.get(bytes);
+                strings[index - 1] = new String(bytes, BinaryFormat.UTF_8);
+            }
+            return strings[index - 1];
+        }
+
+        private ObjectLifeCycle readOLC() throws IOException {
+            String label = readString();
+            ObjectLifeCycle olc = null == label ? new ObjectLifeCycle() : new ObjectLifeCycle(label);
+            readOLCContent(olc);
+            return olc;
+        }
+
+        /**
+         * Reads the states, the start state, the final states and the transitions
+         * following the label of an object life cycle.
+         */
+        private void readOLCContent(ObjectLifeCycle olc) throws IOException {
+            DataObjectState[] states = new DataObjectState[readCount()];
+            for (int i = 0; i < states.length; i++) {
+                states[i] = new DataObjectState(readString());
+                olc.addNode(states[i]);
+            }
+            int start = readIndex(states.length + 1);
+            if (0 != start) {
+                olc.setStartNode(states[start - 1]);
+            }
+            int finalStateCount = readCount();
+            for (int i = 0; i < finalStateCount; i++) {
+                olc.addFinalNode(states[readIndex(states.length)]);
+            }
+            int transitionCount = readCount();
+            for (int i = 0; i < transitionCount; i++) {
+                DataObjectState source = states[readIndex(states.length)];
+                DataObjectState target = states[readIndex(states.length)];
+                String transitionLabel = readString();
+                StateTransition transition = new StateTransition(source, target,
+                        null == transitionLabel ? "" : transitionLabel);
+                source.addOutgoingEdge(transition);
+                target.addIncomingEdge(transition);
+            }
+        }
+
+        /**
+         * Validates the content of an object life cycle without creating it.
+         *
+         * @return The number of transitions of the object life cycle.
+         */
+        private int skipOLCContent() throws IOException {
+            int stateCount = readCount();
+            for (int i = 0; i < stateCount; i++) {
+                readIndex(strings.length + 1);
+            }
+            readIndex(stateCount + 1);
+            int finalStateCount = readCount();
+            for (int i = 0; i < finalStateCount; i++) {
+                readIndex(stateCount);
+            }
+            int transitionCount = readCount();
+            for (int i = 0; i < transitionCount; i++) {
+                readIndex(stateCount);
+                readIndex(stateCount);
+                readIndex(strings.length + 1);
+            }
+            return transitionCount;
+        }
+
+        private Map<StateTransition, List<StateTransition>> readSynchronisationEdges(List<ObjectLifeCycle> olcs)
+                throws IOException {
+            Map<StateTransition, List<StateTransition>> synchronisationEdges = new LinkedHashMap<>();
+            int sourceCount = readCount();
+            for (int i = 0; i < sourceCount; i++) {
+                StateTransition source = readTransition(olcs);
+                int targetCount = readCount();
+                List<StateTransition> targets = new ArrayList<>(targetCount);
+                for (int j = 0; j < targetCount; j++) {
+                    targets.add(readTransition(olcs));
+                }
+                synchronisationEdges.put(source, targets);
+            }
+            return synchronisationEdges;
+        }
+
+        /**
+         * Validates the synchronization edges without resolving their transitions.
+         *
+         * @param transitionCounts The number of transitions of each object life cycle.
+         */
+        private void skipSynchronisationEdges(int[] transitionCounts) throws IOException {
+            int sourceCount = readCount();
+            for (int i = 0; i < sourceCount; i++) {
+                readIndex(transitionCounts[readIndex(transitionCounts.length)]);
+                int targetCount = readCount();
+                for (int j = 0; j < targetCount; j++) {
+                    readIndex(transitionCounts[readIndex(transitionCounts.length)]);
+                }
+            }
+        }
+
+        private ActivityCentricProcessModel readProcessModel() throws IOException {
+            ActivityCentricProcessModel acpm = new ActivityCentricProcessModel();
+            INode[] nodes = new INode[readCount()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = readNode();
+                acpm.addNode(nodes[i]);
+            }
+            int start = readIndex(nodes.length + 1);
+            if (0 != start) {
+                acpm.setStartNode(checkEvent(nodes[start - 1], Event.Type.START));
+            }
+            int end = readIndex(nodes.length + 1);
+            if (0 != end) {
+                acpm.addFinalNode(checkEvent(nodes[end - 1], Event.Type.END));
+            }
+            int controlFlowCount = readCount();
+            for (int i = 0; i < controlFlowCount; i++) {
+                INode source = nodes[readIndex(nodes.length)];
+                INode target = nodes[readIndex(nodes.length)];
+                ControlFlow controlFlow = new ControlFlow(source, target);
+                source.addOutgoingEdge(controlFlow);
+                target.addIncomingEdge(controlFlow);
+            }
+            int dataFlowCount = readCount();
+            for (int i = 0; i < dataFlowCount; i++) {
+                INode source = nodes[readIndex(nodes.length)];
+                INode target = nodes[readIndex(nodes.length)];
+                DataFlow dataFlow;
+                if (source instanceof DataObject && target instanceof Activity) {
+                    dataFlow = new DataFlow((DataObject) source, (Activity) target);
+                } else if (source instanceof Activity && target instanceof DataObject) {
+                    dataFlow = new DataFlow((Activity) source, (DataObject) target);
+                } else {
+                    throw new IOException("A data flow has to connect an activity and a data object");
+                }
+                source.addOutgoingEdge(dataFlow);
+                target.addIncomingEdge(dataFlow);
+            }
+            return acpm;
+        }
+
+        private INode checkEvent(INode node, Event.Type type) throws IOException {
+            if (!(node instanceof Event) || type != ((Event) node).getType()) {
+                throw new IOException("The node is not an event of type " + type);
+            }
+            return node;
+        }
+
+        private INode readNode() throws IOException {
+            int type = BinaryFormat.readVarInt(buffer);
+            switch (type) {
+                case BinaryFormat.ACTIVITY:
+                    return new Activity(readString());
+                case BinaryFormat.START_EVENT:
+                case BinaryFormat.END_EVENT:
+                    Event event = new Event();
+                    event.setType(BinaryFormat.START_EVENT == type ? Event.Type.START : Event.Type.END);
+                    return event;
+                case BinaryFormat.XOR_GATEWAY:
+                case BinaryFormat.AND_GATEWAY:
+                    Gateway gateway = new Gateway();
+                    gateway.setType(BinaryFormat.XOR_GATEWAY == type ? Gateway.Type.XOR : Gateway.Type.AND);
+                    return gateway;
+                case BinaryFormat.DATA_OBJECT:
+                    String name = readString();
+                    return new DataObject(name, new DataObjectState(readString()));
+                default:
+                    throw new IOException("Unknown node type " + type);
+            }
+        }
+
+        private StateTransition readTransition(List<ObjectLifeCycle> olcs) throws IOException {
+            ObjectLifeCycle olc = olcs.get(readIndex(olcs.size()));
+            return olc.getTransition(readIndex(olc.getTransitionCount()));
+        }
+
+        private void finish() throws IOException {
+            if (buffer.position() != end) {
+                throw new IOException("Unexpected data at the end of the record");
+            }
+        }
+    }
+}
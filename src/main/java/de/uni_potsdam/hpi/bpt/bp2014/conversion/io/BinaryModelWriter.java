@@ -0,0 +1,284 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.*;
+
+/**
+ * This class writes object life cycles, synchronized object life cycles and
+ * activity centric process models in the binary model format, see {@link BinaryFormat} for the layout of a record.
+ * <p/>
+ * An object life cycle is written as its label, the names of its states, the
+ * index of the start state plus one, the indexes of the final states and the
+ * transitions as source index, target index and label, in the order of their ids.
+ * A synchronized object life cycle is written as its object life cycles followed
+ * by the synchronization edges, every transition is referenced by the index of
+ * its object life cycle and its own index.
+ * An activity centric process model is written as the types and names of its
+ * nodes, the indexes of the start and end event plus one, followed by the control
+ * flows and the data flows as source and target index. Data objects are written
+ * with the name of their state, references to object life cycles are not written.
+ * All records of one model share the string table, hence every name is
+ * written once only. The {@link BinaryModelReader} restores the ids of states and
+ * transitions.
+ */
+public class BinaryModelWriter {
+
+    /**
+     * Writes an object life cycle as one record.
+     * <p/>
+     * Pre: All transitions connect states of the object life cycle.
+     *
+     * @param olc     The object life cycle to be written.
+     * @param channel The channel to write to, it will not be closed.
+     * @throws IOException If the channel could not be written.
+     */
+    public void write(ObjectLifeCycle olc, WritableByteChannel channel) throws IOException {
+        BinaryFormat.writeFully(channel, encode(olc));
+    }
+
+    /**
+     * Writes a synchronized object life cycle as one record.
+     * <p/>
+     * Pre: All transitions connect states of the same object life cycle.
+     *
+     * @param sOLC    The synchronized object life cycle to be written.
+     * @param channel The channel to write to, it will not be closed.
+     * @throws IOException If the channel could not be written.
+     */
+    public void write(SynchronizedObjectLifeCycle sOLC, WritableByteChannel channel) throws IOException {
+        BinaryFormat.writeFully(channel, encode(sOLC));
+    }
+
+    /**
+     * Writes an activity centric process model as one record.
+     *
+     * @param acpm    The model to be written.
+     * @param channel The channel to write to, it will not be closed.
+     * @throws IOException If the channel could not be written.
+     */
+    public void write(ActivityCentricProcessModel acpm, WritableByteChannel channel) throws IOException {
+        BinaryFormat.writeFully(channel, encode(acpm));
+    }
+
+    /**
+     * @param olc The object life cycle to be encoded.
+     * @return A new buffer holding the record, ready to be read.
+     */
+    public ByteBuffer encode(ObjectLifeCycle olc) {
+        assert null != olc : "The object life cycle must not be null";
+        Encoder encoder = new Encoder();
+        encoder.writeOLC(olc);
+        return encoder.toRecord(BinaryFormat.OBJECT_LIFE_CYCLE);
+    }
+
+    /**
+     * Encodes a synchronized object life cycle.
+     * Synchronization edges referencing transitions outside of its
+     * object life cycles are not part of the record.
+     *
+     * @param sOLC The synchronized object life cycle to be encoded.
+     * @return A new buffer holding the record, ready to be read.
+     */
+    public ByteBuffer encode(SynchronizedObjectLifeCycle sOLC) {
+        assert null != sOLC : "The synchronized object life cycle must not be null";
+        Encoder encoder = new Encoder();
+        List<ObjectLifeCycle> olcs = sOLC.getOLCs();
+        encoder.body.writeVarInt(olcs.size());
+        for (ObjectLifeCycle olc : olcs) {
+            encoder.writeOLC(olc);
+        }
+        encoder.writeSynchronisationEdges(sOLC.getSynchronisationEdges());
+        return encoder.toRecord(BinaryFormat.SYNCHRONIZED_OBJECT_LIFE_CYCLE);
+    }
+
+    /**
+     * Encodes an activity centric process model.
+     * Edges to nodes which are not part of the model are not part of the record.
+     *
+     * @param acpm The model to be encoded.
+     * @return A new buffer holding the record, ready to be read.
+     */
+    public ByteBuffer encode(ActivityCentricProcessModel acpm) {
+        assert null != acpm : "The model must not be null";
+        Encoder encoder = new Encoder();
+        encoder.writeProcessModel(acpm);
+        return encoder.toRecord(BinaryFormat.ACTIVITY_CENTRIC_PROCESS_MODEL);
+    }
+
+    /**
+     * Encodes the model of one record while collecting its string table.
+     */
+    private static class Encoder {
+        private final BinaryFormat.Output body = new BinaryFormat.Output();
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        /**
+         * The position of every transition written so far, as index of its
+         * object life cycle and its index inside the object life cycle.
+         * Transitions are compared by {@link StateTransition#equals(Object)},
+         * hence synchronization edges may reference equal copies.
+         */
+        private final Map<StateTransition, int[]> transitionPositions = new HashMap<>();
+        private int olcCount;
+
+        private void writeString(String string) {
+            if (null == string) {
+                body.writeVarInt(0);
+                return;
+            }
+            Integer index = strings.get(string);
+            if (null == index) {
+                index = strings.size();
+                strings.put(string, index);
+            }
+            body.writeVarInt(index + 1);
+        }
+
+        private void writeOLC(ObjectLifeCycle olc) {
+            writeString(olc.getLabel());
+            Map<INode, Integer> stateIndexes = new IdentityHashMap<>();
+            List<INode> states = olc.getNodes();
+            body.writeVarInt(states.size());
+            for (INode state : states) {
+                stateIndexes.put(state, stateIndexes.size());
+                writeString(((DataObjectState) state).getName());
+            }
+            INode start = olc.getStartNode();
+            body.writeVarInt(null == start ? 0 : stateIndexes.get(start) + 1);
+            List<INode> finalStates = olc.getFinalNodes();
+            body.writeVarInt(finalStates.size());
+            for (INode finalState : finalStates) {
+                body.writeVarInt(stateIndexes.get(finalState));
+            }
+            List<StateTransition> transitions = olc.getTransitions();
+            body.writeVarInt(transitions.size());
+            for (int i = 0; i < transitions.size(); i++) {
+                StateTransition transition = transitions.get(i);
+                assert stateIndexes.containsKey(transition.getTarget()) :
+                        "The transition " + transition.getLabel() + " leaves " + olc.getLabel();
+                body.writeVarInt(stateIndexes.get(transition.getSource()));
+                body.writeVarInt(stateIndexes.get(transition.getTarget()));
+                writeString(transition.getLabel());
+                if (!transitionPositions.containsKey(transition)) {
+                    transitionPositions.put(transition, new int[]{olcCount, i});
+                }
+            }
+            olcCount++;
+        }
+
+        private void writeSynchronisationEdges(Map<StateTransition, List<StateTransition>> edges) {
+            List<int[]> sources = new ArrayList<>();
+            List<List<int[]>> targetsPerSource = new ArrayList<>();
+            for (Map.Entry<StateTransition, List<StateTransition>> edge : edges.entrySet()) {
+                int[] source = transitionPositions.get(edge.getKey());
+                if (null == source) {
+                    continue;
+                }
+                List<int[]> targets = new ArrayList<>();
+                for (StateTransition target : edge.getValue()) {
+                    int[] position = transitionPositions.get(target);
+                    if (null != position) {
+                        targets.add(position);
+                    }
+                }
+                sources.add(source);
+                targetsPerSource.add(targets);
+            }
+            body.writeVarInt(sources.size());
+            for (int i = 0; i < sources.size(); i++) {
+                writePosition(sources.get(i));
+                body.writeVarInt(targetsPerSource.get(i).size());
+                for (int[] target : targetsPerSource.get(i)) {
+                    writePosition(target);
+                }
+            }
+        }
+
+        private void writeProcessModel(ActivityCentricProcessModel acpm) {
+            List<INode> nodes = acpm.getNodes();
+            Map<INode, Integer> nodeIndexes = new IdentityHashMap<>();
+            body.writeVarInt(nodes.size());
+            for (INode node : nodes) {
+                nodeIndexes.put(node, nodeIndexes.size());
+                if (node instanceof Activity) {
+                    body.writeVarInt(BinaryFormat.ACTIVITY);
+                    writeString(((Activity) node).getName());
+                } else if (node instanceof Event) {
+                    body.writeVarInt(Event.Type.START == ((Event) node).getType() ?
+                            BinaryFormat.START_EVENT : BinaryFormat.END_EVENT);
+                } else if (node instanceof Gateway) {
+                    body.writeVarInt(Gateway.Type.XOR == ((Gateway) node).getType() ?
+                            BinaryFormat.XOR_GATEWAY : BinaryFormat.AND_GATEWAY);
+                } else {
+                    DataObject dataObject = (DataObject) node;
+                    body.writeVarInt(BinaryFormat.DATA_OBJECT);
+                    writeString(dataObject.getName());
+                    writeString(null == dataObject.getState() ? null : dataObject.getState().getName());
+                }
+            }
+            writeNodeIndex(nodeIndexes, acpm.getStartNode());
+            writeNodeIndex(nodeIndexes, acpm.getFinalNodes().get(0));
+            List<IEdge> controlFlows = new ArrayList<>();
+            List<IEdge> dataFlows = new ArrayList<>();
+            for (INode node : nodes) {
+                for (IEdge edge : node.getOutgoingEdges()) {
+                    if (null == edge || !nodeIndexes.containsKey(edge.getTarget())) {
+                        continue;
+                    }
+                    if (edge instanceof ControlFlow) {
+                        controlFlows.add(edge);
+                    } else if (edge instanceof DataFlow) {
+                        dataFlows.add(edge);
+                    }
+                }
+            }
+            writeEdges(nodeIndexes, controlFlows);
+            writeEdges(nodeIndexes, dataFlows);
+        }
+
+        private void writeNodeIndex(Map<INode, Integer> nodeIndexes, INode node) {
+            Integer index = nodeIndexes.get(node);
+            body.writeVarInt(null == index ? 0 : index + 1);
+        }
+
+        private void writeEdges(Map<INode, Integer> nodeIndexes, List<IEdge> edges) {
+            body.writeVarInt(edges.size());
+            for (IEdge edge : edges) {
+                body.writeVarInt(nodeIndexes.get(edge.getSource()));
+                body.writeVarInt(nodeIndexes.get(edge.getTarget()));
+            }
+        }
+
+        private void writePosition(int[] position) {
+            body.writeVarInt(position[0]);
+            body.writeVarInt(position[1]);
+        }
+
+        private ByteBuffer toRecord(byte kind) {
+            BinaryFormat.Output table = new BinaryFormat.Output();
+            table.writeVarInt(strings.size());
+            for (String string : strings.keySet()) {
+                table.writeString(string);
+            }
+            int payloadSize = table.size() + body.size();
+            ByteBuffer record = ByteBuffer.allocate(BinaryFormat.HEADER_SIZE + payloadSize);
+            record.putInt(BinaryFormat.MAGIC);
+            record.putShort(BinaryFormat.VERSION);
+            record.put(kind);
+            record.putInt(payloadSize);
+            table.writeTo(record);
+            body.writeTo(record);
+            record.flip();
+            return record;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * This class exports models as JSON documents, which are written straight to a {@link Writer}.
+ * Every document is an object whose member "type" names the kind of model.
+ * Nodes, states and transitions receive ids, edges reference their source and
+ * target by these ids:
+ * <pre>
+ * {"type":"ActivityCentricProcessModel",
+ *  "nodes":[{"id":"n0","type":"startEvent"},{"id":"n1","type":"activity","name":"Pay"},
+ *           {"id":"n2","type":"dataObject","name":"Order","state":"paid"}, ...],
+ *  "startNode":"n0","finalNode":"n3",
+ *  "controlFlows":[{"source":"n0","target":"n1"}, ...],
+ *  "dataFlows":[{"source":"n1","target":"n2"}]}
+ *
+ * {"type":"ObjectLifeCycle","label":"Order",
+ *  "states":[{"id":"s0","name":"init"},{"id":"s1","name":"paid"}],
+ *  "startState":"s0","finalStates":["s1"],
+ *  "transitions":[{"id":"t0","source":"s0","target":"s1","label":"Pay"}]}
+ *
+ * {"type":"SynchronizedObjectLifeCycle",
+ *  "objectLifeCycles":[{"type":"ObjectLifeCycle", ...}, ...],
+ *  "synchronisationEdges":[{"source":"t0","targets":["t4"]}]}
+ * </pre>
+ * Node types are activity, startEvent, endEvent, exclusiveGateway, parallelGateway and dataObject.
+ * The ids of states and transitions are unique inside the whole document and follow
+ * the ids of the object life cycles, the {@link JSONImporter} reads this format.
+ */
+public class JSONExporter {
+    static final String PROCESS_MODEL = "ActivityCentricProcessModel";
+    static final String OBJECT_LIFE_CYCLE = "ObjectLifeCycle";
+    static final String SYNCHRONIZED_OBJECT_LIFE_CYCLE = "SynchronizedObjectLifeCycle";
+
+    /**
+     * Writes an activity centric process model.
+     * Edges to nodes which are not part of the model are not written.
+     *
+     * @param acpm   The model to be exported.
+     * @param output The writer, it will be flushed but not closed.
+     * @throws IOException If the writer fails.
+     */
+    public void export(ActivityCentricProcessModel acpm, Writer output) throws IOException {
+        assert null != acpm : "The model must not be null";
+        JSONWriter writer = new JSONWriter(output);
+        List<INode> nodes = acpm.getNodes();
+        Map<INode, String> ids = new IdentityHashMap<>();
+        writer.beginObject().name("type").value(PROCESS_MODEL);
+        writer.name("nodes").beginArray();
+        for (INode node : nodes) {
+            String id = "n" + ids.size();
+            ids.put(node, id);
+            writer.beginObject().name("id").value(id);
+            if (node instanceof Activity) {
+                writer.name("type").value("activity").name("name").value(((Activity) node).getName());
+            } else if (node instanceof Event) {
+                writer.name("type").value(Event.Type.START == ((Event) node).getType() ? "startEvent" : "endEvent");
+            } else if (node instanceof Gateway) {
+                writer.name("type").value(Gateway.Type.XOR == ((Gateway) node).getType() ?
+                        "exclusiveGateway" : "parallelGateway");
+            } else {
+                DataObject dataObject = (DataObject) node;
+                writer.name("type").value("dataObject").name("name").value(dataObject.getName());
+                writer.name("state").value(null == dataObject.getState() ? null : dataObject.getState().getName());
+            }
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.name("startNode").value(ids.get(acpm.getStartNode()));
+        writer.name("finalNode").value(ids.get(acpm.getFinalNodes().get(0)));
+        List<IEdge> controlFlows = new ArrayList<>();
+        List<IEdge> dataFlows = new ArrayList<>();
+        for (INode node : nodes) {
+            for (IEdge edge : node.getOutgoingEdges()) {
+                if (null == edge || !ids.containsKey(edge.getTarget())) {
+                    continue;
+                }
+                if (edge instanceof ControlFlow) {
+                    controlFlows.add(edge);
+                } else if (edge instanceof DataFlow) {
+                    dataFlows.add(edge);
+                }
+            }
+        }
+        writeEdges(writer.name("controlFlows"), controlFlows, ids);
+        writeEdges(writer.name("dataFlows"), dataFlows, ids);
+        writer.endObject();
+        writer.flush();
+    }
+
+    private void writeEdges(JSONWriter writer, List<IEdge> edges, Map<INode, String> ids) throws IOException {
+        writer.beginArray();
+        for (IEdge edge : edges) {
+            writer.beginObject().name("source").value(ids.get(edge.getSource()))
+                    .name("target").value(ids.get(edge.getTarget())).endObject();
+        }
+        writer.endArray();
+    }
+
+    /**
+     * Writes an object life cycle.
+     * <p/>
+     * Pre: All transitions connect states of the object life cycle.
+     *
+     * @param olc    The object life cycle to be exported.
+     * @param output The writer, it will be flushed but not closed.
+     * @throws IOException If the writer fails.
+     */
+    public void export(ObjectLifeCycle olc, Writer output) throws IOException {
+        assert null != olc : "The object life cycle must not be null";
+        JSONWriter writer = new JSONWriter(output);
+        writeOLC(writer, olc, new Ids());
+        writer.flush();
+    }
+
+    /**
+     * Writes a synchronized object life cycle.
+     * Synchronization edges referencing transitions outside of its
+     * object life cycles are not written.
+     * <p/>
+     * Pre: All transitions connect states of the same object life cycle.
+     *
+     * @param sOLC   The synchronized object life cycle to be exported.
+     * @param output The writer, it will be flushed but not closed.
+     * @throws IOException If the writer fails.
+     */
+    public void export(SynchronizedObjectLifeCycle sOLC, Writer output) throws IOException {
+        assert null != sOLC : "The synchronized object life cycle must not be null";
+        JSONWriter writer = new JSONWriter(output);
+        Ids ids = new Ids();
+        writer.beginObject().name("type").value(SYNCHRONIZED_OBJECT_LIFE_CYCLE);
+        writer.name("objectLifeCycles").beginArray();
+        for (ObjectLifeCycle olc : sOLC.getOLCs()) {
+            writeOLC(writer, olc, ids);
+        }
+        writer.endArray();
+        writer.name("synchronisationEdges").beginArray();
+        for (Map.Entry<StateTransition, List<StateTransition>> edge : sOLC.getSynchronisationEdges().entrySet()) {
+            String source = ids.transitions.get(edge.getKey());
+            if (null == source) {
+                continue;
+            }
+            writer.beginObject().name("source").value(source).name("targets").beginArray();
+            for (StateTransition target : edge.getValue()) {
+                String id = ids.transitions.get(target);
+                if (null != id) {
+                    writer.value(id);
+                }
+            }
+            writer.endArray().endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+    }
+
+    private void writeOLC(JSONWriter writer, ObjectLifeCycle olc, Ids ids) throws IOException {
+        writer.beginObject().name("type").value(OBJECT_LIFE_CYCLE).name("label").value(olc.getLabel());
+        Map<INode, String> stateIds = new IdentityHashMap<>();
+        writer.name("states").beginArray();
+        for (INode state : olc.getNodes()) {
+            String id = "s" + ids.stateCount++;
+            stateIds.put(state, id);
+            writer.beginObject().name("id").value(id)
+                    .name("name").value(((DataObjectState) state).getName()).endObject();
+        }
+        writer.endArray();
+        writer.name("startState").value(stateIds.get(olc.getStartNode()));
+        writer.name("finalStates").beginArray();
+        for (INode finalState : olc.getFinalNodes()) {
+            writer.value(stateIds.get(finalState));
+        }
+        writer.endArray();
+        writer.name("transitions").beginArray();
+        for (StateTransition transition : olc.getTransitions()) {
+            assert stateIds.containsKey(transition.getTarget()) :
+                    "The transition " + transition.getLabel() + " leaves " + olc.getLabel();
+            String id = "t" + ids.transitionCount++;
+            if (!ids.transitions.containsKey(transition)) {
+                ids.transitions.put(transition, id);
+            }
+            writer.beginObject().name("id").value(id)
+                    .name("source").value(stateIds.get(transition.getSource()))
+                    .name("target").value(stateIds.get(transition.getTarget()))
+                    .name("label").value(transition.getLabel()).endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    /**
+     * The ids assigned while writing one document.
+     */
+    private static class Ids {
+        private int stateCount;
+        private int transitionCount;
+        /**
+         * Transitions are compared by {@link StateTransition#equals(Object)},
+         * hence synchronization edges may reference equal copies.
+         */
+        private final Map<StateTransition, String> transitions = new HashMap<>();
+    }
+}
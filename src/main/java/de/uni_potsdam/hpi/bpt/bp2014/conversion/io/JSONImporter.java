@@ -0,0 +1,365 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * This class imports models from JSON documents in the format written by the {@link JSONExporter}.
+ * The document is read in a single pass by a pull tokenizer, no tree is built.
+ * Nodes and states are created when they are reached and registered in an id index,
+ * edges are kept as pairs of ids and connected at the end of their model. Hence the
+ * members of an object may appear in any order and unknown members are skipped.
+ * The member "type" is optional, if present it has to match the expected model.
+ * All names are interned in the shared {@link de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable},
+ * which keeps them for the lifetime of the process. A service accepting documents
+ * from its users should monitor the size of that table.
+ */
+public class JSONImporter {
+
+    /**
+     * @param input The reader of the document, it will not be closed.
+     * @return The activity centric process model described by the document.
+     * @throws IOException If the document could not be read or is not a valid model.
+     */
+    public ActivityCentricProcessModel importProcessModel(Reader input) throws IOException {
+        JSONTokenizer tokenizer = new JSONTokenizer(input);
+        ActivityCentricProcessModel acpm = readProcessModel(tokenizer);
+        tokenizer.endDocument();
+        return acpm;
+    }
+
+    /**
+     * @param input The reader of the document, it will not be closed.
+     * @return The object life cycle described by the document.
+     * @throws IOException If the document could not be read or is not a valid model.
+     */
+    public ObjectLifeCycle importObjectLifeCycle(Reader input) throws IOException {
+        JSONTokenizer tokenizer = new JSONTokenizer(input);
+        ObjectLifeCycle olc = readOLC(tokenizer, new HashMap<String, StateTransition>());
+        tokenizer.endDocument();
+        return olc;
+    }
+
+    /**
+     * @param input The reader of the document, it will not be closed.
+     * @return The synchronized object life cycle described by the document.
+     * @throws IOException If the document could not be read or is not a valid model.
+     */
+    public SynchronizedObjectLifeCycle importSynchronizedObjectLifeCycle(Reader input) throws IOException {
+        JSONTokenizer tokenizer = new JSONTokenizer(input);
+        List<ObjectLifeCycle> olcs = new ArrayList<>();
+        Map<String, StateTransition> transitionsById = new HashMap<>();
+        Map<String, List<String>> pendingEdges = new LinkedHashMap<>();
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            String name = tokenizer.nextName();
+            switch (name) {
+                case "type":
+                    checkType(tokenizer, JSONExporter.SYNCHRONIZED_OBJECT_LIFE_CYCLE);
+                    break;
+                case "objectLifeCycles":
+                    tokenizer.beginArray();
+                    while (tokenizer.hasNext()) {
+                        olcs.add(readOLC(tokenizer, transitionsById));
+                    }
+                    tokenizer.endArray();
+                    break;
+                case "synchronisationEdges":
+                    readSynchronisationEdges(tokenizer, pendingEdges);
+                    break;
+                default:
+                    tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+        tokenizer.endDocument();
+        Map<StateTransition, List<StateTransition>> synchronisationEdges = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> edge : pendingEdges.entrySet()) {
+            List<StateTransition> targets = new ArrayList<>(edge.getValue().size());
+            for (String target : edge.getValue()) {
+                targets.add(resolve(transitionsById, target, tokenizer));
+            }
+            synchronisationEdges.put(resolve(transitionsById, edge.getKey(), tokenizer), targets);
+        }
+        SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
+        sOLC.setObjectLifeCycles(olcs);
+        sOLC.setSynchronisationEdges(synchronisationEdges);
+        return sOLC;
+    }
+
+    private void readSynchronisationEdges(JSONTokenizer tokenizer, Map<String, List<String>> edges)
+            throws IOException {
+        tokenizer.beginArray();
+        while (tokenizer.hasNext()) {
+            String source = null;
+            List<String> targets = new ArrayList<>();
+            tokenizer.beginObject();
+            while (tokenizer.hasNext()) {
+                String name = tokenizer.nextName();
+                if ("source".equals(name)) {
+                    source = tokenizer.nextString();
+                } else if ("targets".equals(name)) {
+                    readStrings(tokenizer, targets);
+                } else {
+                    tokenizer.skipValue();
+                }
+            }
+            tokenizer.endObject();
+            if (null == source) {
+                throw tokenizer.syntaxError("The synchronization edge has no source");
+            }
+            edges.put(source, targets);
+        }
+        tokenizer.endArray();
+    }
+
+    private void checkType(JSONTokenizer tokenizer, String expected) throws IOException {
+        String type = tokenizer.nextString();
+        if (!expected.equals(type)) {
+            throw tokenizer.syntaxError("Expected a model of type " + expected + " but found " + type);
+        }
+    }
+
+    private void readStrings(JSONTokenizer tokenizer, Collection<String> strings) throws IOException {
+        tokenizer.beginArray();
+        while (tokenizer.hasNext()) {
+            strings.add(tokenizer.nextString());
+        }
+        tokenizer.endArray();
+    }
+
+    private static <T> T resolve(Map<String, T> elementsById, String id, JSONTokenizer tokenizer)
+            throws IOException {
+        T element = elementsById.get(id);
+        if (null == element) {
+            throw tokenizer.syntaxError("Unknown id " + id);
+        }
+        return element;
+    }
+
+    private static <T> void register(Map<String, T> elementsById, String id, T element, JSONTokenizer tokenizer)
+            throws IOException {
+        if (null == id) {
+            throw tokenizer.syntaxError("An element has no id");
+        }
+        if (null != elementsById.put(id, element)) {
+            throw tokenizer.syntaxError("Duplicate id " + id);
+        }
+    }
+
+    /**
+     * Reads an object life cycle, the states are added in document order.
+     * Start state, final states and transitions are resolved at the end of the object,
+     * the transitions are connected in document order and receive ids in this order.
+     *
+     * @param transitionsById The index of the transitions of the document, the
+     *                        transitions of this object life cycle will be added.
+     */
+    private ObjectLifeCycle readOLC(JSONTokenizer tokenizer, Map<String, StateTransition> transitionsById)
+            throws IOException {
+        ObjectLifeCycle olc = new ObjectLifeCycle();
+        Map<String, DataObjectState> statesById = new HashMap<>();
+        String startState = null;
+        List<String> finalStates = new ArrayList<>();
+        List<String[]> transitions = new ArrayList<>();
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            String name = tokenizer.nextName();
+            switch (name) {
+                case "type":
+                    checkType(tokenizer, JSONExporter.OBJECT_LIFE_CYCLE);
+                    break;
+                case "label":
+                    String label = tokenizer.nextString();
+                    olc.setLabel(null == label ? "" : label);
+                    break;
+                case "states":
+                    tokenizer.beginArray();
+                    while (tokenizer.hasNext()) {
+                        String[] state = readMembers(tokenizer, "id", "name");
+                        DataObjectState dataObjectState = new DataObjectState(state[1]);
+                        register(statesById, state[0], dataObjectState, tokenizer);
+                        olc.addNode(dataObjectState);
+                    }
+                    tokenizer.endArray();
+                    break;
+                case "startState":
+                    startState = tokenizer.nextString();
+                    break;
+                case "finalStates":
+                    readStrings(tokenizer, finalStates);
+                    break;
+                case "transitions":
+                    tokenizer.beginArray();
+                    while (tokenizer.hasNext()) {
+                        transitions.add(readMembers(tokenizer, "id", "source", "target", "label"));
+                    }
+                    tokenizer.endArray();
+                    break;
+                default:
+                    tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+        if (null != startState) {
+            olc.setStartNode(resolve(statesById, startState, tokenizer));
+        }
+        for (String finalState : finalStates) {
+            olc.addFinalNode(resolve(statesById, finalState, tokenizer));
+        }
+        for (String[] transition : transitions) {
+            DataObjectState source = resolve(statesById, transition[1], tokenizer);
+            DataObjectState target = resolve(statesById, transition[2], tokenizer);
+            StateTransition stateTransition = new StateTransition(source, target,
+                    null == transition[3] ? "" : transition[3]);
+            source.addOutgoingEdge(stateTransition);
+            target.addIncomingEdge(stateTransition);
+            if (null != transition[0]) {
+                register(transitionsById, transition[0], stateTransition, tokenizer);
+            }
+        }
+        return olc;
+    }
+
+    /**
+     * Reads an object whose members are strings.
+     *
+     * @param names The names of the members of interest, other members are skipped.
+     * @return The values of the members in the order of the names, null for missing members.
+     */
+    private String[] readMembers(JSONTokenizer tokenizer, String... names) throws IOException {
+        String[] values = new String[names.length];
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            int index = Arrays.asList(names).indexOf(tokenizer.nextName());
+            if (index < 0) {
+                tokenizer.skipValue();
+            } else {
+                values[index] = tokenizer.nextString();
+            }
+        }
+        tokenizer.endObject();
+        return values;
+    }
+
+    private ActivityCentricProcessModel readProcessModel(JSONTokenizer tokenizer) throws IOException {
+        ActivityCentricProcessModel acpm = new ActivityCentricProcessModel();
+        Map<String, INode> nodesById = new HashMap<>();
+        String startNode = null;
+        String finalNode = null;
+        List<String[]> controlFlows = new ArrayList<>();
+        List<String[]> dataFlows = new ArrayList<>();
+        tokenizer.beginObject();
+        while (tokenizer.hasNext()) {
+            String name = tokenizer.nextName();
+            switch (name) {
+                case "type":
+                    checkType(tokenizer, JSONExporter.PROCESS_MODEL);
+                    break;
+                case "nodes":
+                    tokenizer.beginArray();
+                    while (tokenizer.hasNext()) {
+                        String[] node = readMembers(tokenizer, "id", "type", "name", "state");
+                        INode newNode = createNode(node[1], node[2], node[3], tokenizer);
+                        register(nodesById, node[0], newNode, tokenizer);
+                        acpm.addNode(newNode);
+                    }
+                    tokenizer.endArray();
+                    break;
+                case "startNode":
+                    startNode = tokenizer.nextString();
+                    break;
+                case "finalNode":
+                    finalNode = tokenizer.nextString();
+                    break;
+                case "controlFlows":
+                    readEdges(tokenizer, controlFlows);
+                    break;
+                case "dataFlows":
+                    readEdges(tokenizer, dataFlows);
+                    break;
+                default:
+                    tokenizer.skipValue();
+            }
+        }
+        tokenizer.endObject();
+        if (null != startNode) {
+            acpm.setStartNode(resolveEvent(nodesById, startNode, Event.Type.START, tokenizer));
+        }
+        if (null != finalNode) {
+            acpm.addFinalNode(resolveEvent(nodesById, finalNode, Event.Type.END, tokenizer));
+        }
+        for (String[] controlFlow : controlFlows) {
+            INode source = resolve(nodesById, controlFlow[0], tokenizer);
+            INode target = resolve(nodesById, controlFlow[1], tokenizer);
+            ControlFlow edge = new ControlFlow(source, target);
+            source.addOutgoingEdge(edge);
+            target.addIncomingEdge(edge);
+        }
+        for (String[] dataFlow : dataFlows) {
+            INode source = resolve(nodesById, dataFlow[0], tokenizer);
+            INode target = resolve(nodesById, dataFlow[1], tokenizer);
+            DataFlow edge;
+            if (source instanceof DataObject && target instanceof Activity) {
+                edge = new DataFlow((DataObject) source, (Activity) target);
+            } else if (source instanceof Activity && target instanceof DataObject) {
+                edge = new DataFlow((Activity) source, (DataObject) target);
+            } else {
+                throw tokenizer.syntaxError("The data flow from " + dataFlow[0] + " to " + dataFlow[1] +
+                        " does not connect an activity and a data object");
+            }
+            source.addOutgoingEdge(edge);
+            target.addIncomingEdge(edge);
+        }
+        return acpm;
+    }
+
+    private static INode resolveEvent(Map<String, INode> nodesById, String id, Event.Type type,
+                                      JSONTokenizer tokenizer) throws IOException {
+        INode node = resolve(nodesById, id, tokenizer);
+        if (!(node instanceof Event) || type != ((Event) node).getType()) {
+            throw tokenizer.syntaxError("The node " + id + " is not an event of type " + type);
+        }
+        return node;
+    }
+
+    private void readEdges(JSONTokenizer tokenizer, List<String[]> edges) throws IOException {
+        tokenizer.beginArray();
+        while (tokenizer.hasNext()) {
+            edges.add(readMembers(tokenizer, "source", "target"));
+        }
+        tokenizer.endArray();
+    }
+
+    private INode createNode(String type, String name, String state, JSONTokenizer tokenizer) throws IOException {
+        if (null == type) {
+            throw tokenizer.syntaxError("A node has no type");
+        }
+        switch (type) {
+            case "activity":
+                return new Activity(name);
+            case "startEvent":
+            case "endEvent":
+                Event event = new Event();
+                event.setType("startEvent".equals(type) ? Event.Type.START : Event.Type.END);
+                return event;
+            case "exclusiveGateway":
+            case "parallelGateway":
+                Gateway gateway = new Gateway();
+                gateway.setType("exclusiveGateway".equals(type) ? Gateway.Type.XOR : Gateway.Type.AND);
+                return gateway;
+            case "dataObject":
+                return new DataObject(name, new DataObjectState(state));
+            default:
+                throw tokenizer.syntaxError("Unknown node type " + type);
+        }
+    }
+}
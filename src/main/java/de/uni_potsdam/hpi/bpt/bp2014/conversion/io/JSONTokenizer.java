@@ -0,0 +1,275 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A pull tokenizer for JSON documents.
+ * The document is read in chunks from a {@link Reader}, values are returned
+ * as they are reached and never collected into a tree. The tokenizer checks
+ * the structure of objects and arrays, the caller navigates by
+ * {@link #beginObject()}, {@link #hasNext()}, {@link #nextName()} and so on.
+ * Values which are not needed can be skipped with {@link #skipValue()}.
+ * Every syntax error results in an IOException naming the line and column.
+ */
+final class JSONTokenizer {
+    private static final int END_OF_INPUT = -1;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private int line = 1;
+    private int column;
+    private final StringBuilder string = new StringBuilder();
+    /**
+     * For every open object or array: true as long as no element has been read.
+     */
+    private boolean[] first = new boolean[32];
+    private int depth;
+
+    JSONTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    private int peekChar() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return END_OF_INPUT;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int readChar() throws IOException {
+        int c = peekChar();
+        if (END_OF_INPUT != c) {
+            position++;
+            if ('\n' == c) {
+                line++;
+                column = 0;
+            } else {
+                column++;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * @return The next character which is not white space, without consuming it.
+     */
+    private int peekToken() throws IOException {
+        int c = peekChar();
+        while (' ' == c || '\t' == c || '\n' == c || '\r' == c) {
+            readChar();
+            c = peekChar();
+        }
+        return c;
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = peekToken();
+        if (c != expected) {
+            throw syntaxError("Expected '" + expected + "' but found " + describe(c));
+        }
+        readChar();
+    }
+
+    IOException syntaxError(String message) {
+        return new IOException(message + " at line " + line + " column " + column);
+    }
+
+    private static String describe(int c) {
+        return END_OF_INPUT == c ? "the end of the document" : "'" + (char) c + "'";
+    }
+
+    private void push() {
+        if (depth == first.length) {
+            first = Arrays.copyOf(first, 2 * depth);
+        }
+        first[depth++] = true;
+    }
+
+    void beginObject() throws IOException {
+        expect('{');
+        push();
+    }
+
+    void endObject() throws IOException {
+        expect('}');
+        depth--;
+    }
+
+    void beginArray() throws IOException {
+        expect('[');
+        push();
+    }
+
+    void endArray() throws IOException {
+        expect(']');
+        depth--;
+    }
+
+    /**
+     * Consumes the comma between two elements of the current object or array.
+     *
+     * @return True if there is another element, false if the object or array ends.
+     */
+    boolean hasNext() throws IOException {
+        assert depth > 0 : "There is no open object or array";
+        int c = peekToken();
+        if ('}' == c || ']' == c) {
+            return false;
+        }
+        if (first[depth - 1]) {
+            first[depth - 1] = false;
+        } else {
+            expect(',');
+        }
+        return true;
+    }
+
+    /**
+     * @return The name of the next member of the current object.
+     */
+    String nextName() throws IOException {
+        String name = readString();
+        expect(':');
+        return name;
+    }
+
+    /**
+     * @return The next value, which has to be a string or null.
+     */
+    String nextString() throws IOException {
+        int c = peekToken();
+        if ('n' == c) {
+            readLiteral("null");
+            return null;
+        }
+        return readString();
+    }
+
+    /**
+     * Skips the next value including all nested objects and arrays.
+     */
+    void skipValue() throws IOException {
+        int c = peekToken();
+        switch (c) {
+            case '{':
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+                break;
+            case '[':
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            case '"':
+                readString();
+                break;
+            case 't':
+                readLiteral("true");
+                break;
+            case 'f':
+                readLiteral("false");
+                break;
+            case 'n':
+                readLiteral("null");
+                break;
+            default:
+                readNumber();
+        }
+    }
+
+    /**
+     * Checks that there is nothing but white space behind the document.
+     */
+    void endDocument() throws IOException {
+        int c = peekToken();
+        if (END_OF_INPUT != c) {
+            throw syntaxError("Expected the end of the document but found " + describe(c));
+        }
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            int c = readChar();
+            if (c != literal.charAt(i)) {
+                throw syntaxError("Expected " + literal + " but found " + describe(c));
+            }
+        }
+    }
+
+    private void readNumber() throws IOException {
+        int c = peekToken();
+        int length = 0;
+        while ('-' == c || '+' == c || '.' == c || 'e' == c || 'E' == c || (c >= '0' && c <= '9')) {
+            readChar();
+            length++;
+            c = peekChar();
+        }
+        if (0 == length) {
+            throw syntaxError("Unexpected " + describe(c));
+        }
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        string.setLength(0);
+        while (true) {
+            int c = readChar();
+            if ('"' == c) {
+                return string.toString();
+            } else if ('\\' == c) {
+                string.append(readEscape());
+            } else if (END_OF_INPUT == c || c < 0x20) {
+                throw syntaxError("Unterminated string");
+            } else {
+                string.append((char) c);
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = readChar();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(readChar(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Malformed unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return (char) value;
+            default:
+                throw syntaxError("Unknown escape sequence " + describe(c));
+        }
+    }
+}
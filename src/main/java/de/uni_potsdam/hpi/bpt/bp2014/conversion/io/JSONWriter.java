@@ -0,0 +1,133 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Writes a compact JSON document straight to a {@link Writer}.
+ * Commas are inserted between the elements of objects and arrays,
+ * strings are escaped. The caller is responsible for the structure,
+ * it is only checked by assertions.
+ */
+final class JSONWriter {
+    private final Writer writer;
+    /**
+     * For every open object or array: true as long as no element has been written.
+     */
+    private boolean[] first = new boolean[32];
+    private int depth;
+    /**
+     * True if a name has been written and its value is missing.
+     */
+    private boolean afterName;
+
+    JSONWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (first[depth - 1]) {
+                first[depth - 1] = false;
+            } else {
+                writer.write(',');
+            }
+        }
+    }
+
+    private void open(char bracket) throws IOException {
+        beforeValue();
+        writer.write(bracket);
+        if (depth == first.length) {
+            first = Arrays.copyOf(first, 2 * depth);
+        }
+        first[depth++] = true;
+    }
+
+    private void close(char bracket) throws IOException {
+        assert depth > 0 && !afterName : "There is no complete object or array to be closed";
+        depth--;
+        writer.write(bracket);
+    }
+
+    JSONWriter beginObject() throws IOException {
+        open('{');
+        return this;
+    }
+
+    JSONWriter endObject() throws IOException {
+        close('}');
+        return this;
+    }
+
+    JSONWriter beginArray() throws IOException {
+        open('[');
+        return this;
+    }
+
+    JSONWriter endArray() throws IOException {
+        close(']');
+        return this;
+    }
+
+    JSONWriter name(String name) throws IOException {
+        assert !afterName : "A value has to follow every name";
+        beforeValue();
+        writeString(name);
+        writer.write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * @param value The string to be written, null is written as null.
+     */
+    JSONWriter value(String value) throws IOException {
+        beforeValue();
+        if (null == value) {
+            writer.write("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    private void writeString(String value) throws IOException {
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = null;
+            if ('"' == c) {
+                escape = "\\\"";
+            } else if ('\\' == c) {
+                escape = "\\\\";
+            } else if ('\n' == c) {
+                escape = "\\n";
+            } else if ('\r' == c) {
+                escape = "\\r";
+            } else if ('\t' == c) {
+                escape = "\\t";
+            } else if (c < 0x20 || 0x2028 == c || 0x2029 == c) {
+                escape = String.format("\\u%04x", (int) c);
+            }
+            if (null != escape) {
+                writer.write(value, start, i - start);
+                writer.write(escape);
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+
+    void flush() throws IOException {
+        assert 0 == depth : "The document is incomplete";
+        writer.flush();
+    }
+}
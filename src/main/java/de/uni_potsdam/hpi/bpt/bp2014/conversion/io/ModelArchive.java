@@ -0,0 +1,314 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.StructuralFingerprint;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This class provides random access to the models of an archive file written by
+ * a {@link ModelArchiveWriter}. The file is mapped into memory with
+ * {@link FileChannel#map(FileChannel.MapMode, long, long)}, opening it reads the
+ * header only. Looking up a model performs a binary search on the index and
+ * loading a model decodes its record only, hence only the pages of the index
+ * entries visited and of the record itself are read from disk.
+ * <p/>
+ * The archive starts with a header holding the magic number, the version, the
+ * number of entries and the offsets of the labels, the entries and the fingerprint
+ * order. It is followed by the records of the {@link BinaryModelWriter} and the index:
+ * <ul>
+ *     <li>the labels as length and UTF-8 bytes,</li>
+ *     <li>one entry of {@link #ENTRY_SIZE} bytes per record, ordered by the hash
+ *     of the label: label hash, {@link StructuralFingerprint}, offset and length
+ *     of the record, offset of the label and kind of the model,</li>
+ *     <li>the indexes of the entries ordered by fingerprint.</li>
+ * </ul>
+ * Queries which do not need the models themselves can walk the records in place
+ * with an {@link OLCCursor} or a {@link ProcessModelCursor}.
+ * An archive is immutable, it can be used by several threads at once.
+ * As the file is mapped as a whole it must not be larger than 2 GB.
+ */
+public class ModelArchive {
+    /**
+     * The bytes "BPMA" at the start of every archive.
+     */
+    static final int MAGIC = 0x42504D41;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 40;
+    static final int ENTRY_SIZE = 40;
+    /**
+     * The unused bytes at the end of every entry.
+     */
+    static final int ENTRY_PADDING = 7;
+    /**
+     * The label offset of entries without label.
+     */
+    static final int NO_LABEL = -1;
+
+    private final ByteBuffer buffer;
+    private final BinaryModelReader reader = new BinaryModelReader();
+    private final int entryCount;
+    private final int labelsOffset;
+    private final int entriesOffset;
+    private final int fingerprintOrderOffset;
+
+    private ModelArchive(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || MAGIC != buffer.getInt(0)) {
+            throw new IOException("Not a model archive");
+        }
+        short version = buffer.getShort(4);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported archive version " + version);
+        }
+        entryCount = buffer.getInt(8);
+        labelsOffset = offsetAt(12);
+        entriesOffset = offsetAt(20);
+        fingerprintOrderOffset = offsetAt(28);
+        if (entryCount < 0 || entriesOffset + (long) entryCount * ENTRY_SIZE != fingerprintOrderOffset ||
+                fingerprintOrderOffset + 4L * entryCount > buffer.capacity()) {
+            throw new IOException("The index of the archive is corrupt");
+        }
+    }
+
+    private int offsetAt(int position) throws IOException {
+        long offset = buffer.getLong(position);
+        if (offset < HEADER_SIZE || offset > buffer.capacity()) {
+            throw new IOException("The index of the archive is corrupt");
+        }
+        return (int) offset;
+    }
+
+    /**
+     * Opens an archive by mapping the file into memory.
+     * The file will not be read beyond its header.
+     *
+     * @param path The path of the archive.
+     * @return The opened archive.
+     * @throws IOException If the file could not be mapped or is not an archive.
+     */
+    public static ModelArchive open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Archives larger than 2 GB are not supported");
+            }
+            return new ModelArchive(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    private int entryPosition(int entry) {
+        assert entry >= 0 && entry < entryCount : "There is no entry " + entry;
+        return entriesOffset + entry * ENTRY_SIZE;
+    }
+
+    /**
+     * @param entry The index of the entry.
+     * @return The label of the model or null if it has none.
+     * @throws IOException If the label could not be decoded.
+     */
+    public String getLabel(int entry) throws IOException {
+        int labelOffset = buffer.getInt(entryPosition(entry) + 28);
+        if (NO_LABEL == labelOffset) {
+            return null;
+        }
+        if (labelOffset < 0 || labelsOffset + (long) labelOffset >= buffer.capacity()) {
+            throw new IOException("The index of the archive is corrupt");
+        }
+        ByteBuffer label = buffer.duplicate();
+        label.position(labelsOffset + labelOffset);
+        int length = BinaryFormat.readVarInt(label);
+        if (length < 0 || length > label.remaining()) {
+            throw new IOException("The index of the archive is corrupt");
+        }
+        byte[] bytes = new byte[length];
+        label.get(bytes);
+        return new String(bytes, BinaryFormat.UTF_8);
+    }
+
+    /**
+     * @param entry The index of the entry.
+     * @return The structural fingerprint of the model.
+     */
+    public long getFingerprint(int entry) {
+        return buffer.getLong(entryPosition(entry) + 8);
+    }
+
+    /**
+     * @param entry The index of the entry.
+     * @return True if the entry holds an object life cycle, false if it holds a process model.
+     */
+    public boolean isObjectLifeCycle(int entry) {
+        return BinaryFormat.OBJECT_LIFE_CYCLE == buffer.get(entryPosition(entry) + 32);
+    }
+
+    /**
+     * @return The mapped file, it must not be changed.
+     */
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @param entry The index of the entry.
+     * @return The offset of the record of the entry inside the mapped file.
+     * @throws IOException If the offset is not inside the mapped file.
+     */
+    int getRecordOffset(int entry) throws IOException {
+        long offset = buffer.getLong(entryPosition(entry) + 16);
+        if (offset < HEADER_SIZE || offset >= buffer.capacity()) {
+            throw new IOException("The index of the archive is corrupt");
+        }
+        return (int) offset;
+    }
+
+    /**
+     * Returns the record of an entry without decoding it.
+     * The record can be decoded by a {@link BinaryModelReader}.
+     *
+     * @param entry The index of the entry.
+     * @return A new read only buffer whose content is the record.
+     * @throws IOException If the record is not inside the mapped file.
+     */
+    public ByteBuffer getRecord(int entry) throws IOException {
+        int offset = getRecordOffset(entry);
+        int length = buffer.getInt(entryPosition(entry) + 24);
+        if (length < 0 || offset + (long) length > buffer.capacity()) {
+            throw new IOException("The index of the archive is corrupt");
+        }
+        ByteBuffer record = buffer.asReadOnlyBuffer();
+        record.limit(offset + length);
+        record.position(offset);
+        return record.slice();
+    }
+
+    /**
+     * Finds all entries with the given label, using a binary search on the label hashes.
+     *
+     * @param label The label to be searched for.
+     * @return The indexes of the entries, in the order in which they have been added.
+     * @throws IOException If a label could not be decoded.
+     */
+    public List<Integer> findByLabel(String label) throws IOException {
+        assert null != label : "The label must not be null";
+        long hash = StructuralFingerprint.hash(label);
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getLong(entryPosition(middle)) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<Integer> entries = new ArrayList<>();
+        for (int entry = low; entry < entryCount && buffer.getLong(entryPosition(entry)) == hash; entry++) {
+            if (label.equals(getLabel(entry))) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Finds all entries with the given fingerprint, using a binary search
+     * on the fingerprint order. Fingerprints are hashes, hence the entries
+     * are candidates only. Load them and confirm the match with
+     * {@link StructuralFingerprint#equalsStructurally(de.uni_potsdam.hpi.bpt.bp2014.conversion.IModel,
+     * de.uni_potsdam.hpi.bpt.bp2014.conversion.IModel)}.
+     *
+     * @param fingerprint The {@link StructuralFingerprint} of the model.
+     * @return The indexes of the entries.
+     */
+    public List<Integer> findByFingerprint(long fingerprint) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getFingerprint(entryInFingerprintOrder(middle)) < fingerprint) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<Integer> entries = new ArrayList<>();
+        for (int i = low; i < entryCount && getFingerprint(entryInFingerprintOrder(i)) == fingerprint; i++) {
+            entries.add(entryInFingerprintOrder(i));
+        }
+        return entries;
+    }
+
+    private int entryInFingerprintOrder(int position) {
+        return buffer.getInt(fingerprintOrderOffset + 4 * position);
+    }
+
+    /**
+     * @param entry The index of an entry holding an object life cycle.
+     * @return A new object life cycle decoded from the record of the entry.
+     * @throws IOException If the record is not valid.
+     */
+    public ObjectLifeCycle loadObjectLifeCycle(int entry) throws IOException {
+        return reader.decodeObjectLifeCycle(getRecord(entry));
+    }
+
+    /**
+     * @param entry The index of an entry holding an activity centric process model.
+     * @return A new process model decoded from the record of the entry.
+     * @throws IOException If the record is not valid.
+     */
+    public ActivityCentricProcessModel loadProcessModel(int entry) throws IOException {
+        return reader.decodeProcessModel(getRecord(entry));
+    }
+
+    /**
+     * @param label The label of the object life cycle, hence its data class.
+     * @return The object life cycle added first with this label, null if there is none.
+     * @throws IOException If the record is not valid.
+     */
+    public ObjectLifeCycle loadObjectLifeCycle(String label) throws IOException {
+        for (int entry : findByLabel(label)) {
+            if (isObjectLifeCycle(entry)) {
+                return loadObjectLifeCycle(entry);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Assembles a synchronized object life cycle of the object life cycles
+     * of some data classes. Only the records of these object life cycles are read.
+     * Synchronization edges are not part of the archive, they have to be added
+     * by the caller.
+     *
+     * @param labels The labels of the object life cycles.
+     * @return A new synchronized object life cycle without synchronization edges.
+     * @throws IOException If there is no object life cycle for one of the labels
+     *                     or a record is not valid.
+     */
+    public SynchronizedObjectLifeCycle assemble(Collection<String> labels) throws IOException {
+        List<ObjectLifeCycle> olcs = new ArrayList<>(labels.size());
+        for (String label : labels) {
+            ObjectLifeCycle olc = loadObjectLifeCycle(label);
+            if (null == olc) {
+                throw new IOException("The archive contains no object life cycle of " + label);
+            }
+            olcs.add(olc);
+        }
+        SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
+        sOLC.setObjectLifeCycles(olcs);
+        return sOLC;
+    }
+}
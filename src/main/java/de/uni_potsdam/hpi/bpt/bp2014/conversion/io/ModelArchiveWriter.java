@@ -0,0 +1,174 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.StructuralFingerprint;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * This class writes a {@link ModelArchive}.
+ * Every model added is encoded by a {@link BinaryModelWriter} and appended to the
+ * file right away, only the index entries are kept in memory.
+ * The index and the header are written on {@link #close()}, an archive which
+ * has not been closed can not be opened.
+ */
+public class ModelArchiveWriter implements Closeable {
+    private final FileChannel channel;
+    private final BinaryModelWriter writer = new BinaryModelWriter();
+    private final List<Entry> entries = new ArrayList<>();
+    private boolean closed;
+
+    /**
+     * Creates a new archive, an existing file will be replaced.
+     *
+     * @param path The path of the archive.
+     * @throws IOException If the file could not be created.
+     */
+    public ModelArchiveWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(ModelArchive.HEADER_SIZE);
+    }
+
+    /**
+     * Adds an object life cycle, it can be found by its label and its
+     * {@link StructuralFingerprint}.
+     *
+     * @param olc The object life cycle to be added.
+     * @throws IOException If the record could not be written.
+     */
+    public void add(ObjectLifeCycle olc) throws IOException {
+        append(olc.getLabel(), StructuralFingerprint.of(olc), BinaryFormat.OBJECT_LIFE_CYCLE, writer.encode(olc));
+    }
+
+    /**
+     * Adds an activity centric process model, e.g. a fragment, it can be found
+     * by the given label and its {@link StructuralFingerprint}.
+     *
+     * @param label The label of the model, may be null.
+     * @param acpm  The model to be added.
+     * @throws IOException If the record could not be written.
+     */
+    public void add(String label, ActivityCentricProcessModel acpm) throws IOException {
+        append(label, StructuralFingerprint.of(acpm), BinaryFormat.ACTIVITY_CENTRIC_PROCESS_MODEL,
+                writer.encode(acpm));
+    }
+
+    private void append(String label, long fingerprint, byte kind, ByteBuffer record) throws IOException {
+        assert !closed : "The archive has already been closed";
+        Entry entry = new Entry(label, fingerprint, kind, channel.position(), record.remaining());
+        BinaryFormat.writeFully(channel, record);
+        entries.add(entry);
+    }
+
+    /**
+     * Writes the index and the header and closes the file.
+     * The entries are ordered by the hashes of their labels, entries with equal
+     * hashes keep the order in which they have been added.
+     *
+     * @throws IOException If the index could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            List<Entry> sorted = new ArrayList<>(entries);
+            Collections.sort(sorted, new Comparator<Entry>() {
+                @Override
+                public int compare(Entry entry, Entry other) {
+                    return Long.compare(entry.labelHash, other.labelHash);
+                }
+            });
+            long labelsOffset = channel.position();
+            BinaryFormat.Output labels = new BinaryFormat.Output();
+            int[] labelOffsets = new int[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                labelOffsets[i] = null == sorted.get(i).label ? ModelArchive.NO_LABEL : labels.size();
+                if (null != sorted.get(i).label) {
+                    labels.writeString(sorted.get(i).label);
+                }
+            }
+            ByteBuffer labelBuffer = ByteBuffer.allocate(labels.size());
+            labels.writeTo(labelBuffer);
+            labelBuffer.flip();
+            BinaryFormat.writeFully(channel, labelBuffer);
+
+            long entriesOffset = channel.position();
+            ByteBuffer index = ByteBuffer.allocate(sorted.size() * (ModelArchive.ENTRY_SIZE + 4));
+            for (int i = 0; i < sorted.size(); i++) {
+                Entry entry = sorted.get(i);
+                index.putLong(entry.labelHash);
+                index.putLong(entry.fingerprint);
+                index.putLong(entry.offset);
+                index.putInt(entry.length);
+                index.putInt(labelOffsets[i]);
+                index.put(entry.kind);
+                index.position(index.position() + ModelArchive.ENTRY_PADDING);
+            }
+            final long[] fingerprints = new long[sorted.size()];
+            Integer[] byFingerprint = new Integer[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                fingerprints[i] = sorted.get(i).fingerprint;
+                byFingerprint[i] = i;
+            }
+            Arrays.sort(byFingerprint, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer entry, Integer other) {
+                    return Long.compare(fingerprints[entry], fingerprints[other]);
+                }
+            });
+            for (Integer entry : byFingerprint) {
+                index.putInt(entry);
+            }
+            index.flip();
+            BinaryFormat.writeFully(channel, index);
+
+            ByteBuffer header = ByteBuffer.allocate(ModelArchive.HEADER_SIZE);
+            header.putInt(ModelArchive.MAGIC);
+            header.putShort(ModelArchive.VERSION);
+            header.putShort((short) 0);
+            header.putInt(sorted.size());
+            header.putLong(labelsOffset);
+            header.putLong(entriesOffset);
+            header.putLong(entriesOffset + (long) sorted.size() * ModelArchive.ENTRY_SIZE);
+            header.putInt(0);
+            header.flip();
+            channel.position(0);
+            BinaryFormat.writeFully(channel, header);
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * The index entry of one record.
+     */
+    private static class Entry {
+        private final String label;
+        private final long labelHash;
+        private final long fingerprint;
+        private final byte kind;
+        private final long offset;
+        private final int length;
+
+        private Entry(String label, long fingerprint, byte kind, long offset, int length) {
+            this.label = label;
+            this.labelHash = StructuralFingerprint.hash(label);
+            this.fingerprint = fingerprint;
+            this.kind = kind;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
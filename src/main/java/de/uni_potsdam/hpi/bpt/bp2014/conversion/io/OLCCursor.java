@@ -0,0 +1,162 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import java.io.IOException;
+
+/**
+ * A cursor over records of object life cycles, see {@link RecordCursor}.
+ * States and transitions are addressed by their index, which equals the id
+ * they receive when the record is decoded by the {@link BinaryModelReader}.
+ * <p/>
+ * Example, counting the object life cycles of an archive containing the state "paid":
+ * <pre>
+ * OLCCursor cursor = new OLCCursor();
+ * for (int entry = 0; entry &lt; archive.getEntryCount(); entry++) {
+ *     if (archive.isObjectLifeCycle(entry)) {
+ *         cursor.reset(archive, entry);
+ *         count += cursor.containsState("paid") ? 1 : 0;
+ *     }
+ * }
+ * </pre>
+ */
+public class OLCCursor extends RecordCursor {
+    private int label;
+    private int stateCount;
+    private int[] stateNames = new int[16];
+    private int startState;
+    private int finalStateCount;
+    private int[] finalStates = new int[4];
+    private int transitionCount;
+    private int[] transitionSources = new int[16];
+    private int[] transitionTargets = new int[16];
+    private int[] transitionLabels = new int[16];
+
+    public OLCCursor() {
+        super(BinaryFormat.OBJECT_LIFE_CYCLE);
+    }
+
+    @Override
+    void readModel() throws IOException {
+        label = readStringReference();
+        stateCount = readCount();
+        stateNames = ensureCapacity(stateNames, stateCount);
+        for (int i = 0; i < stateCount; i++) {
+            stateNames[i] = readStringReference();
+        }
+        startState = readIndex(stateCount + 1) - 1;
+        finalStateCount = readCount();
+        finalStates = ensureCapacity(finalStates, finalStateCount);
+        for (int i = 0; i < finalStateCount; i++) {
+            finalStates[i] = readIndex(stateCount);
+        }
+        transitionCount = readCount();
+        transitionSources = ensureCapacity(transitionSources, transitionCount);
+        transitionTargets = ensureCapacity(transitionTargets, transitionCount);
+        transitionLabels = ensureCapacity(transitionLabels, transitionCount);
+        for (int i = 0; i < transitionCount; i++) {
+            transitionSources[i] = readIndex(stateCount);
+            transitionTargets[i] = readIndex(stateCount);
+            transitionLabels[i] = readStringReference();
+        }
+    }
+
+    /**
+     * @return The reference of the label, hence the data class.
+     */
+    public int getLabel() {
+        return label;
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * @param state The index of the state.
+     * @return The reference of the name of the state.
+     */
+    public int getStateName(int state) {
+        assert state >= 0 && state < stateCount : "There is no state " + state;
+        return stateNames[state];
+    }
+
+    /**
+     * @return The index of the start state, -1 if there is none.
+     */
+    public int getStartState() {
+        return startState;
+    }
+
+    public int getFinalStateCount() {
+        return finalStateCount;
+    }
+
+    /**
+     * @param position The position inside the final states, smaller than {@link #getFinalStateCount()}.
+     * @return The index of the final state.
+     */
+    public int getFinalState(int position) {
+        assert position >= 0 && position < finalStateCount : "There is no final state " + position;
+        return finalStates[position];
+    }
+
+    public boolean isFinalState(int state) {
+        for (int i = 0; i < finalStateCount; i++) {
+            if (finalStates[i] == state) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getTransitionCount() {
+        return transitionCount;
+    }
+
+    /**
+     * @param transition The index of the transition.
+     * @return The index of the source state.
+     */
+    public int getTransitionSource(int transition) {
+        assert transition >= 0 && transition < transitionCount : "There is no transition " + transition;
+        return transitionSources[transition];
+    }
+
+    /**
+     * @param transition The index of the transition.
+     * @return The index of the target state.
+     */
+    public int getTransitionTarget(int transition) {
+        assert transition >= 0 && transition < transitionCount : "There is no transition " + transition;
+        return transitionTargets[transition];
+    }
+
+    /**
+     * @param transition The index of the transition.
+     * @return The reference of the label of the transition.
+     */
+    public int getTransitionLabel(int transition) {
+        assert transition >= 0 && transition < transitionCount : "There is no transition " + transition;
+        return transitionLabels[transition];
+    }
+
+    /**
+     * @param name The name of the state.
+     * @return The index of the first state with the name, -1 if there is none.
+     */
+    public int findState(String name) {
+        int reference = findString(name);
+        if (0 == reference) {
+            return -1;
+        }
+        for (int i = 0; i < stateCount; i++) {
+            if (stateNames[i] == reference) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean containsState(String name) {
+        return findState(name) >= 0;
+    }
+}
@@ -0,0 +1,192 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import java.io.IOException;
+
+/**
+ * A cursor over records of activity centric process models, e.g. fragments,
+ * see {@link RecordCursor}. Nodes are addressed by their index inside the record,
+ * edges by their index inside the control flows or the data flows.
+ * <p/>
+ * Example, collecting the fragments of an archive which write the state "paid" of Order:
+ * <pre>
+ * ProcessModelCursor cursor = new ProcessModelCursor();
+ * for (int entry = 0; entry &lt; archive.getEntryCount(); entry++) {
+ *     if (!archive.isObjectLifeCycle(entry)) {
+ *         cursor.reset(archive, entry);
+ *         if (cursor.writesState("Order", "paid")) {
+ *             entries.add(entry);
+ *         }
+ *     }
+ * }
+ * </pre>
+ */
+public class ProcessModelCursor extends RecordCursor {
+    public static final int ACTIVITY = BinaryFormat.ACTIVITY;
+    public static final int START_EVENT = BinaryFormat.START_EVENT;
+    public static final int END_EVENT = BinaryFormat.END_EVENT;
+    public static final int XOR_GATEWAY = BinaryFormat.XOR_GATEWAY;
+    public static final int AND_GATEWAY = BinaryFormat.AND_GATEWAY;
+    public static final int DATA_OBJECT = BinaryFormat.DATA_OBJECT;
+
+    private int nodeCount;
+    private int[] nodeTypes = new int[16];
+    /**
+     * The reference of the name of activities and data objects, 0 for other nodes.
+     */
+    private int[] nodeNames = new int[16];
+    /**
+     * The reference of the state of data objects, 0 for other nodes.
+     */
+    private int[] nodeStates = new int[16];
+    private int startEvent;
+    private int endEvent;
+    private int controlFlowCount;
+    private int[] controlFlowSources = new int[16];
+    private int[] controlFlowTargets = new int[16];
+    private int dataFlowCount;
+    private int[] dataFlowSources = new int[16];
+    private int[] dataFlowTargets = new int[16];
+
+    public ProcessModelCursor() {
+        super(BinaryFormat.ACTIVITY_CENTRIC_PROCESS_MODEL);
+    }
+
+    @Override
+    void readModel() throws IOException {
+        nodeCount = readCount();
+        nodeTypes = ensureCapacity(nodeTypes, nodeCount);
+        nodeNames = ensureCapacity(nodeNames, nodeCount);
+        nodeStates = ensureCapacity(nodeStates, nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            nodeTypes[i] = readIndex(DATA_OBJECT + 1);
+            nodeNames[i] = ACTIVITY == nodeTypes[i] || DATA_OBJECT == nodeTypes[i] ? readStringReference() : 0;
+            nodeStates[i] = DATA_OBJECT == nodeTypes[i] ? readStringReference() : 0;
+        }
+        startEvent = readIndex(nodeCount + 1) - 1;
+        endEvent = readIndex(nodeCount + 1) - 1;
+        controlFlowCount = readCount();
+        controlFlowSources = ensureCapacity(controlFlowSources, controlFlowCount);
+        controlFlowTargets = ensureCapacity(controlFlowTargets, controlFlowCount);
+        for (int i = 0; i < controlFlowCount; i++) {
+            controlFlowSources[i] = readIndex(nodeCount);
+            controlFlowTargets[i] = readIndex(nodeCount);
+        }
+        dataFlowCount = readCount();
+        dataFlowSources = ensureCapacity(dataFlowSources, dataFlowCount);
+        dataFlowTargets = ensureCapacity(dataFlowTargets, dataFlowCount);
+        for (int i = 0; i < dataFlowCount; i++) {
+            dataFlowSources[i] = readIndex(nodeCount);
+            dataFlowTargets[i] = readIndex(nodeCount);
+            if ((DATA_OBJECT == nodeTypes[dataFlowSources[i]]) == (DATA_OBJECT == nodeTypes[dataFlowTargets[i]])) {
+                throw new IOException("A data flow has to connect an activity and a data object");
+            }
+        }
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @param node The index of the node.
+     * @return The type of the node, one of the constants of this class.
+     */
+    public int getNodeType(int node) {
+        assert node >= 0 && node < nodeCount : "There is no node " + node;
+        return nodeTypes[node];
+    }
+
+    /**
+     * @param node The index of the node.
+     * @return The reference of the name of an activity or data object, 0 for other nodes.
+     */
+    public int getNodeName(int node) {
+        assert node >= 0 && node < nodeCount : "There is no node " + node;
+        return nodeNames[node];
+    }
+
+    /**
+     * @param node The index of the node.
+     * @return The reference of the state of a data object, 0 for other nodes.
+     */
+    public int getNodeState(int node) {
+        assert node >= 0 && node < nodeCount : "There is no node " + node;
+        return nodeStates[node];
+    }
+
+    /**
+     * @return The index of the start event, -1 if there is none.
+     */
+    public int getStartEvent() {
+        return startEvent;
+    }
+
+    /**
+     * @return The index of the end event, -1 if there is none.
+     */
+    public int getEndEvent() {
+        return endEvent;
+    }
+
+    public int getControlFlowCount() {
+        return controlFlowCount;
+    }
+
+    public int getControlFlowSource(int controlFlow) {
+        assert controlFlow >= 0 && controlFlow < controlFlowCount : "There is no control flow " + controlFlow;
+        return controlFlowSources[controlFlow];
+    }
+
+    public int getControlFlowTarget(int controlFlow) {
+        assert controlFlow >= 0 && controlFlow < controlFlowCount : "There is no control flow " + controlFlow;
+        return controlFlowTargets[controlFlow];
+    }
+
+    public int getDataFlowCount() {
+        return dataFlowCount;
+    }
+
+    public int getDataFlowSource(int dataFlow) {
+        assert dataFlow >= 0 && dataFlow < dataFlowCount : "There is no data flow " + dataFlow;
+        return dataFlowSources[dataFlow];
+    }
+
+    public int getDataFlowTarget(int dataFlow) {
+        assert dataFlow >= 0 && dataFlow < dataFlowCount : "There is no data flow " + dataFlow;
+        return dataFlowTargets[dataFlow];
+    }
+
+    /**
+     * @param dataClass The name of the data class.
+     * @param state     The name of the state.
+     * @return True if an activity has a data output of the data class in the state.
+     */
+    public boolean writesState(String dataClass, String state) {
+        return accessesState(dataClass, state, false);
+    }
+
+    /**
+     * @param dataClass The name of the data class.
+     * @param state     The name of the state.
+     * @return True if an activity has a data input of the data class in the state.
+     */
+    public boolean readsState(String dataClass, String state) {
+        return accessesState(dataClass, state, true);
+    }
+
+    private boolean accessesState(String dataClass, String state, boolean input) {
+        int dataClassReference = findString(dataClass);
+        int stateReference = findString(state);
+        if (0 == dataClassReference || 0 == stateReference) {
+            return false;
+        }
+        for (int i = 0; i < dataFlowCount; i++) {
+            int dataObject = input ? dataFlowSources[i] : dataFlowTargets[i];
+            if (DATA_OBJECT == nodeTypes[dataObject] && dataClassReference == nodeNames[dataObject] &&
+                    stateReference == nodeStates[dataObject]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,220 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A cursor reads a record of the binary model format in place, without creating
+ * model elements. The indexes and references of the record are read into int arrays
+ * held by the cursor. One cursor can be {@link #reset(ByteBuffer) reset} to record
+ * after record and the arrays only grow, hence scanning many records does not
+ * allocate objects per record or per element.
+ * <p/>
+ * Names are referenced by their position in the string table of the record plus one,
+ * 0 represents null. Use {@link #findString(String)} to determine the reference of
+ * a name once per record and compare references afterwards. Only {@link #getString(int)}
+ * creates Strings.
+ * <p/>
+ * The record is validated completely on reset, so the accessors do not throw.
+ * After a failed reset the cursor has to be reset to another record before it is used.
+ * Cursors are not thread safe, the buffer is read with absolute reads only
+ * and will not be changed.
+ */
+public abstract class RecordCursor {
+    private static final int QUERY_CACHE_SIZE = 4;
+
+    private final byte kind;
+    private ByteBuffer buffer;
+    /**
+     * The offset of the first byte after the record.
+     */
+    private int end;
+    /**
+     * The position of the next varint read by {@link #readVarInt()}.
+     */
+    private int position;
+    private int[] stringOffsets = new int[16];
+    private int[] stringLengths = new int[16];
+    private int stringCount;
+    /**
+     * The last names searched for and their UTF-8 bytes, replaced round robin.
+     */
+    private final String[] queries = new String[QUERY_CACHE_SIZE];
+    private final byte[][] queryBytes = new byte[QUERY_CACHE_SIZE][];
+    private int nextQuery;
+
+    RecordCursor(byte kind) {
+        this.kind = kind;
+    }
+
+    /**
+     * Moves the cursor to a record held by a buffer.
+     *
+     * @param record The buffer, the record starts at its position.
+     * @throws IOException If the record is not valid or of another kind of model.
+     */
+    public void reset(ByteBuffer record) throws IOException {
+        reset(record, record.position());
+    }
+
+    /**
+     * Moves the cursor to a record of an archive.
+     * Only the pages of the record will be read.
+     *
+     * @param archive The archive holding the record.
+     * @param entry   The index of the entry of the record.
+     * @throws IOException If the record is not valid or of another kind of model.
+     */
+    public void reset(ModelArchive archive, int entry) throws IOException {
+        reset(archive.getBuffer(), archive.getRecordOffset(entry));
+    }
+
+    private void reset(ByteBuffer record, int offset) throws IOException {
+        int payloadSize = BinaryFormat.readHeader(record, offset, kind);
+        if (payloadSize > record.limit() - offset - BinaryFormat.HEADER_SIZE) {
+            throw new IOException("The record is truncated");
+        }
+        buffer = record;
+        position = offset + BinaryFormat.HEADER_SIZE;
+        end = position + payloadSize;
+        stringCount = readCount();
+        stringOffsets = ensureCapacity(stringOffsets, stringCount);
+        stringLengths = ensureCapacity(stringLengths, stringCount);
+        for (int i = 0; i < stringCount; i++) {
+            stringLengths[i] = readCount();
+            stringOffsets[i] = position;
+            position += stringLengths[i];
+            if (position > end) {
+                throw new IOException("The record is truncated");
+            }
+        }
+        readModel();
+        if (position != end) {
+            throw new IOException("Unexpected data at the end of the record");
+        }
+    }
+
+    /**
+     * Reads and validates the model of the record, starting at {@link #position}.
+     * Afterwards the position has to be at the end of the record.
+     */
+    abstract void readModel() throws IOException;
+
+    int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (position >= end) {
+                throw new IOException("The record is truncated");
+            }
+            byte current = buffer.get(position++);
+            value |= (current & 0x7F) << shift;
+            if (current >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * @return The array if it can hold the given number of elements, a larger copy otherwise.
+     */
+    static int[] ensureCapacity(int[] array, int size) {
+        return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, 2 * array.length));
+    }
+
+    /**
+     * Reads a count, it can neither be negative nor exceed the number of remaining bytes.
+     */
+    int readCount() throws IOException {
+        int count = readVarInt();
+        if (count < 0 || count > end - position) {
+            throw new IOException("Invalid count " + count);
+        }
+        return count;
+    }
+
+    int readIndex(int size) throws IOException {
+        int index = readVarInt();
+        if (index < 0 || index >= size) {
+            throw new IOException("Index " + index + " out of bounds");
+        }
+        return index;
+    }
+
+    int readStringReference() throws IOException {
+        return readIndex(stringCount + 1);
+    }
+
+    /**
+     * @return The number of distinct names of the record.
+     */
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    /**
+     * Determines the reference of a name inside the current record.
+     * The UTF-8 bytes of the last few names searched for are cached,
+     * so searching the same Strings in many records encodes them once only.
+     *
+     * @param value The name to be searched for.
+     * @return The reference of the name, 0 if the record does not contain it.
+     */
+    public int findString(String value) {
+        if (null == value) {
+            return 0;
+        }
+        byte[] bytes = bytesOf(value);
+        for (int i = 0; i < stringCount; i++) {
+            if (bytesEqual(i, bytes)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private byte[] bytesOf(String value) {
+        for (int i = 0; i < QUERY_CACHE_SIZE; i++) {
+            if (queries[i] == value) {
+                return queryBytes[i];
+            }
+        }
+        queries[nextQuery] = value;
+        queryBytes[nextQuery] = value.getBytes(BinaryFormat.UTF_8);
+        byte[] bytes = queryBytes[nextQuery];
+        nextQuery = (nextQuery + 1) % QUERY_CACHE_SIZE;
+        return bytes;
+    }
+
+    private boolean bytesEqual(int string, byte[] bytes) {
+        if (stringLengths[string] != bytes.length) {
+            return false;
+        }
+        int offset = stringOffsets[string];
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates the String of a reference, this is the only method creating Strings.
+     *
+     * @param reference The reference of the name.
+     * @return The name or null for the reference 0.
+     */
+    public String getString(int reference) {
+        assert reference >= 0 && reference <= stringCount : "There is no string " + reference;
+        if (0 == reference) {
+            return null;
+        }
+        byte[] bytes = new byte[stringLengths[reference - 1]];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(stringOffsets[reference - 1] + i);
+        }
+        return new String(bytes, BinaryFormat.UTF_8);
+    }
+}
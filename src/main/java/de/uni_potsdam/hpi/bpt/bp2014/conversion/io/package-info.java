@@ -0,0 +1,13 @@
+/**
+ * This package contains importers and exporters of the models.
+ * All of them work on streams and never hold the whole document in memory,
+ * so large files can be processed with little overhead beyond the resulting models.
+ * Besides BPMN 2.0 XML there is a compact binary format for object life cycles,
+ * which is read and written through NIO channels. Synchronized object life cycles
+ * can be decoded lazily, so only the object life cycles in use are materialized.
+ * Many of these records can be packed into a memory mapped archive which loads
+ * single models on demand.
+ * All models can also be exchanged as JSON documents, which are parsed by a
+ * pull tokenizer in a single pass.
+ */
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
@@ -2,10 +2,11 @@ package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
 
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.CompactEdgeSet;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -29,6 +30,26 @@ public class DataObjectState implements INode {
      */
     private Collection<StateTransition> outgoingEdges;
     private String name;
+    /**
+     * The symbol of the {@link #name} inside the shared {@link SymbolTable}.
+     */
+    private int nameSymbol;
+    /**
+     * The dense identifier of the state inside its {@link ObjectLifeCycle}.
+     * It will be assigned by the object life cycle the state has been added to
+     * and is {@link #NO_ID} as long as the state is not part of any object life cycle.
+     */
+    private int id = NO_ID;
+    /**
+     * The object life cycle which owns this state and assigned its {@link #id}.
+     */
+    private ObjectLifeCycle olc;
+
+    /**
+     * The identifier of states and transitions which are not (yet)
+     * part of an {@link ObjectLifeCycle}.
+     */
+    public static final int NO_ID = -1;
 
     /**
      * Creates a new instance of the DataObjectState for a specified name.
@@ -36,17 +57,60 @@ public class DataObjectState implements INode {
      * @param name The name/identifier of the state.
      */
     public DataObjectState(String name) {
-        this.name = name;
-        incomingEdges = new HashSet<>();
-        outgoingEdges = new HashSet<>();
+        setName(name);
+        incomingEdges = new CompactEdgeSet<>();
+        outgoingEdges = new CompactEdgeSet<>();
     }
 
     public String getName() {
         return name;
     }
 
+    /**
+     * Sets the name of the state.
+     * The name will be interned, so all states with the same name share one copy.
+     * @param name The new name, may be null.
+     */
     public void setName(String name) {
-        this.name = name;
+        this.nameSymbol = SymbolTable.getShared().intern(name);
+        this.name = SymbolTable.getShared().nameOf(nameSymbol);
+    }
+
+    /**
+     * @return The symbol of the name inside the shared {@link SymbolTable}.
+     * States with equal names have equal symbols.
+     */
+    public int getNameSymbol() {
+        return nameSymbol;
+    }
+
+    /**
+     * Returns the dense identifier of the state.
+     * The identifiers of the states of one {@link ObjectLifeCycle} range from
+     * 0 to {@link ObjectLifeCycle#getStateCount()} - 1 and follow the order
+     * in which the states have been added.
+     * @return The id of the state or {@link #NO_ID} if it has not been added to an OLC.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return The object life cycle owning this state or null if there is none.
+     */
+    public ObjectLifeCycle getObjectLifeCycle() {
+        return olc;
+    }
+
+    /**
+     * Makes the given object life cycle the owner of this state.
+     * Should only be called by {@link ObjectLifeCycle#addNode(INode)}.
+     * @param olc The new owner of the state.
+     * @param id The id assigned by the owner.
+     */
+    void adopt(ObjectLifeCycle olc, int id) {
+        this.olc = olc;
+        this.id = id;
     }
 
     /**
@@ -69,6 +133,8 @@ public class DataObjectState implements INode {
      * Adds an outgoing edge.
      * Such an Edge should be a state transition and not null.
      * You may throw assertion exceptions to verify this.
+     * If the state is part of an {@link ObjectLifeCycle} the transition
+     * will receive an id of this object life cycle.
      * @param edge The Edge to be added as an outgoing edge.
      */
     @Override
@@ -77,7 +143,9 @@ public class DataObjectState implements INode {
                 "An outgoing edge must not be null";
         assert edge instanceof StateTransition :
                 "An outgoing edge of a OLC must be a StateTransition";
-        this.outgoingEdges.add((StateTransition) edge);
+        if (this.outgoingEdges.add((StateTransition) edge) && null != olc) {
+            olc.registerTransition((StateTransition) edge);
+        }
     }
 
     /**
@@ -0,0 +1,169 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * This class represents an {@link ObjectLifeCycle} whose states and transitions
+ * are loaded on first access. Only the label is known from the beginning,
+ * hence a lazy object life cycle occupies little memory as long as its content
+ * is not needed. As soon as any state, transition, start or final state is
+ * accessed, the {@link ObjectLifeCycleLoader} fills the object life cycle.
+ * Afterwards it behaves like any other object life cycle.
+ * If the loader fails, every further access throws an IllegalStateException.
+ * Loading is thread-safe: the loader runs once and threads accessing the object
+ * life cycle meanwhile wait for it. Afterwards reads need no synchronization,
+ * but like any object life cycle it must not be altered concurrently.
+ */
+public class LazyObjectLifeCycle extends ObjectLifeCycle {
+    /**
+     * The loader of the content, null as soon as loading has been started.
+     * Guarded by this object life cycle.
+     */
+    private ObjectLifeCycleLoader loader;
+    /**
+     * True as soon as the loader has finished or failed, it publishes
+     * the loaded content to all threads.
+     */
+    private volatile boolean loaded;
+    /**
+     * The reason why loading failed, null if it has not failed.
+     */
+    private IOException failure;
+
+    /**
+     * @param label  The label of the object life cycle, must not be null.
+     * @param loader The loader of the states and transitions, must not be null.
+     */
+    public LazyObjectLifeCycle(String label, ObjectLifeCycleLoader loader) {
+        super(label);
+        assert null != loader : "A lazy object life cycle needs a loader";
+        this.loader = loader;
+    }
+
+    /**
+     * @return True if the states and transitions have been loaded.
+     */
+    public boolean isLoaded() {
+        return loaded && null == failure;
+    }
+
+    /**
+     * Loads the content unless it has been loaded before.
+     * The loader adds its states through the methods of this object life cycle,
+     * hence it is released before it is called. Its calls reenter the lock
+     * held by the loading thread, while other threads wait for the lock.
+     */
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (null != loader) {
+                    ObjectLifeCycleLoader pendingLoader = loader;
+                    loader = null;
+                    try {
+                        pendingLoader.load(this);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                    loaded = true;
+                }
+            }
+        }
+        if (null != failure) {
+            throw new IllegalStateException("The object life cycle " + getLabel() + " could not be loaded", failure);
+        }
+    }
+
+    @Override
+    public List<INode> getNodes() {
+        ensureLoaded();
+        return super.getNodes();
+    }
+
+    @Override
+    public void addNode(INode newNode) {
+        ensureLoaded();
+        super.addNode(newNode);
+    }
+
+    @Override
+    public <T extends INode> List<T> getNodesOfClass(Class t) {
+        ensureLoaded();
+        return super.getNodesOfClass(t);
+    }
+
+    @Override
+    public INode getStartNode() {
+        ensureLoaded();
+        return super.getStartNode();
+    }
+
+    @Override
+    public void setStartNode(INode startNode) {
+        ensureLoaded();
+        super.setStartNode(startNode);
+    }
+
+    @Override
+    public void addFinalNode(INode finalNode) {
+        ensureLoaded();
+        super.addFinalNode(finalNode);
+    }
+
+    @Override
+    public List<INode> getFinalNodes() {
+        ensureLoaded();
+        return super.getFinalNodes();
+    }
+
+    @Override
+    public <T extends INode> List<T> getFinalNodesOfClass(Class t) {
+        ensureLoaded();
+        return super.getFinalNodesOfClass(t);
+    }
+
+    @Override
+    public void initializeFinalStates() {
+        ensureLoaded();
+        super.initializeFinalStates();
+    }
+
+    @Override
+    public int getStateCount() {
+        ensureLoaded();
+        return super.getStateCount();
+    }
+
+    @Override
+    public int getTransitionCount() {
+        ensureLoaded();
+        return super.getTransitionCount();
+    }
+
+    @Override
+    public DataObjectState getState(int id) {
+        ensureLoaded();
+        return super.getState(id);
+    }
+
+    @Override
+    public StateTransition getTransition(int id) {
+        ensureLoaded();
+        return super.getTransition(id);
+    }
+
+    @Override
+    public List<StateTransition> getTransitions() {
+        ensureLoaded();
+        return super.getTransitions();
+    }
+
+    @Override
+    public <T extends IEdge> List<T> getEdgeOfType(Class T) {
+        ensureLoaded();
+        return super.getEdgeOfType(T);
+    }
+}
@@ -0,0 +1,344 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.Sets;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable;
+
+import java.util.*;
+
+/**
+ * This class represents the changes between two versions of an {@link ObjectLifeCycle}.
+ * It holds the added and removed states, transitions and final states as well as
+ * the start state of both versions. Like the {@link de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc.ObjectLifeCycleDiff}
+ * states are identified by their names and transitions by their {@link TransitionKey}.
+ * A delta does not reference any state or transition instance, hence it stays valid
+ * if one of the versions is changed or discarded.
+ */
+public final class OLCDelta {
+    private final String label;
+    private final Set<Integer> addedStates;
+    private final Set<Integer> removedStates;
+    private final Set<TransitionKey> addedTransitions;
+    private final Set<TransitionKey> removedTransitions;
+    private final Set<Integer> addedFinalStates;
+    private final Set<Integer> removedFinalStates;
+    /**
+     * The symbol of the name of the start state of the old version,
+     * {@link SymbolTable#NO_SYMBOL} if there is none.
+     */
+    private final int oldStartState;
+    /**
+     * The symbol of the name of the start state of the new version,
+     * {@link SymbolTable#NO_SYMBOL} if there is none.
+     */
+    private final int newStartState;
+
+    /**
+     * Creates a new delta without any changes of states, transitions and final states.
+     *
+     * @param label         The label of the object life cycle.
+     * @param oldStartState The symbol of the start state of the old version.
+     * @param newStartState The symbol of the start state of the new version.
+     */
+    OLCDelta(String label, int oldStartState, int newStartState) {
+        this.label = label;
+        this.oldStartState = oldStartState;
+        this.newStartState = newStartState;
+        addedStates = new LinkedHashSet<>();
+        removedStates = new LinkedHashSet<>();
+        addedTransitions = new LinkedHashSet<>();
+        removedTransitions = new LinkedHashSet<>();
+        addedFinalStates = new LinkedHashSet<>();
+        removedFinalStates = new LinkedHashSet<>();
+    }
+
+    /**
+     * Computes the changes necessary to transform the old version of an object life cycle
+     * into the new one. The states, transitions and final states of both versions are
+     * collected in hash sets, hence the delta is computed in linear time.
+     * If the old version is null, everything of the new version has been added.
+     * The changes are ordered by the ids of the states and transitions.
+     *
+     * @param oldOLC The old version, may be null.
+     * @param newOLC The new version, must not be null.
+     * @return The delta between both versions.
+     */
+    public static OLCDelta between(ObjectLifeCycle oldOLC, ObjectLifeCycle newOLC) {
+        assert null != newOLC : "The new version of the object life cycle must not be null";
+        OLCDelta delta = new OLCDelta(newOLC.getLabel(), startStateOf(oldOLC), startStateOf(newOLC));
+        Set<Integer> statesOfOld = new LinkedHashSet<>();
+        Set<TransitionKey> transitionsOfOld = new LinkedHashSet<>();
+        Set<Integer> finalStatesOfOld = new LinkedHashSet<>();
+        if (null != oldOLC) {
+            collect(oldOLC, statesOfOld, transitionsOfOld, finalStatesOfOld);
+        }
+        Set<Integer> statesOfNew = new LinkedHashSet<>();
+        Set<TransitionKey> transitionsOfNew = new LinkedHashSet<>();
+        Set<Integer> finalStatesOfNew = new LinkedHashSet<>();
+        collect(newOLC, statesOfNew, transitionsOfNew, finalStatesOfNew);
+
+        Sets.addMissing(statesOfNew, statesOfOld, delta.addedStates);
+        Sets.addMissing(statesOfOld, statesOfNew, delta.removedStates);
+        Sets.addMissing(transitionsOfNew, transitionsOfOld, delta.addedTransitions);
+        Sets.addMissing(transitionsOfOld, transitionsOfNew, delta.removedTransitions);
+        Sets.addMissing(finalStatesOfNew, finalStatesOfOld, delta.addedFinalStates);
+        Sets.addMissing(finalStatesOfOld, finalStatesOfNew, delta.removedFinalStates);
+        return delta;
+    }
+
+    /**
+     * Creates a delta from already known changes.
+     * Every change has to be given by the symbols of the state names.
+     *
+     * @return A new delta containing the given changes.
+     */
+    static OLCDelta of(String label, int oldStartState, int newStartState,
+                       Collection<Integer> addedStates, Collection<Integer> removedStates,
+                       Collection<TransitionKey> addedTransitions, Collection<TransitionKey> removedTransitions,
+                       Collection<Integer> addedFinalStates, Collection<Integer> removedFinalStates) {
+        OLCDelta delta = new OLCDelta(label, oldStartState, newStartState);
+        delta.addedStates.addAll(addedStates);
+        delta.removedStates.addAll(removedStates);
+        delta.addedTransitions.addAll(addedTransitions);
+        delta.removedTransitions.addAll(removedTransitions);
+        delta.addedFinalStates.addAll(addedFinalStates);
+        delta.removedFinalStates.addAll(removedFinalStates);
+        return delta;
+    }
+
+    private static int startStateOf(ObjectLifeCycle olc) {
+        if (null == olc || null == olc.getStartNode()) {
+            return SymbolTable.NO_SYMBOL;
+        }
+        return ((DataObjectState) olc.getStartNode()).getNameSymbol();
+    }
+
+    private static void collect(ObjectLifeCycle olc, Set<Integer> states,
+                                Set<TransitionKey> transitions, Set<Integer> finalStates) {
+        for (int i = 0; i < olc.getStateCount(); i++) {
+            states.add(olc.getState(i).getNameSymbol());
+        }
+        for (StateTransition transition : olc.getTransitions()) {
+            transitions.add(TransitionKey.of(transition));
+        }
+        for (DataObjectState finalState : olc.<DataObjectState>getFinalNodesOfClass(DataObjectState.class)) {
+            finalStates.add(finalState.getNameSymbol());
+        }
+    }
+
+    /**
+     * Combines consecutive deltas of one object life cycle into a single delta.
+     * Changes which are undone by a later delta cancel each other out, e.g. a
+     * transition removed by the first and added again by the second delta.
+     * The effort is linear in the total size of the deltas, no version will be created.
+     * <p/>
+     * Pre: Every delta must start at the version the preceding one ends at.
+     *
+     * @param deltas The deltas in the order they have been applied, must not be empty.
+     * @return A new delta from the version before the first to the version after the last delta.
+     */
+    public static OLCDelta compose(List<OLCDelta> deltas) {
+        assert !deltas.isEmpty() : "At least one delta is necessary";
+        OLCDelta first = deltas.get(0);
+        OLCDelta result = new OLCDelta(first.label, first.oldStartState,
+                deltas.get(deltas.size() - 1).newStartState);
+        for (OLCDelta delta : deltas) {
+            assert first.label.equals(delta.label) : "Only deltas of one object life cycle can be composed";
+            merge(delta.addedStates, delta.removedStates, result.addedStates, result.removedStates);
+            merge(delta.addedTransitions, delta.removedTransitions,
+                    result.addedTransitions, result.removedTransitions);
+            merge(delta.addedFinalStates, delta.removedFinalStates,
+                    result.addedFinalStates, result.removedFinalStates);
+        }
+        return result;
+    }
+
+    /**
+     * Merges the changes of a delta into the accumulated changes.
+     * An addition cancels a preceding removal and vice versa.
+     */
+    private static <T> void merge(Set<T> added, Set<T> removed, Set<T> resultAdded, Set<T> resultRemoved) {
+        for (T element : removed) {
+            if (!resultAdded.remove(element)) {
+                resultRemoved.add(element);
+            }
+        }
+        for (T element : added) {
+            if (!resultRemoved.remove(element)) {
+                resultAdded.add(element);
+            }
+        }
+    }
+
+    /**
+     * @param next The delta following this one.
+     * @return A new delta combining this and the next delta, see {@link #compose(List)}.
+     */
+    public OLCDelta then(OLCDelta next) {
+        return compose(Arrays.asList(this, next));
+    }
+
+    /**
+     * @return A new delta which transforms the new version back into the old one.
+     */
+    public OLCDelta inverse() {
+        OLCDelta inverse = new OLCDelta(label, newStartState, oldStartState);
+        inverse.addedStates.addAll(removedStates);
+        inverse.removedStates.addAll(addedStates);
+        inverse.addedTransitions.addAll(removedTransitions);
+        inverse.removedTransitions.addAll(addedTransitions);
+        inverse.addedFinalStates.addAll(removedFinalStates);
+        inverse.removedFinalStates.addAll(addedFinalStates);
+        return inverse;
+    }
+
+    /**
+     * Creates a new version of an object life cycle by applying this delta.
+     * The given object life cycle will not be changed. The states and transitions
+     * which have not been removed keep their relative order, hence their ids,
+     * the added ones follow in the order of the delta.
+     * As for every object life cycle, two transitions between the same states
+     * will be treated as one.
+     * <p/>
+     * Pre: The delta must fit the given version, every added state or transition
+     * must be missing and every removed one must exist.
+     *
+     * @param olc The version the delta will be applied to. If it is null the delta
+     *            will be applied to an empty object life cycle.
+     * @return A new object life cycle representing the changed version.
+     */
+    public ObjectLifeCycle applyTo(ObjectLifeCycle olc) {
+        ObjectLifeCycle result = new ObjectLifeCycle(label);
+        Map<Integer, DataObjectState> statesByName = new HashMap<>();
+        List<TransitionKey> transitions = new ArrayList<>();
+        List<Integer> finalStates = new ArrayList<>();
+        int startState = newStartState;
+        if (null != olc) {
+            for (int i = 0; i < olc.getStateCount(); i++) {
+                int name = olc.getState(i).getNameSymbol();
+                if (!removedStates.contains(name)) {
+                    addState(result, statesByName, name);
+                }
+            }
+            for (StateTransition transition : olc.getTransitions()) {
+                TransitionKey key = TransitionKey.of(transition);
+                if (!removedTransitions.contains(key)) {
+                    transitions.add(key);
+                }
+            }
+            for (DataObjectState finalState : olc.<DataObjectState>getFinalNodesOfClass(DataObjectState.class)) {
+                if (!removedFinalStates.contains(finalState.getNameSymbol())) {
+                    finalStates.add(finalState.getNameSymbol());
+                }
+            }
+            if (oldStartState == newStartState) {
+                startState = startStateOf(olc);
+            }
+        }
+        for (int name : addedStates) {
+            assert !statesByName.containsKey(name) : "An added state must not exist before";
+            addState(result, statesByName, name);
+        }
+        transitions.addAll(addedTransitions);
+        finalStates.addAll(addedFinalStates);
+
+        for (TransitionKey key : transitions) {
+            DataObjectState source = statesByName.get(key.getSourceSymbol());
+            DataObjectState target = statesByName.get(key.getTargetSymbol());
+            assert null != source && null != target :
+                    "The states of the transition " + key + " are not part of the object life cycle";
+            StateTransition transition = new StateTransition(source, target, key.getLabel());
+            source.addOutgoingEdge(transition);
+            target.addIncomingEdge(transition);
+        }
+        if (SymbolTable.NO_SYMBOL != startState) {
+            result.setStartNode(statesByName.get(startState));
+        }
+        for (int name : finalStates) {
+            result.addFinalNode(statesByName.get(name));
+        }
+        return result;
+    }
+
+    private static void addState(ObjectLifeCycle olc, Map<Integer, DataObjectState> statesByName, int name) {
+        DataObjectState state = new DataObjectState(SymbolTable.getShared().nameOf(name));
+        statesByName.put(name, state);
+        olc.addNode(state);
+    }
+
+    /**
+     * @return True if both versions are equal, with respect to names and labels.
+     */
+    public boolean isEmpty() {
+        return oldStartState == newStartState && getChangeCount() == 0;
+    }
+
+    /**
+     * @return The number of added or removed states, transitions and final states.
+     */
+    public int getChangeCount() {
+        return addedStates.size() + removedStates.size() +
+                addedTransitions.size() + removedTransitions.size() +
+                addedFinalStates.size() + removedFinalStates.size();
+    }
+
+    /**
+     * @return The label of the object life cycle, hence the name of the data class.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public List<String> getAddedStates() {
+        return namesOf(addedStates);
+    }
+
+    public List<String> getRemovedStates() {
+        return namesOf(removedStates);
+    }
+
+    public Set<TransitionKey> getAddedTransitions() {
+        return new LinkedHashSet<>(addedTransitions);
+    }
+
+    public Set<TransitionKey> getRemovedTransitions() {
+        return new LinkedHashSet<>(removedTransitions);
+    }
+
+    public List<String> getAddedFinalStates() {
+        return namesOf(addedFinalStates);
+    }
+
+    public List<String> getRemovedFinalStates() {
+        return namesOf(removedFinalStates);
+    }
+
+    /**
+     * @return The name of the start state of the old version or null if there is none.
+     */
+    public String getOldStartState() {
+        return SymbolTable.getShared().nameOf(oldStartState);
+    }
+
+    /**
+     * @return The name of the start state of the new version or null if there is none.
+     */
+    public String getNewStartState() {
+        return SymbolTable.getShared().nameOf(newStartState);
+    }
+
+    public int getOldStartSymbol() {
+        return oldStartState;
+    }
+
+    public int getNewStartSymbol() {
+        return newStartState;
+    }
+
+    private static List<String> namesOf(Set<Integer> symbols) {
+        List<String> names = new ArrayList<>(symbols.size());
+        for (int symbol : symbols) {
+            names.add(SymbolTable.getShared().nameOf(symbol));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,161 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class stores the versions of one {@link ObjectLifeCycle}.
+ * Instead of a full copy of every version it keeps the {@link OLCDelta} to the
+ * preceding version and a full snapshot of every n-th version, n being the
+ * snapshot interval. A version is reconstructed from the nearest preceding snapshot,
+ * hence less than n deltas have to be replayed.
+ * Versions are numbered consecutively starting with 0.
+ * The stored versions are copies, later changes to a committed object life cycle
+ * will not affect the store.
+ */
+public class OLCVersionStore {
+    /**
+     * The default number of versions between two snapshots.
+     */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 16;
+
+    private final String label;
+    private final int snapshotInterval;
+    /**
+     * The delta of every version, the delta at position i transforms version i - 1
+     * into version i. The delta of version 0 starts at an empty object life cycle.
+     */
+    private final List<OLCDelta> deltas;
+    /**
+     * The snapshots keyed by their version, every version which is a multiple
+     * of the {@link #snapshotInterval} has one.
+     */
+    private final Map<Integer, ObjectLifeCycle> snapshots;
+    /**
+     * A copy of the latest version, used to compute the delta of the next commit.
+     */
+    private ObjectLifeCycle latest;
+
+    /**
+     * Creates a new store using the {@link #DEFAULT_SNAPSHOT_INTERVAL}.
+     *
+     * @param label The label of the object life cycles, hence the data class.
+     */
+    public OLCVersionStore(String label) {
+        this(label, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Creates a new store.
+     *
+     * @param label            The label of the object life cycles, hence the data class.
+     * @param snapshotInterval The number of versions between two snapshots, must be positive.
+     *                         An interval of 1 stores every version in full.
+     */
+    public OLCVersionStore(String label, int snapshotInterval) {
+        assert null != label : "The label of the object life cycles must not be null";
+        assert snapshotInterval > 0 : "The snapshot interval must be positive";
+        this.label = label;
+        this.snapshotInterval = snapshotInterval;
+        deltas = new ArrayList<>();
+        snapshots = new HashMap<>();
+    }
+
+    /**
+     * Stores a new version of the object life cycle.
+     * If it does not differ from the latest version no version will be created.
+     *
+     * @param olc The new version, its label has to match the label of the store.
+     * @return The number of the new version or of the latest one, if nothing changed.
+     */
+    public int commit(ObjectLifeCycle olc) {
+        assert null != olc : "The object life cycle must not be null";
+        assert label.equals(olc.getLabel()) : "The object life cycle does not belong to " + label;
+        OLCDelta delta = OLCDelta.between(latest, olc);
+        if (null != latest && delta.isEmpty()) {
+            return getLatestVersion();
+        }
+        latest = delta.applyTo(latest);
+        deltas.add(delta);
+        int version = getLatestVersion();
+        if (version % snapshotInterval == 0) {
+            snapshots.put(version, latest);
+        }
+        return version;
+    }
+
+    /**
+     * Reconstructs a version of the object life cycle.
+     * The deltas following the nearest snapshot will be composed and applied
+     * to a copy of the snapshot at once.
+     *
+     * @param version The number of the version.
+     * @return A new object life cycle representing the version.
+     */
+    public ObjectLifeCycle getVersion(int version) {
+        assert version >= 0 && version < deltas.size() : "There is no version " + version;
+        int snapshotVersion = version - version % snapshotInterval;
+        return diff(snapshotVersion, version).applyTo(snapshots.get(snapshotVersion));
+    }
+
+    /**
+     * Computes the delta between two versions from the stored deltas,
+     * without reconstructing any of the versions.
+     *
+     * @param fromVersion The number of the version to start at, -1 denotes an
+     *                    empty object life cycle.
+     * @param toVersion   The number of the version to end at, it may precede the fromVersion.
+     * @return A new delta transforming the first version into the second one.
+     */
+    public OLCDelta diff(int fromVersion, int toVersion) {
+        assert fromVersion >= -1 && fromVersion < deltas.size() : "There is no version " + fromVersion;
+        assert toVersion >= 0 && toVersion < deltas.size() : "There is no version " + toVersion;
+        if (fromVersion == toVersion) {
+            int startState = deltas.get(toVersion).getNewStartSymbol();
+            return new OLCDelta(label, startState, startState);
+        }
+        if (fromVersion > toVersion) {
+            return diff(toVersion, fromVersion).inverse();
+        }
+        return OLCDelta.compose(deltas.subList(fromVersion + 1, toVersion + 1));
+    }
+
+    /**
+     * @param version The number of the version.
+     * @return The delta transforming the preceding version into the given one.
+     */
+    public OLCDelta getDelta(int version) {
+        return deltas.get(version);
+    }
+
+    /**
+     * @return The number of the latest version or -1 if nothing has been committed yet.
+     */
+    public int getLatestVersion() {
+        return deltas.size() - 1;
+    }
+
+    /**
+     * @return The number of stored versions.
+     */
+    public int getVersionCount() {
+        return deltas.size();
+    }
+
+    /**
+     * @return The number of versions stored in full.
+     */
+    public int getSnapshotCount() {
+        return snapshots.size();
+    }
+
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
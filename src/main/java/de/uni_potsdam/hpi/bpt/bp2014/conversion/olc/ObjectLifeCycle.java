@@ -3,34 +3,57 @@ package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.IModel;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable;
 
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
 
+/**
+ * This class represents an Object Life Cycle.
+ * An Object Life Cycle describes the states of a data class and the transitions
+ * between them.
+ * Every state added to an Object Life Cycle receives a dense id, so do the
+ * transitions leaving these states. Ids follow the insertion order, hence
+ * adding states and transitions in id order reproduces the same ids.
+ */
 public class ObjectLifeCycle implements IModel {
+    /**
+     * The states of the object life cycle.
+     * The position of each state equals its id.
+     */
     private List<DataObjectState> states;
     private DataObjectState startNode;
     private List<DataObjectState> finalStates;
     private String label;
+    /**
+     * The symbol of the {@link #label} inside the shared {@link SymbolTable}.
+     */
+    private int labelSymbol;
+    /**
+     * The transitions between the states of the object life cycle.
+     * The position of each transition equals its id.
+     */
+    private List<StateTransition> transitions;
 
     public ObjectLifeCycle(String label) {
         assert null != label :
                 "The label of an ObjectLifeCycle represents the data Object," +
                         " hence it should never be null";
-        this.label = label;
+        setLabel(label);
         init();
     }
 
     public ObjectLifeCycle() {
-        this.label = "";
+        setLabel("");
         init();
     }
 
     private void init() {
         states = new ArrayList<>();
         finalStates = new ArrayList<>();
+        transitions = new ArrayList<>();
     }
 
 
@@ -39,13 +62,44 @@ public class ObjectLifeCycle implements IModel {
         return new ArrayList<INode>(states);
     }
 
+    /**
+     * Adds a state to the object life cycle.
+     * The state will receive the next free id, so will all of its outgoing transitions.
+     * Adding a state twice has no effect.
+     * A state belongs to exactly one object life cycle, since the id tables
+     * of its owner would be corrupted otherwise.
+     * <p/>
+     * Pre: The state is not part of another object life cycle.
+     * @param newNode The state to be added.
+     */
     @Override
     public void addNode(INode newNode) {
         assert newNode != null :
                 "You should never add a node which is null to a model";
         assert newNode instanceof DataObjectState :
                 "Nodes added to a object life cycle should be of type DataObjectState";
-        states.add((DataObjectState)newNode);
+        DataObjectState state = (DataObjectState) newNode;
+        if (state.getObjectLifeCycle() == this) {
+            return;
+        }
+        assert null == state.getObjectLifeCycle() :
+                "The state " + state.getName() + " already belongs to another object life cycle";
+        state.adopt(this, states.size());
+        states.add(state);
+        for (StateTransition transition :
+                state.<StateTransition>getOutgoingEdgesOfType(StateTransition.class)) {
+            registerTransition(transition);
+        }
+    }
+
+    /**
+     * Assigns the next free id to a transition leaving one of the states.
+     * Will be called by the states whenever an outgoing edge is added.
+     * @param transition The transition to be registered.
+     */
+    void registerTransition(StateTransition transition) {
+        transition.setId(transitions.size());
+        transitions.add(transition);
     }
 
     @Override
@@ -113,7 +167,55 @@ public class ObjectLifeCycle implements IModel {
         assert null != label :
                 "The label of an ObjectLifeCycle represents the data Object," +
                         " hence it should never be null";
-        this.label = label;
+        this.labelSymbol = SymbolTable.getShared().intern(label);
+        this.label = SymbolTable.getShared().nameOf(labelSymbol);
+    }
+
+    /**
+     * @return The symbol of the label inside the shared {@link SymbolTable}.
+     * Object life cycles of the same data class have equal symbols.
+     */
+    public int getLabelSymbol() {
+        return labelSymbol;
+    }
+
+    /**
+     * @return The number of states, all state ids are smaller than this number.
+     */
+    public int getStateCount() {
+        return states.size();
+    }
+
+    /**
+     * @return The number of transitions, all transition ids are smaller than this number.
+     */
+    public int getTransitionCount() {
+        return transitions.size();
+    }
+
+    /**
+     * @param id The id of the state.
+     * @return The state with the given id.
+     */
+    public DataObjectState getState(int id) {
+        return states.get(id);
+    }
+
+    /**
+     * @param id The id of the transition.
+     * @return The transition with the given id.
+     */
+    public StateTransition getTransition(int id) {
+        return transitions.get(id);
+    }
+
+    /**
+     * Returns all transitions ordered by their ids.
+     * Changes to the list will not affect the object life cycle.
+     * @return A new list containing all transitions.
+     */
+    public List<StateTransition> getTransitions() {
+        return new ArrayList<>(transitions);
     }
 
     public <T extends IEdge> List<T> getEdgeOfType(Class T) {
@@ -0,0 +1,21 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
+
+import java.io.IOException;
+
+/**
+ * Loads the content of a {@link LazyObjectLifeCycle} from its storage.
+ * The loader is called at most once, when the states or transitions
+ * of the object life cycle are accessed for the first time.
+ */
+public interface ObjectLifeCycleLoader {
+
+    /**
+     * Adds the states, the start state, the final states and the transitions
+     * to an object life cycle. States and transitions should be added in the
+     * order of their ids, so they receive the ids they have been stored with.
+     *
+     * @param olc The empty object life cycle to be filled.
+     * @throws IOException If the storage could not be read.
+     */
+    void load(ObjectLifeCycle olc) throws IOException;
+}
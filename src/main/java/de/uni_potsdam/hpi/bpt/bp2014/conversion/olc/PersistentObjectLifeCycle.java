@@ -0,0 +1,258 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.PersistentHashSet;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable;
+
+import java.util.*;
+
+/**
+ * This class represents an immutable version of an {@link ObjectLifeCycle}.
+ * States are represented by the symbols of their names and transitions by their
+ * {@link TransitionKey}s, both are stored inside {@link PersistentHashSet}s.
+ * Deriving a new version, e.g. by adding a transition or applying an {@link OLCDelta},
+ * copies only the paths to the changed elements, everything else is shared with the
+ * version it has been derived from. Hence, a new version costs memory proportional
+ * to its changes and the {@link #diff(PersistentObjectLifeCycle)} of two related
+ * versions skips all shared parts.
+ * Use {@link #toObjectLifeCycle()} to create a mutable object life cycle for the converters.
+ */
+public final class PersistentObjectLifeCycle {
+    private final String label;
+    /**
+     * The symbol of the name of the start state, {@link SymbolTable#NO_SYMBOL} if there is none.
+     */
+    private final int startState;
+    private final PersistentHashSet<Integer> states;
+    private final PersistentHashSet<TransitionKey> transitions;
+    private final PersistentHashSet<Integer> finalStates;
+
+    private PersistentObjectLifeCycle(String label, int startState, PersistentHashSet<Integer> states,
+                                      PersistentHashSet<TransitionKey> transitions,
+                                      PersistentHashSet<Integer> finalStates) {
+        this.label = label;
+        this.startState = startState;
+        this.states = states;
+        this.transitions = transitions;
+        this.finalStates = finalStates;
+    }
+
+    /**
+     * @param label The label of the object life cycle, hence the data class.
+     * @return A new object life cycle without any state.
+     */
+    public static PersistentObjectLifeCycle empty(String label) {
+        assert null != label : "The label of an object life cycle must not be null";
+        return new PersistentObjectLifeCycle(label, SymbolTable.NO_SYMBOL,
+                PersistentHashSet.<Integer>empty(), PersistentHashSet.<TransitionKey>empty(),
+                PersistentHashSet.<Integer>empty());
+    }
+
+    /**
+     * Creates a persistent copy of an object life cycle.
+     *
+     * @param olc The object life cycle to be copied, must not be null.
+     * @return A new persistent object life cycle with the same states, transitions and final states.
+     */
+    public static PersistentObjectLifeCycle of(ObjectLifeCycle olc) {
+        assert null != olc : "The object life cycle must not be null";
+        return empty(olc.getLabel()).apply(OLCDelta.between(null, olc));
+    }
+
+    /**
+     * Derives a new version by applying the changes of a delta.
+     * The effort depends on the size of the delta only.
+     *
+     * @param delta The changes, their label has to match the label of this object life cycle.
+     * @return The new version, sharing all unchanged parts with this version.
+     */
+    public PersistentObjectLifeCycle apply(OLCDelta delta) {
+        assert label.equals(delta.getLabel()) : "The delta does not belong to " + label;
+        PersistentHashSet<Integer> newStates = states;
+        for (String name : delta.getRemovedStates()) {
+            newStates = newStates.minus(symbolOf(name));
+        }
+        for (String name : delta.getAddedStates()) {
+            newStates = newStates.plus(symbolOf(name));
+        }
+        PersistentHashSet<TransitionKey> newTransitions = transitions;
+        for (TransitionKey key : delta.getRemovedTransitions()) {
+            newTransitions = newTransitions.minus(key);
+        }
+        for (TransitionKey key : delta.getAddedTransitions()) {
+            newTransitions = newTransitions.plus(key);
+        }
+        PersistentHashSet<Integer> newFinalStates = finalStates;
+        for (String name : delta.getRemovedFinalStates()) {
+            newFinalStates = newFinalStates.minus(symbolOf(name));
+        }
+        for (String name : delta.getAddedFinalStates()) {
+            newFinalStates = newFinalStates.plus(symbolOf(name));
+        }
+        int newStartState = delta.getOldStartSymbol() == delta.getNewStartSymbol() ?
+                startState : delta.getNewStartSymbol();
+        return new PersistentObjectLifeCycle(label, newStartState, newStates, newTransitions, newFinalStates);
+    }
+
+    private static int symbolOf(String name) {
+        return SymbolTable.getShared().intern(name);
+    }
+
+    /**
+     * @param name The name of the state.
+     * @return A version containing the state.
+     */
+    public PersistentObjectLifeCycle withState(String name) {
+        return with(startState, states.plus(symbolOf(name)), transitions, finalStates);
+    }
+
+    /**
+     * Removes a state, the state will not be final anymore.
+     * <p/>
+     * Pre: No transition starts or ends at the state.
+     *
+     * @param name The name of the state.
+     * @return A version without the state.
+     */
+    public PersistentObjectLifeCycle withoutState(String name) {
+        int symbol = symbolOf(name);
+        return with(startState, states.minus(symbol), transitions, finalStates.minus(symbol));
+    }
+
+    /**
+     * Adds a transition and its source and target state.
+     *
+     * @param source The name of the source state.
+     * @param target The name of the target state.
+     * @param label  The label of the transition.
+     * @return A version containing the transition.
+     */
+    public PersistentObjectLifeCycle withTransition(String source, String target, String label) {
+        TransitionKey key = new TransitionKey(symbolOf(source), symbolOf(target), symbolOf(label));
+        return with(startState, states.plus(key.getSourceSymbol()).plus(key.getTargetSymbol()),
+                transitions.plus(key), finalStates);
+    }
+
+    /**
+     * Removes a transition, its states will be kept.
+     *
+     * @param source The name of the source state.
+     * @param target The name of the target state.
+     * @param label  The label of the transition.
+     * @return A version without the transition.
+     */
+    public PersistentObjectLifeCycle withoutTransition(String source, String target, String label) {
+        TransitionKey key = new TransitionKey(symbolOf(source), symbolOf(target), symbolOf(label));
+        return with(startState, states, transitions.minus(key), finalStates);
+    }
+
+    /**
+     * @param name The name of the state, it will be added if necessary.
+     * @return A version in which the state is final.
+     */
+    public PersistentObjectLifeCycle withFinalState(String name) {
+        int symbol = symbolOf(name);
+        return with(startState, states.plus(symbol), transitions, finalStates.plus(symbol));
+    }
+
+    /**
+     * @param name The name of the state.
+     * @return A version in which the state is not final.
+     */
+    public PersistentObjectLifeCycle withoutFinalState(String name) {
+        return with(startState, states, transitions, finalStates.minus(symbolOf(name)));
+    }
+
+    /**
+     * @param name The name of the state, it will be added if necessary.
+     * @return A version in which the state is the start state.
+     */
+    public PersistentObjectLifeCycle withStartState(String name) {
+        int symbol = symbolOf(name);
+        return with(symbol, states.plus(symbol), transitions, finalStates);
+    }
+
+    private PersistentObjectLifeCycle with(int newStartState, PersistentHashSet<Integer> newStates,
+                                           PersistentHashSet<TransitionKey> newTransitions,
+                                           PersistentHashSet<Integer> newFinalStates) {
+        if (newStartState == startState && newStates == states &&
+                newTransitions == transitions && newFinalStates == finalStates) {
+            return this;
+        }
+        return new PersistentObjectLifeCycle(label, newStartState, newStates, newTransitions, newFinalStates);
+    }
+
+    /**
+     * Computes the changes from this version to another one.
+     * Parts shared by both versions will be skipped, hence for versions derived
+     * from each other the effort is proportional to the changes.
+     *
+     * @param newVersion The version to be compared with, it should have the same label.
+     * @return The delta transforming this version into the new one.
+     */
+    public OLCDelta diff(PersistentObjectLifeCycle newVersion) {
+        List<Integer> addedStates = new ArrayList<>();
+        List<Integer> removedStates = new ArrayList<>();
+        states.diff(newVersion.states, removedStates, addedStates);
+        List<TransitionKey> addedTransitions = new ArrayList<>();
+        List<TransitionKey> removedTransitions = new ArrayList<>();
+        transitions.diff(newVersion.transitions, removedTransitions, addedTransitions);
+        List<Integer> addedFinalStates = new ArrayList<>();
+        List<Integer> removedFinalStates = new ArrayList<>();
+        finalStates.diff(newVersion.finalStates, removedFinalStates, addedFinalStates);
+        return OLCDelta.of(newVersion.label, startState, newVersion.startState,
+                addedStates, removedStates, addedTransitions, removedTransitions,
+                addedFinalStates, removedFinalStates);
+    }
+
+    /**
+     * Creates a mutable object life cycle of this version.
+     * The states and transitions are created in the iteration order of the sets.
+     * <p/>
+     * Pre: Final states have no outgoing transitions.
+     *
+     * @return A new object life cycle.
+     */
+    public ObjectLifeCycle toObjectLifeCycle() {
+        return empty(label).diff(this).applyTo(null);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return The name of the start state or null if there is none.
+     */
+    public String getStartState() {
+        return SymbolTable.getShared().nameOf(startState);
+    }
+
+    public boolean containsState(String name) {
+        return states.contains(SymbolTable.getShared().lookup(name));
+    }
+
+    public boolean containsTransition(String source, String target, String label) {
+        SymbolTable symbols = SymbolTable.getShared();
+        return transitions.contains(new TransitionKey(symbols.lookup(source),
+                symbols.lookup(target), symbols.lookup(label)));
+    }
+
+    public boolean isFinalState(String name) {
+        return finalStates.contains(SymbolTable.getShared().lookup(name));
+    }
+
+    /**
+     * @return The immutable set of the keys of all transitions.
+     */
+    public Set<TransitionKey> getTransitions() {
+        return transitions;
+    }
+
+    public int getStateCount() {
+        return states.size();
+    }
+
+    public int getTransitionCount() {
+        return transitions.size();
+    }
+}
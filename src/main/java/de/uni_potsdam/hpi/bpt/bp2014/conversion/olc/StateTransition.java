@@ -2,6 +2,7 @@ package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
 
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable;
 
 /**
  * This class represents a StateTransition.
@@ -18,6 +19,16 @@ public class StateTransition implements IEdge {
      * by this transition.
      */
     private String label;
+    /**
+     * The symbol of the {@link #label} inside the shared {@link SymbolTable}.
+     */
+    private int labelSymbol;
+    /**
+     * The dense identifier of the transition inside the {@link ObjectLifeCycle}
+     * owning its source state. It is {@link DataObjectState#NO_ID} as long
+     * as the source is not part of an object life cycle.
+     */
+    private int id = DataObjectState.NO_ID;
 
     /**
      * Creates a new Instance of the state transition
@@ -33,7 +44,7 @@ public class StateTransition implements IEdge {
                         " combined transitions, hence it must not be null";
         this.source = source;
         this.target = target;
-        this.label = label;
+        setLabel(label);
     }
 
     /**
@@ -41,7 +52,7 @@ public class StateTransition implements IEdge {
      * The label will be initialized for an empty state.
      */
     public StateTransition() {
-        label = "";
+        setLabel("");
     }
 
     @Override
@@ -97,7 +108,36 @@ public class StateTransition implements IEdge {
         assert null != label :
                 "The label of a StateTransition will be used to identify" +
                         " combined transitions, hence it must not be null";
-        this.label = label;
+        this.labelSymbol = SymbolTable.getShared().intern(label);
+        this.label = SymbolTable.getShared().nameOf(labelSymbol);
+    }
+
+    /**
+     * @return The symbol of the label inside the shared {@link SymbolTable}.
+     * Transitions with equal labels have equal symbols.
+     */
+    public int getLabelSymbol() {
+        return labelSymbol;
+    }
+
+    /**
+     * Returns the dense identifier of the transition.
+     * The identifiers of the transitions of one {@link ObjectLifeCycle} range from
+     * 0 to {@link ObjectLifeCycle#getTransitionCount()} - 1 and follow the order
+     * in which the transitions have been registered.
+     * @return The id or {@link DataObjectState#NO_ID} if the source is not part of an OLC.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id of the transition.
+     * Should only be called by {@link ObjectLifeCycle}.
+     * @param id The id assigned by the object life cycle.
+     */
+    void setId(int id) {
+        this.id = id;
     }
 
     /**
@@ -118,10 +158,12 @@ public class StateTransition implements IEdge {
 
     /**
      * A Hash method adapted to the equal method.
+     * Source and target are weighted differently, hence a transition
+     * and its reversed counterpart will not collide.
      * @return Returns the hashcode.
      */
     @Override
     public int hashCode() {
-        return target.hashCode() + source.hashCode();
+        return 31 * source.hashCode() + target.hashCode();
     }
 }
@@ -0,0 +1,91 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.SymbolTable;
+
+/**
+ * This class identifies a {@link StateTransition} by the names of its source and target
+ * state and by its label. Unlike {@link StateTransition#equals(Object)} it takes the
+ * label into account and does not depend on the state instances, hence it can be used
+ * to match transitions of different object life cycles in hash based collections.
+ * The names and the label are stored as symbols of the shared {@link SymbolTable}.
+ */
+public final class TransitionKey {
+    private final int sourceSymbol;
+    private final int targetSymbol;
+    private final int labelSymbol;
+
+    /**
+     * Creates a new key.
+     *
+     * @param sourceSymbol The symbol of the name of the source state.
+     * @param targetSymbol The symbol of the name of the target state.
+     * @param labelSymbol  The symbol of the label of the transition.
+     */
+    public TransitionKey(int sourceSymbol, int targetSymbol, int labelSymbol) {
+        this.sourceSymbol = sourceSymbol;
+        this.targetSymbol = targetSymbol;
+        this.labelSymbol = labelSymbol;
+    }
+
+    /**
+     * Creates the key of a transition.
+     *
+     * @param transition The transition, source and target must be set.
+     * @return The key of the transition.
+     */
+    public static TransitionKey of(StateTransition transition) {
+        assert null != transition.getSource() && null != transition.getTarget() :
+                "Only transitions with source and target can be identified";
+        return new TransitionKey(((DataObjectState) transition.getSource()).getNameSymbol(),
+                ((DataObjectState) transition.getTarget()).getNameSymbol(),
+                transition.getLabelSymbol());
+    }
+
+    public int getSourceSymbol() {
+        return sourceSymbol;
+    }
+
+    public int getTargetSymbol() {
+        return targetSymbol;
+    }
+
+    public int getLabelSymbol() {
+        return labelSymbol;
+    }
+
+    public String getSourceName() {
+        return SymbolTable.getShared().nameOf(sourceSymbol);
+    }
+
+    public String getTargetName() {
+        return SymbolTable.getShared().nameOf(targetSymbol);
+    }
+
+    public String getLabel() {
+        return SymbolTable.getShared().nameOf(labelSymbol);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TransitionKey)) {
+            return false;
+        }
+        TransitionKey other = (TransitionKey) o;
+        return sourceSymbol == other.sourceSymbol &&
+                targetSymbol == other.targetSymbol &&
+                labelSymbol == other.labelSymbol;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * sourceSymbol + targetSymbol) + labelSymbol;
+    }
+
+    @Override
+    public String toString() {
+        return getSourceName() + " -" + getLabel() + "-> " + getTargetName();
+    }
+}
@@ -0,0 +1,23 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the synchronization edges of a {@link SynchronizedObjectLifeCycle} from its storage.
+ * The loader is called at most once, when the edges are accessed for the first time.
+ */
+public interface SynchronisationEdgeLoader {
+
+    /**
+     * Resolves the synchronization edges. Only the object life cycles
+     * containing synchronized transitions have to be loaded for this.
+     *
+     * @return The synchronization edges, must not be null.
+     * @throws IOException If the storage could not be read.
+     */
+    Map<StateTransition, List<StateTransition>> load() throws IOException;
+}
@@ -0,0 +1,71 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.TransitionKey;
+
+/**
+ * This class identifies a synchronization edge independent of the state and transition
+ * instances. Both transitions are identified by the label of their data class and their
+ * {@link TransitionKey}, hence edges of different synchronized object life cycles can be
+ * matched in hash based collections.
+ */
+public final class SynchronizationEdgeKey {
+    private final String sourceDataClass;
+    private final TransitionKey sourceTransition;
+    private final String targetDataClass;
+    private final TransitionKey targetTransition;
+
+    /**
+     * Creates a new key.
+     *
+     * @param sourceDataClass  The label of the data class of the source transition.
+     * @param sourceTransition The key of the source transition.
+     * @param targetDataClass  The label of the data class of the target transition.
+     * @param targetTransition The key of the target transition.
+     */
+    public SynchronizationEdgeKey(String sourceDataClass, TransitionKey sourceTransition,
+                                  String targetDataClass, TransitionKey targetTransition) {
+        this.sourceDataClass = sourceDataClass;
+        this.sourceTransition = sourceTransition;
+        this.targetDataClass = targetDataClass;
+        this.targetTransition = targetTransition;
+    }
+
+    public String getSourceDataClass() {
+        return sourceDataClass;
+    }
+
+    public TransitionKey getSourceTransition() {
+        return sourceTransition;
+    }
+
+    public String getTargetDataClass() {
+        return targetDataClass;
+    }
+
+    public TransitionKey getTargetTransition() {
+        return targetTransition;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SynchronizationEdgeKey)) {
+            return false;
+        }
+        SynchronizationEdgeKey other = (SynchronizationEdgeKey) o;
+        return sourceDataClass.equals(other.sourceDataClass) &&
+                sourceTransition.equals(other.sourceTransition) &&
+                targetDataClass.equals(other.targetDataClass) &&
+                targetTransition.equals(other.targetTransition);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = sourceDataClass.hashCode();
+        result = 31 * result + sourceTransition.hashCode();
+        result = 31 * result + targetDataClass.hashCode();
+        return 31 * result + targetTransition.hashCode();
+    }
+}
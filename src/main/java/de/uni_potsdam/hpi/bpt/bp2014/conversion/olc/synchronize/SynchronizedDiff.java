@@ -1,49 +1,35 @@
 package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize;
 
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc.OLCVersionGrouper;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc.ObjectLifeCycleDiff;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 /**
  * A Synchronized OLC which will be initialized from multiple OLC creating a diff between different versions.
+ * The versions are grouped by an {@link OLCVersionGrouper}.
  */
 public class SynchronizedDiff extends SynchronizedObjectLifeCycle {
     public  SynchronizedDiff(Collection<? extends ObjectLifeCycle> oldOLCs,
                              Collection<? extends ObjectLifeCycle> newOLCs) {
-        Collection<? extends ObjectLifeCycle> groupedOLC = groupOLCVersions(oldOLCs, newOLCs);
-        super.setObjectLifeCycles(new LinkedList<>(groupedOLC));
+        this(oldOLCs, newOLCs, null);
     }
 
-
     /**
-     * This method groups the object life cycle versions.
-     * For each new Object Life Cycle an old one will be determined and aggregated into an
-     * {@link ObjectLifeCycleDiff}.
+     * Creates a new diff, the diffs of the data classes will be created concurrently.
      *
-     * @param oldOLCs The collection of old Object Life cycles.
-     * @param newOLCs The collection of new Object Life Cycles.
-     * @return A Collection of Object Life Cycle Diffs representing the grouped OLCs.
+     * @param oldOLCs  The collection of old Object Life cycles.
+     * @param newOLCs  The collection of new Object Life Cycles.
+     * @param executor The executor used to create the diffs, if it is null they
+     *                 will be created sequentially.
      */
-    private Collection<ObjectLifeCycleDiff> groupOLCVersions(
-            Collection<? extends ObjectLifeCycle> oldOLCs,
-            Collection<? extends ObjectLifeCycle> newOLCs) {
-        Map<String, ObjectLifeCycle> newGrouped = new HashMap<>();
-        Map<String, ObjectLifeCycle> oldGrouped = new HashMap<>();
-        Collection<ObjectLifeCycleDiff> grouped = new HashSet<>();
-        for (ObjectLifeCycle oldOLC : oldOLCs) {
-            oldGrouped.put(oldOLC.getLabel(), oldOLC);
-        }
-        for (ObjectLifeCycle newOLC : newOLCs) {
-            newGrouped.put(newOLC.getLabel(), newOLC);
-        }
-        for (String olcName : newGrouped.keySet()) {
-            if (oldGrouped.containsKey(olcName)) {
-                grouped.add(new ObjectLifeCycleDiff(
-                        oldGrouped.get(olcName),
-                        newGrouped.get(olcName)));
-            }
-        }
-        return grouped;
+    public SynchronizedDiff(Collection<? extends ObjectLifeCycle> oldOLCs,
+                            Collection<? extends ObjectLifeCycle> newOLCs,
+                            ExecutorService executor) {
+        List<ObjectLifeCycleDiff> groupedOLC =
+                new OLCVersionGrouper(executor).groupOLCVersions(oldOLCs, newOLCs);
+        super.setObjectLifeCycles(new LinkedList<ObjectLifeCycle>(groupedOLC));
     }
 }
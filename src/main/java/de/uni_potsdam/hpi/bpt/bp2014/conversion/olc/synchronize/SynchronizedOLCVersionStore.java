@@ -0,0 +1,239 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.util.Sets;
+
+import java.util.*;
+
+/**
+ * This class stores the versions of a {@link SynchronizedObjectLifeCycle}.
+ * The object life cycles are stored per data class inside an {@link OLCVersionStore},
+ * a version of the synchronized object life cycle references one version per data class.
+ * Hence, unchanged data classes do not create new versions.
+ * The synchronization edges are identified by {@link SynchronizationEdgeKey}s. Like the
+ * object life cycles they are stored as full snapshots for every n-th version and as
+ * added and removed edges for all other versions.
+ */
+public class SynchronizedOLCVersionStore {
+    private final int snapshotInterval;
+    private final Map<String, OLCVersionStore> storesPerDataClass;
+    private final List<Version> versions;
+    /**
+     * The synchronization edges of the latest version.
+     */
+    private Set<SynchronizationEdgeKey> latestEdges;
+
+    /**
+     * Creates a new store using the {@link OLCVersionStore#DEFAULT_SNAPSHOT_INTERVAL}.
+     */
+    public SynchronizedOLCVersionStore() {
+        this(OLCVersionStore.DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Creates a new store.
+     *
+     * @param snapshotInterval The number of versions between two snapshots, must be positive.
+     */
+    public SynchronizedOLCVersionStore(int snapshotInterval) {
+        assert snapshotInterval > 0 : "The snapshot interval must be positive";
+        this.snapshotInterval = snapshotInterval;
+        storesPerDataClass = new LinkedHashMap<>();
+        versions = new ArrayList<>();
+        latestEdges = new LinkedHashSet<>();
+    }
+
+    /**
+     * Stores a new version of the synchronized object life cycle.
+     * Every object life cycle will be committed to the store of its data class.
+     * The object life cycles must have distinct labels.
+     *
+     * @param sOLC The new version.
+     * @return The number of the new version.
+     */
+    public int commit(SynchronizedObjectLifeCycle sOLC) {
+        assert null != sOLC : "The synchronized object life cycle must not be null";
+        Map<String, Integer> versionPerDataClass = new LinkedHashMap<>();
+        for (ObjectLifeCycle olc : sOLC.getOLCs()) {
+            OLCVersionStore store = storesPerDataClass.get(olc.getLabel());
+            if (null == store) {
+                store = new OLCVersionStore(olc.getLabel(), snapshotInterval);
+                storesPerDataClass.put(olc.getLabel(), store);
+            }
+            assert !versionPerDataClass.containsKey(olc.getLabel()) :
+                    "The data class " + olc.getLabel() + " has more than one object life cycle";
+            versionPerDataClass.put(olc.getLabel(), store.commit(olc));
+        }
+        Set<SynchronizationEdgeKey> edges = keysOf(sOLC.getSynchronisationEdges());
+        Version version = new Version(versionPerDataClass);
+        Sets.addMissing(edges, latestEdges, version.addedEdges);
+        Sets.addMissing(latestEdges, edges, version.removedEdges);
+        if (versions.size() % snapshotInterval == 0) {
+            version.edges = edges;
+        }
+        latestEdges = edges;
+        versions.add(version);
+        return versions.size() - 1;
+    }
+
+    private static Set<SynchronizationEdgeKey> keysOf(
+            Map<StateTransition, List<StateTransition>> synchronisationEdges) {
+        Set<SynchronizationEdgeKey> keys = new LinkedHashSet<>();
+        if (null == synchronisationEdges) {
+            return keys;
+        }
+        for (Map.Entry<StateTransition, List<StateTransition>> entry : synchronisationEdges.entrySet()) {
+            for (StateTransition target : entry.getValue()) {
+                keys.add(new SynchronizationEdgeKey(
+                        dataClassOf(entry.getKey()), TransitionKey.of(entry.getKey()),
+                        dataClassOf(target), TransitionKey.of(target)));
+            }
+        }
+        return keys;
+    }
+
+    private static String dataClassOf(StateTransition transition) {
+        ObjectLifeCycle olc = ((DataObjectState) transition.getSource()).getObjectLifeCycle();
+        assert null != olc : "The transition " + transition.getLabel() + " is not part of an object life cycle";
+        return olc.getLabel();
+    }
+
+    /**
+     * Reconstructs a version of the synchronized object life cycle.
+     * Every object life cycle is reconstructed by its {@link OLCVersionStore},
+     * the synchronization edges are replayed from the nearest snapshot.
+     * Edges referencing transitions which do not exist will be skipped.
+     *
+     * @param version The number of the version.
+     * @return A new synchronized object life cycle representing the version.
+     */
+    public SynchronizedObjectLifeCycle getVersion(int version) {
+        assert version >= 0 && version < versions.size() : "There is no version " + version;
+        Map<String, Map<TransitionKey, StateTransition>> transitionsPerDataClass = new HashMap<>();
+        List<ObjectLifeCycle> olcs = new ArrayList<>();
+        for (Map.Entry<String, Integer> dataClassAndVersion : versions.get(version).versionPerDataClass.entrySet()) {
+            ObjectLifeCycle olc = storesPerDataClass.get(dataClassAndVersion.getKey())
+                    .getVersion(dataClassAndVersion.getValue());
+            Map<TransitionKey, StateTransition> transitions = new HashMap<>();
+            for (StateTransition transition : olc.getTransitions()) {
+                transitions.put(TransitionKey.of(transition), transition);
+            }
+            transitionsPerDataClass.put(olc.getLabel(), transitions);
+            olcs.add(olc);
+        }
+        Map<StateTransition, List<StateTransition>> synchronisationEdges = new LinkedHashMap<>();
+        for (SynchronizationEdgeKey edge : getEdges(version)) {
+            StateTransition source = lookup(transitionsPerDataClass, edge.getSourceDataClass(), edge.getSourceTransition());
+            StateTransition target = lookup(transitionsPerDataClass, edge.getTargetDataClass(), edge.getTargetTransition());
+            if (null == source || null == target) {
+                continue;
+            }
+            List<StateTransition> targets = synchronisationEdges.get(source);
+            if (null == targets) {
+                targets = new ArrayList<>();
+                synchronisationEdges.put(source, targets);
+            }
+            targets.add(target);
+        }
+        SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
+        sOLC.setObjectLifeCycles(olcs);
+        sOLC.setSynchronisationEdges(synchronisationEdges);
+        return sOLC;
+    }
+
+    private static StateTransition lookup(Map<String, Map<TransitionKey, StateTransition>> transitionsPerDataClass,
+                                          String dataClass, TransitionKey key) {
+        Map<TransitionKey, StateTransition> transitions = transitionsPerDataClass.get(dataClass);
+        return null == transitions ? null : transitions.get(key);
+    }
+
+    /**
+     * Reconstructs the synchronization edges of a version from the nearest snapshot.
+     *
+     * @param version The number of the version.
+     * @return A new set of edges.
+     */
+    private Set<SynchronizationEdgeKey> getEdges(int version) {
+        int snapshotVersion = version - version % snapshotInterval;
+        Set<SynchronizationEdgeKey> edges = new LinkedHashSet<>(versions.get(snapshotVersion).edges);
+        for (Version next : versions.subList(snapshotVersion + 1, version + 1)) {
+            edges.removeAll(next.removedEdges);
+            edges.addAll(next.addedEdges);
+        }
+        return edges;
+    }
+
+    /**
+     * Computes the deltas of the object life cycles between two versions,
+     * using the deltas stored per data class.
+     * A data class which is part of one version only will be compared with
+     * an empty object life cycle.
+     *
+     * @param fromVersion The number of the version to start at.
+     * @param toVersion   The number of the version to end at.
+     * @return The deltas of the changed data classes, keyed by their labels.
+     */
+    public Map<String, OLCDelta> diff(int fromVersion, int toVersion) {
+        assert fromVersion >= 0 && fromVersion < versions.size() : "There is no version " + fromVersion;
+        assert toVersion >= 0 && toVersion < versions.size() : "There is no version " + toVersion;
+        Map<String, Integer> versionsOfFrom = versions.get(fromVersion).versionPerDataClass;
+        Map<String, Integer> versionsOfTo = versions.get(toVersion).versionPerDataClass;
+        Set<String> dataClasses = new LinkedHashSet<>(versionsOfTo.keySet());
+        dataClasses.addAll(versionsOfFrom.keySet());
+        Map<String, OLCDelta> deltas = new LinkedHashMap<>();
+        for (String dataClass : dataClasses) {
+            OLCVersionStore store = storesPerDataClass.get(dataClass);
+            Integer from = versionsOfFrom.get(dataClass);
+            Integer to = versionsOfTo.get(dataClass);
+            OLCDelta delta;
+            if (null == to) {
+                delta = store.diff(-1, from).inverse();
+            } else {
+                delta = store.diff(null == from ? -1 : from, to);
+            }
+            if (!delta.isEmpty()) {
+                deltas.put(dataClass, delta);
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * @param dataClass The label of the data class.
+     * @return The store of the object life cycles of the data class or null if there is none.
+     */
+    public OLCVersionStore getStore(String dataClass) {
+        return storesPerDataClass.get(dataClass);
+    }
+
+    /**
+     * @return The number of the latest version or -1 if nothing has been committed yet.
+     */
+    public int getLatestVersion() {
+        return versions.size() - 1;
+    }
+
+    /**
+     * @return The number of stored versions.
+     */
+    public int getVersionCount() {
+        return versions.size();
+    }
+
+    /**
+     * One version of the synchronized object life cycle.
+     */
+    private static class Version {
+        private final Map<String, Integer> versionPerDataClass;
+        private final Set<SynchronizationEdgeKey> addedEdges = new LinkedHashSet<>();
+        private final Set<SynchronizationEdgeKey> removedEdges = new LinkedHashSet<>();
+        /**
+         * All synchronization edges, if this version is a snapshot, else null.
+         */
+        private Set<SynchronizationEdgeKey> edges;
+
+        private Version(Map<String, Integer> versionPerDataClass) {
+            this.versionPerDataClass = versionPerDataClass;
+        }
+    }
+}
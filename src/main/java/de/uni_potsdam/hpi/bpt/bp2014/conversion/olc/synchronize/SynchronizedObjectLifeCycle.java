@@ -6,12 +6,16 @@ import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
 import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
  * This class represents a Synchronized Object Life Cycle.
  * A Synchronized Object Life Cycle Aggregates a multiple Object Life Cycles
  * and holds additional synchronization edges between state transitions.
+ * The object life cycles may be {@link de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.LazyObjectLifeCycle}s
+ * and the synchronization edges may be provided by a {@link SynchronisationEdgeLoader},
+ * then only the parts which are accessed will be loaded.
  */
 public class SynchronizedObjectLifeCycle implements IModel {
     /**
@@ -27,6 +31,11 @@ public class SynchronizedObjectLifeCycle implements IModel {
      * will be executed as well.
      */
     private Map<StateTransition, List<StateTransition>> synchronisationEdges;
+    /**
+     * The loader of the synchronization edges, null if they are known.
+     * It is volatile to publish the loaded edges to all threads.
+     */
+    private volatile SynchronisationEdgeLoader synchronisationEdgeLoader;
 
     /**
      * Creates a new and empty Synchronized Object Life Cycle.
@@ -169,11 +178,48 @@ public class SynchronizedObjectLifeCycle implements IModel {
         this.objectLifeCycles = objectLifeCycles;
     }
 
+    /**
+     * Returns the synchronization edges. If they are provided by a loader,
+     * they will be loaded on the first call, concurrent callers wait for the loader.
+     *
+     * @return The synchronization edges.
+     * @throws IllegalStateException If the loader fails.
+     */
     public Map<StateTransition, List<StateTransition>> getSynchronisationEdges() {
+        if (null != synchronisationEdgeLoader) {
+            loadSynchronisationEdges();
+        }
         return synchronisationEdges;
     }
 
+    /**
+     * Calls the loader of the synchronization edges unless another thread did.
+     * Threads accessing the edges meanwhile wait for the loader.
+     */
+    private synchronized void loadSynchronisationEdges() {
+        if (null == synchronisationEdgeLoader) {
+            return;
+        }
+        try {
+            synchronisationEdges = synchronisationEdgeLoader.load();
+        } catch (IOException e) {
+            throw new IllegalStateException("The synchronization edges could not be loaded", e);
+        }
+        synchronisationEdgeLoader = null;
+    }
+
     public void setSynchronisationEdges(Map<StateTransition, List<StateTransition>> synchronisationEdges) {
         this.synchronisationEdges = synchronisationEdges;
+        this.synchronisationEdgeLoader = null;
+    }
+
+    /**
+     * Defers the synchronization edges until they are accessed for the first time.
+     *
+     * @param synchronisationEdgeLoader The loader of the synchronization edges, must not be null.
+     */
+    public void setSynchronisationEdgeLoader(SynchronisationEdgeLoader synchronisationEdgeLoader) {
+        assert null != synchronisationEdgeLoader : "The loader of the synchronization edges must not be null";
+        this.synchronisationEdgeLoader = synchronisationEdgeLoader;
     }
 }
@@ -0,0 +1,177 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.util;
+
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A set which is optimized for the small number of edges most nodes have.
+ * As long as the set holds no more than {@link #THRESHOLD} elements they
+ * are saved inline inside a small array which grows on demand. Lookups are
+ * linear scans in that case, which is faster than hashing for so few elements.
+ * If the set grows beyond the threshold, the elements will be moved into a
+ * {@link HashSet}.
+ * Like every other set it suppresses duplicates using {@link Object#equals(Object)}.
+ * Null elements are not supported.
+ *
+ * @param <E> The type of the elements, usually a type of edge.
+ */
+public class CompactEdgeSet<E> extends AbstractSet<E> {
+    /**
+     * The maximum number of elements which will be saved inline.
+     */
+    public static final int THRESHOLD = 8;
+    /**
+     * Shared by all empty sets, so an empty set allocates no array.
+     */
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * The inline elements, only the first {@link #size} entries are used.
+     */
+    private Object[] elements = EMPTY;
+    private int size;
+    /**
+     * The hashed storage, it will be created once the set
+     * exceeds the {@link #THRESHOLD}. Afterwards the inline
+     * array is no longer used.
+     */
+    private Set<E> hashed;
+
+    @Override
+    public boolean add(E element) {
+        assert null != element : "A compact edge set does not support null elements";
+        if (null != hashed) {
+            return hashed.add(element);
+        }
+        if (indexOf(element) >= 0) {
+            return false;
+        }
+        if (size == THRESHOLD) {
+            hashed = new HashSet<>(THRESHOLD * 4);
+            for (int i = 0; i < size; i++) {
+                hashed.add(elementAt(i));
+            }
+            hashed.add(element);
+            elements = EMPTY;
+            size = 0;
+            return true;
+        }
+        if (size == elements.length) {
+            Object[] grown = new Object[Math.min(THRESHOLD, Math.max(1, size * 2))];
+            System.arraycopy(elements, 0, grown, 0, size);
+            elements = grown;
+        }
+        elements[size++] = element;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        if (null != hashed) {
+            return hashed.contains(element);
+        }
+        return indexOf(element) >= 0;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        if (null != hashed) {
+            return hashed.remove(element);
+        }
+        int index = indexOf(element);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return null == hashed ? size : hashed.size();
+    }
+
+    @Override
+    public void clear() {
+        hashed = null;
+        elements = EMPTY;
+        size = 0;
+    }
+
+    /**
+     * Returns an iterator over the elements.
+     * Inline elements will be returned in the order they have been added.
+     * @return A new Iterator, which supports {@link Iterator#remove()}.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        if (null != hashed) {
+            return hashed.iterator();
+        }
+        return new InlineIterator();
+    }
+
+    private int indexOf(Object element) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i].equals(element)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        elements[--size] = null;
+        if (0 == size) {
+            elements = EMPTY;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(int index) {
+        return (E) elements[index];
+    }
+
+    /**
+     * Iterates over the inline array.
+     * Changes to the set, which were not made by the iterator,
+     * will be detected on a best effort basis.
+     */
+    private class InlineIterator implements Iterator<E> {
+        private int next;
+        private int expectedSize = size;
+        private boolean canRemove;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public E next() {
+            if (expectedSize != size || null != hashed) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            canRemove = true;
+            return elementAt(next++);
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            canRemove = false;
+            removeAt(--next);
+            expectedSize = size;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.util;
+
+import java.util.*;
+
+/**
+ * An immutable set which shares its structure with the sets derived from it.
+ * The elements are stored inside a hash array mapped trie. Every node of the
+ * trie consumes five bits of the hash of an element and holds its children
+ * inside an array which is as large as the number of children.
+ * {@link #plus(Object)} and {@link #minus(Object)} copy the path to the changed
+ * element only, all other nodes are shared with the original set.
+ * Hence {@link #diff(PersistentHashSet, Collection, Collection)} can skip every
+ * subtree both sets share and takes time proportional to the changed paths.
+ * Null elements are not supported, the mutating methods of {@link Set} throw an
+ * {@link UnsupportedOperationException}.
+ *
+ * @param <E> The type of the elements.
+ */
+public final class PersistentHashSet<E> extends AbstractSet<E> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentHashSet<Object> EMPTY = new PersistentHashSet<>(null, 0);
+
+    /**
+     * The root node, null for an empty set.
+     * Every slot of a node holds either an element or a child {@link Node}.
+     */
+    private final Node root;
+    private final int size;
+
+    private PersistentHashSet(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @param <E> The type of the elements.
+     * @return The empty set, it is shared by all element types.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentHashSet<E> empty() {
+        return (PersistentHashSet<E>) EMPTY;
+    }
+
+    /**
+     * @param elements The elements of the new set.
+     * @param <E>      The type of the elements.
+     * @return A new set containing the elements.
+     */
+    public static <E> PersistentHashSet<E> of(Iterable<? extends E> elements) {
+        PersistentHashSet<E> set = empty();
+        for (E element : elements) {
+            set = set.plus(element);
+        }
+        return set;
+    }
+
+    /**
+     * @param element The element to be added, must not be null.
+     * @return A set containing the element, this set if it is already contained.
+     */
+    public PersistentHashSet<E> plus(E element) {
+        assert null != element : "A persistent hash set does not support null elements";
+        int hash = hashOf(element);
+        if (null == root) {
+            return new PersistentHashSet<>(new BitmapNode(bitFor(hash, 0), new Object[]{element}), 1);
+        }
+        Node newRoot = root.plus(element, hash, 0);
+        return newRoot == root ? this : new PersistentHashSet<E>(newRoot, size + 1);
+    }
+
+    /**
+     * @param element The element to be removed.
+     * @return A set without the element, this set if it is not contained.
+     */
+    public PersistentHashSet<E> minus(Object element) {
+        if (null == root || null == element) {
+            return this;
+        }
+        Object newRoot = root.minus(element, hashOf(element), 0);
+        if (newRoot == root) {
+            return this;
+        }
+        if (null == newRoot) {
+            return empty();
+        }
+        if (!(newRoot instanceof Node)) {
+            newRoot = new BitmapNode(bitFor(hashOf(newRoot), 0), new Object[]{newRoot});
+        }
+        return new PersistentHashSet<>((Node) newRoot, size - 1);
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return null != root && null != element && root.contains(element, hashOf(element), 0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        List<E> elements = new ArrayList<>(size);
+        collect(root, elements);
+        return Collections.unmodifiableList(elements).iterator();
+    }
+
+    /**
+     * Determines the differences between this set and another one.
+     * Subtrees shared by both sets will be skipped, so will equal elements.
+     *
+     * @param other       The set to be compared with.
+     * @param onlyInThis  Receives the elements of this set missing in the other one.
+     * @param onlyInOther Receives the elements of the other set missing in this one.
+     */
+    public void diff(PersistentHashSet<E> other, Collection<? super E> onlyInThis,
+                     Collection<? super E> onlyInOther) {
+        diffSlots(root, other.root, onlyInThis, onlyInOther);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> void diffSlots(Object slot, Object otherSlot, Collection<? super E> onlyInSlot,
+                                      Collection<? super E> onlyInOtherSlot) {
+        if (slot == otherSlot) {
+            return;
+        }
+        if (slot instanceof BitmapNode && otherSlot instanceof BitmapNode) {
+            BitmapNode node = (BitmapNode) slot;
+            BitmapNode otherNode = (BitmapNode) otherSlot;
+            int bits = node.bitmap | otherNode.bitmap;
+            while (0 != bits) {
+                int bit = Integer.lowestOneBit(bits);
+                bits &= ~bit;
+                diffSlots(node.childAt(bit), otherNode.childAt(bit), onlyInSlot, onlyInOtherSlot);
+            }
+            return;
+        }
+        List<E> elements = new ArrayList<>();
+        collect(slot, elements);
+        List<E> otherElements = new ArrayList<>();
+        collect(otherSlot, otherElements);
+        Set<E> others = new HashSet<>(otherElements);
+        for (E element : elements) {
+            if (!others.remove(element)) {
+                onlyInSlot.add(element);
+            }
+        }
+        for (E element : otherElements) {
+            if (others.contains(element)) {
+                onlyInOtherSlot.add(element);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> void collect(Object slot, Collection<E> elements) {
+        if (null == slot) {
+            return;
+        }
+        if (slot instanceof Node) {
+            for (Object child : ((Node) slot).children) {
+                collect(child, elements);
+            }
+        } else {
+            elements.add((E) slot);
+        }
+    }
+
+    private static int hashOf(Object element) {
+        int hash = element.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int bitFor(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Creates the smallest subtree holding two elements with different positions.
+     */
+    private static Node merge(Object element, int hash, Object otherElement, int otherHash, int shift) {
+        if (hash == otherHash) {
+            return new CollisionNode(hash, new Object[]{element, otherElement});
+        }
+        int bit = bitFor(hash, shift);
+        int otherBit = bitFor(otherHash, shift);
+        if (bit == otherBit) {
+            return new BitmapNode(bit, new Object[]{merge(element, hash, otherElement, otherHash, shift + BITS)});
+        }
+        return new BitmapNode(bit | otherBit, bit < otherBit ?
+                new Object[]{element, otherElement} : new Object[]{otherElement, element});
+    }
+
+    /**
+     * A node of the trie. The slots hold elements or child nodes.
+     */
+    private abstract static class Node {
+        final Object[] children;
+
+        Node(Object[] children) {
+            this.children = children;
+        }
+
+        abstract Node plus(Object element, int hash, int shift);
+
+        /**
+         * @return The changed node, this node if the element is not contained,
+         * the remaining element if only one is left or null if the node became empty.
+         */
+        abstract Object minus(Object element, int hash, int shift);
+
+        abstract boolean contains(Object element, int hash, int shift);
+    }
+
+    private static final class BitmapNode extends Node {
+        final int bitmap;
+
+        BitmapNode(int bitmap, Object[] children) {
+            super(children);
+            this.bitmap = bitmap;
+        }
+
+        int indexOf(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        Object childAt(int bit) {
+            return 0 == (bitmap & bit) ? null : children[indexOf(bit)];
+        }
+
+        @Override
+        Node plus(Object element, int hash, int shift) {
+            int bit = bitFor(hash, shift);
+            int index = indexOf(bit);
+            if (0 == (bitmap & bit)) {
+                Object[] newChildren = new Object[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, index);
+                newChildren[index] = element;
+                System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+                return new BitmapNode(bitmap | bit, newChildren);
+            }
+            Object child = children[index];
+            Object newChild;
+            if (child instanceof Node) {
+                newChild = ((Node) child).plus(element, hash, shift + BITS);
+            } else if (child.equals(element)) {
+                return this;
+            } else {
+                newChild = merge(child, hashOf(child), element, hash, shift + BITS);
+            }
+            return newChild == child ? this : replace(index, newChild);
+        }
+
+        @Override
+        Object minus(Object element, int hash, int shift) {
+            int bit = bitFor(hash, shift);
+            if (0 == (bitmap & bit)) {
+                return this;
+            }
+            int index = indexOf(bit);
+            Object child = children[index];
+            Object newChild;
+            if (child instanceof Node) {
+                newChild = ((Node) child).minus(element, hash, shift + BITS);
+                if (newChild == child) {
+                    return this;
+                }
+            } else if (child.equals(element)) {
+                newChild = null;
+            } else {
+                return this;
+            }
+            if (null != newChild) {
+                return replace(index, newChild);
+            }
+            if (1 == children.length) {
+                return null;
+            }
+            if (2 == children.length && !(children[1 - index] instanceof Node)) {
+                return children[1 - index];
+            }
+            Object[] newChildren = new Object[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            return new BitmapNode(bitmap & ~bit, newChildren);
+        }
+
+        private BitmapNode replace(int index, Object newChild) {
+            Object[] newChildren = children.clone();
+            newChildren[index] = newChild;
+            return new BitmapNode(bitmap, newChildren);
+        }
+
+        @Override
+        boolean contains(Object element, int hash, int shift) {
+            Object child = childAt(bitFor(hash, shift));
+            if (child instanceof Node) {
+                return ((Node) child).contains(element, hash, shift + BITS);
+            }
+            return null != child && child.equals(element);
+        }
+    }
+
+    /**
+     * Holds the elements whose hashes are equal.
+     */
+    private static final class CollisionNode extends Node {
+        final int hash;
+
+        CollisionNode(int hash, Object[] children) {
+            super(children);
+            this.hash = hash;
+        }
+
+        @Override
+        Node plus(Object element, int elementHash, int shift) {
+            if (elementHash != hash) {
+                return new BitmapNode(bitFor(hash, shift), new Object[]{this}).plus(element, elementHash, shift);
+            }
+            if (contains(element, elementHash, shift)) {
+                return this;
+            }
+            Object[] newChildren = Arrays.copyOf(children, children.length + 1);
+            newChildren[children.length] = element;
+            return new CollisionNode(hash, newChildren);
+        }
+
+        @Override
+        Object minus(Object element, int elementHash, int shift) {
+            int index = elementHash == hash ? Arrays.asList(children).indexOf(element) : -1;
+            if (index < 0) {
+                return this;
+            }
+            if (2 == children.length) {
+                return children[1 - index];
+            }
+            Object[] newChildren = new Object[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            return new CollisionNode(hash, newChildren);
+        }
+
+        @Override
+        boolean contains(Object element, int elementHash, int shift) {
+            return elementHash == hash && Arrays.asList(children).contains(element);
+        }
+    }
+}
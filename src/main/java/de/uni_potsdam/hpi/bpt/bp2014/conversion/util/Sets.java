@@ -0,0 +1,29 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.util;
+
+import java.util.Set;
+
+/**
+ * Helper methods for sets, which are used to compute the differences of versions.
+ */
+public final class Sets {
+
+    private Sets() {
+    }
+
+    /**
+     * Adds every element which is not part of the other set to the missing elements.
+     * The order of the elements is kept, if the sets are ordered.
+     *
+     * @param elements The elements to be checked.
+     * @param others   The set the elements are looked up in.
+     * @param missing  The set which receives the elements not contained in others.
+     * @param <T>      The type of the elements.
+     */
+    public static <T> void addMissing(Set<T> elements, Set<T> others, Set<T> missing) {
+        for (T element : elements) {
+            if (!others.contains(element)) {
+                missing.add(element);
+            }
+        }
+    }
+}
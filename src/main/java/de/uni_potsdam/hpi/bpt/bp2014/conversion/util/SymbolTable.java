@@ -0,0 +1,129 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A symbol table interns names and labels to dense int symbols.
+ * Comparing and hashing symbols is a simple integer operation, in addition
+ * every distinct name is saved only once, no matter how many models use it.
+ * Model elements use the {@link #getShared() shared} table, hence symbols of
+ * different models can be compared directly.
+ * The table is thread safe.
+ * <p/>
+ * Symbols are never removed, since they are kept as plain ints by model elements,
+ * keys and persistent object life cycles, so a reused symbol would silently change
+ * their meaning. Hence the shared table grows with every distinct name it has ever
+ * seen, this includes the names of all imported documents. Each distinct name costs
+ * about 100 bytes plus two bytes per character, e.g. roughly 130 MB for a million
+ * names of 15 characters. Processes which import documents from arbitrary users
+ * over a long time should monitor the {@link #size()} of the shared table.
+ */
+public final class SymbolTable {
+    /**
+     * The symbol of null.
+     */
+    public static final int NO_SYMBOL = -1;
+
+    private static final SymbolTable SHARED = new SymbolTable();
+
+    /**
+     * Maps each name to its symbol.
+     */
+    private final ConcurrentMap<String, Integer> symbols;
+    /**
+     * Holds the name of each symbol at the position of the symbol.
+     * Writes are guarded by the table, the array will be replaced on growth.
+     */
+    private volatile String[] names;
+    private int size;
+
+    /**
+     * Creates a new and empty symbol table.
+     * Symbols of different tables must not be mixed,
+     * use {@link #getShared()} for model elements.
+     */
+    public SymbolTable() {
+        symbols = new ConcurrentHashMap<>();
+        names = new String[64];
+    }
+
+    /**
+     * @return The symbol table which is used by all model elements.
+     */
+    public static SymbolTable getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the symbol for a name. If the name is unknown a new symbol will be created.
+     * @param name The name to be interned, may be null.
+     * @return The symbol of the name or {@link #NO_SYMBOL} if the name is null.
+     */
+    public int intern(String name) {
+        if (null == name) {
+            return NO_SYMBOL;
+        }
+        Integer symbol = symbols.get(name);
+        if (null != symbol) {
+            return symbol;
+        }
+        synchronized (this) {
+            symbol = symbols.get(name);
+            if (null == symbol) {
+                symbol = size;
+                String[] currentNames = names;
+                if (size == currentNames.length) {
+                    currentNames = Arrays.copyOf(currentNames, size * 2);
+                }
+                currentNames[size++] = name;
+                names = currentNames;
+                symbols.put(name, symbol);
+            }
+            return symbol;
+        }
+    }
+
+    /**
+     * Returns the symbol of an already known name without creating a new one.
+     * @param name The name to be looked up.
+     * @return The symbol or {@link #NO_SYMBOL} if the name is null or unknown.
+     */
+    public int lookup(String name) {
+        if (null == name) {
+            return NO_SYMBOL;
+        }
+        Integer symbol = symbols.get(name);
+        return null == symbol ? NO_SYMBOL : symbol;
+    }
+
+    /**
+     * Returns the name of a symbol. The same String instance will be returned
+     * for every call, hence it can be used to share one copy of the name.
+     * @param symbol The symbol, it has to be created by this table.
+     * @return The name of the symbol or null for {@link #NO_SYMBOL}.
+     */
+    public String nameOf(int symbol) {
+        if (NO_SYMBOL == symbol) {
+            return null;
+        }
+        return names[symbol];
+    }
+
+    /**
+     * Interns the name and returns the canonical copy of it.
+     * @param name The name to be interned, may be null.
+     * @return The canonical instance of the name.
+     */
+    public String canonical(String name) {
+        return nameOf(intern(name));
+    }
+
+    /**
+     * @return The number of symbols created so far.
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * This package contains helper classes which are shared by the model
+ * elements and the converters, for example compact collections.
+ * They do not depend on any specific process model representation.
+ */
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.util;
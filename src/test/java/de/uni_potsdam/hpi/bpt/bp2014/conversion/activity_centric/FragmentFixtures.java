@@ -0,0 +1,63 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IEdge;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+
+/**
+ * Creates the small fragments the tests of all packages are built from.
+ */
+public final class FragmentFixtures {
+
+    private FragmentFixtures() {
+    }
+
+    /**
+     * Creates a fragment start -> activity -> gateways -> end, the activity reads
+     * a data object in the input state and writes it in the output state.
+     *
+     * @param name         The name of the activity.
+     * @param dataClass    The data class of the read and written data object.
+     * @param inputState   The state the data object is read in.
+     * @param outputState  The state the data object is written in.
+     * @param gatewayTypes The types of the gateways placed between the activity and the end event.
+     * @return The created fragment.
+     */
+    public static ActivityCentricProcessModel createFragment(String name, String dataClass,
+                                                             String inputState, String outputState,
+                                                             Gateway.Type... gatewayTypes) {
+        ActivityCentricProcessModel acpm = new ActivityCentricProcessModel();
+        Event startEvent = new Event();
+        startEvent.setType(Event.Type.START);
+        acpm.addNode(startEvent);
+        Activity activity = new Activity(name);
+        acpm.addNode(activity);
+        connect(startEvent, activity, new ControlFlow(startEvent, activity));
+        INode last = activity;
+        for (Gateway.Type type : gatewayTypes) {
+            Gateway gateway = new Gateway();
+            gateway.setType(type);
+            acpm.addNode(gateway);
+            connect(last, gateway, new ControlFlow(last, gateway));
+            last = gateway;
+        }
+        Event endEvent = new Event();
+        endEvent.setType(Event.Type.END);
+        acpm.addNode(endEvent);
+        connect(last, endEvent, new ControlFlow(last, endEvent));
+        DataObject input = new DataObject(dataClass, new DataObjectState(inputState));
+        DataObject output = new DataObject(dataClass, new DataObjectState(outputState));
+        connect(input, activity, new DataFlow(input, activity));
+        connect(activity, output, new DataFlow(activity, output));
+        acpm.addNode(input);
+        acpm.addNode(output);
+        acpm.setStartNode(startEvent);
+        acpm.addFinalNode(endEvent);
+        return acpm;
+    }
+
+    private static void connect(INode source, INode target, IEdge edge) {
+        source.addOutgoingEdge(edge);
+        target.addIncomingEdge(edge);
+    }
+}
@@ -0,0 +1,118 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.CollidingModels;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.FragmentFixtures.createFragment;
+import static org.junit.Assert.*;
+
+public class ScenarioTest {
+    /**
+     * Given: Three fragments, two of them are built separately but are structurally identical.
+     * When:  A scenario is created for the fragments and one instance is added again.
+     * Then:  The scenario contains two distinct fragments, the duplicate has a multiplicity of two.
+     */
+    @Test
+    public void testDeduplication() {
+        List<ActivityCentricProcessModel> fragments = new ArrayList<>();
+        ActivityCentricProcessModel create = createFragment("Create", "Order", "init", "created");
+        fragments.add(create);
+        fragments.add(createFragment("Create", "Order", "init", "created"));
+        fragments.add(createFragment("Ship", "Order", "created", "shipped"));
+        Scenario scenario = new Scenario(fragments);
+        scenario.addFragment(create);
+        assertEquals("Duplicates should be stored once", 2, scenario.getDistinctFragmentCount());
+        assertEquals("Duplicates should be counted", 3, scenario.getTotalFragmentCount());
+        assertEquals("The duplicated fragment should have a multiplicity of two",
+                2, scenario.getMultiplicity(createFragment("Create", "Order", "init", "created")));
+        assertTrue("The first instance should be kept", scenario.getFragments().contains(create));
+    }
+
+    /**
+     * Given: Two structurally different fragments sharing a fingerprint.
+     * When:  Both are added to a scenario, together with a copy of the second one.
+     * Then:  Both fragments are kept and only the copy is counted as a duplicate.
+     */
+    @Test
+    public void testCollidingFragments() {
+        List<ActivityCentricProcessModel> fragments = new ArrayList<>();
+        ActivityCentricProcessModel oneCycle = CollidingModels.oneCycle();
+        ActivityCentricProcessModel twoCycles = CollidingModels.twoCycles();
+        fragments.add(oneCycle);
+        fragments.add(twoCycles);
+        fragments.add(CollidingModels.twoCycles());
+        Scenario scenario = new Scenario(fragments);
+        assertEquals("Colliding fragments should not be merged", 2, scenario.getDistinctFragmentCount());
+        assertTrue("The first colliding fragment should be kept", scenario.getFragments().contains(oneCycle));
+        assertTrue("The second colliding fragment should be kept", scenario.getFragments().contains(twoCycles));
+        assertEquals("The first fragment should not count the others",
+                1, (int) scenario.getFragmentMultiplicities().get(oneCycle));
+        assertEquals("The copy should be counted for the equal fragment",
+                2, scenario.getMultiplicity(CollidingModels.twoCycles()));
+    }
+
+    /**
+     * Given: A scenario with fragments for the data classes "Order" and "Invoice".
+     * When:  The indexes are queried before and after another fragment is added.
+     * Then:  The queries return the fragments and activities using the data class
+     *        or state, the added fragment is taken into account.
+     */
+    @Test
+    public void testIndexes() {
+        List<ActivityCentricProcessModel> fragments = new ArrayList<>();
+        ActivityCentricProcessModel ship = createFragment("Ship", "Order", "created", "shipped");
+        fragments.add(createFragment("Create", "Order", "init", "created"));
+        fragments.add(ship);
+        fragments.add(createFragment("Bill", "Invoice", "init", "sent"));
+        Scenario scenario = new Scenario(fragments);
+        assertEquals("Two fragments should use orders", 2, scenario.getFragmentsOfDataClass("Order").size());
+        assertEquals("One activity should write created orders",
+                "Create", scenario.getActivitiesWriting("Order", "created").get(0).getName());
+        List<Activity> reading = scenario.getActivitiesReading("Order", "created");
+        assertEquals("One activity should read created orders", 1, reading.size());
+        assertEquals("Ship should read created orders", "Ship", reading.get(0).getName());
+        assertTrue("No activity should read unknown states",
+                scenario.getActivitiesReading("Order", "unknown").isEmpty());
+        assertEquals("Every fragment has five nodes", 15, scenario.getNodes().size());
+
+        scenario.addFragment(createFragment("Cancel", "Order", "created", "canceled"));
+        assertEquals("The added fragment should be indexed",
+                2, scenario.getActivitiesReading("Order", "created").size());
+        assertEquals("The nodes of the added fragment should be included", 20, scenario.getNodes().size());
+        assertEquals("There should be one activity per fragment",
+                4, scenario.getNodesOfClass(Activity.class).size());
+    }
+
+    /**
+     * Given: A scenario with an indexed fragment using "Order".
+     * When:  A data object of "Invoice" is added to the fragment, another fragment
+     *        is added and afterwards the indexes are invalidated.
+     * Then:  Adding the fragment only indexes the new fragment,
+     *        the altered fragment is indexed after the invalidation.
+     */
+    @Test
+    public void testAlteredFragments() {
+        List<ActivityCentricProcessModel> fragments = new ArrayList<>();
+        ActivityCentricProcessModel create = createFragment("Create", "Order", "init", "created");
+        fragments.add(create);
+        Scenario scenario = new Scenario(fragments);
+        assertTrue("No fragment should use invoices", scenario.getFragmentsOfDataClass("Invoice").isEmpty());
+
+        create.addNode(new DataObject("Invoice", new DataObjectState("init")));
+        scenario.addFragment(createFragment("Bill", "Invoice", "init", "sent"));
+        assertEquals("Only the added fragment should be indexed",
+                1, scenario.getFragmentsOfDataClass("Invoice").size());
+        assertEquals("The indexed order fragment should be kept",
+                1, scenario.getFragmentsOfDataClass("Order").size());
+
+        scenario.invalidateIndexes();
+        assertEquals("The altered fragment should be indexed again",
+                2, scenario.getFragmentsOfDataClass("Invoice").size());
+        assertEquals("The nodes of both fragments should be included", 11, scenario.getNodes().size());
+    }
+}
@@ -407,4 +407,55 @@ public class ActivityCentricToSynchronizedOLCTest {
             }
         }
     }
+
+    /**
+     * Given: A model with one activity reading "Invoice" in state init and writing it in state sent.
+     * When:  The model is converted twice.
+     * Then:  Both conversions create the same OLC, the states of the model are
+     *        not part of any OLC and the first result is not altered.
+     */
+    @Test
+    public void testRepeatedConversion() {
+        ActivityCentricProcessModel acpm = new ActivityCentricProcessModel();
+        Event startEvent = new Event();
+        startEvent.setType(Event.Type.START);
+        Activity activity = new Activity("Send Invoice");
+        Event endEvent = new Event();
+        endEvent.setType(Event.Type.END);
+        ControlFlow cf1 = new ControlFlow(startEvent, activity);
+        startEvent.addOutgoingEdge(cf1);
+        activity.addIncomingEdge(cf1);
+        ControlFlow cf2 = new ControlFlow(activity, endEvent);
+        activity.addOutgoingEdge(cf2);
+        endEvent.addIncomingEdge(cf2);
+        DataObjectState init = new DataObjectState("init");
+        DataObject input = new DataObject("Invoice", init);
+        DataObject output = new DataObject("Invoice", new DataObjectState("sent"));
+        DataFlow df = new DataFlow(input, activity);
+        input.addOutgoingEdge(df);
+        activity.addIncomingEdge(df);
+        df = new DataFlow(activity, output);
+        activity.addOutgoingEdge(df);
+        output.addIncomingEdge(df);
+        acpm.setStartNode(startEvent);
+        acpm.addNode(startEvent);
+        acpm.addNode(activity);
+        acpm.addNode(endEvent);
+        acpm.addNode(input);
+        acpm.addNode(output);
+        acpm.addFinalNode(endEvent);
+
+        ObjectLifeCycle first = new ActivityCentricToSynchronizedOLC().convert(acpm).getOLCs().get(0);
+        int transitions = first.getTransitionCount();
+        ObjectLifeCycle second = new ActivityCentricToSynchronizedOLC().convert(acpm).getOLCs().get(0);
+
+        assertNull("The state of the model should not be part of an OLC", init.getObjectLifeCycle());
+        assertTrue("The state of the model should not be connected", init.getOutgoingEdges().isEmpty());
+        assertEquals("Both OLCs should have the same transitions", transitions, second.getTransitionCount());
+        assertEquals("The first OLC should not be altered", transitions, first.getTransitionCount());
+        for (int id = 0; id < first.getStateCount(); id++) {
+            assertSame("The states of the first OLC should keep their ids",
+                    first, first.getState(id).getObjectLifeCycle());
+        }
+    }
 }
@@ -0,0 +1,141 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.cache;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.IConverter;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.CollidingModels;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.StructuralFingerprint;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+import org.junit.Test;
+
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.FragmentFixtures.createFragment;
+import static org.junit.Assert.*;
+
+public class CachingConverterTest {
+    /**
+     * Given: A caching converter for activity centric process models.
+     * When:  Two separately built but identical models are converted.
+     * Then:  The second conversion is a hit and returns an isolated copy,
+     *        changing the first result does not affect the second one.
+     */
+    @Test
+    public void testHitReturnsCopy() {
+        CachingConverter<ActivityCentricProcessModel, SynchronizedObjectLifeCycle> converter =
+                CachingConverter.activityCentricToSynchronizedOLC(
+                        new ConversionCache<SynchronizedObjectLifeCycle>(10));
+        SynchronizedObjectLifeCycle first = converter.convert(createFragment("Write", "Order", "init", "done"));
+        long fingerprint = StructuralFingerprint.of(first);
+        assertFalse("The model should have an object life cycle", first.getOLCs().isEmpty());
+        first.getOLCs().get(0).setLabel("Changed");
+        first.getOLCs().get(0).addNode(new DataObjectState("added"));
+        SynchronizedObjectLifeCycle second = converter.convert(createFragment("Write", "Order", "init", "done"));
+        assertEquals("The first conversion should be a miss", 1, converter.getCache().getMissCount());
+        assertEquals("The second conversion should be a hit", 1, converter.getCache().getHitCount());
+        assertNotSame("A hit should return a copy", first, second);
+        assertNotEquals("Changes of a result must not affect the cache",
+                "Changed", second.getOLCs().get(0).getLabel());
+        assertEquals("The copy should be structurally equal to the original result",
+                fingerprint, StructuralFingerprint.of(second));
+    }
+
+    /**
+     * Given: A caching converter whose converter returns the model itself,
+     *        and two structurally different models with the same fingerprint.
+     * When:  Both models are converted, then the second one again.
+     * Then:  The colliding model is converted instead of taking the result of the
+     *        other one, and only the repeated conversion is a hit.
+     */
+    @Test
+    public void testCollidingModels() {
+        CachingConverter<ActivityCentricProcessModel, ActivityCentricProcessModel> converter =
+                new CachingConverter<>(new ConverterFactory<ActivityCentricProcessModel, ActivityCentricProcessModel>() {
+                    @Override
+                    public IConverter<ActivityCentricProcessModel, ActivityCentricProcessModel> create() {
+                        return new IConverter<ActivityCentricProcessModel, ActivityCentricProcessModel>() {
+                            @Override
+                            public ActivityCentricProcessModel convert(ActivityCentricProcessModel model) {
+                                return model;
+                            }
+                        };
+                    }
+                }, new ConversionCache<ActivityCentricProcessModel>(10));
+        ActivityCentricProcessModel oneCycle = CollidingModels.oneCycle();
+        ActivityCentricProcessModel twoCycles = CollidingModels.twoCycles();
+        assertEquals("The models should collide",
+                StructuralFingerprint.of(oneCycle), StructuralFingerprint.of(twoCycles));
+
+        converter.convert(oneCycle);
+        ActivityCentricProcessModel result = converter.convert(twoCycles);
+        ActivityCentricProcessModel repeated = converter.convert(CollidingModels.twoCycles());
+
+        assertTrue("The colliding model should be converted itself",
+                StructuralFingerprint.equalsStructurally(twoCycles, result));
+        assertTrue("The repeated conversion should return the result of the same structure",
+                StructuralFingerprint.equalsStructurally(twoCycles, repeated));
+        assertEquals("Only the repeated conversion should be a hit", 1, converter.getCache().getHitCount());
+    }
+
+    /**
+     * Given: A cache holding the result of a model under the fingerprint of another model,
+     *        which collides with it.
+     * When:  The converted instance, a separately built copy and the colliding model are looked up.
+     * Then:  The instance and the copy hit, the colliding model misses.
+     */
+    @Test
+    public void testRecognizedInstance() {
+        ConversionCache<ActivityCentricProcessModel> cache = new ConversionCache<>(10);
+        ActivityCentricProcessModel oneCycle = CollidingModels.oneCycle();
+        long fingerprint = StructuralFingerprint.of(oneCycle);
+        cache.put(fingerprint, oneCycle, ModelCopier.copy(oneCycle), oneCycle);
+        assertSame("The converted instance should be recognized", oneCycle, cache.get(fingerprint, oneCycle));
+        assertSame("A structurally equal model should hit",
+                oneCycle, cache.get(fingerprint, CollidingModels.oneCycle()));
+        assertNull("A colliding model should miss", cache.get(fingerprint, CollidingModels.twoCycles()));
+        assertEquals("Two lookups should be hits", 2, cache.getHitCount());
+    }
+
+    /**
+     * Given: A cache which holds at most two entries.
+     * When:  Three entries are added and the first one is accessed in between.
+     * Then:  The least recently used entry is evicted.
+     */
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        ConversionCache<ObjectLifeCycle> cache = new ConversionCache<>(2);
+        ObjectLifeCycle first = new ObjectLifeCycle("1");
+        ObjectLifeCycle second = new ObjectLifeCycle("2");
+        ObjectLifeCycle third = new ObjectLifeCycle("3");
+        cache.put(1, first, first, first);
+        cache.put(2, second, second, second);
+        assertNotNull("The first entry should be cached", cache.get(1, first));
+        cache.put(3, third, third, third);
+        assertEquals("There should be two entries", 2, cache.size());
+        assertNull("The least recently used entry should be evicted", cache.get(2, second));
+        assertNotNull("The recently used entry should be kept", cache.get(1, first));
+        assertEquals("One entry should have been evicted", 1, cache.getEvictionCount());
+    }
+
+    /**
+     * Given: A cache with a maximum weight based on the number of nodes.
+     * When:  A heavy model is added after a light one.
+     * Then:  Entries are evicted until the weight limit is met again.
+     */
+    @Test
+    public void testWeightBasedEviction() {
+        ConversionCache<ObjectLifeCycle> cache =
+                new ConversionCache<>(100, 4, new NodeCountWeigher(), true);
+        ObjectLifeCycle light = new ObjectLifeCycle("light");
+        ObjectLifeCycle heavy = new ObjectLifeCycle("heavy");
+        for (int i = 0; i < 2; i++) {
+            heavy.addNode(new DataObjectState("s" + i));
+        }
+        ObjectLifeCycle another = new ObjectLifeCycle("another");
+        cache.put(1, light, light, light);
+        cache.put(2, heavy, heavy, heavy);
+        assertEquals("Both entries should fit into the cache", 4, cache.getWeight());
+        cache.put(3, another, another, another);
+        assertNull("The light entry should be evicted", cache.get(1, light));
+        assertTrue("The weight should not exceed the maximum", cache.getWeight() <= 4);
+    }
+}
@@ -0,0 +1,83 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.Activity;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.DataObject;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.OLCDelta;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc.ObjectLifeCycleDiffTest.createOLC;
+import static org.junit.Assert.*;
+
+public class DeltaFragmentSynchronizerTest {
+    /**
+     * Given: An OLC init -a-> x -b-> y and its new version init -a-> x -c-> z.
+     * When:  The delta between both versions is computed and applied to the old version.
+     * Then:  The delta contains the changed states, transitions and final states only
+     *        and the result equals the new version.
+     */
+    @Test
+    public void testApplyDelta() {
+        ObjectLifeCycle oldOLC = createOLC("Order", "b", "y");
+        ObjectLifeCycle newOLC = createOLC("Order", "c", "z");
+        OLCDelta delta = OLCDelta.between(oldOLC, newOLC);
+
+        assertEquals("z should be added", Arrays.asList("z"), delta.getAddedStates());
+        assertEquals("y should be removed", Arrays.asList("y"), delta.getRemovedStates());
+        assertEquals("One transition should be added", 1, delta.getAddedTransitions().size());
+        assertEquals("One transition should be removed", 1, delta.getRemovedTransitions().size());
+        assertEquals("z should be a new final state", Arrays.asList("z"), delta.getAddedFinalStates());
+        assertEquals("y should not be final anymore", Arrays.asList("y"), delta.getRemovedFinalStates());
+
+        ObjectLifeCycle applied = delta.applyTo(oldOLC);
+        assertTrue("The applied delta should reproduce the new version",
+                OLCDelta.between(applied, newOLC).isEmpty());
+        assertEquals("The unchanged transition should keep its id",
+                "a", applied.getTransition(0).getLabel());
+        assertEquals("The start state should be kept", "init",
+                ((DataObjectState) applied.getStartNode()).getName());
+        assertEquals("The old version should not be changed", 3, oldOLC.getStateCount());
+    }
+
+    /**
+     * Given: A synchronized OLC of Order and Invoice, both having a transition a.
+     * When:  The transition b of Order is replaced by a transition c.
+     * Then:  Only the fragments of b and c change, the fragment of a is not recreated
+     *        and the fragments equal a full conversion of the new version.
+     */
+    @Test
+    public void testSynchronizeFragments() {
+        ObjectLifeCycle oldOrder = createOLC("Order", "b", "y");
+        ObjectLifeCycle newOrder = createOLC("Order", "c", "z");
+        ObjectLifeCycle invoice = createOLC("Invoice", "d", "p");
+        SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
+        sOLC.setObjectLifeCycles(Arrays.asList(oldOrder, invoice));
+        DeltaFragmentSynchronizer synchronizer = new DeltaFragmentSynchronizer(sOLC);
+        ActivityCentricProcessModel fragmentOfA = synchronizer.getFragment("a");
+        assertEquals("There should be one fragment per label", 3, synchronizer.getFragments().size());
+        assertEquals("The fragment of a should read and write both data classes",
+                4, fragmentOfA.getNodesOfClass(DataObject.class).size());
+
+        Set<String> changed = synchronizer.apply(oldOrder, newOrder);
+
+        assertEquals("Only b and c should be affected", 2, changed.size());
+        assertTrue("b should be affected", changed.contains("b"));
+        assertTrue("c should be affected", changed.contains("c"));
+        assertSame("The fragment of a should not be recreated", fragmentOfA, synchronizer.getFragment("a"));
+        assertNull("The fragment of b should be removed", synchronizer.getFragment("b"));
+        Activity activity = synchronizer.getFragment("c").<Activity>getNodesOfClass(Activity.class).get(0);
+        assertEquals("The activity should be named after the transition", "c", activity.getName());
+
+        SynchronizedObjectLifeCycle newSOLC = new SynchronizedObjectLifeCycle();
+        newSOLC.setObjectLifeCycles(Arrays.asList(newOrder, invoice));
+        assertEquals("The fragments should equal a full conversion",
+                new FragmentsFromOLCVersions().convert(newSOLC).getDistinctFragmentCount(),
+                synchronizer.getScenario().getDistinctFragmentCount());
+    }
+}
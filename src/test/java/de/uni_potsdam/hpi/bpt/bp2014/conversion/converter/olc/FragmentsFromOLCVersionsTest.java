@@ -0,0 +1,62 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.Activity;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenario;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc.ObjectLifeCycleDiffTest.createOLC;
+import static org.junit.Assert.*;
+
+public class FragmentsFromOLCVersionsTest {
+    /**
+     * Given: An incremental converter and a synchronized OLC of Order and Invoice.
+     * When:  It converts the synchronized OLC and afterwards a new version,
+     *        in which the transition b of Order has been replaced by c.
+     * Then:  The second conversion creates the fragment of c only,
+     *        the fragments of a and d are reused.
+     */
+    @Test
+    public void testIncrementalConversion() {
+        ObjectLifeCycle invoice = createOLC("Invoice", "d", "p");
+        FragmentsFromOLCVersions converter = new FragmentsFromOLCVersions();
+        converter.setIncremental(true);
+
+        Map<String, ActivityCentricProcessModel> first =
+                fragmentsByName(converter.convert(synchronize(createOLC("Order", "b", "y"), invoice)));
+        assertEquals("All fragments should be created", 3, converter.getRegeneratedFragmentCount());
+        Map<String, ActivityCentricProcessModel> second =
+                fragmentsByName(converter.convert(synchronize(createOLC("Order", "c", "z"), invoice)));
+
+        assertEquals("Only the fragment of c should be created", 1, converter.getRegeneratedFragmentCount());
+        assertEquals("There should be one fragment per label", 3, second.size());
+        assertSame("The fragment of a should be reused", first.get("a"), second.get("a"));
+        assertSame("The fragment of d should be reused", first.get("d"), second.get("d"));
+        assertFalse("The fragment of b should be removed", second.containsKey("b"));
+
+        converter.setIncremental(false);
+        converter.convert(synchronize(createOLC("Order", "c", "z"), invoice));
+        assertEquals("Without the incremental mode every fragment should be created",
+                3, converter.getRegeneratedFragmentCount());
+    }
+
+    private SynchronizedObjectLifeCycle synchronize(ObjectLifeCycle... olcs) {
+        SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
+        sOLC.setObjectLifeCycles(Arrays.asList(olcs));
+        return sOLC;
+    }
+
+    private Map<String, ActivityCentricProcessModel> fragmentsByName(Scenario scenario) {
+        Map<String, ActivityCentricProcessModel> fragments = new HashMap<>();
+        for (ActivityCentricProcessModel fragment : scenario.getFragments()) {
+            fragments.put(fragment.<Activity>getNodesOfClass(Activity.class).get(0).getName(), fragment);
+        }
+        return fragments;
+    }
+}
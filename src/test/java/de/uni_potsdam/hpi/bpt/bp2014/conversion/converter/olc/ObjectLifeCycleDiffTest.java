@@ -0,0 +1,143 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.olc;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class ObjectLifeCycleDiffTest {
+    /**
+     * Given: An old OLC init -a-> x -b-> y and a new OLC init -a-> x -c-> z.
+     * When:  The diff of both versions is created.
+     * Then:  x -c-> z is additional, x -b-> y is removed, z became final and
+     *        y is not final anymore. The diff consists of the additional transition only.
+     */
+    @Test
+    public void testDifferences() {
+        ObjectLifeCycle oldOLC = createOLC("b", "y");
+        ObjectLifeCycle newOLC = createOLC("c", "z");
+        ObjectLifeCycleDiff diff = new ObjectLifeCycleDiff(newOLC, oldOLC);
+
+        Collection<StateTransition> additional = diff.getAdditionalTransitions();
+        assertEquals("There should be one additional transition", 1, additional.size());
+        assertEquals("The additional transition should be c", "c", additional.iterator().next().getLabel());
+        Collection<StateTransition> removed = diff.getRemovedTransitions();
+        assertEquals("There should be one removed transition", 1, removed.size());
+        assertEquals("The removed transition should be b", "b", removed.iterator().next().getLabel());
+        assertEquals("z should be a new final state",
+                "z", diff.getAddedFinalStates().iterator().next().getName());
+        assertEquals("y should not be final anymore",
+                "y", diff.getRemovedFinalStates().iterator().next().getName());
+        assertEquals("The diff should contain the states of the additional transition",
+                2, diff.getStateCount());
+        assertEquals("The diff should contain the additional transition", 1, diff.getTransitionCount());
+        assertEquals("The target of the additional transition should stay final",
+                1, diff.getFinalNodes().size());
+    }
+
+    /**
+     * Given: Two OLCs with the same states, where one transition has a different label.
+     * When:  The diff of both versions is created.
+     * Then:  The relabeled transition is both additional and removed.
+     */
+    @Test
+    public void testRelabeledTransition() {
+        ObjectLifeCycleDiff diff = new ObjectLifeCycleDiff(createOLC("c", "y"), createOLC("b", "y"));
+        assertEquals("The relabeled transition should be additional", 1, diff.getAdditionalTransitions().size());
+        assertEquals("The relabeled transition should be removed", 1, diff.getRemovedTransitions().size());
+        assertTrue("The final states did not change", diff.getAddedFinalStates().isEmpty());
+    }
+
+    /**
+     * Given: Old and new versions of several data classes, one data class
+     *        exists in the new version only.
+     * When:  The versions are grouped sequentially and concurrently.
+     * Then:  Both groupings contain one diff per matching data class
+     *        in the order of the new versions.
+     */
+    @Test
+    public void testConcurrentGrouping() {
+        List<ObjectLifeCycle> oldOLCs = new ArrayList<>();
+        List<ObjectLifeCycle> newOLCs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            oldOLCs.add(createOLC("Class" + i, "b", "y"));
+            newOLCs.add(createOLC("Class" + (9 - i), "c", "z"));
+        }
+        newOLCs.add(createOLC("New", "c", "z"));
+        List<ObjectLifeCycleDiff> sequential = new OLCVersionGrouper().groupOLCVersions(oldOLCs, newOLCs);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<ObjectLifeCycleDiff> concurrent;
+        try {
+            concurrent = new OLCVersionGrouper(executor).groupOLCVersions(oldOLCs, newOLCs);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals("There should be one diff per matching data class", 10, concurrent.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("The diffs should be in the order of the new versions",
+                    newOLCs.get(i).getLabel(), concurrent.get(i).getLabel());
+            assertEquals("Both groupings should be equal",
+                    sequential.get(i).getLabel(), concurrent.get(i).getLabel());
+        }
+    }
+
+    /**
+     * Given: An old version of "Order" ending with transition b in y
+     *        and a new version ending with transition c in z.
+     * When:  The versions are grouped.
+     * Then:  The diff contains the transitions and final states of the new
+     *        version as additional and those of the old version as removed.
+     */
+    @Test
+    public void testGroupingDirection() {
+        List<ObjectLifeCycleDiff> grouped = new OLCVersionGrouper().groupOLCVersions(
+                Arrays.asList(createOLC("b", "y")), Arrays.asList(createOLC("c", "z")));
+        ObjectLifeCycleDiff diff = grouped.get(0);
+        assertEquals("The transition of the new version should be additional",
+                "c", diff.getAdditionalTransitions().iterator().next().getLabel());
+        assertEquals("The transition of the old version should be removed",
+                "b", diff.getRemovedTransitions().iterator().next().getLabel());
+        assertEquals("The final state of the new version should be added",
+                "z", diff.getAddedFinalStates().iterator().next().getName());
+        assertEquals("The final state of the old version should be removed",
+                "y", diff.getRemovedFinalStates().iterator().next().getName());
+    }
+
+    private ObjectLifeCycle createOLC(String secondLabel, String finalName) {
+        return createOLC("Order", secondLabel, finalName);
+    }
+
+    /**
+     * Creates an OLC init -a-> x -secondLabel-> finalName, which is shared by the tests of
+     * the converters working on OLC versions. Versions differ in the second transition.
+     */
+    static ObjectLifeCycle createOLC(String label, String secondLabel, String finalName) {
+        ObjectLifeCycle olc = new ObjectLifeCycle(label);
+        DataObjectState init = new DataObjectState("init");
+        DataObjectState x = new DataObjectState("x");
+        DataObjectState last = new DataObjectState(finalName);
+        connect(init, x, "a");
+        connect(x, last, secondLabel);
+        olc.addNode(init);
+        olc.addNode(x);
+        olc.addNode(last);
+        olc.setStartNode(init);
+        olc.addFinalNode(last);
+        return olc;
+    }
+
+    private static void connect(DataObjectState source, DataObjectState target, String label) {
+        StateTransition transition = new StateTransition(source, target, label);
+        source.addOutgoingEdge(transition);
+        target.addIncomingEdge(transition);
+    }
+}
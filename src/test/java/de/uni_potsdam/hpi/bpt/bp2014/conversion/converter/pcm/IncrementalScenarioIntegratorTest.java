@@ -0,0 +1,76 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.pcm;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.DataObject;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import org.junit.Test;
+
+import java.util.List;
+
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.FragmentFixtures.createFragment;
+import static org.junit.Assert.*;
+
+public class IncrementalScenarioIntegratorTest {
+    /**
+     * Given: An integrator with two fragments writing "Order" and one writing "Invoice".
+     * When:  A fragment writing "Invoice" is replaced and afterwards an order fragment is removed.
+     * Then:  The OLC of "Order" is reused after the replacement and only the
+     *        removed transition is missing after the removal.
+     */
+    @Test
+    public void testReplaceAndRemove() {
+        IncrementalScenarioIntegrator integrator = new IncrementalScenarioIntegrator();
+        ActivityCentricProcessModel ship = createFragment("Ship", "Order", "created", "shipped");
+        ActivityCentricProcessModel bill = createFragment("Bill", "Invoice", "init", "sent");
+        integrator.addFragment(createFragment("Create", "Order", "init", "created"));
+        integrator.addFragment(ship);
+        integrator.addFragment(bill);
+        ObjectLifeCycle order = integrator.getObjectLifeCycle("Order");
+        assertEquals("The order OLC should have three states", 3, order.getStateCount());
+        assertEquals("The order OLC should have two transitions", 2, order.getTransitionCount());
+
+        integrator.replaceFragment(bill, createFragment("Bill", "Invoice", "init", "paid"));
+        assertSame("The unaffected OLC should be reused", order, integrator.getObjectLifeCycle("Order"));
+        DataObjectState target = (DataObjectState) integrator.getObjectLifeCycle("Invoice")
+                .getTransition(0).getTarget();
+        assertEquals("The replaced transition should be updated", "paid", target.getName());
+
+        assertTrue("The fragment should be removed", integrator.removeFragment(ship));
+        ObjectLifeCycle updated = integrator.getObjectLifeCycle("Order");
+        assertNotSame("The affected OLC should be integrated again", order, updated);
+        assertEquals("The removed transition should be missing", 1, updated.getTransitionCount());
+        assertEquals("There should be one OLC per data class",
+                2, integrator.getSynchronizedObjectLifeCycle().getOLCs().size());
+    }
+
+    /**
+     * Given: An integrator with a fragment writing "Invoice".
+     * When:  The output state of the fragment is edited in place
+     *        and the fragment is replaced by itself.
+     * Then:  The fragment is still part of the integration and
+     *        its transition leads to the edited state.
+     */
+    @Test
+    public void testReplaceEditedFragment() {
+        IncrementalScenarioIntegrator integrator = new IncrementalScenarioIntegrator();
+        ActivityCentricProcessModel bill = createFragment("Bill", "Invoice", "init", "sent");
+        integrator.addFragment(bill);
+        assertNotNull("The invoice OLC should exist", integrator.getObjectLifeCycle("Invoice"));
+
+        List<DataObject> dataObjects = bill.getNodesOfClass(DataObject.class);
+        for (DataObject dataObject : dataObjects) {
+            if ("sent".equals(dataObject.getState().getName())) {
+                dataObject.setState(new DataObjectState("paid"));
+            }
+        }
+        integrator.replaceFragment(bill, bill);
+
+        assertEquals("The fragment should still be integrated", 1, integrator.getFragmentCount());
+        ObjectLifeCycle invoice = integrator.getObjectLifeCycle("Invoice");
+        assertNotNull("The invoice OLC should still exist", invoice);
+        assertEquals("The invoice OLC should have one transition", 1, invoice.getTransitionCount());
+        DataObjectState target = (DataObjectState) invoice.getTransition(0).getTarget();
+        assertEquals("The transition should lead to the edited state", "paid", target.getName());
+    }
+}
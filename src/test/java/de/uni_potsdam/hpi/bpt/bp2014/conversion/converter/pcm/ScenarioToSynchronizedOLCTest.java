@@ -0,0 +1,116 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.converter.pcm;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenario;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.StructuralFingerprint;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.FragmentFixtures.createFragment;
+import static org.junit.Assert.*;
+
+public class ScenarioToSynchronizedOLCTest {
+    /**
+     * Given: A scenario with several fragments, which write the data classes
+     *        "Order" and "Invoice".
+     * When:  The scenario is converted sequentially and concurrently.
+     * Then:  Both conversions create one OLC per data class and their results
+     *        are structurally equal.
+     */
+    @Test
+    public void testConcurrentConversion() {
+        SynchronizedObjectLifeCycle sequential =
+                new ScenarioToSynchronizedOLC().convert(createScenario());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        SynchronizedObjectLifeCycle concurrent;
+        try {
+            concurrent = new ScenarioToSynchronizedOLC(executor).convert(createScenario());
+        } finally {
+            executor.shutdown();
+        }
+        Set<String> labels = new HashSet<>();
+        for (ObjectLifeCycle olc : concurrent.getOLCs()) {
+            labels.add(olc.getLabel());
+        }
+        assertEquals("There should be one OLC per data class", 2, concurrent.getOLCs().size());
+        assertTrue("There should be an OLC for the orders", labels.contains("Order"));
+        assertTrue("There should be an OLC for the invoices", labels.contains("Invoice"));
+        assertEquals("Both conversions should create the same structure",
+                StructuralFingerprint.of(sequential), StructuralFingerprint.of(concurrent));
+    }
+
+    /**
+     * Given: A scenario with several fragments.
+     * When:  The fragments are integrated one at a time from an iterator.
+     * Then:  The result is structurally equal to the result of the converter.
+     */
+    @Test
+    public void testStreamingIntegration() {
+        SynchronizedObjectLifeCycle converted =
+                new ScenarioToSynchronizedOLC().convert(createScenario());
+        StreamingScenarioIntegrator integrator = new StreamingScenarioIntegrator();
+        integrator.addAll(createScenario().getFragments().iterator());
+        assertEquals("Every fragment should be integrated", 4, integrator.getFragmentCount());
+        assertEquals("The streamed integration should create the same structure",
+                StructuralFingerprint.of(converted), StructuralFingerprint.of(integrator.finish()));
+    }
+
+    /**
+     * Given: A scenario with a fragment whose activity changes the states
+     *        of an "Order" and an "Invoice" together.
+     * When:  The scenario is converted.
+     * Then:  The synchronization edges link the integrated transitions of both OLCs.
+     */
+    @Test
+    public void testSynchronizationEdges() {
+        List<ActivityCentricProcessModel> fragments = new ArrayList<>();
+        fragments.add(createFragment("Create", "Order", "init", "created"));
+        ActivityCentricProcessModel bill = createFragment("Bill", "Order", "created", "billed");
+        Activity activity = bill.<Activity>getNodesOfClass(Activity.class).get(0);
+        DataObject input = new DataObject("Invoice", new DataObjectState("init"));
+        DataObject output = new DataObject("Invoice", new DataObjectState("sent"));
+        DataFlow inputFlow = new DataFlow(input, activity);
+        input.addOutgoingEdge(inputFlow);
+        activity.addIncomingEdge(inputFlow);
+        DataFlow outputFlow = new DataFlow(activity, output);
+        activity.addOutgoingEdge(outputFlow);
+        output.addIncomingEdge(outputFlow);
+        bill.addNode(input);
+        bill.addNode(output);
+        fragments.add(bill);
+        SynchronizedObjectLifeCycle sOLC = new ScenarioToSynchronizedOLC().convert(new Scenario(fragments));
+        Set<StateTransition> integrated = new HashSet<>();
+        for (ObjectLifeCycle olc : sOLC.getOLCs()) {
+            integrated.addAll(olc.getTransitions());
+        }
+        assertEquals("Both transitions of the activity should be synchronized",
+                2, sOLC.getSynchronisationEdges().size());
+        for (Map.Entry<StateTransition, List<StateTransition>> edge
+                : sOLC.getSynchronisationEdges().entrySet()) {
+            assertEquals("The edge should belong to the activity", "Bill", edge.getKey().getLabel());
+            assertTrue("The edge should start at an integrated transition",
+                    integrated.contains(edge.getKey()));
+            assertEquals("The transition should be linked to one other transition",
+                    1, edge.getValue().size());
+            assertNotSame("The linked transition should belong to the other OLC",
+                    ((DataObjectState) edge.getKey().getSource()).getObjectLifeCycle(),
+                    ((DataObjectState) edge.getValue().get(0).getSource()).getObjectLifeCycle());
+        }
+    }
+
+    private Scenario createScenario() {
+        List<ActivityCentricProcessModel> fragments = new ArrayList<>();
+        fragments.add(createFragment("Create", "Order", "init", "created"));
+        fragments.add(createFragment("Ship", "Order", "created", "shipped"));
+        fragments.add(createFragment("Bill", "Invoice", "init", "sent"));
+        fragments.add(createFragment("Pay", "Invoice", "sent", "paid"));
+        return new Scenario(fragments);
+    }
+}
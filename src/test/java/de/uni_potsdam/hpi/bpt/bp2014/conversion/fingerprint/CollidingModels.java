@@ -0,0 +1,50 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ControlFlow;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.Gateway;
+
+/**
+ * Creates structurally different models which share a {@link StructuralFingerprint}.
+ * In a cycle of XOR gateways every gateway has one incoming and one outgoing
+ * control flow, hence the label refinement can not tell one cycle of six
+ * gateways from two cycles of three, no matter how many rounds it runs.
+ */
+public final class CollidingModels {
+
+    private CollidingModels() {
+    }
+
+    /**
+     * @return A model consisting of one cycle of six XOR gateways.
+     */
+    public static ActivityCentricProcessModel oneCycle() {
+        return gatewayCycles(6);
+    }
+
+    /**
+     * @return A model consisting of two cycles of three XOR gateways each.
+     */
+    public static ActivityCentricProcessModel twoCycles() {
+        return gatewayCycles(3, 3);
+    }
+
+    private static ActivityCentricProcessModel gatewayCycles(int... lengths) {
+        ActivityCentricProcessModel acpm = new ActivityCentricProcessModel();
+        for (int length : lengths) {
+            Gateway[] gateways = new Gateway[length];
+            for (int i = 0; i < length; i++) {
+                gateways[i] = new Gateway();
+                gateways[i].setType(Gateway.Type.XOR);
+                acpm.addNode(gateways[i]);
+            }
+            for (int i = 0; i < length; i++) {
+                Gateway target = gateways[(i + 1) % length];
+                ControlFlow controlFlow = new ControlFlow(gateways[i], target);
+                gateways[i].addOutgoingEdge(controlFlow);
+                target.addIncomingEdge(controlFlow);
+            }
+        }
+        return acpm;
+    }
+}
@@ -0,0 +1,145 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.FragmentFixtures.createFragment;
+import static org.junit.Assert.*;
+
+public class StructuralFingerprintTest {
+    /**
+     * Given: Two activity centric process models which are built separately,
+     *        their nodes are added in different orders.
+     * When:  The fingerprints of both models are computed.
+     * Then:  The fingerprints are equal.
+     */
+    @Test
+    public void testSameStructureSameFingerprint() {
+        ActivityCentricProcessModel first = createModel("Write", "written", false);
+        ActivityCentricProcessModel second = createModel("Write", "written", true);
+        assertEquals("Structurally identical models should have the same fingerprint",
+                StructuralFingerprint.of(first), StructuralFingerprint.of(second));
+    }
+
+    /**
+     * Given: Two activity centric process models which differ
+     *        only in the state of the written data object.
+     * When:  The fingerprints of both models are computed.
+     * Then:  The fingerprints differ.
+     */
+    @Test
+    public void testDifferentStateDifferentFingerprint() {
+        ActivityCentricProcessModel first = createModel("Write", "written", false);
+        ActivityCentricProcessModel second = createModel("Write", "read", false);
+        assertNotEquals("Models with different states should have different fingerprints",
+                StructuralFingerprint.of(first), StructuralFingerprint.of(second));
+    }
+
+    /**
+     * Given: Three object life cycles with the same states and transitions,
+     *        one of them marks a different start state.
+     * When:  The fingerprints are computed.
+     * Then:  Only the object life cycles with the same start state share a fingerprint.
+     */
+    @Test
+    public void testObjectLifeCycles() {
+        ObjectLifeCycle first = createOLC(Arrays.asList("init", "a", "b"), "init");
+        ObjectLifeCycle second = createOLC(Arrays.asList("b", "a", "init"), "init");
+        ObjectLifeCycle third = createOLC(Arrays.asList("init", "a", "b"), "a");
+        assertEquals("The order of the states should not matter",
+                StructuralFingerprint.of(first), StructuralFingerprint.of(second));
+        assertNotEquals("Different start states should change the fingerprint",
+                StructuralFingerprint.of(first), StructuralFingerprint.of(third));
+    }
+
+    /**
+     * Given: One cycle of six gateways and two cycles of three gateways.
+     * When:  Their fingerprints are computed and their structures compared.
+     * Then:  The fingerprints collide, but the models are not structurally equal.
+     */
+    @Test
+    public void testCollision() {
+        ActivityCentricProcessModel oneCycle = CollidingModels.oneCycle();
+        ActivityCentricProcessModel twoCycles = CollidingModels.twoCycles();
+        assertEquals("The fingerprints should collide",
+                StructuralFingerprint.of(oneCycle), StructuralFingerprint.of(twoCycles));
+        assertFalse("Different structures should not be equal",
+                StructuralFingerprint.equalsStructurally(oneCycle, twoCycles));
+        assertTrue("A cycle should equal a cycle built separately",
+                StructuralFingerprint.equalsStructurally(oneCycle, CollidingModels.oneCycle()));
+    }
+
+    /**
+     * Given: Models and object life cycles which are built separately in different orders,
+     *        and variants with a different state or start state.
+     * When:  Their structures are compared.
+     * Then:  Only the models built alike are equal.
+     */
+    @Test
+    public void testEqualsStructurally() {
+        assertTrue("The order of the nodes should not matter", StructuralFingerprint.equalsStructurally(
+                createModel("Write", "written", false), createModel("Write", "written", true)));
+        assertFalse("Different states should not be equal", StructuralFingerprint.equalsStructurally(
+                createModel("Write", "written", false), createModel("Write", "read", false)));
+        ObjectLifeCycle olc = createOLC(Arrays.asList("init", "a", "b"), "init");
+        assertTrue("The order of the states should not matter", StructuralFingerprint.equalsStructurally(
+                olc, createOLC(Arrays.asList("b", "a", "init"), "init")));
+        assertFalse("Different start states should not be equal", StructuralFingerprint.equalsStructurally(
+                olc, createOLC(Arrays.asList("init", "a", "b"), "a")));
+        assertFalse("Models of different types should not be equal", StructuralFingerprint.equalsStructurally(
+                olc, createModel("Write", "written", false)));
+    }
+
+    private ObjectLifeCycle createOLC(List<String> order, String startState) {
+        ObjectLifeCycle olc = new ObjectLifeCycle("Order");
+        DataObjectState init = new DataObjectState("init");
+        DataObjectState a = new DataObjectState("a");
+        DataObjectState b = new DataObjectState("b");
+        connect(init, a, "t1");
+        connect(a, b, "t2");
+        for (String name : order) {
+            DataObjectState state = "init".equals(name) ? init : "a".equals(name) ? a : b;
+            olc.addNode(state);
+            if (name.equals(startState)) {
+                olc.setStartNode(state);
+            }
+        }
+        olc.addFinalNode(b);
+        return olc;
+    }
+
+    private void connect(DataObjectState source, DataObjectState target, String label) {
+        StateTransition transition = new StateTransition(source, target, label);
+        source.addOutgoingEdge(transition);
+        target.addIncomingEdge(transition);
+    }
+
+    /**
+     * Creates the shared fragment for the activity writing an Order in the given state,
+     * if reverse is set its nodes are added in reverse order.
+     */
+    private ActivityCentricProcessModel createModel(String activityName, String state, boolean reverse) {
+        ActivityCentricProcessModel fragment = createFragment(activityName, "Order", "init", state);
+        if (!reverse) {
+            return fragment;
+        }
+        List<INode> nodes = new ArrayList<>(fragment.getNodes());
+        Collections.reverse(nodes);
+        ActivityCentricProcessModel acpm = new ActivityCentricProcessModel();
+        for (INode node : nodes) {
+            acpm.addNode(node);
+        }
+        acpm.setStartNode(fragment.getStartNode());
+        acpm.addFinalNode(fragment.getFinalNodes().get(0));
+        return acpm;
+    }
+}
@@ -0,0 +1,57 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.scenario.Scenario;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.StructuralFingerprint;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.FragmentFixtures.createFragment;
+import static org.junit.Assert.*;
+
+public class BPMNExporterTest {
+    /**
+     * Given: Two separately created but identical models.
+     * When:  Both are exported.
+     * Then:  The documents are equal, since the ids are derived from the structure.
+     */
+    @Test
+    public void testDeterministicIds() throws XMLStreamException {
+        assertArrayEquals("The documents should be equal",
+                export(createFragment("Check", "Order", "received", "checked", Gateway.Type.XOR)),
+                export(createFragment("Check", "Order", "received", "checked", Gateway.Type.XOR)));
+    }
+
+    /**
+     * Given: A scenario with two fragments.
+     * When:  The scenario is exported and the document is imported again.
+     * Then:  There is one process per fragment and the imported models
+     *        are structurally equal to the fragments.
+     */
+    @Test
+    public void testRoundTrip() throws XMLStreamException {
+        ActivityCentricProcessModel first = createFragment("Check", "Order", "received", "checked", Gateway.Type.XOR);
+        ActivityCentricProcessModel second = createFragment("Ship", "Order", "checked", "shipped", Gateway.Type.XOR);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BPMNExporter().export(new Scenario(Arrays.asList(first, second)), output);
+
+        List<ActivityCentricProcessModel> imported =
+                new BPMNImporter().importModels(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals("There should be one process per fragment", 2, imported.size());
+        assertEquals("The first fragment should be restored",
+                StructuralFingerprint.of(first), StructuralFingerprint.of(imported.get(0)));
+        assertEquals("The second fragment should be restored",
+                StructuralFingerprint.of(second), StructuralFingerprint.of(imported.get(1)));
+    }
+
+    private byte[] export(ActivityCentricProcessModel model) throws XMLStreamException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BPMNExporter().export(model, output);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,127 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BPMNImporterTest {
+    private static final String DOCUMENT =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<bpmn:definitions xmlns:bpmn=\"http://www.omg.org/spec/BPMN/20100524/MODEL\">\n" +
+            "  <bpmn:collaboration id=\"c\"><bpmn:participant id=\"p\" processRef=\"first\"/></bpmn:collaboration>\n" +
+            "  <bpmn:process id=\"first\">\n" +
+            "    <bpmn:sequenceFlow id=\"f1\" sourceRef=\"start\" targetRef=\"check\"/>\n" +
+            "    <bpmn:sequenceFlow id=\"f2\" sourceRef=\"check\" targetRef=\"split\"/>\n" +
+            "    <bpmn:sequenceFlow id=\"f3\" sourceRef=\"split\" targetRef=\"end\"/>\n" +
+            "    <bpmn:startEvent id=\"start\"/>\n" +
+            "    <bpmn:userTask id=\"check\" name=\"Check order\">\n" +
+            "      <bpmn:dataInputAssociation id=\"a1\"><bpmn:sourceRef>in</bpmn:sourceRef>" +
+            "<bpmn:targetRef>input</bpmn:targetRef></bpmn:dataInputAssociation>\n" +
+            "      <bpmn:dataOutputAssociation id=\"a2\"><bpmn:targetRef>out</bpmn:targetRef>" +
+            "</bpmn:dataOutputAssociation>\n" +
+            "    </bpmn:userTask>\n" +
+            "    <bpmn:exclusiveGateway id=\"split\"/>\n" +
+            "    <bpmn:endEvent id=\"end\"/>\n" +
+            "    <bpmn:dataObjectReference id=\"in\" name=\"Order [received]\" dataObjectRef=\"order\"/>\n" +
+            "    <bpmn:dataObjectReference id=\"out\" name=\"ignored\" dataObjectRef=\"order\">\n" +
+            "      <bpmn:dataState id=\"s\" name=\"checked\"/>\n" +
+            "    </bpmn:dataObjectReference>\n" +
+            "    <bpmn:dataObject id=\"order\" name=\"Order\"/>\n" +
+            "  </bpmn:process>\n" +
+            "  <bpmn:process id=\"second\">\n" +
+            "    <bpmn:startEvent id=\"start2\"/>\n" +
+            "    <bpmn:parallelGateway id=\"fork\"/>\n" +
+            "    <bpmn:endEvent id=\"end2\"/>\n" +
+            "    <bpmn:sequenceFlow id=\"g1\" sourceRef=\"start2\" targetRef=\"fork\"/>\n" +
+            "    <bpmn:sequenceFlow id=\"g2\" sourceRef=\"fork\" targetRef=\"end2\"/>\n" +
+            "  </bpmn:process>\n" +
+            "</bpmn:definitions>";
+
+    /**
+     * Given: A BPMN document with two processes, sequence flows referencing nodes declared
+     *        later on and data objects with states given by a dataState and by their name.
+     * When:  The document is imported.
+     * Then:  One model per process is created, the references are resolved and the
+     *        data objects have the name of the referenced data object and their states.
+     */
+    @Test
+    public void testImportModels() throws XMLStreamException {
+        List<ActivityCentricProcessModel> models = new BPMNImporter().importModels(streamOf(DOCUMENT));
+        assertEquals("There should be one model per process", 2, models.size());
+        ActivityCentricProcessModel model = models.get(0);
+        Event start = (Event) model.getStartNode();
+        assertNotNull("The start event should be set", start);
+        Activity activity = (Activity) start.getOutgoingEdges().get(0).getTarget();
+        assertEquals("The forward reference should be resolved", "Check order", activity.getName());
+        Gateway gateway = (Gateway) activity.getOutgoingEdgesOfType(ControlFlow.class).get(0).getTarget();
+        assertEquals("The gateway should be exclusive", Gateway.Type.XOR, gateway.getType());
+        assertSame("The gateway should lead to the end event",
+                model.getFinalNodes().get(0), gateway.getOutgoingEdges().get(0).getTarget());
+
+        DataObject input = (DataObject) activity.getIncomingEdgesOfType(DataFlow.class).get(0).getSource();
+        assertEquals("The name should be taken from the data object", "Order", input.getName());
+        assertEquals("The state should be taken from the name", "received", input.getState().getName());
+        DataObject output = (DataObject) activity.getOutgoingEdgesOfType(DataFlow.class).get(0).getTarget();
+        assertEquals("The name should be taken from the data object", "Order", output.getName());
+        assertEquals("The state should be taken from the data state", "checked", output.getState().getName());
+
+        Gateway fork = models.get(1).<Gateway>getNodesOfClass(Gateway.class).get(0);
+        assertEquals("The gateway should be parallel", Gateway.Type.AND, fork.getType());
+    }
+
+    /**
+     * Given: A process with a sequence flow referencing an unknown node.
+     * When:  The document is imported.
+     * Then:  An exception is thrown.
+     */
+    @Test(expected = XMLStreamException.class)
+    public void testUnknownReference() throws XMLStreamException {
+        new BPMNImporter().importModel(streamOf("<definitions><process id=\"p\">" +
+                "<startEvent id=\"s\"/><sequenceFlow id=\"f\" sourceRef=\"s\" targetRef=\"x\"/>" +
+                "</process></definitions>"));
+    }
+
+    /**
+     * Given: A process leading from the start event through an intermediate event to a task,
+     *        and from the task through a sub process and a call activity to the end event.
+     * When:  The document is imported.
+     * Then:  The skipped nodes are bridged, the start event leads to the task and the task
+     *        to the end event, the content of the sub process is not imported.
+     */
+    @Test
+    public void testBridgedNodes() throws XMLStreamException {
+        ActivityCentricProcessModel model = new BPMNImporter().importModel(streamOf("<definitions>" +
+                "<process id=\"p\"><startEvent id=\"s\"/>" +
+                "<sequenceFlow id=\"f1\" sourceRef=\"s\" targetRef=\"wait\"/>" +
+                "<intermediateCatchEvent id=\"wait\"><timerEventDefinition/></intermediateCatchEvent>" +
+                "<sequenceFlow id=\"f2\" sourceRef=\"wait\" targetRef=\"t\"/>" +
+                "<task id=\"t\" name=\"Ship\"/>" +
+                "<sequenceFlow id=\"f3\" sourceRef=\"t\" targetRef=\"sub\"/>" +
+                "<subProcess id=\"sub\"><startEvent id=\"s2\"/><task id=\"inner\" name=\"Inner\"/>" +
+                "<sequenceFlow id=\"i1\" sourceRef=\"s2\" targetRef=\"inner\"/></subProcess>" +
+                "<sequenceFlow id=\"f4\" sourceRef=\"sub\" targetRef=\"call\"/>" +
+                "<callActivity id=\"call\"/>" +
+                "<sequenceFlow id=\"f5\" sourceRef=\"call\" targetRef=\"e\"/>" +
+                "<endEvent id=\"e\"/></process></definitions>"));
+        assertEquals("Only the supported nodes should be imported", 3, model.getNodes().size());
+        List<ControlFlow> fromStart = model.getStartNode().getOutgoingEdgesOfType(ControlFlow.class);
+        assertEquals("The start event should have one successor", 1, fromStart.size());
+        Activity activity = (Activity) fromStart.get(0).getTarget();
+        assertEquals("The intermediate event should be bridged", "Ship", activity.getName());
+        List<ControlFlow> fromActivity = activity.getOutgoingEdgesOfType(ControlFlow.class);
+        assertEquals("The task should have one successor", 1, fromActivity.size());
+        assertSame("The sub process and call activity should be bridged",
+                model.getFinalNodes().get(0), fromActivity.get(0).getTarget());
+    }
+
+    private InputStream streamOf(String document) {
+        return new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,246 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.INode;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.Activity;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.LazyObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.*;
+
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.FragmentFixtures.createFragment;
+import static org.junit.Assert.*;
+
+public class BinaryModelWriterTest {
+    /**
+     * Given: An object life cycle with a start state, a final state,
+     *        a state without name and three transitions.
+     * When:  It is written to a channel and read again.
+     * Then:  The states, transitions, ids, start and final states are restored.
+     */
+    @Test
+    public void testObjectLifeCycleRoundTrip() throws IOException {
+        ObjectLifeCycle olc = createOrder();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(output);
+        new BinaryModelWriter().write(olc, channel);
+
+        ObjectLifeCycle copy = new BinaryModelReader().readObjectLifeCycle(
+                Channels.newChannel(new ByteArrayInputStream(output.toByteArray())));
+
+        assertEquals("The label should be restored", "Order", copy.getLabel());
+        assertEquals("All states should be restored", olc.getStateCount(), copy.getStateCount());
+        for (int i = 0; i < olc.getStateCount(); i++) {
+            assertEquals("The state " + i + " should keep its name",
+                    olc.getState(i).getName(), copy.getState(i).getName());
+            assertEquals("The state " + i + " should keep its id", i, copy.getState(i).getId());
+        }
+        assertEquals("All transitions should be restored", olc.getTransitionCount(), copy.getTransitionCount());
+        for (int i = 0; i < olc.getTransitionCount(); i++) {
+            StateTransition transition = copy.getTransition(i);
+            assertEquals("The transition " + i + " should keep its label",
+                    olc.getTransition(i).getLabel(), transition.getLabel());
+            assertEquals("The transition " + i + " should keep its source",
+                    ((DataObjectState) olc.getTransition(i).getSource()).getId(),
+                    ((DataObjectState) transition.getSource()).getId());
+            assertEquals("The transition " + i + " should keep its target",
+                    ((DataObjectState) olc.getTransition(i).getTarget()).getId(),
+                    ((DataObjectState) transition.getTarget()).getId());
+        }
+        assertEquals("The start state should be restored", "init",
+                ((DataObjectState) copy.getStartNode()).getName());
+        assertEquals("The final state should be restored", "paid",
+                ((DataObjectState) copy.getFinalNodes().get(0)).getName());
+        assertNull("The state without name should be restored", copy.getState(3).getName());
+    }
+
+    /**
+     * Given: A synchronized object life cycle of Order and Invoice
+     *        with synchronization edges in both directions.
+     * When:  Two copies are written to one channel and read again.
+     * Then:  Both records are read and the synchronization edges
+     *        reference the transitions of the restored object life cycles.
+     */
+    @Test
+    public void testSynchronizedObjectLifeCycleRoundTrip() throws IOException {
+        ObjectLifeCycle order = createOrder();
+        ObjectLifeCycle invoice = new ObjectLifeCycle("Invoice");
+        DataObjectState init = new DataObjectState("init");
+        DataObjectState sent = new DataObjectState("sent");
+        connect(init, sent, "ship");
+        invoice.addNode(init);
+        invoice.addNode(sent);
+        invoice.setStartNode(init);
+        Map<StateTransition, List<StateTransition>> edges = new HashMap<>();
+        edges.put(order.getTransition(1), Collections.singletonList(invoice.getTransition(0)));
+        edges.put(invoice.getTransition(0), Collections.singletonList(order.getTransition(1)));
+        SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
+        sOLC.setObjectLifeCycles(Arrays.asList(order, invoice));
+        sOLC.setSynchronisationEdges(edges);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(output);
+        BinaryModelWriter writer = new BinaryModelWriter();
+        writer.write(sOLC, channel);
+        writer.write(sOLC, channel);
+
+        ReadableByteChannel input = Channels.newChannel(new ByteArrayInputStream(output.toByteArray()));
+        BinaryModelReader reader = new BinaryModelReader();
+        reader.readSynchronizedObjectLifeCycle(input);
+        SynchronizedObjectLifeCycle copy = reader.readSynchronizedObjectLifeCycle(input);
+
+        assertEquals("Both object life cycles should be restored", 2, copy.getOLCs().size());
+        ObjectLifeCycle orderCopy = copy.getOLCs().get(0);
+        ObjectLifeCycle invoiceCopy = copy.getOLCs().get(1);
+        assertEquals("The object life cycles should keep their order", "Invoice", invoiceCopy.getLabel());
+        assertEquals("Both synchronization edges should be restored", 2, copy.getSynchronisationEdges().size());
+        List<StateTransition> targets = copy.getSynchronisationEdges().get(orderCopy.getTransition(1));
+        assertNotNull("The transition ship of Order should be synchronized", targets);
+        assertSame("The edge should reference the transition of the restored Invoice",
+                invoiceCopy.getTransition(0), targets.get(0));
+        assertSame("The reversed edge should reference the transition of the restored Order",
+                orderCopy.getTransition(1),
+                copy.getSynchronisationEdges().get(invoiceCopy.getTransition(0)).get(0));
+    }
+
+    /**
+     * Given: A synchronized object life cycle of Order, Invoice and Shipment
+     *        with a synchronization edge between Order and Invoice.
+     * When:  Its record is decoded lazily and the parts are accessed one after another.
+     * Then:  Only the accessed object life cycles are loaded, resolving the
+     *        synchronization edges loads Order and Invoice but not Shipment.
+     */
+    @Test
+    public void testLazySynchronizedObjectLifeCycle() throws IOException {
+        ObjectLifeCycle order = createOrder();
+        ObjectLifeCycle invoice = new ObjectLifeCycle("Invoice");
+        DataObjectState init = new DataObjectState("init");
+        DataObjectState sent = new DataObjectState("sent");
+        connect(init, sent, "ship");
+        invoice.addNode(init);
+        invoice.addNode(sent);
+        invoice.setStartNode(init);
+        ObjectLifeCycle shipment = new ObjectLifeCycle("Shipment");
+        shipment.addNode(new DataObjectState("packed"));
+        SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
+        sOLC.setObjectLifeCycles(Arrays.asList(order, invoice, shipment));
+        sOLC.setSynchronisationEdges(Collections.singletonMap(
+                order.getTransition(1), Collections.singletonList(invoice.getTransition(0))));
+
+        SynchronizedObjectLifeCycle copy = new BinaryModelReader().decodeSynchronizedObjectLifeCycleLazily(
+                new BinaryModelWriter().encode(sOLC));
+
+        LazyObjectLifeCycle orderCopy = (LazyObjectLifeCycle) copy.getOLCs().get(0);
+        LazyObjectLifeCycle invoiceCopy = (LazyObjectLifeCycle) copy.getOLCs().get(1);
+        LazyObjectLifeCycle shipmentCopy = (LazyObjectLifeCycle) copy.getOLCs().get(2);
+        assertEquals("The label should be known without loading", "Invoice", invoiceCopy.getLabel());
+        assertFalse("Order should not be loaded before it is accessed", orderCopy.isLoaded());
+        assertEquals("The states of Order should be loaded on access", 4, orderCopy.getStateCount());
+        assertEquals("The start state should be restored", "init",
+                ((DataObjectState) orderCopy.getStartNode()).getName());
+        assertFalse("Invoice should not be loaded by accessing Order", invoiceCopy.isLoaded());
+        List<StateTransition> targets = copy.getSynchronisationEdges().get(orderCopy.getTransition(1));
+        assertTrue("Resolving the edges should load Invoice", invoiceCopy.isLoaded());
+        assertSame("The edge should reference the transition of the loaded Invoice",
+                invoiceCopy.getTransition(0), targets.get(0));
+        assertFalse("Shipment should not be loaded at all", shipmentCopy.isLoaded());
+    }
+
+    /**
+     * Given: The record of an object life cycle and a record with a negative state count.
+     * When:  The record is truncated, has a wrong kind, an unknown version or a negative count.
+     * Then:  Reading it fails with an IOException.
+     */
+    @Test
+    public void testInvalidRecords() {
+        ByteBuffer record = new BinaryModelWriter().encode(createOrder());
+        BinaryModelReader reader = new BinaryModelReader();
+        ByteBuffer truncated = record.duplicate();
+        truncated.limit(record.limit() - 1);
+        ByteBuffer newerVersion = ByteBuffer.allocate(record.remaining()).put(record.duplicate());
+        newerVersion.putShort(4, (short) (BinaryFormat.VERSION + 1)).flip();
+        byte[] negativeStateCount = {0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+        ByteBuffer negativeCount = ByteBuffer.allocate(BinaryFormat.HEADER_SIZE + negativeStateCount.length)
+                .putInt(BinaryFormat.MAGIC).putShort(BinaryFormat.VERSION).put(BinaryFormat.OBJECT_LIFE_CYCLE)
+                .putInt(negativeStateCount.length).put(negativeStateCount);
+        negativeCount.flip();
+
+        assertInvalid(reader, truncated, false);
+        assertInvalid(reader, record.duplicate(), true);
+        assertInvalid(reader, newerVersion, false);
+        assertInvalid(reader, negativeCount, false);
+    }
+
+    /**
+     * Given: The record of a process model whose start node is an activity.
+     * When:  The record is decoded.
+     * Then:  Decoding fails with an IOException.
+     */
+    @Test(expected = IOException.class)
+    public void testStartNodeNotAnEvent() throws IOException {
+        final ActivityCentricProcessModel fragment = createFragment("Pay order", "Order", "init", "paid");
+        final Activity activity = fragment.<Activity>getNodesOfClass(Activity.class).get(0);
+        ActivityCentricProcessModel startingWithActivity = new ActivityCentricProcessModel() {
+            @Override
+            public INode getStartNode() {
+                return activity;
+            }
+
+            @Override
+            public List<INode> getFinalNodes() {
+                return fragment.getFinalNodes();
+            }
+        };
+        for (INode node : fragment.getNodes()) {
+            startingWithActivity.addNode(node);
+        }
+        new BinaryModelReader().decodeProcessModel(new BinaryModelWriter().encode(startingWithActivity));
+    }
+
+    private void assertInvalid(BinaryModelReader reader, ByteBuffer record, boolean synchronizedOLC) {
+        try {
+            if (synchronizedOLC) {
+                reader.decodeSynchronizedObjectLifeCycle(record);
+            } else {
+                reader.decodeObjectLifeCycle(record);
+            }
+            fail("The record should be rejected");
+        } catch (IOException e) {
+            assertNotNull("The exception should explain the problem", e.getMessage());
+        }
+    }
+
+    private ObjectLifeCycle createOrder() {
+        ObjectLifeCycle olc = new ObjectLifeCycle("Order");
+        DataObjectState init = new DataObjectState("init");
+        DataObjectState shipped = new DataObjectState("shipped");
+        DataObjectState paid = new DataObjectState("paid");
+        DataObjectState unnamed = new DataObjectState(null);
+        connect(init, unnamed, "check");
+        connect(init, shipped, "ship");
+        connect(shipped, paid, "pay");
+        olc.addNode(init);
+        olc.addNode(shipped);
+        olc.addNode(paid);
+        olc.addNode(unnamed);
+        olc.setStartNode(init);
+        olc.addFinalNode(paid);
+        return olc;
+    }
+
+    private void connect(DataObjectState source, DataObjectState target, String label) {
+        StateTransition transition = new StateTransition(source, target, label);
+        source.addOutgoingEdge(transition);
+        target.addIncomingEdge(transition);
+    }
+}
@@ -0,0 +1,149 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.*;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.StructuralFingerprint;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.*;
+
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.FragmentFixtures.createFragment;
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.io.RecordCursorTest.createOLC;
+import static org.junit.Assert.*;
+
+public class JSONImporterTest {
+    /**
+     * Given: A process model with an activity reading and writing a data object
+     *        and names which have to be escaped.
+     * When:  It is exported as JSON and imported again.
+     * Then:  The structure and the names of the model are restored.
+     */
+    @Test
+    public void testProcessModelRoundTrip() throws IOException {
+        ActivityCentricProcessModel acpm = createFragment("Pay \"order\"\n", "Order", "shipped", "paid");
+        StringWriter output = new StringWriter();
+        new JSONExporter().export(acpm, output);
+
+        ActivityCentricProcessModel copy = new JSONImporter().importProcessModel(
+                new StringReader(output.toString()));
+
+        assertEquals("All nodes should be restored", acpm.getNodes().size(), copy.getNodes().size());
+        assertEquals("The structure should be restored",
+                StructuralFingerprint.of(acpm), StructuralFingerprint.of(copy));
+        Activity activity = (Activity) copy.getStartNode().getOutgoingEdges().get(0).getTarget();
+        assertEquals("The name of the activity should be unescaped", "Pay \"order\"\n", activity.getName());
+        assertEquals("The activity should read one data object",
+                1, activity.getIncomingEdgesOfType(DataFlow.class).size());
+    }
+
+    /**
+     * Given: A synchronized object life cycle of Order and Invoice
+     *        with a synchronization edge.
+     * When:  It is exported as JSON and imported again.
+     * Then:  The object life cycles are restored and the synchronization edge
+     *        references the transitions of the restored object life cycles.
+     */
+    @Test
+    public void testSynchronizedObjectLifeCycleRoundTrip() throws IOException {
+        ObjectLifeCycle order = createOLC("Order", "init", "shipped", "paid");
+        ObjectLifeCycle invoice = createOLC("Invoice", "init", "sent");
+        Map<StateTransition, List<StateTransition>> edges = new HashMap<>();
+        edges.put(order.getTransitions().get(0), Collections.singletonList(invoice.getTransitions().get(0)));
+        SynchronizedObjectLifeCycle sOLC = new SynchronizedObjectLifeCycle();
+        sOLC.setObjectLifeCycles(Arrays.asList(order, invoice));
+        sOLC.setSynchronisationEdges(edges);
+        StringWriter output = new StringWriter();
+        new JSONExporter().export(sOLC, output);
+
+        SynchronizedObjectLifeCycle copy = new JSONImporter().importSynchronizedObjectLifeCycle(
+                new StringReader(output.toString()));
+
+        assertEquals("Both object life cycles should be restored", 2, copy.getOLCs().size());
+        ObjectLifeCycle orderCopy = copy.getOLCs().get(0);
+        assertEquals("The label should be restored", "Order", orderCopy.getLabel());
+        assertEquals("The structure should be restored",
+                StructuralFingerprint.of(order), StructuralFingerprint.of(orderCopy));
+        assertEquals("The start state should be restored", "init",
+                ((DataObjectState) orderCopy.getStartNode()).getName());
+        assertEquals("The final state should be restored", "paid",
+                ((DataObjectState) orderCopy.getFinalNodes().get(0)).getName());
+        assertEquals("The synchronization edge should be restored", 1, copy.getSynchronisationEdges().size());
+        Map.Entry<StateTransition, List<StateTransition>> edge =
+                copy.getSynchronisationEdges().entrySet().iterator().next();
+        assertSame("The edge should start at a transition of Order",
+                orderCopy.getTransitions().get(0), edge.getKey());
+        assertSame("The edge should target a transition of Invoice",
+                copy.getOLCs().get(1).getTransitions().get(0), edge.getValue().get(0));
+    }
+
+    /**
+     * Given: A handwritten object life cycle whose transitions precede the states,
+     *        without type and with an unknown member.
+     * When:  It is imported.
+     * Then:  The references are resolved and the unknown member is ignored.
+     */
+    @Test
+    public void testMembersInAnyOrder() throws IOException {
+        String document = "{\"transitions\": [{\"source\": \"b\", \"target\": \"a\", \"label\": \"back\"},\n" +
+                "                 {\"id\": \"t\", \"source\": \"a\", \"target\": \"b\"}],\n" +
+                " \"layout\": {\"x\": [1, 2.5e3, true, null]},\n" +
+                " \"finalStates\": [\"b\"], \"startState\": \"a\", \"label\": \"Order\",\n" +
+                " \"states\": [{\"id\": \"a\", \"name\": \"init\"}, {\"id\": \"b\", \"name\": \"done\"}]}";
+
+        ObjectLifeCycle olc = new JSONImporter().importObjectLifeCycle(new StringReader(document));
+
+        assertEquals("The label should be read", "Order", olc.getLabel());
+        assertEquals("Both states should be read", 2, olc.getStateCount());
+        assertEquals("Both transitions should be read", 2, olc.getTransitionCount());
+        assertEquals("The start state should be resolved", "init",
+                ((DataObjectState) olc.getStartNode()).getName());
+        assertEquals("The transitions should be connected in document order", "back",
+                olc.getTransition(0).getLabel());
+    }
+
+    /**
+     * Given: Documents with a syntax error, an unknown reference, a wrong type
+     *        and an activity as start node.
+     * When:  They are imported.
+     * Then:  IOExceptions are thrown, syntax errors name their position.
+     */
+    @Test
+    public void testInvalidDocuments() {
+        JSONImporter importer = new JSONImporter();
+        try {
+            importer.importObjectLifeCycle(new StringReader("{\"label\": \"Order\",\n \"states\" []}"));
+            fail("A missing colon should be rejected");
+        } catch (IOException e) {
+            assertTrue("The message should name the position: " + e.getMessage(),
+                    e.getMessage().endsWith("line 2 column 10"));
+        }
+        try {
+            importer.importObjectLifeCycle(new StringReader("{\"startState\": \"x\"}"));
+            fail("An unknown reference should be rejected");
+        } catch (IOException e) {
+            assertTrue("The message should name the id: " + e.getMessage(), e.getMessage().contains("x"));
+        }
+        try {
+            importer.importProcessModel(new StringReader("{\"type\": \"ObjectLifeCycle\"}"));
+            fail("A model of the wrong type should be rejected");
+        } catch (IOException e) {
+            assertTrue("The message should name the type: " + e.getMessage(),
+                    e.getMessage().contains("ObjectLifeCycle"));
+        }
+        try {
+            importer.importProcessModel(new StringReader(
+                    "{\"nodes\": [{\"id\": \"a\", \"type\": \"activity\", \"name\": \"Pay\"}],\n" +
+                    " \"startNode\": \"a\"}"));
+            fail("An activity as start node should be rejected");
+        } catch (IOException e) {
+            assertTrue("The message should name the event type: " + e.getMessage(),
+                    e.getMessage().contains("START"));
+        }
+    }
+}
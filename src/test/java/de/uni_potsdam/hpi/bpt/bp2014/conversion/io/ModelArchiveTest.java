@@ -0,0 +1,140 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.ActivityCentricProcessModel;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.fingerprint.StructuralFingerprint;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.FragmentFixtures.createFragment;
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.io.RecordCursorTest.createOLC;
+import static org.junit.Assert.*;
+
+public class ModelArchiveTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Given: An archive with the object life cycles of Order, Invoice and
+     *        Delivery and a fragment labeled Order.
+     * When:  The archive is opened and models are looked up by label and fingerprint.
+     * Then:  The entries are found and their records decode to equal models.
+     */
+    @Test
+    public void testLookup() throws IOException {
+        Path path = folder.newFile("models.bpma").toPath();
+        ObjectLifeCycle order = createOLC("Order", "init", "paid");
+        ActivityCentricProcessModel fragment = createFragment("Pay order", "Order", "init", "paid");
+        try (ModelArchiveWriter writer = new ModelArchiveWriter(path)) {
+            writer.add(order);
+            writer.add(createOLC("Invoice", "init", "sent"));
+            writer.add("Order", fragment);
+            writer.add(createOLC("Delivery", "init", "done"));
+        }
+
+        ModelArchive archive = ModelArchive.open(path);
+
+        assertEquals("All models should be part of the archive", 4, archive.getEntryCount());
+        List<Integer> entries = archive.findByLabel("Order");
+        assertEquals("The OLC and the fragment of Order should be found", 2, entries.size());
+        assertTrue("The OLC should be found first", archive.isObjectLifeCycle(entries.get(0)));
+        assertFalse("The fragment should be found second", archive.isObjectLifeCycle(entries.get(1)));
+        assertTrue("Unknown labels should not be found", archive.findByLabel("Customer").isEmpty());
+        ObjectLifeCycle copy = archive.loadObjectLifeCycle("Order");
+        assertEquals("The OLC should be decoded", StructuralFingerprint.of(order), StructuralFingerprint.of(copy));
+
+        List<Integer> fragments = archive.findByFingerprint(StructuralFingerprint.of(fragment));
+        assertEquals("The fragment should be found by its fingerprint", 1, fragments.size());
+        ActivityCentricProcessModel fragmentCopy = archive.loadProcessModel(fragments.get(0));
+        assertEquals("The fragment should be decoded", StructuralFingerprint.of(fragment),
+                StructuralFingerprint.of(fragmentCopy));
+        assertEquals("The label of the fragment should be stored", "Order", archive.getLabel(fragments.get(0)));
+    }
+
+    /**
+     * Given: An archive with the object life cycles of Order, Invoice and Delivery.
+     * When:  A synchronized OLC of Delivery and Order is assembled.
+     * Then:  It contains these two object life cycles in the requested order,
+     *        an unknown label is rejected.
+     */
+    @Test
+    public void testAssemble() throws IOException {
+        Path path = folder.newFile("olcs.bpma").toPath();
+        try (ModelArchiveWriter writer = new ModelArchiveWriter(path)) {
+            writer.add(createOLC("Order", "init", "paid"));
+            writer.add(createOLC("Invoice", "init", "sent"));
+            writer.add(createOLC("Delivery", "init", "done"));
+        }
+        ModelArchive archive = ModelArchive.open(path);
+
+        SynchronizedObjectLifeCycle sOLC = archive.assemble(Arrays.asList("Delivery", "Order"));
+
+        assertEquals("Only the requested OLCs should be loaded", 2, sOLC.getOLCs().size());
+        assertEquals("The OLCs should keep the requested order", "Delivery", sOLC.getOLCs().get(0).getLabel());
+        assertEquals("The OLCs should keep the requested order", "Order", sOLC.getOLCs().get(1).getLabel());
+        try {
+            archive.assemble(Arrays.asList("Order", "Customer"));
+            fail("An unknown label should be rejected");
+        } catch (IOException e) {
+            assertTrue("The message should name the label", e.getMessage().contains("Customer"));
+        }
+    }
+
+    /**
+     * Given: A file which is not an archive.
+     * When:  It is opened as archive.
+     * Then:  An IOException is thrown.
+     */
+    @Test(expected = IOException.class)
+    public void testInvalidArchive() throws IOException {
+        Path path = folder.newFile("invalid.bpma").toPath();
+        Files.write(path, new byte[64]);
+        ModelArchive.open(path);
+    }
+
+    /**
+     * Given: Archives whose only entry points to a record or a label outside of the file.
+     * When:  The record is loaded or the label is read.
+     * Then:  An IOException is thrown instead of a runtime exception.
+     */
+    @Test
+    public void testCorruptEntries() throws IOException {
+        Path path = folder.newFile("corrupt.bpma").toPath();
+        try (ModelArchiveWriter writer = new ModelArchiveWriter(path)) {
+            writer.add(createOLC("Order", "init", "paid"));
+        }
+        byte[] valid = Files.readAllBytes(path);
+        int entryPosition = (int) ByteBuffer.wrap(valid).getLong(20);
+        int[] fieldOffsets = {16, 24, 28};
+        for (int fieldOffset : fieldOffsets) {
+            ByteBuffer corrupt = ByteBuffer.wrap(valid.clone());
+            if (16 == fieldOffset) {
+                corrupt.putLong(entryPosition + fieldOffset, Integer.MAX_VALUE + 1L);
+            } else {
+                corrupt.putInt(entryPosition + fieldOffset, Integer.MAX_VALUE - 8);
+            }
+            Files.write(path, corrupt.array());
+            ModelArchive archive = ModelArchive.open(path);
+            try {
+                if (28 == fieldOffset) {
+                    archive.getLabel(0);
+                } else {
+                    archive.loadObjectLifeCycle(0);
+                }
+                fail("A corrupt field at " + fieldOffset + " should be rejected");
+            } catch (IOException e) {
+                assertEquals("The index should be reported as corrupt",
+                        "The index of the archive is corrupt", e.getMessage());
+            }
+        }
+    }
+}
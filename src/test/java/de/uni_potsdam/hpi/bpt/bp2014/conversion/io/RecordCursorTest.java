@@ -0,0 +1,145 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.io;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.DataObjectState;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.ObjectLifeCycle;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.StateTransition;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.*;
+
+import static de.uni_potsdam.hpi.bpt.bp2014.conversion.activity_centric.FragmentFixtures.createFragment;
+import static org.junit.Assert.*;
+
+public class RecordCursorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Given: An archive with the object life cycles of Order and Invoice
+     *        and two fragments, one of them writes Order in state paid.
+     * When:  One cursor per kind of model walks over all records.
+     * Then:  The queries answer which OLCs contain the state paid, how many
+     *        transitions each data class has and which fragment writes paid.
+     */
+    @Test
+    public void testArchiveQueries() throws IOException {
+        Path path = folder.newFile("cursor.bpma").toPath();
+        try (ModelArchiveWriter writer = new ModelArchiveWriter(path)) {
+            writer.add(createOLC("Order", "init", "shipped", "paid"));
+            writer.add(createOLC("Invoice", "init", "sent"));
+            writer.add("pay", createFragment("Pay order", "Order", "shipped", "paid"));
+            writer.add("ship", createFragment("Ship order", "Order", "init", "shipped"));
+        }
+        ModelArchive archive = ModelArchive.open(path);
+        OLCCursor olcCursor = new OLCCursor();
+        ProcessModelCursor fragmentCursor = new ProcessModelCursor();
+
+        Set<String> containingPaid = new HashSet<>();
+        Map<String, Integer> transitionCounts = new HashMap<>();
+        Set<String> writingPaid = new HashSet<>();
+        for (int entry = 0; entry < archive.getEntryCount(); entry++) {
+            if (archive.isObjectLifeCycle(entry)) {
+                olcCursor.reset(archive, entry);
+                String label = olcCursor.getString(olcCursor.getLabel());
+                transitionCounts.put(label, olcCursor.getTransitionCount());
+                if (olcCursor.containsState("paid")) {
+                    containingPaid.add(label);
+                }
+            } else {
+                fragmentCursor.reset(archive, entry);
+                if (fragmentCursor.writesState("Order", "paid")) {
+                    writingPaid.add(archive.getLabel(entry));
+                }
+            }
+        }
+
+        assertEquals("Only Order should contain paid", Collections.singleton("Order"), containingPaid);
+        assertEquals("Order should have two transitions", 2, (int) transitionCounts.get("Order"));
+        assertEquals("Invoice should have one transition", 1, (int) transitionCounts.get("Invoice"));
+        assertEquals("Only the fragment pay should write paid", Collections.singleton("pay"), writingPaid);
+    }
+
+    /**
+     * Given: The record of an object life cycle and of a fragment.
+     * When:  The cursors are reset to the records.
+     * Then:  States, transitions, nodes and data flows can be navigated by index.
+     */
+    @Test
+    public void testNavigation() throws IOException {
+        BinaryModelWriter writer = new BinaryModelWriter();
+        OLCCursor olcCursor = new OLCCursor();
+        olcCursor.reset(writer.encode(createOLC("Order", "init", "shipped", "paid")));
+        ProcessModelCursor fragmentCursor = new ProcessModelCursor();
+        fragmentCursor.reset(writer.encode(createFragment("Pay order", "Order", "shipped", "paid")));
+
+        assertEquals("Order should have three states", 3, olcCursor.getStateCount());
+        assertEquals("init should be the start state", 0, olcCursor.getStartState());
+        assertTrue("paid should be final", olcCursor.isFinalState(olcCursor.findState("paid")));
+        assertEquals("The second transition should start at shipped",
+                olcCursor.findState("shipped"), olcCursor.getTransitionSource(1));
+        assertEquals("The label of the transition should be readable", "to paid",
+                olcCursor.getString(olcCursor.getTransitionLabel(1)));
+        assertEquals("Unknown states should not be found", -1, olcCursor.findState("cancelled"));
+
+        assertEquals("The fragment should have five nodes", 5, fragmentCursor.getNodeCount());
+        assertEquals("The start event should be known", ProcessModelCursor.START_EVENT,
+                fragmentCursor.getNodeType(fragmentCursor.getStartEvent()));
+        assertEquals("There should be two control flows", 2, fragmentCursor.getControlFlowCount());
+        assertEquals("There should be two data flows", 2, fragmentCursor.getDataFlowCount());
+        assertTrue("The fragment should read shipped", fragmentCursor.readsState("Order", "shipped"));
+        assertFalse("The fragment should not read paid", fragmentCursor.readsState("Order", "paid"));
+    }
+
+    /**
+     * Given: The record of an object life cycle.
+     * When:  A process model cursor is reset to it.
+     * Then:  An IOException is thrown.
+     */
+    @Test(expected = IOException.class)
+    public void testWrongKind() throws IOException {
+        ByteBuffer record = new BinaryModelWriter().encode(createOLC("Order", "init", "paid"));
+        new ProcessModelCursor().reset(record);
+    }
+
+    /**
+     * Given: The record of an object life cycle without strings and states,
+     *        whose number of final states is the varint FF FF FF FF 0F.
+     * When:  A cursor is reset to it.
+     * Then:  The negative count is rejected with an IOException.
+     */
+    @Test(expected = IOException.class)
+    public void testNegativeCount() throws IOException {
+        byte[] payload = {0, 0, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 0};
+        ByteBuffer record = ByteBuffer.allocate(BinaryFormat.HEADER_SIZE + payload.length)
+                .putInt(BinaryFormat.MAGIC).putShort(BinaryFormat.VERSION).put(BinaryFormat.OBJECT_LIFE_CYCLE)
+                .putInt(payload.length).put(payload);
+        record.flip();
+        new OLCCursor().reset(record);
+    }
+
+    /**
+     * Creates an OLC visiting the states in the given order, the first one is the start state,
+     * the last one the final state. The helper is shared by the tests of this package.
+     */
+    static ObjectLifeCycle createOLC(String label, String... stateNames) {
+        ObjectLifeCycle olc = new ObjectLifeCycle(label);
+        DataObjectState[] states = new DataObjectState[stateNames.length];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new DataObjectState(stateNames[i]);
+            olc.addNode(states[i]);
+        }
+        for (int i = 1; i < states.length; i++) {
+            StateTransition transition = new StateTransition(states[i - 1], states[i], "to " + stateNames[i]);
+            states[i - 1].addOutgoingEdge(transition);
+            states[i].addIncomingEdge(transition);
+        }
+        olc.setStartNode(states[0]);
+        olc.addFinalNode(states[states.length - 1]);
+        return olc;
+    }
+}
@@ -0,0 +1,93 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LazyObjectLifeCycleTest {
+    /**
+     * Given: A lazy OLC whose loader adds two states and waits until
+     *        all threads have started.
+     * When:  Eight threads access the states at the same time.
+     * Then:  The loader is called once and every thread sees both states.
+     */
+    @Test
+    public void testConcurrentLoading() throws Exception {
+        final int threads = 8;
+        final CountDownLatch started = new CountDownLatch(threads);
+        final AtomicInteger loads = new AtomicInteger();
+        final LazyObjectLifeCycle olc = new LazyObjectLifeCycle("Order", new ObjectLifeCycleLoader() {
+            @Override
+            public void load(ObjectLifeCycle olc) throws IOException {
+                loads.incrementAndGet();
+                DataObjectState init = new DataObjectState("init");
+                olc.addNode(init);
+                try {
+                    started.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                olc.addNode(new DataObjectState("paid"));
+                olc.setStartNode(init);
+            }
+        });
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            tasks.add(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    started.countDown();
+                    return olc.getStateCount();
+                }
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Integer> stateCount : executor.invokeAll(tasks)) {
+                assertEquals("Every thread should see all states", 2, (int) stateCount.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals("The loader should be called once", 1, loads.get());
+        assertTrue("The OLC should be loaded", olc.isLoaded());
+    }
+
+    /**
+     * Given: A lazy OLC whose loader fails.
+     * When:  Its states are accessed twice.
+     * Then:  Both accesses throw an IllegalStateException, the loader is called once.
+     */
+    @Test
+    public void testFailingLoader() {
+        final AtomicInteger loads = new AtomicInteger();
+        LazyObjectLifeCycle olc = new LazyObjectLifeCycle("Order", new ObjectLifeCycleLoader() {
+            @Override
+            public void load(ObjectLifeCycle olc) throws IOException {
+                loads.incrementAndGet();
+                throw new IOException("The record is truncated");
+            }
+        });
+        for (int i = 0; i < 2; i++) {
+            try {
+                olc.getStateCount();
+                fail("The failure of the loader should be reported");
+            } catch (IllegalStateException e) {
+                assertTrue("The cause should be kept", e.getCause() instanceof IOException);
+            }
+        }
+        assertEquals("The loader should be called once", 1, loads.get());
+        assertFalse("The OLC should not be loaded", olc.isLoaded());
+    }
+}
@@ -0,0 +1,107 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
+
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedOLCVersionStore;
+import de.uni_potsdam.hpi.bpt.bp2014.conversion.olc.synchronize.SynchronizedObjectLifeCycle;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class OLCVersionStoreTest {
+    /**
+     * Given: Seven versions of an OLC, each one extending the chain of the preceding version.
+     * When:  They are committed to a store with a snapshot interval of 3.
+     * Then:  Only every third version is stored in full, every version can be reconstructed
+     *        and the diffs computed from the deltas equal the diffs of the full versions.
+     */
+    @Test
+    public void testReconstructVersions() {
+        OLCVersionStore store = new OLCVersionStore("Order", 3);
+        List<ObjectLifeCycle> versions = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            versions.add(createChain("Order", i));
+            assertEquals("Every changed version should get a new number", i - 1, store.commit(versions.get(i - 1)));
+        }
+        assertEquals("An unchanged version should not be stored",
+                6, store.commit(createChain("Order", 7)));
+        assertEquals("There should be one snapshot per three versions", 3, store.getSnapshotCount());
+
+        for (int i = 0; i < versions.size(); i++) {
+            ObjectLifeCycle reconstructed = store.getVersion(i);
+            assertTrue("Version " + i + " should be reconstructed",
+                    OLCDelta.between(reconstructed, versions.get(i)).isEmpty());
+            assertEquals("The start state should be reconstructed", "s0",
+                    ((DataObjectState) reconstructed.getStartNode()).getName());
+        }
+        OLCDelta diff = store.diff(1, 5);
+        OLCDelta expected = OLCDelta.between(versions.get(1), versions.get(5));
+        assertEquals("The added transitions should match",
+                expected.getAddedTransitions(), diff.getAddedTransitions());
+        assertEquals("The final states should match",
+                expected.getAddedFinalStates(), diff.getAddedFinalStates());
+        assertEquals("The replaced final state should be removed",
+                expected.getRemovedFinalStates(), diff.getRemovedFinalStates());
+        OLCDelta backwards = store.diff(5, 1);
+        assertEquals("A backward diff should remove the added transitions",
+                expected.getAddedTransitions(), backwards.getRemovedTransitions());
+        assertTrue("Applying the backward diff should restore the old version",
+                OLCDelta.between(backwards.applyTo(versions.get(5)), versions.get(1)).isEmpty());
+    }
+
+    /**
+     * Given: Two versions of a synchronized OLC, where only Order changes
+     *        and a synchronization edge between Order and Invoice is added.
+     * When:  Both versions are committed.
+     * Then:  Invoice is stored once, the synchronization edges are reconstructed
+     *        and the diff contains Order only.
+     */
+    @Test
+    public void testSynchronizedVersions() {
+        ObjectLifeCycle invoice = createChain("Invoice", 1);
+        SynchronizedObjectLifeCycle first = new SynchronizedObjectLifeCycle();
+        first.setObjectLifeCycles(Arrays.asList(createChain("Order", 1), invoice));
+        ObjectLifeCycle order = createChain("Order", 2);
+        SynchronizedObjectLifeCycle second = new SynchronizedObjectLifeCycle();
+        second.setObjectLifeCycles(Arrays.asList(order, invoice));
+        Map<StateTransition, List<StateTransition>> edges = new HashMap<>();
+        edges.put(order.getTransition(1), Arrays.asList(invoice.getTransition(0)));
+        second.setSynchronisationEdges(edges);
+
+        SynchronizedOLCVersionStore store = new SynchronizedOLCVersionStore(4);
+        store.commit(first);
+        store.commit(second);
+
+        assertEquals("Invoice should be stored once", 1, store.getStore("Invoice").getVersionCount());
+        assertTrue("The first version should have no synchronization edges",
+                store.getVersion(0).getSynchronisationEdges().isEmpty());
+        Map<StateTransition, List<StateTransition>> reconstructed = store.getVersion(1).getSynchronisationEdges();
+        assertEquals("The synchronization edge should be reconstructed", 1, reconstructed.size());
+        StateTransition source = reconstructed.keySet().iterator().next();
+        assertEquals("The edge should start at the new transition", "t1", source.getLabel());
+        assertEquals("The edge should target Invoice", "Invoice",
+                ((DataObjectState) reconstructed.get(source).get(0).getSource()).getObjectLifeCycle().getLabel());
+        Map<String, OLCDelta> diff = store.diff(0, 1);
+        assertEquals("Only Order should have changed", Collections.singleton("Order"), diff.keySet());
+    }
+
+    /**
+     * Creates an OLC s0 -t0-> s1 -t1-> ... -> sN where sN is final.
+     */
+    private ObjectLifeCycle createChain(String label, int length) {
+        ObjectLifeCycle olc = new ObjectLifeCycle(label);
+        DataObjectState previous = new DataObjectState("s0");
+        olc.addNode(previous);
+        olc.setStartNode(previous);
+        for (int i = 1; i <= length; i++) {
+            DataObjectState next = new DataObjectState("s" + i);
+            olc.addNode(next);
+            StateTransition transition = new StateTransition(previous, next, "t" + (i - 1));
+            previous.addOutgoingEdge(transition);
+            next.addIncomingEdge(transition);
+            previous = next;
+        }
+        olc.addFinalNode(previous);
+        return olc;
+    }
+}
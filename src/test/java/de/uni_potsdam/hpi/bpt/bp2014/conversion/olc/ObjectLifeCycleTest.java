@@ -0,0 +1,83 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ObjectLifeCycleTest {
+    /**
+     * Given: An OLC with the states init, shipped and paid, where the transition
+     *        init -> shipped exists before init is added and shipped -> paid
+     *        is added afterwards.
+     * When:  The states are added, one of them twice.
+     * Then:  States and transitions receive dense ids in insertion order
+     *        and adding a state twice changes no id.
+     */
+    @Test
+    public void testDenseIds() {
+        ObjectLifeCycle olc = new ObjectLifeCycle("Order");
+        DataObjectState init = new DataObjectState("init");
+        DataObjectState shipped = new DataObjectState("shipped");
+        DataObjectState paid = new DataObjectState("paid");
+        StateTransition ship = new StateTransition(init, shipped, "ship");
+        init.addOutgoingEdge(ship);
+        shipped.addIncomingEdge(ship);
+        olc.addNode(init);
+        olc.addNode(shipped);
+        olc.addNode(paid);
+        StateTransition pay = new StateTransition(shipped, paid, "pay");
+        shipped.addOutgoingEdge(pay);
+        paid.addIncomingEdge(pay);
+
+        olc.addNode(shipped);
+
+        assertEquals("Adding a state twice should not add it again", 3, olc.getStateCount());
+        assertEquals("init should keep the first id", 0, init.getId());
+        assertEquals("shipped should keep its id", 1, shipped.getId());
+        assertSame("The id of paid should resolve to paid", paid, olc.getState(paid.getId()));
+        assertEquals("Both transitions should be registered", 2, olc.getTransitionCount());
+        assertEquals("The transition of an added state should be registered first", 0, ship.getId());
+        assertSame("The id of pay should resolve to pay", pay, olc.getTransition(pay.getId()));
+        assertEquals("States outside of an OLC should have no id",
+                DataObjectState.NO_ID, new DataObjectState("new").getId());
+    }
+
+    /**
+     * Given: A state owned by an object life cycle.
+     * When:  It is added to another object life cycle.
+     * Then:  The assertion rejects it, the ids of the owner are not changed.
+     */
+    @Test
+    public void testStateOfAnotherOLC() {
+        ObjectLifeCycle owner = new ObjectLifeCycle("Order");
+        owner.addNode(new DataObjectState("init"));
+        DataObjectState shipped = new DataObjectState("shipped");
+        owner.addNode(shipped);
+        try {
+            new ObjectLifeCycle("Invoice").addNode(shipped);
+            fail("The state should not be adopted by a second OLC");
+        } catch (AssertionError e) {
+            assertSame("The owner should keep the state", owner, shipped.getObjectLifeCycle());
+            assertSame("The id should still resolve in the owner", shipped, owner.getState(shipped.getId()));
+        }
+    }
+
+    /**
+     * Given: Two transitions between the same states, one reversed, and an equal copy.
+     * When:  Their hash codes are compared.
+     * Then:  Equal transitions have equal hash codes, reversed ones do not.
+     */
+    @Test
+    public void testTransitionHashCode() {
+        DataObjectState init = new DataObjectState("init");
+        DataObjectState paid = new DataObjectState("paid");
+        StateTransition pay = new StateTransition(init, paid, "pay");
+        StateTransition copy = new StateTransition(init, paid, "pay again");
+        StateTransition reversed = new StateTransition(paid, init, "pay");
+
+        assertEquals("Transitions between the same states should be equal", pay, copy);
+        assertEquals("Equal transitions should have equal hash codes", pay.hashCode(), copy.hashCode());
+        assertNotEquals("Reversed transitions should not be equal", pay, reversed);
+        assertNotEquals("Reversed transitions should not collide", pay.hashCode(), reversed.hashCode());
+    }
+}
@@ -0,0 +1,48 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.olc;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class PersistentObjectLifeCycleTest {
+    /**
+     * Given: A persistent OLC init -a-> x -b-> y.
+     * When:  A new version is derived by replacing b with c.
+     * Then:  The old version is unchanged and the diff of both versions
+     *        contains the replaced transition and final state only.
+     */
+    @Test
+    public void testDeriveVersion() {
+        PersistentObjectLifeCycle oldVersion = PersistentObjectLifeCycle.empty("Order")
+                .withStartState("init")
+                .withTransition("init", "x", "a")
+                .withTransition("x", "y", "b")
+                .withFinalState("y");
+        PersistentObjectLifeCycle newVersion = oldVersion
+                .withoutTransition("x", "y", "b")
+                .withoutState("y")
+                .withTransition("x", "z", "c")
+                .withFinalState("z");
+
+        assertTrue("The old version should keep b", oldVersion.containsTransition("x", "y", "b"));
+        assertFalse("The new version should not contain b", newVersion.containsTransition("x", "y", "b"));
+        assertSame("Adding an existing transition should keep the version",
+                newVersion, newVersion.withTransition("x", "z", "c"));
+        OLCDelta delta = oldVersion.diff(newVersion);
+        assertEquals("z should be added", Arrays.asList("z"), delta.getAddedStates());
+        assertEquals("y should be removed", Arrays.asList("y"), delta.getRemovedStates());
+        assertEquals("One transition should be added", 1, delta.getAddedTransitions().size());
+        assertEquals("One transition should be removed", 1, delta.getRemovedTransitions().size());
+        assertEquals("z should be final", Arrays.asList("z"), delta.getAddedFinalStates());
+
+        ObjectLifeCycle olc = newVersion.toObjectLifeCycle();
+        assertEquals("The start state should be converted", "init",
+                ((DataObjectState) olc.getStartNode()).getName());
+        assertTrue("The converted OLC should equal the persistent version",
+                PersistentObjectLifeCycle.of(olc).diff(newVersion).isEmpty());
+        assertTrue("Applying the delta should reproduce the new version",
+                oldVersion.apply(delta).diff(newVersion).isEmpty());
+    }
+}
@@ -0,0 +1,71 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.util;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+public class CompactEdgeSetTest {
+    /**
+     * Given: An empty compact edge set.
+     * When:  The same elements are added twice.
+     * Then:  Duplicates are suppressed and the insertion order is kept.
+     */
+    @Test
+    public void testInlineDuplicates() {
+        CompactEdgeSet<String> set = new CompactEdgeSet<>();
+        assertTrue("The first element should be added", set.add("a"));
+        assertTrue("The second element should be added", set.add("b"));
+        assertFalse("A duplicate must not be added", set.add(new String("a")));
+        assertEquals("There should be two elements", 2, set.size());
+        Iterator<String> iterator = set.iterator();
+        assertEquals("The elements should keep their order", "a", iterator.next());
+        assertEquals("The elements should keep their order", "b", iterator.next());
+        assertFalse("There should be no further element", iterator.hasNext());
+    }
+
+    /**
+     * Given: A compact edge set.
+     * When:  More elements than the threshold are added and some are removed.
+     * Then:  The set behaves like a hash set, no element gets lost.
+     */
+    @Test
+    public void testGrowBeyondThreshold() {
+        CompactEdgeSet<Integer> set = new CompactEdgeSet<>();
+        for (int i = 0; i < CompactEdgeSet.THRESHOLD * 3; i++) {
+            set.add(i);
+            set.add(i);
+        }
+        assertEquals("Every element should be contained once",
+                CompactEdgeSet.THRESHOLD * 3, set.size());
+        for (int i = 0; i < CompactEdgeSet.THRESHOLD * 3; i += 2) {
+            assertTrue("The element should be removed", set.remove(i));
+        }
+        assertEquals("Half of the elements should remain",
+                CompactEdgeSet.THRESHOLD * 3 / 2, set.size());
+        assertTrue("Odd elements should remain", set.contains(1));
+        assertFalse("Even elements should be removed", set.contains(2));
+    }
+
+    /**
+     * Given: A compact edge set with inline elements.
+     * When:  Elements are removed using the iterator.
+     * Then:  Only the removed elements are missing afterwards.
+     */
+    @Test
+    public void testIteratorRemove() {
+        CompactEdgeSet<String> set = new CompactEdgeSet<>();
+        set.add("a");
+        set.add("b");
+        set.add("c");
+        Iterator<String> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (!"b".equals(iterator.next())) {
+                iterator.remove();
+            }
+        }
+        assertEquals("Only one element should remain", 1, set.size());
+        assertTrue("\"b\" should remain", set.contains("b"));
+    }
+}
@@ -0,0 +1,84 @@
+package de.uni_potsdam.hpi.bpt.bp2014.conversion.util;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PersistentHashSetTest {
+    /**
+     * Given: A persistent hash set and a hash set.
+     * When:  The same random elements are added to and removed from both,
+     *        some of them having colliding hashes.
+     * Then:  Both sets contain the same elements after every step
+     *        and the older versions stay unchanged.
+     */
+    @Test
+    public void testBehavesLikeHashSet() {
+        Random random = new Random(42);
+        PersistentHashSet<Object> set = PersistentHashSet.empty();
+        Set<Object> expected = new HashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            Object element = random.nextBoolean() ?
+                    Integer.valueOf(random.nextInt(500)) : new Colliding(random.nextInt(20));
+            PersistentHashSet<Object> before = set;
+            int sizeBefore = before.size();
+            if (random.nextInt(3) == 0) {
+                set = set.minus(element);
+                expected.remove(element);
+            } else {
+                set = set.plus(element);
+                expected.add(element);
+            }
+            assertEquals("The sizes should match", expected.size(), set.size());
+            assertEquals("The element should be found", expected.contains(element), set.contains(element));
+            assertEquals("The old version should not change", sizeBefore, before.size());
+        }
+        assertEquals("Both sets should contain the same elements", expected, new HashSet<>(set));
+    }
+
+    /**
+     * Given: A large persistent hash set and a version derived by a few changes.
+     * When:  Both versions are compared.
+     * Then:  Exactly the changed elements are reported.
+     */
+    @Test
+    public void testDiff() {
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            elements.add(i);
+        }
+        PersistentHashSet<Integer> oldVersion = PersistentHashSet.of(elements);
+        PersistentHashSet<Integer> newVersion = oldVersion.minus(17).minus(4711).plus(-1).plus(20000);
+        List<Integer> removed = new ArrayList<>();
+        List<Integer> added = new ArrayList<>();
+        oldVersion.diff(newVersion, removed, added);
+        assertEquals("The removed elements should be reported",
+                new HashSet<>(Arrays.asList(17, 4711)), new HashSet<>(removed));
+        assertEquals("The added elements should be reported",
+                new HashSet<>(Arrays.asList(-1, 20000)), new HashSet<>(added));
+        assertSame("Adding a contained element should keep the set", newVersion, newVersion.plus(20000));
+    }
+
+    /**
+     * An element whose hash is shared by all instances.
+     */
+    private static class Colliding {
+        private final int value;
+
+        Colliding(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Colliding && ((Colliding) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 7;
+        }
+    }
+}